@@ -0,0 +1,111 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.benchmarks;
+
+import com.adeptj.modules.commons.crypto.CipherPool;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.crypto.Cipher;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.GCMParameterSpec;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.security.SecureRandom;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JCA provider lookup on every call with the per thread {@link CipherPool} for a small AES/GCM
+ * encryption, which is what AesGcmCryptoService does per call, and for the PBKDF2 SecretKeyFactory lookup.
+ * <p>
+ * Run with 1, 8 and 32 threads to see the contention on the provider lookup, e.g.
+ * java -jar benchmarks/target/benchmarks.jar CipherPoolBenchmark -t 32
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CipherPoolBenchmark {
+
+    private static final String CIPHER_ALGO = "AES/GCM/NoPadding";
+
+    private static final String PBE_ALGO = "PBKDF2WithHmacSHA256";
+
+    private SecretKeySpec key;
+
+    private byte[] iv;
+
+    private byte[] plainBytes;
+
+    private long counter;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        SecureRandom random = new SecureRandom();
+        byte[] keyBytes = new byte[16];
+        random.nextBytes(keyBytes);
+        this.key = new SecretKeySpec(keyBytes, "AES");
+        this.plainBytes = new byte[64];
+        random.nextBytes(this.plainBytes);
+        this.iv = new byte[12];
+    }
+
+    @Benchmark
+    public byte[] encryptWithNewCipher() throws GeneralSecurityException {
+        return this.encrypt(Cipher.getInstance(CIPHER_ALGO));
+    }
+
+    @Benchmark
+    public byte[] encryptWithPooledCipher() throws GeneralSecurityException {
+        return this.encrypt(CipherPool.getCipher(CIPHER_ALGO));
+    }
+
+    @Benchmark
+    public SecretKeyFactory newSecretKeyFactory() throws GeneralSecurityException {
+        return SecretKeyFactory.getInstance(PBE_ALGO);
+    }
+
+    @Benchmark
+    public SecretKeyFactory pooledSecretKeyFactory() throws GeneralSecurityException {
+        return CipherPool.getSecretKeyFactory(PBE_ALGO);
+    }
+
+    private byte[] encrypt(Cipher cipher) throws GeneralSecurityException {
+        // GCM refuses iv reuse with the same key in encrypt mode, so a fresh iv per call like the real service.
+        ByteBuffer.wrap(this.iv).putLong(4, ++this.counter);
+        cipher.init(Cipher.ENCRYPT_MODE, this.key, new GCMParameterSpec(128, this.iv));
+        return cipher.doFinal(this.plainBytes);
+    }
+}
@@ -0,0 +1,93 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.benchmarks;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.NoSuchAlgorithmException;
+import java.security.PublicKey;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares building a {@link JwtParser} for every verification, what JwtServiceImpl.verifyJwt used to do,
+ * with verifying through a parser built once, for RS256, RS384 and RS512 with a 2048 bit key.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtParserBenchmark {
+
+    @Param({"RS256", "RS384", "RS512"})
+    private String algorithm;
+
+    private PublicKey publicKey;
+
+    private JwtParser sharedParser;
+
+    private String jwt;
+
+    @Setup(Level.Trial)
+    public void setup() throws NoSuchAlgorithmException {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(2048);
+        KeyPair keyPair = generator.generateKeyPair();
+        this.publicKey = keyPair.getPublic();
+        this.sharedParser = Jwts.parserBuilder().setSigningKey(this.publicKey).build();
+        this.jwt = Jwts.builder()
+                .setSubject("AdeptJ")
+                .setIssuer("AdeptJ Runtime")
+                .signWith(keyPair.getPrivate(), SignatureAlgorithm.forName(this.algorithm))
+                .compact();
+    }
+
+    @Benchmark
+    public Jws<Claims> verifyWithPerCallParser() {
+        return Jwts.parserBuilder().setSigningKey(this.publicKey).build().parseClaimsJws(this.jwt);
+    }
+
+    @Benchmark
+    public Jws<Claims> verifyWithSharedParser() {
+        return this.sharedParser.parseClaimsJws(this.jwt);
+    }
+}
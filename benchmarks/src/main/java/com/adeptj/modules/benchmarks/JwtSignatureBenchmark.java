@@ -0,0 +1,116 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.benchmarks;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.GeneralSecurityException;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.PrivateKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the JWT sign and verify throughput of the supported signature algorithms, RSA with a 2048 bit key
+ * and ECDSA on the curve mandated by each algorithm, so that the cost of migrating to EC keys can be judged.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtSignatureBenchmark {
+
+    @Param({"RS256", "RS384", "RS512", "ES256", "ES384", "ES512"})
+    private String algorithm;
+
+    private SignatureAlgorithm signatureAlgorithm;
+
+    private PrivateKey privateKey;
+
+    private JwtParser parser;
+
+    private String jwt;
+
+    @Setup(Level.Trial)
+    public void setup() throws GeneralSecurityException {
+        this.signatureAlgorithm = SignatureAlgorithm.forName(this.algorithm);
+        KeyPair keyPair = newKeyPair(this.signatureAlgorithm);
+        this.privateKey = keyPair.getPrivate();
+        this.parser = Jwts.parserBuilder().setSigningKey(keyPair.getPublic()).build();
+        this.jwt = this.sign();
+    }
+
+    @Benchmark
+    public String sign() {
+        return Jwts.builder()
+                .setSubject("AdeptJ")
+                .setIssuer("AdeptJ Runtime")
+                .signWith(this.privateKey, this.signatureAlgorithm)
+                .compact();
+    }
+
+    @Benchmark
+    public Jws<Claims> verify() {
+        return this.parser.parseClaimsJws(this.jwt);
+    }
+
+    private static KeyPair newKeyPair(SignatureAlgorithm algorithm) throws GeneralSecurityException {
+        if (algorithm.isRsa()) {
+            KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+            generator.initialize(2048);
+            return generator.generateKeyPair();
+        }
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        switch (algorithm) {
+            case ES256:
+                generator.initialize(new ECGenParameterSpec("secp256r1"));
+                break;
+            case ES384:
+                generator.initialize(new ECGenParameterSpec("secp384r1"));
+                break;
+            default:
+                generator.initialize(new ECGenParameterSpec("secp521r1"));
+                break;
+        }
+        return generator.generateKeyPair();
+    }
+}
@@ -0,0 +1,150 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.data.jpa.core;
+
+import com.adeptj.modules.benchmarks.entity.Person;
+import com.adeptj.modules.data.jpa.criteria.Condition;
+import com.adeptj.modules.data.jpa.criteria.ReadCriteria;
+import com.adeptj.modules.data.jpa.criteria.SortOrder;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Persistence;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Root;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a query served by the {@link CriteriaQueryCache}, i.e. a named query created by its shape, with the
+ * same CriteriaQuery built and translated by EclipseLink on every call, which is what the *Criteria based
+ * repository methods did before the cache.
+ * <p>
+ * The cache is package private, hence this package. The queries run against an in-memory H2 database, so the
+ * execute benchmarks are dominated by the query preparation rather than by the I/O, e.g.
+ * java -jar benchmarks/target/benchmarks.jar CriteriaQueryCacheBenchmark -prof gc
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class CriteriaQueryCacheBenchmark {
+
+    private static final int PERSONS = 100;
+
+    private static final String LAST_NAME = "Doe";
+
+    private static final int MIN_AGE = 30;
+
+    private EntityManagerFactory emf;
+
+    private EntityManager em;
+
+    private CriteriaQueryCache cache;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.emf = Persistence.createEntityManagerFactory("AdeptJ_Benchmarks_PU");
+        this.cache = new CriteriaQueryCache(this.emf);
+        this.em = this.emf.createEntityManager();
+        this.em.getTransaction().begin();
+        for (long id = 1; id <= PERSONS; id++) {
+            Person person = new Person();
+            person.setId(id);
+            person.setFirstName("John" + id);
+            person.setLastName(id % 2 == 0 ? LAST_NAME : "Roe");
+            person.setEmail("john.doe" + id + "@adeptj.com");
+            person.setAge((int) (id % 60));
+            this.em.persist(person);
+        }
+        this.em.getTransaction().commit();
+        this.em.clear();
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        this.em.close();
+        this.emf.close();
+    }
+
+    @Benchmark
+    public TypedQuery<Person> createCachedQuery() {
+        return this.cache.read(this.em, criteria());
+    }
+
+    @Benchmark
+    public TypedQuery<Person> createCriteriaQuery() {
+        return this.criteriaQuery();
+    }
+
+    @Benchmark
+    public List<Person> executeCachedQuery() {
+        return this.cache.read(this.em, criteria()).getResultList();
+    }
+
+    @Benchmark
+    public List<Person> executeCriteriaQuery() {
+        return this.criteriaQuery().getResultList();
+    }
+
+    /**
+     * The criteria is built per call as the repository callers do, only its shape is cached.
+     */
+    private static ReadCriteria<Person> criteria() {
+        return ReadCriteria.builder(Person.class)
+                .addCriteriaAttribute("lastName", LAST_NAME)
+                .addCondition(Condition.greaterThanOrEqualTo("age", MIN_AGE))
+                .addSortOrder(SortOrder.asc("email"))
+                .build();
+    }
+
+    private TypedQuery<Person> criteriaQuery() {
+        CriteriaBuilder cb = this.em.getCriteriaBuilder();
+        CriteriaQuery<Person> cq = cb.createQuery(Person.class);
+        Root<Person> root = cq.from(Person.class);
+        ParameterExpression<String> lastName = cb.parameter(String.class);
+        ParameterExpression<Integer> age = cb.parameter(Integer.class);
+        return this.em.createQuery(cq.select(root)
+                .where(cb.equal(root.get("lastName"), lastName), cb.greaterThanOrEqualTo(root.get("age"), age))
+                .orderBy(cb.asc(root.get("email"))))
+                .setParameter(lastName, LAST_NAME)
+                .setParameter(age, MIN_AGE);
+    }
+}
@@ -0,0 +1,106 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.security.jwt.internal;
+
+import io.jsonwebtoken.io.Deserializer;
+import io.jsonwebtoken.io.Serializer;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the Json-B claims codec with the Jackson streaming one on a typical flat claim set.
+ * <p>
+ * The codecs are package private, hence this package. Run with the GC profiler to see the allocation per
+ * operation(gc.alloc.rate.norm), e.g. java -jar benchmarks/target/benchmarks.jar JwtClaimsCodecBenchmark -prof gc
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class JwtClaimsCodecBenchmark {
+
+    private Map<String, Object> claims;
+
+    private byte[] claimsJson;
+
+    private Serializer<Map<String, ?>> jsonbSerializer;
+
+    private Serializer<Map<String, ?>> jacksonSerializer;
+
+    private Deserializer<Map<String, ?>> jsonbDeserializer;
+
+    private Deserializer<Map<String, ?>> jacksonDeserializer;
+
+    @Setup(Level.Trial)
+    public void setup() {
+        this.claims = new LinkedHashMap<>();
+        this.claims.put("sub", "john.doe@adeptj.com");
+        this.claims.put("iss", "AdeptJ Runtime");
+        this.claims.put("jti", "6f1c2a0e-8a55-4b8e-9f0e-0c6b1f3e9d2a");
+        this.claims.put("iat", 1700000000L);
+        this.claims.put("exp", 1700043200L);
+        this.claims.put("roles", List.of("user", "admin"));
+        this.claims.put("mfa", Boolean.TRUE);
+        this.jsonbSerializer = new JwtSerializer();
+        this.jacksonSerializer = new JacksonJwtSerializer();
+        this.jsonbDeserializer = new JwtDeserializer();
+        this.jacksonDeserializer = new JacksonJwtDeserializer();
+        this.claimsJson = this.jacksonSerializer.serialize(this.claims);
+    }
+
+    @Benchmark
+    public byte[] serializeJsonb() {
+        return this.jsonbSerializer.serialize(this.claims);
+    }
+
+    @Benchmark
+    public byte[] serializeJackson() {
+        return this.jacksonSerializer.serialize(this.claims);
+    }
+
+    @Benchmark
+    public Map<String, ?> deserializeJsonb() {
+        return this.jsonbDeserializer.deserialize(this.claimsJson);
+    }
+
+    @Benchmark
+    public Map<String, ?> deserializeJackson() {
+        return this.jacksonDeserializer.deserialize(this.claimsJson);
+    }
+}
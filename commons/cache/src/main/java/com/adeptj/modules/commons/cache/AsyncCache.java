@@ -0,0 +1,71 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache;
+
+import org.osgi.annotation.versioning.ProviderType;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+/**
+ * Asynchronous view of a {@link Cache}, the misses are loaded on the cache loader pool so that the caller thread
+ * is never blocked on a slow {@link CacheLoader}.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+@ProviderType
+public interface AsyncCache<K, V> {
+
+    /**
+     * Gets the value for the given key, loading it through the registered {@link CacheLoader} on a miss.
+     * <p>
+     * Concurrent misses for the same key share a single load.
+     *
+     * @param key the key whose value is to be returned.
+     * @return the future value which completes with null if there is no value or no {@link CacheLoader}.
+     */
+    CompletableFuture<V> getAsync(K key);
+
+    /**
+     * Gets the value for the given key, computing it through the given mappingFunction on a miss.
+     *
+     * @param key             the key whose value is to be returned.
+     * @param mappingFunction the function to compute the value.
+     * @return the future value.
+     */
+    CompletableFuture<V> getAsync(K key, Function<? super K, ? extends V> mappingFunction);
+
+    /**
+     * Gets the values for the given keys, the misses are loaded in bulk through the registered {@link CacheLoader}.
+     *
+     * @param keys the keys whose values are to be returned.
+     * @return the future values, the keys without a value are left out.
+     */
+    CompletableFuture<Map<K, V>> getAllAsync(Iterable<K> keys);
+
+    /**
+     * Returns the synchronous {@link Cache} this is a view of.
+     *
+     * @return the synchronous {@link Cache}.
+     */
+    Cache<K, V> synchronous();
+}
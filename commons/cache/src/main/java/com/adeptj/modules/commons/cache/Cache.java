@@ -21,9 +21,11 @@
 package com.adeptj.modules.commons.cache;
 
 import java.util.Collection;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.function.Function;
+import java.util.stream.Stream;
 
 /**
  * The {@link Cache}
@@ -41,23 +43,126 @@ public interface Cache<K, V> {
 
     V get(K key, Function<? super K, ? extends V> mappingFunction);
 
+    /**
+     * Gets the value for the given key, loading it through the registered {@link CacheLoader} on a miss.
+     *
+     * @param key the key whose value is to be returned.
+     * @return the value or null if there is none or no {@link CacheLoader} is registered for this cache.
+     */
+    V get(K key);
+
     V getIfPresent(K key);
 
     Map<K, V> getAllPresent(Iterable<K> keys);
 
+    /**
+     * Gets a read-only live view of all the entries, iterating it is weakly consistent and never blocks writers.
+     *
+     * @return the entries view.
+     */
     Map<K, V> getAll();
 
+    /**
+     * Gets the values for the given keys, the misses are loaded with a single {@link CacheLoader#loadAll} call.
+     *
+     * @param keys the keys whose values are to be returned.
+     * @return the values, the keys without a value are left out.
+     */
+    Map<K, V> getAll(Iterable<K> keys);
+
+    /**
+     * Gets the values for the given keys, the misses are loaded with a single call of the given bulk loader.
+     * <p>
+     * Concurrent callers share the in-flight loads, a key being loaded by one caller is waited for by the others
+     * instead of being loaded again. See {@link CacheUtil#toBulkLoader} for adapting an IN query.
+     *
+     * @param keys       the keys whose values are to be returned.
+     * @param bulkLoader loads the values of the missing keys, the keys without a value can be left out.
+     * @return the values, the keys without a value are left out.
+     */
+    Map<K, V> getAll(Iterable<K> keys, Function<Set<K>, Map<K, V>> bulkLoader);
+
+    /**
+     * Reloads the value for the given key asynchronously through the registered {@link CacheLoader}, the old value
+     * is served till the reload completes.
+     *
+     * @param key the key whose value is to be refreshed.
+     */
+    void refresh(K key);
+
+    /**
+     * Returns the asynchronous view of this cache.
+     *
+     * @return the {@link AsyncCache} view.
+     */
+    AsyncCache<K, V> async();
+
     void put(K key, V value);
 
+    /**
+     * Puts all the given entries, just like {@link #put} for each of them.
+     *
+     * @param entries the entries to be cached.
+     */
+    void putAll(Map<? extends K, ? extends V> entries);
+
     void remove(K key);
 
     void remove(Iterable<K> keys);
 
     void evict();
 
+    /**
+     * Gets the exact number of entries, pending maintenance is done first so this takes the maintenance lock.
+     *
+     * @return the number of entries.
+     */
     long size();
 
+    /**
+     * Gets the approximate number of entries without doing any pending maintenance, therefore it may still count
+     * entries which are expired or about to be evicted. Cheap enough to be called on every request.
+     *
+     * @return the approximate number of entries.
+     */
+    long estimatedSize();
+
+    /**
+     * Gets the current statistics of this cache.
+     *
+     * @return the {@link CacheStats}.
+     */
+    CacheStats stats();
+
+    /**
+     * Gets a read-only live view of the keys, iterating it is weakly consistent and never blocks writers.
+     *
+     * @return the keys view.
+     */
     Set<K> keys();
 
+    /**
+     * Gets a read-only live view of the values, iterating it is weakly consistent and never blocks writers.
+     *
+     * @return the values view.
+     */
     Collection<V> values();
+
+    /**
+     * Streams the entries without copying the cache, e.g. to scan or dump it. The stream is weakly consistent:
+     * it never blocks writers, reflects some of the writes made while streaming and each entry is a snapshot taken
+     * when it is reached. The stream can be made parallel.
+     *
+     * @return the stream of entries.
+     */
+    Stream<Map.Entry<K, V>> stream();
+
+    /**
+     * Streams the entries in batches of up to the given size, just like {@link #stream()}, so that a large cache
+     * can be exported page by page while only one batch per consumer is held.
+     *
+     * @param batchSize the maximum number of entries per batch.
+     * @return the stream of batches.
+     */
+    Stream<List<Map.Entry<K, V>>> batches(int batchSize);
 }
@@ -0,0 +1,58 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Removes the key of a repository method from the named {@link Cache} once the method returns normally, or evicts
+ * the whole cache.
+ * <p>
+ * The method is proxied and its key derived just like for {@link Cached}, the removal goes through the cache and
+ * is therefore propagated to the cluster when the cache has cluster invalidation enabled.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface CacheEvict {
+
+    /**
+     * The name of the cache to remove the key from.
+     */
+    String cache();
+
+    /**
+     * The key expression, see {@link Cached}.
+     */
+    String key() default "";
+
+    /**
+     * Whether to evict all the entries of the cache instead of a single key.
+     */
+    boolean allEntries() default false;
+}
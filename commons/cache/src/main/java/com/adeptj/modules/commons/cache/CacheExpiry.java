@@ -0,0 +1,74 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.osgi.annotation.versioning.ConsumerType;
+
+/**
+ * Computes the per-entry expiry of a {@link Cache} configured with variable expiry.
+ * <p>
+ * Expiries are registered as OSGi services with the {@link #CACHE_NAME} service property set to the name of the cache
+ * they serve. All the durations are in nanoseconds.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+@ConsumerType
+public interface CacheExpiry<K, V> {
+
+    /**
+     * Service property which binds a {@link CacheExpiry} to the cache of the same name.
+     */
+    String CACHE_NAME = "cache.name";
+
+    /**
+     * Computes the time to live of a newly written entry.
+     *
+     * @param key   the key of the entry.
+     * @param value the value of the entry.
+     * @return the time to live in nanoseconds.
+     */
+    long expireAfterCreate(@NotNull K key, @NotNull V value);
+
+    /**
+     * Computes the time to live of a replaced entry, by default the same as for a new one.
+     *
+     * @param key             the key of the entry.
+     * @param value           the new value of the entry.
+     * @param currentDuration the remaining time to live in nanoseconds.
+     * @return the time to live in nanoseconds.
+     */
+    default long expireAfterUpdate(@NotNull K key, @NotNull V value, long currentDuration) {
+        return this.expireAfterCreate(key, value);
+    }
+
+    /**
+     * Computes the time to live of an entry after it is read, by default a read doesn't change it.
+     *
+     * @param key             the key of the entry.
+     * @param value           the value of the entry.
+     * @param currentDuration the remaining time to live in nanoseconds.
+     * @return the time to live in nanoseconds.
+     */
+    default long expireAfterRead(@NotNull K key, @NotNull V value, long currentDuration) {
+        return currentDuration;
+    }
+}
@@ -0,0 +1,61 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache;
+
+import org.jetbrains.annotations.Nullable;
+import org.osgi.annotation.versioning.ConsumerType;
+
+import java.io.IOException;
+import java.util.function.Consumer;
+
+/**
+ * Transport which carries the cache invalidation messages to the other nodes of a cluster.
+ * <p>
+ * The messages are opaque and self-contained, a transport only has to deliver them to the receivers of all the other
+ * nodes; delivering a message back to the node sending it is harmless.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+@ConsumerType
+public interface CacheInvalidationTransport {
+
+    /**
+     * Sends the given message to the other nodes.
+     *
+     * @param message the encoded invalidation message.
+     * @throws IOException if the message couldn't be sent.
+     */
+    void send(byte[] message) throws IOException;
+
+    /**
+     * Sets the receiver for the messages sent by the other nodes, null to stop receiving.
+     *
+     * @param receiver the message receiver.
+     */
+    void setReceiver(@Nullable Consumer<byte[]> receiver);
+
+    /**
+     * The maximum size of a single message, larger batches are split across the messages.
+     *
+     * @return the maximum message size in bytes.
+     */
+    int getMaxMessageSize();
+}
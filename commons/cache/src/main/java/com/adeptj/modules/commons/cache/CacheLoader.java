@@ -0,0 +1,86 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+import org.osgi.annotation.versioning.ConsumerType;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * A {@link CacheLoader} computes the values of a {@link Cache} on a miss or a refresh.
+ * <p>
+ * Loaders are registered as OSGi services with the {@link #CACHE_NAME} service property set to the name of the
+ * cache they back, the cache picks the loader up (and drops it) dynamically.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+@ConsumerType
+public interface CacheLoader<K, V> {
+
+    /**
+     * Service property which binds a {@link CacheLoader} to the cache of the same name.
+     */
+    String CACHE_NAME = "cache.name";
+
+    /**
+     * Computes the value for the given key.
+     *
+     * @param key the key whose value is to be loaded.
+     * @return the value or null if there is none, null values are not cached.
+     * @throws Exception if the value can't be loaded, rethrown as {@link CacheLoaderException}.
+     */
+    @Nullable V load(@NotNull K key) throws Exception; // NOSONAR
+
+    /**
+     * Computes the values for the given keys in one go, loaders backed by a database should override this and
+     * fetch all the keys in a single round trip.
+     *
+     * @param keys the keys whose values are to be loaded.
+     * @return the loaded values, the keys without a value can be left out.
+     * @throws Exception if the values can't be loaded, rethrown as {@link CacheLoaderException}.
+     */
+    default @NotNull Map<K, V> loadAll(@NotNull Set<? extends K> keys) throws Exception { // NOSONAR
+        Map<K, V> values = new HashMap<>();
+        for (K key : keys) {
+            V value = this.load(key);
+            if (value != null) {
+                values.put(key, value);
+            }
+        }
+        return values;
+    }
+
+    /**
+     * Computes the new value for a key that is due for refresh, see refreshAfterWrite in the cache spec.
+     *
+     * @param key      the key whose value is to be reloaded.
+     * @param oldValue the value currently cached.
+     * @return the new value or null to remove the mapping.
+     * @throws Exception if the value can't be reloaded, the old value is retained in that case.
+     */
+    default @Nullable V reload(@NotNull K key, @NotNull V oldValue) throws Exception { // NOSONAR
+        return this.load(key);
+    }
+}
@@ -0,0 +1,34 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+package com.adeptj.modules.commons.cache;
+
+/**
+ * Exception thrown when a {@link CacheLoader} fails to load the value(s) of a {@link Cache}.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class CacheLoaderException extends RuntimeException {
+
+    private static final long serialVersionUID = -3180574046471563622L;
+
+    public CacheLoaderException(String message, Throwable cause) {
+        super(message, cause);
+    }
+}
@@ -0,0 +1,58 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.osgi.annotation.versioning.ConsumerType;
+
+/**
+ * Serializes the values of a {@link Cache} which spill over to the off-heap tier or are written to a snapshot.
+ * <p>
+ * Serializers are registered as OSGi services with the {@link #CACHE_NAME} service property set to the name of the
+ * cache they serve. The off-heap tier uses Java serialization for the caches without one, their snapshots hold the
+ * keys only.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+@ConsumerType
+public interface CacheSerializer<V> {
+
+    /**
+     * Service property which binds a {@link CacheSerializer} to the cache of the same name.
+     */
+    String CACHE_NAME = "cache.name";
+
+    /**
+     * Serializes the given value.
+     *
+     * @param value the value to serialize.
+     * @return the serialized bytes.
+     */
+    byte[] serialize(@NotNull V value);
+
+    /**
+     * Deserializes the bytes produced by {@link #serialize}.
+     *
+     * @param bytes the serialized bytes.
+     * @return the deserialized value.
+     */
+    V deserialize(byte[] bytes);
+}
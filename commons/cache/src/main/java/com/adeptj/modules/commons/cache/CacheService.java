@@ -23,6 +23,8 @@ package com.adeptj.modules.commons.cache;
 import org.jetbrains.annotations.Nullable;
 import org.osgi.annotation.versioning.ProviderType;
 
+import java.util.Set;
+
 /**
  * The {@link CacheService} for in memory local caching.
  *
@@ -41,6 +43,31 @@ public interface CacheService {
      */
     <K, V> @Nullable Cache<K, V> getCache(String cacheName);
 
+    /**
+     * Gets the {@link AsyncCache} view of the {@link Cache} configured for the given name.
+     *
+     * @param cacheName The cache name.
+     * @param <K>       The cache key.
+     * @param <V>       The cache value
+     * @return the {@link AsyncCache} instance or null if none exists for given name.
+     */
+    <K, V> @Nullable AsyncCache<K, V> getAsyncCache(String cacheName);
+
+    /**
+     * Gets the current statistics of the {@link Cache} configured for the given name.
+     *
+     * @param cacheName The cache name.
+     * @return the {@link CacheStats} or null if no cache exists for given name.
+     */
+    @Nullable CacheStats getStats(String cacheName);
+
+    /**
+     * Gets the names of all the configured caches.
+     *
+     * @return the cache names.
+     */
+    Set<String> getCacheNames();
+
     /**
      * Evict all the {@link Cache} resolved against the given names.
      *
@@ -0,0 +1,212 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * Point in time statistics of a {@link Cache}.
+ * <p>
+ * The hit, miss, load and eviction counters are only collected when record.stats is enabled for the cache, the
+ * size and the removal counts by cause are always available.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public final class CacheStats {
+
+    private final String cacheName;
+
+    private final boolean recordingStats;
+
+    private final long estimatedSize;
+
+    private final long weightedSize;
+
+    private final long maximumWeight;
+
+    private final long hitCount;
+
+    private final long missCount;
+
+    private final long loadSuccessCount;
+
+    private final long loadFailureCount;
+
+    private final long totalLoadTime;
+
+    private final long evictionCount;
+
+    private final long evictionWeight;
+
+    private final Map<String, Long> removalCounts;
+
+    private final long offHeapSize;
+
+    private final long offHeapBytes;
+
+    private final long negativeHitCount;
+
+    private final long earlyRefreshCount;
+
+    public CacheStats(String cacheName, boolean recordingStats, long estimatedSize, long weightedSize, // NOSONAR
+                      long maximumWeight, long hitCount, long missCount, long loadSuccessCount, long loadFailureCount,
+                      long totalLoadTime, long evictionCount, long evictionWeight, Map<String, Long> removalCounts,
+                      long offHeapSize, long offHeapBytes, long negativeHitCount, long earlyRefreshCount) {
+        this.cacheName = cacheName;
+        this.recordingStats = recordingStats;
+        this.estimatedSize = estimatedSize;
+        this.weightedSize = weightedSize;
+        this.maximumWeight = maximumWeight;
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.loadSuccessCount = loadSuccessCount;
+        this.loadFailureCount = loadFailureCount;
+        this.totalLoadTime = totalLoadTime;
+        this.evictionCount = evictionCount;
+        this.evictionWeight = evictionWeight;
+        this.removalCounts = Collections.unmodifiableMap(removalCounts);
+        this.offHeapSize = offHeapSize;
+        this.offHeapBytes = offHeapBytes;
+        this.negativeHitCount = negativeHitCount;
+        this.earlyRefreshCount = earlyRefreshCount;
+    }
+
+    public String getCacheName() {
+        return cacheName;
+    }
+
+    public boolean isRecordingStats() {
+        return recordingStats;
+    }
+
+    public long getEstimatedSize() {
+        return estimatedSize;
+    }
+
+    /**
+     * The total weight of the entries, -1 unless the cache is bounded by maximumWeight.
+     */
+    public long getWeightedSize() {
+        return weightedSize;
+    }
+
+    /**
+     * The maximum total weight of the entries, -1 unless the cache is bounded by maximumWeight.
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    public long getMissCount() {
+        return missCount;
+    }
+
+    public long getRequestCount() {
+        return hitCount + missCount;
+    }
+
+    public double getHitRate() {
+        long requestCount = this.getRequestCount();
+        return requestCount == 0 ? 1.0 : (double) hitCount / requestCount;
+    }
+
+    public long getLoadSuccessCount() {
+        return loadSuccessCount;
+    }
+
+    public long getLoadFailureCount() {
+        return loadFailureCount;
+    }
+
+    /**
+     * The total time spent loading the values, in nanoseconds.
+     */
+    public long getTotalLoadTime() {
+        return totalLoadTime;
+    }
+
+    /**
+     * The average time spent loading a value, in nanoseconds.
+     */
+    public double getAverageLoadPenalty() {
+        long loadCount = loadSuccessCount + loadFailureCount;
+        return loadCount == 0 ? 0.0 : (double) totalLoadTime / loadCount;
+    }
+
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    public long getEvictionWeight() {
+        return evictionWeight;
+    }
+
+    /**
+     * The number of entries removed so far keyed by the removal cause, i.e. SIZE, EXPIRED, COLLECTED, EXPLICIT
+     * and REPLACED.
+     */
+    public Map<String, Long> getRemovalCounts() {
+        return removalCounts;
+    }
+
+    /**
+     * The number of entries in the off-heap tier, 0 unless the tier is enabled.
+     */
+    public long getOffHeapSize() {
+        return offHeapSize;
+    }
+
+    /**
+     * The bytes taken by the live entries of the off-heap tier.
+     */
+    public long getOffHeapBytes() {
+        return offHeapBytes;
+    }
+
+    /**
+     * The number of misses answered from the negative cache without loading.
+     */
+    public long getNegativeHitCount() {
+        return negativeHitCount;
+    }
+
+    /**
+     * The number of entries refreshed ahead of their expiry.
+     */
+    public long getEarlyRefreshCount() {
+        return earlyRefreshCount;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("CacheStats(%s){size=%d, weightedSize=%d, maximumWeight=%d, hits=%d, misses=%d, hitRate=%.4f, " +
+                        "loadSuccess=%d, loadFailure=%d, totalLoadTime=%dns, evictions=%d, removals=%s, " +
+                        "offHeapSize=%d, offHeapBytes=%d, negativeHits=%d, earlyRefreshes=%d}",
+                cacheName, estimatedSize, weightedSize, maximumWeight, hitCount, missCount, this.getHitRate(), loadSuccessCount,
+                loadFailureCount, totalLoadTime, evictionCount, removalCounts, offHeapSize, offHeapBytes,
+                negativeHitCount, earlyRefreshCount);
+    }
+}
@@ -24,7 +24,12 @@ import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 
 import static org.osgi.framework.Constants.SERVICE_PID;
 
@@ -39,6 +44,50 @@ public final class CacheUtil {
 
     private static final String KEY_CACHE_SPEC = "cache.spec";
 
+    private static final String KEY_RECORD_STATS = "record.stats";
+
+    private static final String KEY_MAXIMUM_WEIGHT = "maximum.weight";
+
+    private static final String KEY_VARIABLE_EXPIRY = "variable.expiry";
+
+    private static final String KEY_VARIABLE_EXPIRY_DEFAULT_TTL = "variable.expiry.default.ttl";
+
+    private static final long DEFAULT_VARIABLE_EXPIRY_TTL = 3600L;
+
+    private static final String KEY_NEGATIVE_CACHE_TTL = "negative.cache.ttl";
+
+    private static final String KEY_NEGATIVE_CACHE_MAX_SIZE = "negative.cache.max.size";
+
+    private static final String KEY_EARLY_REFRESH_BETA = "early.refresh.beta";
+
+    private static final long DEFAULT_NEGATIVE_CACHE_MAX_SIZE = 1024L;
+
+    private static final String KEY_CLUSTER_INVALIDATION = "cluster.invalidation";
+
+    private static final String KEY_L2_ENABLED = "l2.enabled";
+
+    private static final String KEY_L2_MAX_SIZE_MB = "l2.max.size.mb";
+
+    private static final String KEY_L2_EXPIRE_AFTER_WRITE = "l2.expire.after.write";
+
+    private static final String KEY_L2_DIRECTORY = "l2.directory";
+
+    private static final String KEY_SNAPSHOT_MODE = "snapshot.mode";
+
+    private static final String KEY_SNAPSHOT_MAX_ENTRIES = "snapshot.max.entries";
+
+    private static final String KEY_SNAPSHOT_MAX_AGE = "snapshot.max.age";
+
+    private static final String DEFAULT_SNAPSHOT_MODE = "NONE";
+
+    private static final long DEFAULT_SNAPSHOT_MAX_ENTRIES = 10000L;
+
+    private static final long DEFAULT_SNAPSHOT_MAX_AGE = 600L;
+
+    private static final long DEFAULT_L2_MAX_SIZE_MB = 64L;
+
+    private static final long DEFAULT_L2_EXPIRE_AFTER_WRITE = 3600L;
+
     public static String getCacheName(@NotNull Map<String, Object> properties) {
         String cacheName = StringUtils.trim((String) properties.get(KEY_CACHE_NAME));
         Validate.isTrue(StringUtils.isNotEmpty(cacheName), "cache.name property can't be null!!");
@@ -51,12 +100,111 @@ public final class CacheUtil {
         return cacheSpec;
     }
 
+    public static boolean isRecordStats(@NotNull Map<String, Object> properties) {
+        return Boolean.parseBoolean(String.valueOf(properties.get(KEY_RECORD_STATS)));
+    }
+
+    public static long getMaximumWeight(@NotNull Map<String, Object> properties) {
+        return toLong(properties.get(KEY_MAXIMUM_WEIGHT), 0L);
+    }
+
+    public static boolean isVariableExpiry(@NotNull Map<String, Object> properties) {
+        return Boolean.parseBoolean(String.valueOf(properties.get(KEY_VARIABLE_EXPIRY)));
+    }
+
+    public static long getVariableExpiryDefaultTtl(@NotNull Map<String, Object> properties) {
+        return toLong(properties.get(KEY_VARIABLE_EXPIRY_DEFAULT_TTL), DEFAULT_VARIABLE_EXPIRY_TTL);
+    }
+
+    public static long getNegativeCacheTtl(@NotNull Map<String, Object> properties) {
+        return toLong(properties.get(KEY_NEGATIVE_CACHE_TTL), 0L);
+    }
+
+    public static long getNegativeCacheMaxSize(@NotNull Map<String, Object> properties) {
+        return toLong(properties.get(KEY_NEGATIVE_CACHE_MAX_SIZE), DEFAULT_NEGATIVE_CACHE_MAX_SIZE);
+    }
+
+    public static double getEarlyRefreshBeta(@NotNull Map<String, Object> properties) {
+        Object value = properties.get(KEY_EARLY_REFRESH_BETA);
+        if (value instanceof Number) {
+            return ((Number) value).doubleValue();
+        }
+        String stringValue = StringUtils.trim((String) value);
+        return StringUtils.isEmpty(stringValue) ? 0.0 : Double.parseDouble(stringValue);
+    }
+
+    public static boolean isClusterInvalidation(@NotNull Map<String, Object> properties) {
+        return Boolean.parseBoolean(String.valueOf(properties.get(KEY_CLUSTER_INVALIDATION)));
+    }
+
+    public static boolean isL2Enabled(@NotNull Map<String, Object> properties) {
+        return Boolean.parseBoolean(String.valueOf(properties.get(KEY_L2_ENABLED)));
+    }
+
+    public static long getL2MaxSizeMb(@NotNull Map<String, Object> properties) {
+        return toLong(properties.get(KEY_L2_MAX_SIZE_MB), DEFAULT_L2_MAX_SIZE_MB);
+    }
+
+    public static long getL2ExpireAfterWrite(@NotNull Map<String, Object> properties) {
+        return toLong(properties.get(KEY_L2_EXPIRE_AFTER_WRITE), DEFAULT_L2_EXPIRE_AFTER_WRITE);
+    }
+
+    public static String getL2Directory(@NotNull Map<String, Object> properties) {
+        return StringUtils.trim((String) properties.get(KEY_L2_DIRECTORY));
+    }
+
+    public static String getSnapshotMode(@NotNull Map<String, Object> properties) {
+        String snapshotMode = StringUtils.trim((String) properties.get(KEY_SNAPSHOT_MODE));
+        return StringUtils.isEmpty(snapshotMode) ? DEFAULT_SNAPSHOT_MODE : snapshotMode;
+    }
+
+    public static long getSnapshotMaxEntries(@NotNull Map<String, Object> properties) {
+        return toLong(properties.get(KEY_SNAPSHOT_MAX_ENTRIES), DEFAULT_SNAPSHOT_MAX_ENTRIES);
+    }
+
+    public static long getSnapshotMaxAge(@NotNull Map<String, Object> properties) {
+        return toLong(properties.get(KEY_SNAPSHOT_MAX_AGE), DEFAULT_SNAPSHOT_MAX_AGE);
+    }
+
     public static String getServicePid(@NotNull Map<String, Object> properties) {
         String servicePid = (String) properties.get(SERVICE_PID);
         Validate.isTrue(StringUtils.isNotEmpty(servicePid), "service.pid property can't be null!!");
         return servicePid;
     }
 
+    private static long toLong(Object value, long defaultValue) {
+        if (value instanceof Number) {
+            return ((Number) value).longValue();
+        }
+        String stringValue = StringUtils.trim((String) value);
+        return StringUtils.isEmpty(stringValue) ? defaultValue : Long.parseLong(stringValue);
+    }
+
+    /**
+     * Adapts a finder taking a list of key values, such as JpaRepository#findByINOperator, to a bulk loader of
+     * {@link Cache#getAll(Iterable, Function)}, the found values are keyed by the given key mapper.
+     *
+     * @param finder    finds the values of the given keys, e.g. {@code ids -> repository.findByINOperator(User.class,
+     *                  "id", ids)}.
+     * @param keyMapper extracts the key of a found value, e.g. {@code User::getId}.
+     * @param <K>       the type of the keys.
+     * @param <V>       the type of the values.
+     * @return the bulk loader.
+     */
+    public static <K, V> Function<Set<K>, Map<K, V>> toBulkLoader(@NotNull Function<List<Object>, List<V>> finder,
+                                                                  @NotNull Function<V, K> keyMapper) {
+        return keys -> {
+            List<V> values = finder.apply(new ArrayList<>(keys));
+            Map<K, V> valuesByKey = new HashMap<>();
+            if (values != null) {
+                for (V value : values) {
+                    valuesByKey.put(keyMapper.apply(value), value);
+                }
+            }
+            return valuesByKey;
+        };
+    }
+
     public static void nullSafeEvict(Cache<?, ?> cache) {
         if (cache != null) {
             cache.evict();
@@ -0,0 +1,52 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache;
+
+import org.jetbrains.annotations.NotNull;
+import org.osgi.annotation.versioning.ConsumerType;
+
+/**
+ * Computes the weight of the entries of a {@link Cache} bounded by maximum weight, typically the approximate size
+ * of the value in bytes.
+ * <p>
+ * Weighers are registered as OSGi services with the {@link #CACHE_NAME} service property set to the name of the cache
+ * they serve. An entry is weighed when it is written, so the entries written before a weigher is bound keep the
+ * weight of 1.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+@ConsumerType
+public interface CacheWeigher<K, V> {
+
+    /**
+     * Service property which binds a {@link CacheWeigher} to the cache of the same name.
+     */
+    String CACHE_NAME = "cache.name";
+
+    /**
+     * Computes the weight of the given entry.
+     *
+     * @param key   the key of the entry.
+     * @param value the value of the entry.
+     * @return the non-negative weight.
+     */
+    int weigh(@NotNull K key, @NotNull V value);
+}
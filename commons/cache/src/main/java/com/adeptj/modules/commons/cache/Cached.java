@@ -0,0 +1,75 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.Retention;
+import java.lang.annotation.Target;
+
+import static java.lang.annotation.ElementType.METHOD;
+import static java.lang.annotation.RetentionPolicy.RUNTIME;
+
+/**
+ * Caches the result of a repository method in the named {@link Cache}, the method is only invoked on a miss.
+ * <p>
+ * Applies to the JPA, MyBatis and MongoDB repository services, and to any other service registered with
+ * {@link #CACHING_PROXY_ENABLED} set to true. Such a service gets a caching proxy registered next to it under its
+ * interfaces with the {@link #CACHING_PROXY} service property set to true, the consumers select it with the target
+ * {@code (cache.proxy=true)}. The proxy is ranked above the service, but a reluctant reference bound before
+ * the proxy was registered keeps the service, the consumers not targeting the proxy need a greedy reference to switch
+ * over to it. The proxy only implements the interfaces of the service, therefore the annotation must be on a method
+ * declared by one of those, either on the interface or on the implementing method.
+ * <p>
+ * The key expression picks the arguments making up the key, {@code #p0} (or {@code #a0}) is the first argument and
+ * {@code #id} the argument named id, which needs the repository compiled with -parameters. Several expressions
+ * separated by commas make a list key, an empty expression takes the only argument or a list of all of them.
+ * The expressions are compiled once when the proxy is created, so there is no reflection per invocation.
+ * <p>
+ * Null results are cached only if the cache has negative caching enabled (negative.cache.ttl), the method is then
+ * not invoked again for the key till the negative entry expires or a value is put for the key.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+@Documented
+@Retention(RUNTIME)
+@Target(METHOD)
+public @interface Cached {
+
+    /**
+     * Service property set to true on the caching proxies.
+     */
+    String CACHING_PROXY = "cache.proxy";
+
+    /**
+     * Service property which opts a service other than a repository in for a caching proxy.
+     */
+    String CACHING_PROXY_ENABLED = "cache.proxy.enabled";
+
+    /**
+     * The name of the cache holding the results.
+     */
+    String cache();
+
+    /**
+     * The key expression, see the type level docs.
+     */
+    String key() default "";
+}
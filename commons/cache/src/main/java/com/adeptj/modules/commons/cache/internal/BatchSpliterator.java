@@ -0,0 +1,79 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Spliterator;
+import java.util.function.Consumer;
+
+/**
+ * {@link Spliterator} grouping the elements of another one into lists of up to a given size.
+ * <p>
+ * Splitting is delegated to the source, so a parallel stream of batches still splits a concurrent map's
+ * spliterator along its bins, and nothing but the current batch is ever held.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class BatchSpliterator<T> implements Spliterator<List<T>> {
+
+    private final Spliterator<T> source;
+
+    private final int batchSize;
+
+    BatchSpliterator(Spliterator<T> source, int batchSize) {
+        if (batchSize < 1) {
+            throw new IllegalArgumentException("batchSize must be positive: " + batchSize);
+        }
+        this.source = source;
+        this.batchSize = batchSize;
+    }
+
+    @Override
+    public boolean tryAdvance(Consumer<? super List<T>> action) {
+        List<T> batch = new ArrayList<>(this.batchSize);
+        while (batch.size() < this.batchSize && this.source.tryAdvance(batch::add)) {
+            // Fills the batch.
+        }
+        if (batch.isEmpty()) {
+            return false;
+        }
+        action.accept(batch);
+        return true;
+    }
+
+    @Override
+    public Spliterator<List<T>> trySplit() {
+        Spliterator<T> prefix = this.source.trySplit();
+        return prefix == null ? null : new BatchSpliterator<>(prefix, this.batchSize);
+    }
+
+    @Override
+    public long estimateSize() {
+        long size = this.source.estimateSize();
+        return size == Long.MAX_VALUE ? size : (size + this.batchSize - 1) / this.batchSize;
+    }
+
+    @Override
+    public int characteristics() {
+        return (this.source.characteristics() & (CONCURRENT | ORDERED)) | NONNULL;
+    }
+}
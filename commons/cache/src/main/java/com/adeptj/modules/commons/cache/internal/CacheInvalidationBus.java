@@ -0,0 +1,255 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import com.adeptj.modules.commons.cache.CacheInvalidationTransport;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Propagates the removes and evictions of the caches to the other nodes of a cluster and applies theirs locally.
+ * <p>
+ * The invalidations are not sent right away but collected for a short batch window, within which the repeated keys
+ * collapse into one and an eviction of the whole cache supersedes its pending keys. A lost message leaves the peers
+ * stale till their entries expire, the same as without the bus.
+ * <p>
+ * A removed key the {@link InvalidationCodec} can't encode evicts the whole cache on the peers, whereas such a key
+ * being put isn't published at all, as evicting the peers on every put would leave them with no cache to speak of.
+ * Either is logged once per cache.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class CacheInvalidationBus {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final String PUBLISHER_THREAD_NAME = "cache-invalidation-publisher";
+
+    /**
+     * Beyond these many pending keys the whole cache is evicted on the peers instead.
+     */
+    private static final int MAX_PENDING_KEYS = 1024;
+
+    private final UUID nodeId;
+
+    private final Function<String, CaffeineCache<?, ?>> caches;
+
+    /**
+     * Pending invalidations by cache name, only ever modified within the atomic map operations.
+     */
+    private final ConcurrentMap<String, PendingInvalidation> pending;
+
+    private final ScheduledExecutorService publisher;
+
+    /**
+     * Names of the caches for which a key which can't be encoded has been logged.
+     */
+    private final Set<String> unencodableKeyCaches;
+
+    private volatile CacheInvalidationTransport transport;
+
+    CacheInvalidationBus(Function<String, CaffeineCache<?, ?>> caches, long batchMillis) {
+        this.nodeId = UUID.randomUUID();
+        this.caches = caches;
+        this.pending = new ConcurrentHashMap<>();
+        this.unencodableKeyCaches = ConcurrentHashMap.newKeySet();
+        this.publisher = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, PUBLISHER_THREAD_NAME);
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.publisher.scheduleWithFixedDelay(this::flush, batchMillis, batchMillis, TimeUnit.MILLISECONDS);
+        LOGGER.info("Cache invalidation bus started on node [{}] with batch window: [{}] ms", this.nodeId,
+                batchMillis);
+    }
+
+    /**
+     * Publishes the removal of the given key.
+     */
+    void publish(String cacheName, Object key) {
+        this.publish(cacheName, key, true);
+    }
+
+    /**
+     * Publishes a put of the given key so that the peers drop their stale value.
+     */
+    void publishPut(String cacheName, Object key) {
+        this.publish(cacheName, key, false);
+    }
+
+    private void publish(String cacheName, Object key, boolean removal) {
+        if (this.transport == null) {
+            return;
+        }
+        if (!InvalidationCodec.isEncodable(key)) {
+            if (this.unencodableKeyCaches.add(cacheName)) {
+                LOGGER.warn("Keys of type [{}] of cache ({}) can't be published, their removals evict the whole "
+                        + "cache on the peers and their puts aren't published!!", key.getClass().getName(), cacheName);
+            }
+            if (!removal) {
+                return;
+            }
+        }
+        this.pending.compute(cacheName, (name, invalidation) -> {
+            PendingInvalidation next = invalidation == null ? new PendingInvalidation() : invalidation;
+            next.add(key);
+            return next;
+        });
+    }
+
+    void publishEvict(String cacheName) {
+        if (this.transport == null) {
+            return;
+        }
+        this.pending.compute(cacheName, (name, invalidation) -> {
+            PendingInvalidation next = invalidation == null ? new PendingInvalidation() : invalidation;
+            next.evictAll();
+            return next;
+        });
+    }
+
+    synchronized void setTransport(@Nullable CacheInvalidationTransport transport) {
+        CacheInvalidationTransport oldTransport = this.transport;
+        if (oldTransport != null) {
+            oldTransport.setReceiver(null);
+        }
+        this.transport = transport;
+        if (transport == null) {
+            this.pending.clear();
+        } else {
+            transport.setReceiver(this::receive);
+        }
+    }
+
+    /**
+     * Unsets the given transport unless it has already been replaced by another one.
+     */
+    synchronized void unsetTransport(CacheInvalidationTransport transport) {
+        if (this.transport == transport) {
+            this.setTransport(null);
+        }
+    }
+
+    void close() {
+        this.publisher.shutdown();
+        this.flush();
+        this.setTransport(null);
+    }
+
+    private void flush() {
+        CacheInvalidationTransport currentTransport = this.transport;
+        if (currentTransport == null || this.pending.isEmpty()) {
+            return;
+        }
+        int maxMessageSize = currentTransport.getMaxMessageSize();
+        List<byte[]> blocks = new ArrayList<>();
+        try {
+            for (String cacheName : this.pending.keySet()) {
+                // Removing takes the ownership, anything published meanwhile goes into a fresh entry.
+                PendingInvalidation invalidation = this.pending.remove(cacheName);
+                if (invalidation != null) {
+                    blocks.add(encodeBlock(cacheName, invalidation, maxMessageSize));
+                }
+            }
+            for (byte[] message : InvalidationCodec.pack(this.nodeId, blocks, maxMessageSize)) {
+                currentTransport.send(message);
+            }
+        } catch (IOException | RuntimeException ex) { // NOSONAR
+            LOGGER.error("Couldn't publish cache invalidations, peers stay stale till the entries expire!!", ex);
+        }
+    }
+
+    /**
+     * Encodes the given invalidation, the whole cache is evicted on the peers instead if any of its keys fails to
+     * encode, so that the rest of the batch is still sent.
+     */
+    private static byte[] encodeBlock(String cacheName, PendingInvalidation invalidation, int maxMessageSize)
+            throws IOException {
+        try {
+            return InvalidationCodec.encodeBlock(cacheName, invalidation.evictAll, invalidation.keys, maxMessageSize);
+        } catch (IOException | RuntimeException ex) { // NOSONAR
+            LOGGER.warn("Couldn't encode the keys of cache ({}), evicting it on the peers instead!!", cacheName, ex);
+            return InvalidationCodec.encodeBlock(cacheName, true, invalidation.keys, maxMessageSize);
+        }
+    }
+
+    private void receive(byte[] message) {
+        try {
+            InvalidationCodec.Message decoded = InvalidationCodec.decode(message);
+            if (decoded == null || this.nodeId.equals(decoded.nodeId)) {
+                return;
+            }
+            for (InvalidationCodec.Invalidation invalidation : decoded.invalidations) {
+                CaffeineCache<?, ?> cache = this.caches.apply(invalidation.cacheName);
+                if (cache == null) {
+                    continue;
+                }
+                if (invalidation.evictAll) {
+                    cache.evictLocally();
+                } else {
+                    invalidation.keys.forEach(cache::removeLocally);
+                }
+                LOGGER.debug("Applied invalidation of cache ({}) from node [{}]", invalidation.cacheName,
+                        decoded.nodeId);
+            }
+        } catch (IOException | RuntimeException ex) { // NOSONAR
+            LOGGER.error("Couldn't apply the cache invalidation message!!", ex);
+        }
+    }
+
+    private static final class PendingInvalidation {
+
+        private final Set<Object> keys = new LinkedHashSet<>();
+
+        private boolean evictAll;
+
+        void add(Object key) {
+            if (this.evictAll) {
+                return;
+            }
+            if (!InvalidationCodec.isEncodable(key) || this.keys.size() >= MAX_PENDING_KEYS) {
+                this.evictAll();
+                return;
+            }
+            this.keys.add(key);
+        }
+
+        void evictAll() {
+            this.evictAll = true;
+            this.keys.clear();
+        }
+    }
+}
@@ -0,0 +1,95 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import org.apache.commons.lang3.StringUtils;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.Parameter;
+import java.util.Arrays;
+import java.util.function.Function;
+
+/**
+ * Compiles the key expressions of {@link com.adeptj.modules.commons.cache.Cached} and
+ * {@link com.adeptj.modules.commons.cache.CacheEvict} into functions of the method arguments.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class CacheKeyExpression {
+
+    private static final String PREFIX = "#";
+
+    private CacheKeyExpression() {
+    }
+
+    /**
+     * Compiles the given expression against the parameters of the given method.
+     *
+     * @throws IllegalArgumentException if the expression doesn't match the parameters.
+     */
+    static Function<Object[], Object> compile(String expression, Method method) {
+        int parameterCount = method.getParameterCount();
+        if (StringUtils.isBlank(expression)) {
+            if (parameterCount == 0) {
+                throw new IllegalArgumentException("No key can be derived from a method without arguments: " + method);
+            }
+            return parameterCount == 1 ? args -> args[0] : args -> Arrays.asList(args.clone());
+        }
+        String[] parts = StringUtils.split(expression, ',');
+        int[] indexes = new int[parts.length];
+        for (int i = 0; i < parts.length; i++) {
+            indexes[i] = indexOf(parts[i].trim(), method);
+        }
+        if (indexes.length == 1) {
+            int index = indexes[0];
+            return args -> args[index];
+        }
+        return args -> {
+            Object[] key = new Object[indexes.length];
+            for (int i = 0; i < indexes.length; i++) {
+                key[i] = args[indexes[i]];
+            }
+            return Arrays.asList(key);
+        };
+    }
+
+    private static int indexOf(String part, Method method) {
+        if (!part.startsWith(PREFIX) || part.length() == 1) {
+            throw new IllegalArgumentException(String.format("Invalid key expression [%s] on %s", part, method));
+        }
+        String name = part.substring(1);
+        Parameter[] parameters = method.getParameters();
+        char first = name.charAt(0);
+        if ((first == 'p' || first == 'a') && name.length() > 1 && StringUtils.isNumeric(name.substring(1))) {
+            int index = Integer.parseInt(name.substring(1));
+            if (index < parameters.length) {
+                return index;
+            }
+        }
+        for (int i = 0; i < parameters.length; i++) {
+            if (parameters[i].isNamePresent() && parameters[i].getName().equals(name)) {
+                return i;
+            }
+        }
+        throw new IllegalArgumentException(String.format("Key expression [%s] matches no argument of %s, "
+                + "named arguments need the class compiled with -parameters", part, method));
+    }
+}
@@ -0,0 +1,160 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The hottest keys, or entries, of a cache written to a local file when the cache goes away and read back when it
+ * is created again, so that a bundle refresh or a configuration change doesn't start from a cold cache.
+ * <p>
+ * The file is a header (magic, mode, write time, entry count) followed by the entries, each a key encoded as by the
+ * {@link InvalidationCodec} and, in {@link Mode#ENTRIES} mode, the remaining time to live and the value serialized
+ * by the CacheSerializer of the cache. A snapshot is deleted once read so that a stale one is never restored twice.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class CacheSnapshot {
+
+    private static final int MAGIC = 0x41435331;
+
+    private static final String FILE_EXTENSION = ".snapshot";
+
+    final Mode mode;
+
+    final long writtenAtMillis;
+
+    final List<Entry> entries;
+
+    private CacheSnapshot(Mode mode, long writtenAtMillis, List<Entry> entries) {
+        this.mode = mode;
+        this.writtenAtMillis = writtenAtMillis;
+        this.entries = entries;
+    }
+
+    static Path file(Path directory, String cacheName) {
+        return directory.resolve(cacheName + FILE_EXTENSION);
+    }
+
+    /**
+     * Writes the entries to a temporary file first and then moves it over the snapshot file, so that a crash
+     * midway never leaves a truncated snapshot behind.
+     */
+    static void write(Path file, Mode mode, List<Entry> entries) throws IOException {
+        Files.createDirectories(file.getParent());
+        Path tempFile = Files.createTempFile(file.getParent(), file.getFileName().toString(), ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile)))) {
+                out.writeInt(MAGIC);
+                out.writeByte(mode.ordinal());
+                out.writeLong(System.currentTimeMillis());
+                out.writeInt(entries.size());
+                for (Entry entry : entries) {
+                    InvalidationCodec.writeKey(out, entry.key);
+                    if (mode == Mode.ENTRIES) {
+                        out.writeLong(entry.ttlNanos);
+                        out.writeInt(entry.value.length);
+                        out.write(entry.value);
+                    }
+                }
+            }
+            Files.move(tempFile, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
+    /**
+     * Reads and deletes the snapshot file, null if there is none.
+     */
+    static @Nullable CacheSnapshot read(Path file) throws IOException {
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException("Not a cache snapshot: " + file);
+            }
+            Mode mode = Mode.values()[in.readByte()];
+            long writtenAtMillis = in.readLong();
+            int count = in.readInt();
+            List<Entry> entries = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                Object key = InvalidationCodec.readKey(in);
+                if (mode == Mode.ENTRIES) {
+                    long ttlNanos = in.readLong();
+                    byte[] value = new byte[in.readInt()];
+                    in.readFully(value);
+                    entries.add(new Entry(key, ttlNanos, value));
+                } else {
+                    entries.add(new Entry(key, -1L, null));
+                }
+            }
+            return new CacheSnapshot(mode, writtenAtMillis, entries);
+        } catch (NoSuchFileException ex) { // NOSONAR
+            return null;
+        } finally {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    enum Mode {
+
+        NONE,
+
+        /**
+         * Only the keys are written, these are loaded again through the CacheLoader in the background.
+         */
+        KEYS,
+
+        /**
+         * The keys, the values and the remaining time to live are written and put back as they were.
+         */
+        ENTRIES
+    }
+
+    static final class Entry {
+
+        final Object key;
+
+        /**
+         * The nanoseconds the entry had left to live when written, -1 if it doesn't expire.
+         */
+        final long ttlNanos;
+
+        final byte[] value;
+
+        Entry(Object key, long ttlNanos, byte[] value) {
+            this.key = key;
+            this.ttlNanos = ttlNanos;
+            this.value = value;
+        }
+    }
+}
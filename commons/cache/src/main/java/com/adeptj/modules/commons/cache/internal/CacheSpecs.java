@@ -0,0 +1,94 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Reads and writes the options of a Caffeine cache spec such as {@code maximumSize=16,expireAfterWrite=3600s}.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class CacheSpecs {
+
+    static final String MAXIMUM_SIZE = "maximumSize";
+
+    static final String MAXIMUM_WEIGHT = "maximumWeight";
+
+    static final String EXPIRE_AFTER_WRITE = "expireAfterWrite";
+
+    static final String EXPIRE_AFTER_ACCESS = "expireAfterAccess";
+
+    private CacheSpecs() {
+    }
+
+    /**
+     * The options of the given spec in their order, the options without a value such as recordStats map to an
+     * empty string.
+     */
+    static @NotNull Map<String, String> parse(String spec) {
+        Map<String, String> options = new LinkedHashMap<>();
+        for (String option : StringUtils.split(spec, ',')) {
+            String[] keyValue = StringUtils.split(option, "=", 2);
+            if (keyValue.length > 0) {
+                options.put(keyValue[0].trim(), keyValue.length == 1 ? StringUtils.EMPTY : keyValue[1].trim());
+            }
+        }
+        return options;
+    }
+
+    static @NotNull String format(@NotNull Map<String, String> options) {
+        return options.entrySet()
+                .stream()
+                .map(option -> option.getValue().isEmpty() ? option.getKey() : option.getKey() + "=" + option.getValue())
+                .collect(Collectors.joining(","));
+    }
+
+    /**
+     * Converts a spec duration, either a number followed by one of d, h, m or s or an ISO-8601 duration, to nanos.
+     */
+    static long toNanos(@NotNull String duration) {
+        if (StringUtils.startsWithIgnoreCase(duration, "P")) {
+            return Duration.parse(duration).toNanos();
+        }
+        long amount = Long.parseLong(duration.substring(0, duration.length() - 1));
+        switch (duration.toLowerCase(Locale.ROOT).charAt(duration.length() - 1)) {
+            case 'd':
+                return TimeUnit.DAYS.toNanos(amount);
+            case 'h':
+                return TimeUnit.HOURS.toNanos(amount);
+            case 'm':
+                return TimeUnit.MINUTES.toNanos(amount);
+            case 's':
+                return TimeUnit.SECONDS.toNanos(amount);
+            default:
+                throw new IllegalArgumentException(String.format("Invalid duration (%s) in cache spec!!", duration));
+        }
+    }
+}
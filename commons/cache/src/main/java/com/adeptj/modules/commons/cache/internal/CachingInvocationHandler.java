@@ -0,0 +1,215 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import com.adeptj.modules.commons.cache.Cache;
+import com.adeptj.modules.commons.cache.CacheEvict;
+import com.adeptj.modules.commons.cache.CacheService;
+import com.adeptj.modules.commons.cache.Cached;
+import org.jetbrains.annotations.Nullable;
+
+import java.lang.annotation.Annotation;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * {@link InvocationHandler} of the caching proxies, applies {@link Cached} and {@link CacheEvict} of the
+ * target's methods.
+ * <p>
+ * Everything is resolved once when the handler is created: the annotations, the compiled key expressions and a
+ * {@link MethodHandle} bound to the target for each method, so an invocation is a map lookup away from the target.
+ * The caches themselves are looked up per invocation as they come and go with their configurations.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class CachingInvocationHandler implements InvocationHandler {
+
+    private static final Object[] NO_ARGS = new Object[0];
+
+    private final Object target;
+
+    private final Map<Method, Invoker> invocations;
+
+    private CachingInvocationHandler(Object target, Map<Method, Invoker> invocations) {
+        this.target = target;
+        this.invocations = invocations;
+    }
+
+    /**
+     * Creates the handler for the given target, null if none of the methods of its interfaces is annotated.
+     *
+     * @throws IllegalArgumentException if an annotation can't be applied to its method.
+     */
+    static @Nullable CachingInvocationHandler create(Object target, List<Class<?>> interfaces,
+                                                     CacheService cacheService) {
+        Map<Method, Invoker> invocations = new HashMap<>();
+        boolean annotated = false;
+        for (Class<?> type : interfaces) {
+            for (Method method : type.getMethods()) {
+                if (invocations.containsKey(method)) {
+                    continue;
+                }
+                Method implementation = findImplementation(target, method);
+                Invoker invoker = newInvoker(target, method);
+                Method cachedMethod = findAnnotated(Cached.class, method, implementation);
+                Method evictMethod = findAnnotated(CacheEvict.class, method, implementation);
+                if (cachedMethod != null) {
+                    invocations.put(method, newCachedInvocation(cachedMethod, invoker, cacheService));
+                    annotated = true;
+                } else if (evictMethod != null) {
+                    invocations.put(method, newEvictInvocation(evictMethod, invoker, cacheService));
+                    annotated = true;
+                } else {
+                    invocations.put(method, invoker);
+                }
+            }
+        }
+        return annotated ? new CachingInvocationHandler(target, invocations) : null;
+    }
+
+    @Override
+    public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+        Invoker invoker = this.invocations.get(method);
+        if (invoker != null) {
+            return invoker.invoke(args == null ? NO_ARGS : args);
+        }
+        // Only the equals, hashCode and toString of Object end up here.
+        switch (method.getName()) {
+            case "equals":
+                return proxy == args[0];
+            case "hashCode":
+                return System.identityHashCode(proxy);
+            default:
+                return "CachingProxy(" + this.target + ")";
+        }
+    }
+
+    private static Invoker newCachedInvocation(Method method, Invoker invoker, CacheService cacheService) {
+        if (method.getReturnType() == void.class) {
+            throw new IllegalArgumentException("@Cached can't be applied to a void method: " + method);
+        }
+        Cached cached = method.getAnnotation(Cached.class);
+        String cacheName = cached.cache();
+        Function<Object[], Object> keyFunction = CacheKeyExpression.compile(cached.key(), method);
+        return args -> {
+            Cache<Object, Object> cache = cacheService.getCache(cacheName);
+            if (cache == null) {
+                return invoker.invoke(args);
+            }
+            try {
+                return cache.get(keyFunction.apply(args), key -> {
+                    try {
+                        return invoker.invoke(args);
+                    } catch (Throwable ex) { // NOSONAR
+                        throw new InvocationFailure(ex);
+                    }
+                });
+            } catch (InvocationFailure ex) {
+                throw ex.getCause();
+            }
+        };
+    }
+
+    private static Invoker newEvictInvocation(Method method, Invoker invoker, CacheService cacheService) {
+        CacheEvict evict = method.getAnnotation(CacheEvict.class);
+        String cacheName = evict.cache();
+        boolean allEntries = evict.allEntries();
+        Function<Object[], Object> keyFunction = allEntries ? null : CacheKeyExpression.compile(evict.key(), method);
+        return args -> {
+            Object result = invoker.invoke(args);
+            Cache<Object, Object> cache = cacheService.getCache(cacheName);
+            if (cache != null) {
+                if (allEntries) {
+                    cache.evict();
+                } else {
+                    cache.remove(keyFunction.apply(args));
+                }
+            }
+            return result;
+        };
+    }
+
+    private static @Nullable Method findImplementation(Object target, Method method) {
+        try {
+            return target.getClass().getMethod(method.getName(), method.getParameterTypes());
+        } catch (NoSuchMethodException ex) { // NOSONAR
+            return null;
+        }
+    }
+
+    /**
+     * The implementing method if it carries the annotation, the interface method otherwise if that does.
+     */
+    private static @Nullable Method findAnnotated(Class<? extends Annotation> annotation, Method method,
+                                                  @Nullable Method implementation) {
+        if (implementation != null && implementation.isAnnotationPresent(annotation)) {
+            return implementation;
+        }
+        return method.isAnnotationPresent(annotation) ? method : null;
+    }
+
+    private static Invoker newInvoker(Object target, Method method) {
+        try {
+            MethodHandle handle = MethodHandles.publicLookup()
+                    .unreflect(method)
+                    .bindTo(target)
+                    .asSpreader(Object[].class, method.getParameterCount())
+                    .asType(MethodType.methodType(Object.class, Object[].class));
+            return args -> (Object) handle.invokeExact(args);
+        } catch (IllegalAccessException ex) { // NOSONAR
+            // Interfaces which aren't public, plain reflection it is then.
+            method.setAccessible(true);
+            return args -> {
+                try {
+                    return method.invoke(target, args);
+                } catch (InvocationTargetException ite) {
+                    throw ite.getCause();
+                }
+            };
+        }
+    }
+
+    @FunctionalInterface
+    private interface Invoker {
+
+        Object invoke(Object[] args) throws Throwable; // NOSONAR
+    }
+
+    /**
+     * Carries whatever the target threw through the cache's mapping function.
+     */
+    private static final class InvocationFailure extends RuntimeException {
+
+        private static final long serialVersionUID = 1L;
+
+        InvocationFailure(Throwable cause) {
+            super(null, cause, false, false);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import com.adeptj.modules.commons.cache.CacheService;
+import org.jetbrains.annotations.NotNull;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
+
+/**
+ * Opens the {@link CachingProxyTracker} for as long as the {@link CacheService} is available.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+@Component(immediate = true)
+public class CachingProxyManager {
+
+    private final CachingProxyTracker tracker;
+
+    @Activate
+    public CachingProxyManager(@NotNull BundleContext context, @NotNull @Reference CacheService cacheService) {
+        this.tracker = new CachingProxyTracker(context, cacheService);
+        this.tracker.open();
+    }
+
+    // <<------------------------------------------- OSGi INTERNAL ------------------------------------------->>
+
+    @Deactivate
+    protected void stop() {
+        this.tracker.close();
+    }
+}
@@ -0,0 +1,169 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import com.adeptj.modules.commons.cache.CacheService;
+import com.adeptj.modules.commons.cache.Cached;
+import org.osgi.framework.BundleContext;
+import org.osgi.framework.Constants;
+import org.osgi.framework.Filter;
+import org.osgi.framework.InvalidSyntaxException;
+import org.osgi.framework.ServiceReference;
+import org.osgi.framework.ServiceRegistration;
+import org.osgi.util.tracker.ServiceTracker;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Dictionary;
+import java.util.Hashtable;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Tracks the JPA, MyBatis and MongoDB repositories, and the services opted in via
+ * {@link Cached#CACHING_PROXY_ENABLED}, and registers a caching proxy for each of them which has a {@link Cached}
+ * or {@link com.adeptj.modules.commons.cache.CacheEvict} method.
+ * <p>
+ * The proxy is registered under the interfaces of the service with the same properties, {@link Cached#CACHING_PROXY}
+ * set to true and a service ranking one above the service, so that it is preferred by the consumers not targeting
+ * either of them, see {@link #getProperties} for the references which stay bound to the service.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class CachingProxyTracker extends ServiceTracker<Object, ServiceRegistration<?>> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    static final String FILTER = "(&(|"
+            + "(objectClass=com.adeptj.modules.data.jpa.JpaRepository)"
+            + "(objectClass=com.adeptj.modules.data.mybatis.MyBatisRepository)"
+            + "(objectClass=com.adeptj.modules.data.mongodb.MongoRepository)"
+            + "(" + Cached.CACHING_PROXY_ENABLED + "=true))"
+            + "(!(" + Cached.CACHING_PROXY + "=true)))";
+
+    /**
+     * The framework managed properties which aren't copied over to the proxy.
+     */
+    private static final Set<String> EXCLUDED_PROPERTIES = Set.of(Constants.OBJECTCLASS, Constants.SERVICE_ID,
+            Constants.SERVICE_PID, Constants.SERVICE_BUNDLEID, Constants.SERVICE_SCOPE, Constants.SERVICE_RANKING,
+            "component.name", "component.id");
+
+    private final CacheService cacheService;
+
+    CachingProxyTracker(BundleContext context, CacheService cacheService) {
+        super(context, createFilter(context), null);
+        this.cacheService = cacheService;
+    }
+
+    @Override
+    public ServiceRegistration<?> addingService(ServiceReference<Object> reference) {
+        Object service = this.context.getService(reference);
+        if (service == null) {
+            return null;
+        }
+        try {
+            List<Class<?>> interfaces = getInterfaces(reference, service);
+            CachingInvocationHandler handler = interfaces.isEmpty()
+                    ? null
+                    : CachingInvocationHandler.create(service, interfaces, this.cacheService);
+            if (handler == null) {
+                this.context.ungetService(reference);
+                return null;
+            }
+            Object proxy = Proxy.newProxyInstance(service.getClass().getClassLoader(),
+                    interfaces.toArray(new Class<?>[0]), handler);
+            String[] names = interfaces.stream().map(Class::getName).toArray(String[]::new);
+            ServiceRegistration<?> registration = this.context.registerService(names, proxy, getProperties(reference));
+            LOGGER.info("Caching proxy registered for service: {}", service);
+            return registration;
+        } catch (RuntimeException ex) {
+            LOGGER.error("Caching proxy couldn't be created for service: {}", service, ex);
+            this.context.ungetService(reference);
+            return null;
+        }
+    }
+
+    @Override
+    public void modifiedService(ServiceReference<Object> reference, ServiceRegistration<?> registration) {
+        registration.setProperties(getProperties(reference));
+    }
+
+    @Override
+    public void removedService(ServiceReference<Object> reference, ServiceRegistration<?> registration) {
+        try {
+            registration.unregister();
+        } catch (IllegalStateException ex) { // NOSONAR
+            // Already unregistered while this bundle is stopping.
+        }
+        this.context.ungetService(reference);
+    }
+
+    private static Filter createFilter(BundleContext context) {
+        try {
+            return context.createFilter(FILTER);
+        } catch (InvalidSyntaxException ex) {
+            // Filter expression is malformed, not RFC-1960 based Filter.
+            throw new IllegalArgumentException(ex);
+        }
+    }
+
+    /**
+     * The interfaces the service is registered under, as seen by the service's own class loader.
+     */
+    private static List<Class<?>> getInterfaces(ServiceReference<Object> reference, Object service) {
+        List<Class<?>> interfaces = new ArrayList<>();
+        for (String name : (String[]) reference.getProperty(Constants.OBJECTCLASS)) {
+            try {
+                Class<?> type = Class.forName(name, false, service.getClass().getClassLoader());
+                if (type.isInterface() && type.isInstance(service)) {
+                    interfaces.add(type);
+                }
+            } catch (ClassNotFoundException ex) {
+                LOGGER.warn("Service interface {} not visible to {}, skipping it!!", name, service.getClass(), ex);
+            }
+        }
+        return interfaces;
+    }
+
+    /**
+     * The properties of the service with the ranking bumped by one and {@link Cached#CACHING_PROXY} set to true.
+     * <p>
+     * The ranking only counts when a reference is bound, a reluctant reference already bound to the service,
+     * static or dynamic, stays with it. The consumers must therefore either target {@code (cache.proxy=true)},
+     * which waits for the proxy, or use a greedy reference policy option to be rebound to the proxy once it is
+     * registered.
+     */
+    static Dictionary<String, Object> getProperties(ServiceReference<Object> reference) {
+        Dictionary<String, Object> properties = new Hashtable<>(); // NOSONAR
+        for (String key : reference.getPropertyKeys()) {
+            if (!EXCLUDED_PROPERTIES.contains(key)) {
+                properties.put(key, reference.getProperty(key));
+            }
+        }
+        Object ranking = reference.getProperty(Constants.SERVICE_RANKING);
+        properties.put(Constants.SERVICE_RANKING, ranking instanceof Integer ? (Integer) ranking + 1 : 1);
+        properties.put(Cached.CACHING_PROXY, Boolean.TRUE);
+        return properties;
+    }
+}
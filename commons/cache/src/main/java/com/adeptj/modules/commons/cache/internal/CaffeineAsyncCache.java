@@ -0,0 +1,107 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import com.adeptj.modules.commons.cache.AsyncCache;
+import com.adeptj.modules.commons.cache.Cache;
+
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * {@link AsyncCache} view of a {@link CaffeineCache}, the misses are loaded on the cache loader pool and concurrent
+ * misses for the same key are coalesced into a single load.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class CaffeineAsyncCache<K, V> implements AsyncCache<K, V> {
+
+    private final Cache<K, V> cache;
+
+    private final Executor executor;
+
+    private final ConcurrentMap<K, CompletableFuture<V>> inFlightLoads;
+
+    CaffeineAsyncCache(Cache<K, V> cache, Executor executor) {
+        this.cache = cache;
+        this.executor = executor;
+        this.inFlightLoads = new ConcurrentHashMap<>();
+    }
+
+    @Override
+    public CompletableFuture<V> getAsync(K key) {
+        return this.loadAsync(key, () -> this.cache.get(key));
+    }
+
+    @Override
+    public CompletableFuture<V> getAsync(K key, Function<? super K, ? extends V> mappingFunction) {
+        return this.loadAsync(key, () -> this.cache.get(key, mappingFunction));
+    }
+
+    @Override
+    public CompletableFuture<Map<K, V>> getAllAsync(Iterable<K> keys) {
+        try {
+            return CompletableFuture.supplyAsync(() -> this.cache.getAll(keys), this.executor);
+        } catch (RejectedExecutionException ex) {
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    @Override
+    public Cache<K, V> synchronous() {
+        return this.cache;
+    }
+
+    private CompletableFuture<V> loadAsync(K key, Supplier<V> loader) {
+        V value = this.cache.getIfPresent(key);
+        if (value != null) {
+            return CompletableFuture.completedFuture(value);
+        }
+        CompletableFuture<V> future = new CompletableFuture<>();
+        CompletableFuture<V> inFlight = this.inFlightLoads.putIfAbsent(key, future);
+        if (inFlight != null) {
+            // Callers get a copy so that one of them cancelling the future doesn't affect the others.
+            return inFlight.copy();
+        }
+        try {
+            this.executor.execute(() -> {
+                try {
+                    V loaded = loader.get();
+                    this.inFlightLoads.remove(key, future);
+                    future.complete(loaded);
+                } catch (Throwable ex) { // NOSONAR
+                    this.inFlightLoads.remove(key, future);
+                    future.completeExceptionally(ex);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            this.inFlightLoads.remove(key, future);
+            future.completeExceptionally(ex);
+        }
+        return future.copy();
+    }
+}
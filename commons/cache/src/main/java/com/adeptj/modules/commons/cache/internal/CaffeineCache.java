@@ -20,21 +20,84 @@
 
 package com.adeptj.modules.commons.cache.internal;
 
+import com.adeptj.modules.commons.cache.AsyncCache;
 import com.adeptj.modules.commons.cache.Cache;
+import com.adeptj.modules.commons.cache.CacheLoader;
+import com.adeptj.modules.commons.cache.CacheExpiry;
+import com.adeptj.modules.commons.cache.CacheLoaderException;
+import com.adeptj.modules.commons.cache.CacheSerializer;
+import com.adeptj.modules.commons.cache.CacheStats;
+import com.adeptj.modules.commons.cache.CacheWeigher;
 import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.github.benmanes.caffeine.cache.Policy;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import com.github.benmanes.caffeine.cache.Weigher;
+import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.util.AbstractMap;
+import java.util.ArrayList;
 import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.OptionalLong;
 import java.util.Set;
+import java.util.Spliterator;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Consumer;
 import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
 
 /**
  * Implementation for Cache interface, internally this uses the Caffeine cache.
+ * <p>
+ * The Caffeine cache is always built as a loading cache which delegates to the {@link CacheLoader} currently bound
+ * for this cache, so that a loader can come and go without rebuilding the cache and refreshAfterWrite in the
+ * cache spec works as soon as a loader is registered.
+ * <p>
+ * With the off-heap tier enabled, the entries evicted for size spill over to an {@link OffHeapStore} and a miss
+ * on the heap checks there before loading the value. The removal listener then runs on the thread causing the
+ * eviction so that the spill follows the eviction as closely as possible, loads and refreshes still run on the
+ * loader pool. A spilled entry keeps the time to live it had left on the heap, for that an expireAfterWrite in the
+ * cache spec is applied through a Caffeine expiry which notes the deadline of each entry.
+ * <p>
+ * Negative caching remembers the keys which loaded to null for a short time in a separate Caffeine cache, as
+ * Caffeine itself can't hold null values. Probabilistic early refresh reloads a hot entry in the background shortly
+ * before it expires, the closer the expiry and the slower the loads the likelier a hit triggers it (XFetch), so that
+ * the readers of a hot key don't all miss at once. The entry is reloaded through the {@link CacheLoader} only, never
+ * through the mapping function of a caller, which may depend on the caller's context, so the caches without a
+ * CacheLoader aren't refreshed early.
+ * <p>
+ * A cache can be bounded by weight and expire its entries variably, the weight and the expiry of an entry are
+ * computed by the {@link CacheWeigher} and the {@link CacheExpiry} currently bound for the cache.
+ * <p>
+ * The hottest keys or entries can be written to a {@link CacheSnapshot} when the cache goes away. A snapshot read
+ * back waits for what it needs, the CacheLoader to warm the keys or the CacheSerializer to read the values, and is
+ * then restored in the background on the loader pool.
  *
  * @author Rakesh.Kumar, AdeptJ
  */
@@ -42,14 +105,184 @@ public final class CaffeineCache<K, V> implements Cache<K, V> {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    private static final int WARM_UP_BATCH_SIZE = 64;
+
     private final String cacheName;
 
-    private final com.github.benmanes.caffeine.cache.Cache<K, V> caffeineCache;
+    private final LoadingCache<K, V> caffeineCache;
+
+    private final AsyncCache<K, V> asyncCache;
+
+    /**
+     * Removal counters keyed by cause, fully populated upfront so the map itself is never modified.
+     */
+    private final Map<RemovalCause, LongAdder> removalCounts;
+
+    /**
+     * The off-heap second tier, null unless enabled via configuration.
+     */
+    private final @Nullable OffHeapStore<K, V> offHeapStore;
+
+    private final Executor loaderExecutor;
+
+    /**
+     * Publishes the removes and evictions to the peers, null unless cluster invalidation is enabled.
+     */
+    private final @Nullable CacheInvalidationBus invalidationBus;
+
+    /**
+     * Keys which loaded to null, null unless negative caching is enabled via configuration.
+     */
+    private final com.github.benmanes.caffeine.cache.Cache<K, Boolean> negativeKeys;
+
+    /**
+     * The XFetch beta, early refresh is disabled unless positive.
+     */
+    private final double earlyRefreshBeta;
+
+    /**
+     * The fixed expiry policy of the cache, null if the cache spec has no expireAfterWrite.
+     */
+    private final Policy.FixedExpiration<K, V> expireAfterWrite;
+
+    /**
+     * The variable expiry policy of the cache, null unless variable expiry is enabled.
+     */
+    private final Policy.VarExpiration<K, V> expireVariably;
+
+    /**
+     * The heap deadlines (System.nanoTime) of the entries, carried over to the off-heap tier on a spill, null unless
+     * the off-heap tier is enabled and the entries expire after write or variably.
+     */
+    private final @Nullable Map<K, Long> heapDeadlines;
+
+    /**
+     * The time to live left of the values being promoted from the off-heap tier by a load, taken over when Caffeine
+     * creates the entry, null unless the heap deadlines are noted.
+     */
+    private final @Nullable Map<K, Long> promotedTtls;
+
+    /**
+     * The in-flight bulk loads keyed by the keys being loaded, shared by the concurrent callers of getAll.
+     */
+    private final Map<K, CompletableFuture<V>> bulkLoads;
+
+    /**
+     * Keys being refreshed early, so that a hot key is refreshed only once at a time.
+     */
+    private final Map<K, Boolean> earlyRefreshes;
+
+    /**
+     * Whether none of negative caching, early refresh and the off-heap tier is in use, so that such caches take
+     * the shortest path.
+     */
+    private final boolean plain;
+
+    private final Function<K, V> cacheLoaderFunction;
+
+    private final LongAdder loadCount;
+
+    private final LongAdder loadTimeNanos;
+
+    private final LongAdder negativeHitCount;
+
+    private final LongAdder earlyRefreshCount;
+
+    private final long defaultTtlNanos;
+
+    /**
+     * The expireAfterWrite of the cache spec applied through {@link WriteExpiry}, -1 unless the off-heap tier needs
+     * the deadlines.
+     */
+    private final long writeTtlNanos;
+
+    private final CacheSnapshot.Mode snapshotMode;
+
+    private final int snapshotMaxEntries;
+
+    /**
+     * The age after which an entries snapshot is too stale to restore, 0 if it never is.
+     */
+    private final long snapshotMaxAgeMillis;
+
+    /**
+     * The snapshot read back but not yet restored.
+     */
+    private final AtomicReference<CacheSnapshot> pendingSnapshot;
+
+    private volatile int warmUpParallelism;
+
+    private volatile boolean closed;
+
+    private volatile CacheSerializer<V> cacheSerializer;
+
+    private volatile CacheLoader<K, V> cacheLoader;
 
-    CaffeineCache(String cacheName, String cacheSpec) {
-        this.cacheName = cacheName;
-        this.caffeineCache = Caffeine.from(cacheSpec).build();
-        LOGGER.info("CaffeineCache ({}:{}) initialized!!", cacheName, cacheSpec);
+    private volatile CacheWeigher<K, V> cacheWeigher;
+
+    private volatile CacheExpiry<K, V> cacheExpiry;
+
+    CaffeineCache(CaffeineCacheConfigFactory config, Executor loaderExecutor, CacheInvalidationBus invalidationBus) {
+        this.cacheName = config.getCacheName();
+        this.loaderExecutor = loaderExecutor;
+        this.invalidationBus = config.isClusterInvalidation() ? invalidationBus : null;
+        this.removalCounts = new EnumMap<>(RemovalCause.class);
+        for (RemovalCause cause : RemovalCause.values()) {
+            this.removalCounts.put(cause, new LongAdder());
+        }
+        this.offHeapStore = newOffHeapStore(config);
+        this.defaultTtlNanos = TimeUnit.SECONDS.toNanos(config.getVariableExpiryDefaultTtl());
+        Map<String, String> cacheSpec = CacheSpecs.parse(config.getCacheSpec());
+        if (this.offHeapStore != null && !config.isVariableExpiry()
+                && cacheSpec.containsKey(CacheSpecs.EXPIRE_AFTER_WRITE)
+                && !cacheSpec.containsKey(CacheSpecs.EXPIRE_AFTER_ACCESS)) {
+            this.writeTtlNanos = CacheSpecs.toNanos(cacheSpec.remove(CacheSpecs.EXPIRE_AFTER_WRITE));
+        } else {
+            this.writeTtlNanos = -1L;
+        }
+        this.heapDeadlines = this.offHeapStore != null && (config.isVariableExpiry() || this.writeTtlNanos >= 0)
+                ? new ConcurrentHashMap<>()
+                : null;
+        this.promotedTtls = this.heapDeadlines == null ? null : new ConcurrentHashMap<>();
+        Caffeine<Object, Object> builder = Caffeine.from(CacheSpecs.format(cacheSpec))
+                .executor(this.offHeapStore == null ? loaderExecutor : Runnable::run);
+        if (config.isRecordStats()) {
+            builder.recordStats();
+        }
+        Caffeine<K, V> typedBuilder = builder.removalListener(this::onRemoval);
+        if (config.getMaximumWeight() > 0) {
+            typedBuilder = typedBuilder.maximumWeight(config.getMaximumWeight()).weigher(new WeigherDelegate());
+        }
+        if (config.isVariableExpiry()) {
+            typedBuilder = typedBuilder.expireAfter(new ExpiryDelegate());
+        } else if (this.writeTtlNanos >= 0) {
+            typedBuilder = typedBuilder.expireAfter(new WriteExpiry());
+        }
+        this.caffeineCache = typedBuilder.build(new CacheLoaderDelegate());
+        this.asyncCache = new CaffeineAsyncCache<>(this, loaderExecutor);
+        this.negativeKeys = config.getNegativeCacheTtl() > 0
+                ? Caffeine.newBuilder()
+                .maximumSize(config.getNegativeCacheMaxSize())
+                .expireAfterWrite(Duration.ofSeconds(config.getNegativeCacheTtl()))
+                .executor(loaderExecutor)
+                .<K, Boolean>build()
+                : null;
+        this.earlyRefreshBeta = config.getEarlyRefreshBeta();
+        this.expireAfterWrite = this.caffeineCache.policy().expireAfterWrite().orElse(null);
+        this.expireVariably = this.caffeineCache.policy().expireVariably().orElse(null);
+        this.earlyRefreshes = new ConcurrentHashMap<>();
+        this.bulkLoads = new ConcurrentHashMap<>();
+        this.plain = this.offHeapStore == null && this.negativeKeys == null && this.earlyRefreshBeta <= 0;
+        this.cacheLoaderFunction = this::loadWithCacheLoader;
+        this.loadCount = new LongAdder();
+        this.loadTimeNanos = new LongAdder();
+        this.negativeHitCount = new LongAdder();
+        this.earlyRefreshCount = new LongAdder();
+        this.snapshotMode = CacheSnapshot.Mode.valueOf(config.getSnapshotMode().toUpperCase(Locale.ROOT));
+        this.snapshotMaxEntries = (int) Math.min(config.getSnapshotMaxEntries(), Integer.MAX_VALUE);
+        this.snapshotMaxAgeMillis = TimeUnit.SECONDS.toMillis(config.getSnapshotMaxAge());
+        this.pendingSnapshot = new AtomicReference<>();
+        LOGGER.info("CaffeineCache ({}:{}) initialized!!", this.cacheName, config.getCacheSpec());
     }
 
     @Override
@@ -59,43 +292,193 @@ public final class CaffeineCache<K, V> implements Cache<K, V> {
 
     @Override
     public V get(K key, Function<? super K, ? extends V> mappingFunction) {
-        return this.caffeineCache.get(key, mappingFunction);
+        if (this.plain) {
+            return this.caffeineCache.get(key, mappingFunction);
+        }
+        boolean[] computed = new boolean[1];
+        V value = this.caffeineCache.get(key, k -> {
+            computed[0] = true;
+            return this.loadMiss(k, mappingFunction);
+        });
+        if (!computed[0] && value != null) {
+            this.refreshEarlyIfDue(key, value);
+        }
+        return value;
+    }
+
+    @Override
+    public @Nullable V get(K key) {
+        return this.plain ? this.caffeineCache.get(key) : this.get(key, this.cacheLoaderFunction);
     }
 
     @Override
     public @Nullable V getIfPresent(K key) {
-        return this.caffeineCache.getIfPresent(key);
+        V value = this.caffeineCache.getIfPresent(key);
+        return value == null ? this.promote(key) : value;
     }
 
     @Override
     public @NotNull Map<K, V> getAllPresent(Iterable<K> keys) {
-        return this.caffeineCache.getAllPresent(keys);
+        Map<K, V> present = this.caffeineCache.getAllPresent(keys);
+        if (this.offHeapStore == null) {
+            return present;
+        }
+        Map<K, V> values = new LinkedHashMap<>(present);
+        for (K key : keys) {
+            if (!values.containsKey(key)) {
+                V value = this.promote(key);
+                if (value != null) {
+                    values.put(key, value);
+                }
+            }
+        }
+        return values;
     }
 
     @Override
     public @NotNull Map<K, V> getAll() {
-        return this.caffeineCache.asMap();
+        return Collections.unmodifiableMap(this.caffeineCache.asMap());
+    }
+
+    @Override
+    public @NotNull Map<K, V> getAll(Iterable<K> keys) {
+        CacheLoader<K, V> loader = this.cacheLoader;
+        if (loader == null) {
+            return this.getAllPresent(keys);
+        }
+        return this.getAll(keys, misses -> this.loadAll(loader, misses));
+    }
+
+    @Override
+    public @NotNull Map<K, V> getAll(Iterable<K> keys, Function<Set<K>, Map<K, V>> bulkLoader) {
+        Map<K, V> present = this.getAllPresent(keys);
+        // The misses this caller loads itself and those already being loaded by another caller.
+        Map<K, CompletableFuture<V>> ownLoads = new LinkedHashMap<>();
+        Map<K, CompletableFuture<V>> sharedLoads = new LinkedHashMap<>();
+        for (K key : keys) {
+            if (present.containsKey(key) || this.isNegative(key) || ownLoads.containsKey(key)) {
+                continue;
+            }
+            CompletableFuture<V> load = new CompletableFuture<>();
+            CompletableFuture<V> inFlight = this.bulkLoads.putIfAbsent(key, load);
+            if (inFlight == null) {
+                ownLoads.put(key, load);
+            } else {
+                sharedLoads.put(key, inFlight);
+            }
+        }
+        if (ownLoads.isEmpty() && sharedLoads.isEmpty()) {
+            return present;
+        }
+        Map<K, V> values = new LinkedHashMap<>(present);
+        if (!ownLoads.isEmpty()) {
+            this.bulkLoad(ownLoads, bulkLoader, values);
+        }
+        sharedLoads.forEach((key, load) -> {
+            V value = joinLoad(load);
+            if (value != null) {
+                values.put(key, value);
+            }
+        });
+        return values;
+    }
+
+    @Override
+    public void refresh(K key) {
+        if (this.cacheLoader != null) {
+            this.caffeineCache.refresh(key);
+        }
+    }
+
+    @Override
+    public AsyncCache<K, V> async() {
+        return this.asyncCache;
     }
 
     @Override
     public void put(K key, V value) {
         this.caffeineCache.put(key, value);
+        if (this.negativeKeys != null) {
+            this.negativeKeys.invalidate(key);
+        }
+        if (this.offHeapStore != null) {
+            this.offHeapStore.remove(key);
+        }
+        if (this.invalidationBus != null) {
+            this.invalidationBus.publishPut(this.cacheName, key);
+        }
+    }
+
+    @Override
+    public void putAll(Map<? extends K, ? extends V> entries) {
+        this.caffeineCache.putAll(entries);
+        if (this.negativeKeys != null) {
+            this.negativeKeys.invalidateAll(entries.keySet());
+        }
+        if (this.offHeapStore != null) {
+            entries.keySet().forEach(this.offHeapStore::remove);
+        }
+        if (this.invalidationBus != null) {
+            entries.keySet().forEach(key -> this.invalidationBus.publishPut(this.cacheName, key));
+        }
     }
 
     @Override
     public void remove(K key) {
-        this.caffeineCache.invalidate(key);
+        this.removeLocally(key);
+        if (this.invalidationBus != null) {
+            this.invalidationBus.publish(this.cacheName, key);
+        }
     }
 
     @Override
     public void remove(Iterable<K> keys) {
         this.caffeineCache.invalidateAll(keys);
+        if (this.negativeKeys != null) {
+            this.negativeKeys.invalidateAll(keys);
+        }
+        if (this.offHeapStore != null) {
+            keys.forEach(this.offHeapStore::remove);
+        }
+        if (this.invalidationBus != null) {
+            keys.forEach(key -> this.invalidationBus.publish(this.cacheName, key));
+        }
     }
 
     @Override
     public void evict() {
+        this.evictLocally();
+        if (this.invalidationBus != null) {
+            this.invalidationBus.publishEvict(this.cacheName);
+        }
+    }
+
+    /**
+     * Removes the given key from this node only, used for applying the invalidations of the peers.
+     */
+    @SuppressWarnings("unchecked")
+    void removeLocally(Object key) {
+        this.caffeineCache.invalidate((K) key);
+        if (this.negativeKeys != null) {
+            this.negativeKeys.invalidate((K) key);
+        }
+        if (this.offHeapStore != null) {
+            this.offHeapStore.remove((K) key);
+        }
+    }
+
+    /**
+     * Evicts this cache on this node only, used for applying the invalidations of the peers and on shutdown.
+     */
+    void evictLocally() {
         try {
             this.caffeineCache.invalidateAll();
+            if (this.negativeKeys != null) {
+                this.negativeKeys.invalidateAll();
+            }
+            if (this.offHeapStore != null) {
+                this.offHeapStore.clear();
+            }
             LOGGER.info("CaffeineCache ({}) evicted!!", this.getName());
         } catch (Exception ex) { // NOSONAR
             LOGGER.error(ex.getMessage(), ex);
@@ -108,13 +491,693 @@ public final class CaffeineCache<K, V> implements Cache<K, V> {
         return this.caffeineCache.estimatedSize();
     }
 
+    @Override
+    public long estimatedSize() {
+        return this.caffeineCache.estimatedSize();
+    }
+
+    @Override
+    public CacheStats stats() {
+        com.github.benmanes.caffeine.cache.stats.CacheStats stats = this.caffeineCache.stats();
+        Policy.Eviction<K, V> weightedEviction = this.caffeineCache.policy()
+                .eviction()
+                .filter(Policy.Eviction::isWeighted)
+                .orElse(null);
+        long weightedSize = weightedEviction == null ? -1L : weightedEviction.weightedSize().orElse(-1L);
+        long maximumWeight = weightedEviction == null ? -1L : weightedEviction.getMaximum();
+        Map<String, Long> removals = new LinkedHashMap<>();
+        this.removalCounts.forEach((cause, count) -> removals.put(cause.name(), count.sum()));
+        return new CacheStats(this.cacheName,
+                this.caffeineCache.policy().isRecordingStats(),
+                this.estimatedSize(),
+                weightedSize,
+                maximumWeight,
+                stats.hitCount(),
+                stats.missCount(),
+                stats.loadSuccessCount(),
+                stats.loadFailureCount(),
+                stats.totalLoadTime(),
+                stats.evictionCount(),
+                stats.evictionWeight(),
+                removals,
+                this.offHeapStore == null ? 0L : this.offHeapStore.size(),
+                this.offHeapStore == null ? 0L : this.offHeapStore.usedBytes(),
+                this.negativeHitCount.sum(),
+                this.earlyRefreshCount.sum());
+    }
+
     @Override
     public @NotNull Set<K> keys() {
-        return this.caffeineCache.asMap().keySet();
+        return Collections.unmodifiableSet(this.caffeineCache.asMap().keySet());
     }
 
     @Override
     public @NotNull Collection<V> values() {
-        return this.caffeineCache.asMap().values();
+        return Collections.unmodifiableCollection(this.caffeineCache.asMap().values());
+    }
+
+    @Override
+    public @NotNull Stream<Map.Entry<K, V>> stream() {
+        return StreamSupport.stream(this.entrySpliterator(), false);
+    }
+
+    @Override
+    public @NotNull Stream<List<Map.Entry<K, V>>> batches(int batchSize) {
+        return StreamSupport.stream(new BatchSpliterator<>(this.entrySpliterator(), batchSize), false);
+    }
+
+    private Spliterator<Map.Entry<K, V>> entrySpliterator() {
+        return new EntrySnapshotSpliterator<>(this.caffeineCache.asMap().entrySet().spliterator());
+    }
+
+    @SuppressWarnings("unchecked")
+    void setCacheLoader(@Nullable CacheLoader<?, ?> cacheLoader) {
+        this.cacheLoader = (CacheLoader<K, V>) cacheLoader;
+        LOGGER.info("CacheLoader for CaffeineCache ({}) {}!!", this.cacheName, cacheLoader == null ? "unset" : "set");
+        this.restorePendingSnapshot();
+    }
+
+    @SuppressWarnings("unchecked")
+    void setCacheSerializer(@Nullable CacheSerializer<?> cacheSerializer) {
+        this.cacheSerializer = (CacheSerializer<V>) cacheSerializer;
+        if (this.offHeapStore != null) {
+            this.offHeapStore.setSerializer(this.cacheSerializer);
+        }
+        LOGGER.info("CacheSerializer for CaffeineCache ({}) {}!!", this.cacheName,
+                cacheSerializer == null ? "unset" : "set");
+        this.restorePendingSnapshot();
+    }
+
+    @SuppressWarnings("unchecked")
+    void setCacheWeigher(@Nullable CacheWeigher<?, ?> cacheWeigher) {
+        this.cacheWeigher = (CacheWeigher<K, V>) cacheWeigher;
+        LOGGER.info("CacheWeigher for CaffeineCache ({}) {}!!", this.cacheName, cacheWeigher == null ? "unset" : "set");
+    }
+
+    @SuppressWarnings("unchecked")
+    void setCacheExpiry(@Nullable CacheExpiry<?, ?> cacheExpiry) {
+        this.cacheExpiry = (CacheExpiry<K, V>) cacheExpiry;
+        LOGGER.info("CacheExpiry for CaffeineCache ({}) {}!!", this.cacheName, cacheExpiry == null ? "unset" : "set");
+    }
+
+    /**
+     * Writes the hottest keys or entries to the snapshot file of this cache in the given directory, unless
+     * snapshots are disabled for it.
+     * <p>
+     * Only the keys the InvalidationCodec can encode are written. The values are written with the CacheSerializer
+     * of the cache, the values which fail to serialize are skipped. Without a CacheSerializer only the keys are
+     * written, Java serialized values couldn't be read back as the classes of other bundles are unknown then.
+     */
+    void writeSnapshot(Path directory) {
+        if (this.snapshotMode == CacheSnapshot.Mode.NONE) {
+            return;
+        }
+        CacheSerializer<V> serializer = this.cacheSerializer;
+        CacheSnapshot.Mode mode = this.snapshotMode;
+        if (mode == CacheSnapshot.Mode.ENTRIES && serializer == null) {
+            LOGGER.warn("CaffeineCache ({}) has no CacheSerializer, only the keys are written to the snapshot!!",
+                    this.cacheName);
+            mode = CacheSnapshot.Mode.KEYS;
+        }
+        List<CacheSnapshot.Entry> entries = new ArrayList<>();
+        int skipped = 0;
+        for (Map.Entry<K, V> entry : this.hottest().entrySet()) {
+            K key = entry.getKey();
+            if (!InvalidationCodec.isEncodable(key)) {
+                skipped++;
+            } else if (mode == CacheSnapshot.Mode.KEYS) {
+                entries.add(new CacheSnapshot.Entry(key, -1L, null));
+            } else {
+                try {
+                    byte[] value = serializer.serialize(entry.getValue());
+                    entries.add(new CacheSnapshot.Entry(key, this.timeToExpiry(key), value));
+                } catch (RuntimeException ex) { // NOSONAR
+                    skipped++;
+                }
+            }
+        }
+        Path file = CacheSnapshot.file(directory, this.cacheName);
+        try {
+            CacheSnapshot.write(file, mode, entries);
+            LOGGER.info("CaffeineCache ({}) snapshot of {} {} written to {}, skipped {}!!", this.cacheName,
+                    entries.size(), mode, file, skipped);
+        } catch (IOException ex) {
+            LOGGER.error("CaffeineCache ({}) snapshot couldn't be written to {}!!", this.cacheName, file, ex);
+        }
+    }
+
+    /**
+     * Reads the snapshot file of this cache from the given directory, the snapshot is restored as soon as what it
+     * needs is bound, right away if that's the case already. An entries snapshot older than the max snapshot age
+     * is dropped, the values may have changed meanwhile.
+     *
+     * @param directory         the snapshot directory
+     * @param warmUpParallelism the max number of key batches loaded concurrently while warming up
+     */
+    void readSnapshot(Path directory, int warmUpParallelism) {
+        if (this.snapshotMode == CacheSnapshot.Mode.NONE) {
+            return;
+        }
+        Path file = CacheSnapshot.file(directory, this.cacheName);
+        try {
+            CacheSnapshot snapshot = CacheSnapshot.read(file);
+            if (snapshot == null || !this.isRestorable(snapshot)) {
+                return;
+            }
+            long ageMillis = System.currentTimeMillis() - snapshot.writtenAtMillis;
+            if (snapshot.mode == CacheSnapshot.Mode.ENTRIES && this.snapshotMaxAgeMillis > 0
+                    && ageMillis > this.snapshotMaxAgeMillis) {
+                LOGGER.warn("CaffeineCache ({}) snapshot not restored, it is {} ms old!!", this.cacheName, ageMillis);
+            } else {
+                this.warmUpParallelism = warmUpParallelism;
+                this.pendingSnapshot.set(snapshot);
+                this.restorePendingSnapshot();
+            }
+        } catch (IOException | RuntimeException ex) {
+            LOGGER.error("CaffeineCache ({}) snapshot couldn't be read from {}!!", this.cacheName, file, ex);
+        }
+    }
+
+    /**
+     * Whether the given snapshot matches the snapshot mode, an entries cache falls back to the keys written while
+     * it had no CacheSerializer.
+     */
+    private boolean isRestorable(CacheSnapshot snapshot) {
+        return snapshot.mode == this.snapshotMode
+                || snapshot.mode == CacheSnapshot.Mode.KEYS && this.snapshotMode == CacheSnapshot.Mode.ENTRIES;
+    }
+
+    /**
+     * Releases the off-heap tier, called once the cache is removed from the service.
+     */
+    void close() {
+        this.closed = true;
+        this.pendingSnapshot.set(null);
+        if (this.offHeapStore != null) {
+            this.offHeapStore.close();
+        }
+    }
+
+    private static <K, V> @Nullable OffHeapStore<K, V> newOffHeapStore(CaffeineCacheConfigFactory config) {
+        if (!config.isL2Enabled()) {
+            return null;
+        }
+        try {
+            return OffHeapStore.newStore(config.getCacheName(),
+                    config.getL2MaxSizeMb() * 1024 * 1024,
+                    TimeUnit.SECONDS.toNanos(config.getL2ExpireAfterWrite()),
+                    StringUtils.isEmpty(config.getL2Directory()) ? null : Paths.get(config.getL2Directory()));
+        } catch (IOException ex) {
+            LOGGER.error("Off-heap tier of CaffeineCache ({}) couldn't be created, continuing without it!!",
+                    config.getCacheName(), ex);
+            return null;
+        }
+    }
+
+    private void onRemoval(K key, V value, RemovalCause cause) {
+        this.removalCounts.get(cause).increment();
+        // The replacing value is cached and has noted its own deadline already.
+        if (this.offHeapStore == null || key == null || cause == RemovalCause.REPLACED) {
+            return;
+        }
+        // Runs under the lock of the key, so that a put or load of the key meanwhile either wins over the spill or
+        // removes the spilled value from the off-heap tier afterwards. Nothing is cached as the function returns null.
+        this.caffeineCache.asMap().computeIfAbsent(key, k -> {
+            Long deadline = this.heapDeadlines == null ? null : this.heapDeadlines.remove(k);
+            // Only the size evictions spill over, the expired values are stale and the rest were removed on purpose.
+            if (cause == RemovalCause.SIZE && value != null) {
+                long ttlNanos = deadline == null ? -1L : deadline - System.nanoTime();
+                if (deadline == null || ttlNanos > 0) {
+                    this.offHeapStore.put(k, value, ttlNanos);
+                }
+            }
+            return null;
+        });
+    }
+
+    /**
+     * The time to live of a new entry, the time left of a value promoted from the off-heap tier or the given one.
+     */
+    private long expireAfterCreate(K key, long durationNanos) {
+        Long promotedTtl = this.promotedTtls == null ? null : this.promotedTtls.remove(key);
+        return promotedTtl == null ? durationNanos : promotedTtl;
+    }
+
+    private void noteDeadline(K key, long currentTime, long durationNanos) {
+        if (this.heapDeadlines != null) {
+            long deadline = currentTime + durationNanos;
+            // Saturates on overflow, e.g. for the Long.MAX_VALUE duration of an entry which doesn't expire.
+            this.heapDeadlines.put(key, deadline < currentTime ? Long.MAX_VALUE : deadline);
+        }
+    }
+
+    /**
+     * Computes the value of a key missing on the heap: a known negative stays a miss, then the off-heap tier is
+     * checked and only then the value is loaded, a null result is remembered as a negative.
+     */
+    private @Nullable V loadMiss(K key, Function<? super K, ? extends V> mappingFunction) {
+        if (this.isNegative(key)) {
+            this.negativeHitCount.increment();
+            return null;
+        }
+        if (this.offHeapStore != null) {
+            OffHeapStore.Value<V> spilled = this.offHeapStore.take(key);
+            if (spilled != null) {
+                if (this.promotedTtls != null) {
+                    // Taken over by the expiry while Caffeine creates the entry, still under the lock of the key.
+                    this.promotedTtls.put(key, spilled.ttlNanos);
+                }
+                return spilled.value;
+            }
+        }
+        long startTime = System.nanoTime();
+        V value = mappingFunction.apply(key);
+        this.loadTimeNanos.add(System.nanoTime() - startTime);
+        this.loadCount.increment();
+        if (value == null && this.negativeKeys != null) {
+            this.negativeKeys.put(key, Boolean.TRUE);
+        }
+        return value;
+    }
+
+    private boolean isNegative(K key) {
+        return this.negativeKeys != null && this.negativeKeys.getIfPresent(key) != null;
+    }
+
+    private @Nullable V loadWithCacheLoader(K key) {
+        CacheLoader<K, V> loader = this.cacheLoader;
+        if (loader == null) {
+            return null;
+        }
+        try {
+            return loader.load(key);
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new CacheLoaderException(String.format("Couldn't load value of cache (%s)!!", this.cacheName), ex);
+        }
+    }
+
+    /**
+     * XFetch: a hit refreshes the entry with the probability e^(-timeToExpiry / (beta * averageLoadTime)), through
+     * the CacheLoader bound at that time.
+     */
+    private void refreshEarlyIfDue(K key, V value) {
+        long loads = this.loadCount.sum();
+        if (this.earlyRefreshBeta <= 0 || loads == 0 || this.cacheLoader == null) {
+            return;
+        }
+        long timeToExpiry = this.timeToExpiry(key);
+        if (timeToExpiry < 0) {
+            return;
+        }
+        double threshold = this.earlyRefreshBeta * this.loadTimeNanos.sum() / loads;
+        // Beyond twenty times the threshold the probability is below e^-20, not worth a random number.
+        if (timeToExpiry > threshold * 20
+                || ThreadLocalRandom.current().nextDouble() >= Math.exp(-timeToExpiry / threshold)
+                || this.earlyRefreshes.putIfAbsent(key, Boolean.TRUE) != null) {
+            return;
+        }
+        try {
+            this.loaderExecutor.execute(() -> {
+                try {
+                    CacheLoader<K, V> loader = this.cacheLoader;
+                    V newValue = loader == null ? null : loader.reload(key, value);
+                    // Conditional, so that a put or remove meanwhile wins over the refreshed value.
+                    if (newValue != null && this.caffeineCache.asMap().replace(key, value, newValue)) {
+                        this.earlyRefreshCount.increment();
+                    }
+                } catch (Exception ex) { // NOSONAR
+                    LOGGER.debug("Early refresh of key [{}] in CaffeineCache ({}) failed!!", key, this.cacheName, ex);
+                } finally {
+                    this.earlyRefreshes.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException ex) {
+            this.earlyRefreshes.remove(key);
+        }
+    }
+
+    /**
+     * The hottest entries as per the eviction policy, any entries up to the snapshot limit for an unbounded cache.
+     */
+    private Map<K, V> hottest() {
+        Policy.Eviction<K, V> eviction = this.caffeineCache.policy().eviction().orElse(null);
+        if (eviction != null) {
+            return eviction.hottest(this.snapshotMaxEntries);
+        }
+        Map<K, V> entries = new LinkedHashMap<>();
+        for (Map.Entry<K, V> entry : this.caffeineCache.asMap().entrySet()) {
+            if (entries.size() == this.snapshotMaxEntries) {
+                break;
+            }
+            entries.put(entry.getKey(), entry.getValue());
+        }
+        return entries;
+    }
+
+    private void restorePendingSnapshot() {
+        CacheSnapshot snapshot = this.pendingSnapshot.get();
+        if (snapshot == null) {
+            return;
+        }
+        boolean ready = snapshot.mode == CacheSnapshot.Mode.KEYS
+                ? this.cacheLoader != null
+                : this.cacheSerializer != null;
+        if (!ready || !this.pendingSnapshot.compareAndSet(snapshot, null)) {
+            return;
+        }
+        try {
+            if (snapshot.mode == CacheSnapshot.Mode.KEYS) {
+                this.warmUp(snapshot);
+            } else {
+                this.loaderExecutor.execute(() -> this.restoreEntries(snapshot));
+            }
+        } catch (RejectedExecutionException ex) {
+            LOGGER.warn("CaffeineCache ({}) snapshot not restored, loader pool is shut down!!", this.cacheName);
+        }
+    }
+
+    /**
+     * Loads the snapshot keys in batches through the CacheLoader, with at most warmUpParallelism batches in flight.
+     */
+    @SuppressWarnings("unchecked")
+    private void warmUp(CacheSnapshot snapshot) {
+        ConcurrentLinkedQueue<List<K>> batches = new ConcurrentLinkedQueue<>();
+        List<K> batch = new ArrayList<>(WARM_UP_BATCH_SIZE);
+        for (CacheSnapshot.Entry entry : snapshot.entries) {
+            batch.add((K) entry.key);
+            if (batch.size() == WARM_UP_BATCH_SIZE) {
+                batches.add(batch);
+                batch = new ArrayList<>(WARM_UP_BATCH_SIZE);
+            }
+        }
+        if (!batch.isEmpty()) {
+            batches.add(batch);
+        }
+        int workers = Math.min(this.warmUpParallelism, batches.size());
+        LOGGER.info("CaffeineCache ({}) warming up {} keys with {} workers!!", this.cacheName,
+                snapshot.entries.size(), workers);
+        for (int i = 0; i < workers; i++) {
+            this.loaderExecutor.execute(() -> {
+                List<K> keys;
+                while (!this.closed && (keys = batches.poll()) != null) {
+                    try {
+                        this.getAll(keys);
+                    } catch (RuntimeException ex) {
+                        LOGGER.warn("CaffeineCache ({}) warm up of {} keys failed!!", this.cacheName, keys.size(), ex);
+                    }
+                }
+            });
+        }
+    }
+
+    /**
+     * Puts the snapshot entries back without overwriting any newer values, the entries which have expired
+     * meanwhile are dropped. Only a variably expiring cache takes over the remaining time to live, the others
+     * restart the expiry of the restored entries.
+     */
+    @SuppressWarnings("unchecked")
+    private void restoreEntries(CacheSnapshot snapshot) {
+        CacheSerializer<V> serializer = this.cacheSerializer;
+        long elapsedNanos = TimeUnit.MILLISECONDS.toNanos(
+                Math.max(0L, System.currentTimeMillis() - snapshot.writtenAtMillis));
+        if (serializer == null) {
+            LOGGER.warn("CaffeineCache ({}) snapshot not restored, CacheSerializer is gone!!", this.cacheName);
+            return;
+        }
+        int restored = 0;
+        int failed = 0;
+        RuntimeException failure = null;
+        for (CacheSnapshot.Entry entry : snapshot.entries) {
+            if (this.closed) {
+                return;
+            }
+            long ttlNanos = entry.ttlNanos - elapsedNanos;
+            if (entry.ttlNanos >= 0 && ttlNanos <= 0) {
+                continue;
+            }
+            try {
+                K key = (K) entry.key;
+                V value = serializer.deserialize(entry.value);
+                if (this.expireVariably != null && entry.ttlNanos >= 0) {
+                    if (this.expireVariably.putIfAbsent(key, value, ttlNanos, TimeUnit.NANOSECONDS) == null) {
+                        this.noteDeadline(key, System.nanoTime(), ttlNanos);
+                    }
+                } else {
+                    this.caffeineCache.asMap().putIfAbsent(key, value);
+                }
+                restored++;
+            } catch (RuntimeException ex) {
+                failed++;
+                failure = ex;
+            }
+        }
+        if (failure != null) {
+            LOGGER.warn("CaffeineCache ({}) couldn't restore {} of {} snapshot entries!!", this.cacheName, failed,
+                    snapshot.entries.size(), failure);
+        }
+        LOGGER.info("CaffeineCache ({}) restored {} of {} snapshot entries!!", this.cacheName, restored,
+                snapshot.entries.size());
+    }
+
+    /**
+     * The nanoseconds till the given key expires, -1 if it doesn't expire or isn't cached.
+     */
+    private long timeToExpiry(K key) {
+        if (this.expireVariably != null) {
+            return this.expireVariably.getExpiresAfter(key, TimeUnit.NANOSECONDS).orElse(-1L);
+        }
+        if (this.expireAfterWrite == null) {
+            return -1L;
+        }
+        OptionalLong age = this.expireAfterWrite.ageOf(key, TimeUnit.NANOSECONDS);
+        return age.isPresent()
+                ? Math.max(0L, this.expireAfterWrite.getExpiresAfter(TimeUnit.NANOSECONDS) - age.getAsLong())
+                : -1L;
+    }
+
+    /**
+     * Moves the value of the given key from the off-heap tier back to the heap.
+     */
+    private @Nullable V promote(K key) {
+        if (this.offHeapStore == null) {
+            return null;
+        }
+        OffHeapStore.Value<V> spilled = this.offHeapStore.take(key);
+        if (spilled == null) {
+            return null;
+        }
+        V existing;
+        if (this.heapDeadlines != null) {
+            existing = this.expireVariably.putIfAbsent(key, spilled.value, spilled.ttlNanos, TimeUnit.NANOSECONDS);
+            if (existing == null) {
+                this.noteDeadline(key, System.nanoTime(), spilled.ttlNanos);
+            }
+        } else {
+            existing = this.caffeineCache.asMap().putIfAbsent(key, spilled.value);
+        }
+        return existing == null ? spilled.value : existing;
+    }
+
+    /**
+     * Loads the given keys with a single bulk loader call, each value is cached before its in-flight load is
+     * completed and removed, so a concurrent caller either finds the load or the cached value.
+     */
+    private void bulkLoad(Map<K, CompletableFuture<V>> loads, Function<Set<K>, Map<K, V>> bulkLoader,
+                          Map<K, V> values) {
+        Map<K, V> loaded;
+        long startTime = System.nanoTime();
+        try {
+            loaded = bulkLoader.apply(Collections.unmodifiableSet(loads.keySet()));
+        } catch (RuntimeException | Error ex) { // NOSONAR
+            loads.forEach((key, load) -> {
+                this.bulkLoads.remove(key, load);
+                load.completeExceptionally(ex);
+            });
+            throw ex;
+        }
+        this.loadTimeNanos.add(System.nanoTime() - startTime);
+        this.loadCount.increment();
+        loads.forEach((key, load) -> {
+            V value = loaded == null ? null : loaded.get(key);
+            if (value != null) {
+                this.caffeineCache.put(key, value);
+                values.put(key, value);
+            } else if (this.negativeKeys != null) {
+                this.negativeKeys.put(key, Boolean.TRUE);
+            }
+            this.bulkLoads.remove(key, load);
+            load.complete(value);
+        });
+    }
+
+    private static <V> @Nullable V joinLoad(CompletableFuture<V> load) {
+        try {
+            return load.join();
+        } catch (CompletionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw ex;
+        }
+    }
+
+    private Map<K, V> loadAll(CacheLoader<K, V> loader, Set<K> keys) {
+        try {
+            return loader.loadAll(keys);
+        } catch (RuntimeException ex) {
+            throw ex;
+        } catch (Exception ex) {
+            throw new CacheLoaderException(String.format("Couldn't load values of cache (%s)!!", this.cacheName), ex);
+        }
+    }
+
+    /**
+     * Caffeine loader delegating to the {@link CacheLoader} bound at the time of load, without one a miss stays
+     * a miss and a refresh keeps the old value.
+     */
+    private final class CacheLoaderDelegate implements com.github.benmanes.caffeine.cache.CacheLoader<K, V> {
+
+        @Override
+        public @Nullable V load(@NotNull K key) {
+            return plain ? loadWithCacheLoader(key) : loadMiss(key, cacheLoaderFunction);
+        }
+
+        @Override
+        public @Nullable V reload(@NotNull K key, @NotNull V oldValue) throws Exception {
+            CacheLoader<K, V> loader = cacheLoader;
+            return loader == null ? oldValue : loader.reload(key, oldValue);
+        }
+
+        // The async variants are overridden so that loads always run on the loader pool, even when Caffeine's
+        // own executor is the calling thread.
+
+        @Override
+        public CompletableFuture<V> asyncLoad(K key, Executor executor) {
+            return CompletableFuture.supplyAsync(() -> this.load(key), loaderExecutor);
+        }
+
+        @Override
+        public CompletableFuture<V> asyncReload(K key, V oldValue, Executor executor) {
+            return CompletableFuture.supplyAsync(() -> {
+                try {
+                    return this.reload(key, oldValue);
+                } catch (RuntimeException ex) {
+                    throw ex;
+                } catch (Exception ex) {
+                    throw new CompletionException(ex);
+                }
+            }, loaderExecutor);
+        }
+    }
+
+    /**
+     * Caffeine weigher delegating to the {@link CacheWeigher} bound at the time of the write, 1 without one.
+     */
+    private final class WeigherDelegate implements Weigher<K, V> {
+
+        @Override
+        public int weigh(@NotNull K key, @NotNull V value) {
+            CacheWeigher<K, V> weigher = cacheWeigher;
+            return weigher == null ? 1 : weigher.weigh(key, value);
+        }
+    }
+
+    /**
+     * Caffeine expiry delegating to the {@link CacheExpiry} bound at the time of the access, the configured default
+     * time to live without one.
+     */
+    private final class ExpiryDelegate implements Expiry<K, V> {
+
+        @Override
+        public long expireAfterCreate(@NotNull K key, @NotNull V value, long currentTime) {
+            CacheExpiry<K, V> expiry = cacheExpiry;
+            long duration = CaffeineCache.this.expireAfterCreate(key,
+                    expiry == null ? defaultTtlNanos : expiry.expireAfterCreate(key, value));
+            noteDeadline(key, currentTime, duration);
+            return duration;
+        }
+
+        @Override
+        public long expireAfterUpdate(@NotNull K key, @NotNull V value, long currentTime, long currentDuration) {
+            CacheExpiry<K, V> expiry = cacheExpiry;
+            long duration = expiry == null ? defaultTtlNanos : expiry.expireAfterUpdate(key, value, currentDuration);
+            noteDeadline(key, currentTime, duration);
+            return duration;
+        }
+
+        @Override
+        public long expireAfterRead(@NotNull K key, @NotNull V value, long currentTime, long currentDuration) {
+            CacheExpiry<K, V> expiry = cacheExpiry;
+            if (expiry == null) {
+                return currentDuration;
+            }
+            long duration = expiry.expireAfterRead(key, value, currentDuration);
+            noteDeadline(key, currentTime, duration);
+            return duration;
+        }
+    }
+
+    /**
+     * Caffeine expiry equivalent to the expireAfterWrite of the cache spec, used with the off-heap tier so that
+     * the deadlines of the entries are known when they spill over.
+     */
+    private final class WriteExpiry implements Expiry<K, V> {
+
+        @Override
+        public long expireAfterCreate(@NotNull K key, @NotNull V value, long currentTime) {
+            long duration = CaffeineCache.this.expireAfterCreate(key, writeTtlNanos);
+            noteDeadline(key, currentTime, duration);
+            return duration;
+        }
+
+        @Override
+        public long expireAfterUpdate(@NotNull K key, @NotNull V value, long currentTime, long currentDuration) {
+            noteDeadline(key, currentTime, writeTtlNanos);
+            return writeTtlNanos;
+        }
+
+        @Override
+        public long expireAfterRead(@NotNull K key, @NotNull V value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+    }
+
+    /**
+     * Maps the live entries, which write through to the cache, to immutable snapshots and splits along the source.
+     */
+    private static final class EntrySnapshotSpliterator<K, V> implements Spliterator<Map.Entry<K, V>> {
+
+        private final Spliterator<Map.Entry<K, V>> entries;
+
+        EntrySnapshotSpliterator(Spliterator<Map.Entry<K, V>> entries) {
+            this.entries = entries;
+        }
+
+        @Override
+        public boolean tryAdvance(Consumer<? super Map.Entry<K, V>> action) {
+            return this.entries.tryAdvance(entry ->
+                    action.accept(new AbstractMap.SimpleImmutableEntry<>(entry.getKey(), entry.getValue())));
+        }
+
+        @Override
+        public Spliterator<Map.Entry<K, V>> trySplit() {
+            Spliterator<Map.Entry<K, V>> prefix = this.entries.trySplit();
+            return prefix == null ? null : new EntrySnapshotSpliterator<>(prefix);
+        }
+
+        @Override
+        public long estimateSize() {
+            return this.entries.estimateSize();
+        }
+
+        @Override
+        public int characteristics() {
+            return this.entries.characteristics() | NONNULL;
+        }
     }
-}
\ No newline at end of file
+}
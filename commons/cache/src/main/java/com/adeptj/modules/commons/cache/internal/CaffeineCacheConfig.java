@@ -22,6 +22,7 @@ package com.adeptj.modules.commons.cache.internal;
 
 import org.osgi.service.metatype.annotations.AttributeDefinition;
 import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+import org.osgi.service.metatype.annotations.Option;
 
 /**
  * Configuration for Caffeine cache.
@@ -37,9 +38,119 @@ public @interface CaffeineCacheConfig {
     @AttributeDefinition(name = "Cache Name", description = "A meaningful name of the configured cache.")
     String cache_name();
 
-    @AttributeDefinition(name = "Cache Spec", description = "The cache spec literal for configuring Caffeine cache.")
+    @AttributeDefinition(name = "Cache Spec", description = "The cache spec literal for configuring Caffeine cache, "
+            + "refreshAfterWrite takes effect once a CacheLoader is registered for this cache.")
     String cache_spec() default "maximumSize=16,expireAfterWrite=3600s";
 
+    @AttributeDefinition(
+            name = "Record Stats",
+            description = "Whether to record the hit, miss, load and eviction statistics of this cache."
+    )
+    boolean record_stats();
+
+    @AttributeDefinition(
+            name = "Maximum Weight",
+            description = "Bounds the cache by the total weight of its entries as computed by the CacheWeigher "
+                    + "registered for this cache, e.g. approximate bytes. 0 disables it, when set the cache spec "
+                    + "must not contain maximumSize."
+    )
+    long maximum_weight();
+
+    @AttributeDefinition(
+            name = "Variable Expiry",
+            description = "Whether the entries expire as per the CacheExpiry registered for this cache, when set "
+                    + "the cache spec must not contain expireAfterWrite or expireAfterAccess."
+    )
+    boolean variable_expiry();
+
+    @AttributeDefinition(
+            name = "Variable Expiry Default TTL",
+            description = "Time to live in seconds of the entries while no CacheExpiry is registered."
+    )
+    long variable_expiry_default_ttl() default 3600;
+
+    @AttributeDefinition(
+            name = "Negative Cache TTL",
+            description = "Time in seconds for which a key whose value loaded to null is answered as a miss "
+                    + "without loading again, 0 disables negative caching."
+    )
+    long negative_cache_ttl();
+
+    @AttributeDefinition(
+            name = "Negative Cache Max Size",
+            description = "Maximum number of negative keys remembered."
+    )
+    long negative_cache_max_size() default 1024;
+
+    @AttributeDefinition(
+            name = "Early Refresh Beta",
+            description = "Probabilistic early refresh of the entries about to expire (expireAfterWrite) through "
+                    + "the CacheLoader registered for this cache, higher values refresh earlier, 1.0 is a good start "
+                    + "and 0 disables it."
+    )
+    double early_refresh_beta();
+
+    @AttributeDefinition(
+            name = "Cluster Invalidation",
+            description = "Whether the puts, removes and evictions of this cache should invalidate the same cache "
+                    + "on the other nodes, requires a CacheInvalidationTransport."
+    )
+    boolean cluster_invalidation();
+
+    @AttributeDefinition(
+            name = "Off-Heap Tier",
+            description = "Whether the entries evicted for size should spill over to an off-heap second tier "
+                    + "which is looked up before loading a missing value."
+    )
+    boolean l2_enabled();
+
+    @AttributeDefinition(
+            name = "Off-Heap Tier Max Size (MB)",
+            description = "Size of the off-heap tier in megabytes, the oldest entries are dropped when it is full."
+    )
+    long l2_max_size_mb() default 64;
+
+    @AttributeDefinition(
+            name = "Off-Heap Tier Expire After Write",
+            description = "Time in seconds after which an entry spilled to the off-heap tier expires, earlier if "
+                    + "its time to live on the heap ends first."
+    )
+    long l2_expire_after_write() default 3600;
+
+    @AttributeDefinition(
+            name = "Off-Heap Tier Directory",
+            description = "Directory of the memory-mapped file backing the off-heap tier, direct memory is used "
+                    + "if left blank."
+    )
+    String l2_directory();
+
+    @AttributeDefinition(
+            name = "Snapshot Mode",
+            description = "What to write to a local snapshot file when the cache goes away, e.g. on a bundle "
+                    + "refresh or a configuration change, and to restore when it is created again. KEYS warms the "
+                    + "hottest keys through the CacheLoader in the background, ENTRIES restores the values as "
+                    + "they were and needs the CacheSerializer registered for this cache, without one only the keys "
+                    + "are written. ENTRIES can't be used with cluster invalidation.",
+            options = {
+                    @Option(label = "NONE", value = "NONE"),
+                    @Option(label = "KEYS", value = "KEYS"),
+                    @Option(label = "ENTRIES", value = "ENTRIES")
+            })
+    String snapshot_mode() default "NONE";
+
+    @AttributeDefinition(
+            name = "Snapshot Max Entries",
+            description = "Maximum number of the hottest keys or entries written to the snapshot."
+    )
+    long snapshot_max_entries() default 10000;
+
+    @AttributeDefinition(
+            name = "Snapshot Max Age",
+            description = "Age in seconds after which an ENTRIES snapshot is too stale to restore, 0 restores "
+                    + "it regardless of its age."
+    )
+    long snapshot_max_age() default 600;
+
     // name hint non editable property
     String webconsole_configurationFactory_nameHint() default
             "Caffeine Cache ({" + "cache.name" + "}" + ": " + "{" + "cache.spec" + "})"; // NOSONAR
@@ -45,13 +45,81 @@ public class CaffeineCacheConfigFactory {
 
     private final String cacheSpec;
 
+    private final boolean recordStats;
+
+    private final long maximumWeight;
+
+    private final boolean variableExpiry;
+
+    private final long variableExpiryDefaultTtl;
+
+    private final long negativeCacheTtl;
+
+    private final String snapshotMode;
+
+    private final long snapshotMaxEntries;
+
+    private final long snapshotMaxAge;
+
+    private final long negativeCacheMaxSize;
+
+    private final double earlyRefreshBeta;
+
+    private final boolean clusterInvalidation;
+
+    private final boolean l2Enabled;
+
+    private final long l2MaxSizeMb;
+
+    private final long l2ExpireAfterWrite;
+
+    private final String l2Directory;
+
     private final String servicePid;
 
     @Activate
     public CaffeineCacheConfigFactory(Map<String, Object> properties) {
         this.cacheName = CacheUtil.getCacheName(properties);
         this.cacheSpec = CacheUtil.getCacheSpec(properties);
+        this.recordStats = CacheUtil.isRecordStats(properties);
+        this.maximumWeight = CacheUtil.getMaximumWeight(properties);
+        this.variableExpiry = CacheUtil.isVariableExpiry(properties);
+        this.variableExpiryDefaultTtl = CacheUtil.getVariableExpiryDefaultTtl(properties);
+        this.negativeCacheTtl = CacheUtil.getNegativeCacheTtl(properties);
+        this.snapshotMode = CacheUtil.getSnapshotMode(properties);
+        this.snapshotMaxEntries = CacheUtil.getSnapshotMaxEntries(properties);
+        this.snapshotMaxAge = CacheUtil.getSnapshotMaxAge(properties);
+        this.negativeCacheMaxSize = CacheUtil.getNegativeCacheMaxSize(properties);
+        this.earlyRefreshBeta = CacheUtil.getEarlyRefreshBeta(properties);
+        this.clusterInvalidation = CacheUtil.isClusterInvalidation(properties);
+        this.l2Enabled = CacheUtil.isL2Enabled(properties);
+        this.l2MaxSizeMb = CacheUtil.getL2MaxSizeMb(properties);
+        this.l2ExpireAfterWrite = CacheUtil.getL2ExpireAfterWrite(properties);
+        this.l2Directory = CacheUtil.getL2Directory(properties);
         this.servicePid = CacheUtil.getServicePid(properties);
+        this.validate();
+    }
+
+    /**
+     * Refuses the options Caffeine can't combine, it would otherwise fail while building the cache.
+     */
+    private void validate() {
+        Map<String, String> spec = CacheSpecs.parse(this.cacheSpec);
+        if (this.maximumWeight > 0
+                && (spec.containsKey(CacheSpecs.MAXIMUM_SIZE) || spec.containsKey(CacheSpecs.MAXIMUM_WEIGHT))) {
+            throw new IllegalArgumentException(String.format("Cache:(%s) has maximum.weight set, its cache spec "
+                    + "[%s] must not contain maximumSize or maximumWeight!!", this.cacheName, this.cacheSpec));
+        }
+        if (this.variableExpiry && (spec.containsKey(CacheSpecs.EXPIRE_AFTER_WRITE)
+                || spec.containsKey(CacheSpecs.EXPIRE_AFTER_ACCESS))) {
+            throw new IllegalArgumentException(String.format("Cache:(%s) has variable.expiry enabled, its cache spec "
+                    + "[%s] must not contain expireAfterWrite or expireAfterAccess!!", this.cacheName, this.cacheSpec));
+        }
+        // The invalidations of the peers missed while the cache was gone would otherwise be lost.
+        if (this.clusterInvalidation && CacheSnapshot.Mode.ENTRIES.name().equalsIgnoreCase(this.snapshotMode)) {
+            throw new IllegalArgumentException(String.format("Cache:(%s) has cluster.invalidation enabled, "
+                    + "snapshot.mode ENTRIES can't be used with it, use KEYS instead!!", this.cacheName));
+        }
     }
 
     public String getCacheName() {
@@ -62,6 +130,66 @@ public class CaffeineCacheConfigFactory {
         return this.cacheSpec;
     }
 
+    public boolean isRecordStats() {
+        return this.recordStats;
+    }
+
+    public long getMaximumWeight() {
+        return this.maximumWeight;
+    }
+
+    public boolean isVariableExpiry() {
+        return this.variableExpiry;
+    }
+
+    public long getVariableExpiryDefaultTtl() {
+        return this.variableExpiryDefaultTtl;
+    }
+
+    public String getSnapshotMode() {
+        return this.snapshotMode;
+    }
+
+    public long getSnapshotMaxEntries() {
+        return this.snapshotMaxEntries;
+    }
+
+    public long getSnapshotMaxAge() {
+        return this.snapshotMaxAge;
+    }
+
+    public long getNegativeCacheTtl() {
+        return this.negativeCacheTtl;
+    }
+
+    public long getNegativeCacheMaxSize() {
+        return this.negativeCacheMaxSize;
+    }
+
+    public double getEarlyRefreshBeta() {
+        return this.earlyRefreshBeta;
+    }
+
+    public boolean isClusterInvalidation() {
+        return this.clusterInvalidation;
+    }
+
+    public boolean isL2Enabled() {
+        return this.l2Enabled;
+    }
+
+    public long getL2MaxSizeMb() {
+        return this.l2MaxSizeMb;
+    }
+
+    public long getL2ExpireAfterWrite() {
+        return this.l2ExpireAfterWrite;
+    }
+
+    public String getL2Directory() {
+        return this.l2Directory;
+    }
+
     public String getServicePid() {
         return this.servicePid;
     }
@@ -20,27 +20,51 @@
 
 package com.adeptj.modules.commons.cache.internal;
 
+import com.adeptj.modules.commons.cache.AsyncCache;
 import com.adeptj.modules.commons.cache.Cache;
+import com.adeptj.modules.commons.cache.CacheExpiry;
+import com.adeptj.modules.commons.cache.CacheInvalidationTransport;
+import com.adeptj.modules.commons.cache.CacheLoader;
+import com.adeptj.modules.commons.cache.CacheSerializer;
 import com.adeptj.modules.commons.cache.CacheService;
+import com.adeptj.modules.commons.cache.CacheStats;
 import com.adeptj.modules.commons.cache.CacheUtil;
+import com.adeptj.modules.commons.cache.CacheWeigher;
 import com.adeptj.modules.commons.cache.CaffeineCacheConfigFactoryBindException;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
 import org.apache.commons.lang3.Validate;
 import org.jetbrains.annotations.NotNull;
 import org.jetbrains.annotations.Nullable;
+import org.osgi.framework.BundleContext;
+import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
 import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.component.annotations.Reference;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.File;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.Path;
+import java.nio.file.Paths;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.stream.Stream;
 
 import static org.osgi.service.component.annotations.ReferenceCardinality.MULTIPLE;
+import static org.osgi.service.component.annotations.ReferenceCardinality.OPTIONAL;
 import static org.osgi.service.component.annotations.ReferencePolicy.DYNAMIC;
+import static org.osgi.service.component.annotations.ReferencePolicyOption.GREEDY;
 
 /**
  * Caffeine cache based implementation of {@link CacheService}.
@@ -50,13 +74,75 @@ import static org.osgi.service.component.annotations.ReferencePolicy.DYNAMIC;
 @Component
 public class CaffeineCacheService implements CacheService {
 
-    private final ConcurrentMap<String, Cache<?, ?>> caches;
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final String PROPERTY_CACHE_LOADER_THREADS = "cache.loader.threads";
+
+    private static final String PROPERTY_CACHE_INVALIDATION_BATCH_MILLIS = "cache.invalidation.batch.millis";
+
+    private static final long DEFAULT_INVALIDATION_BATCH_MILLIS = 50L;
+
+    private static final String PROPERTY_CACHE_SNAPSHOT_DIR = "cache.snapshot.dir";
+
+    private static final String PROPERTY_CACHE_WARMUP_PARALLELISM = "cache.warmup.parallelism";
+
+    private static final int DEFAULT_WARMUP_PARALLELISM = 4;
+
+    private static final String SNAPSHOT_DATA_FILE = "cache-snapshots";
+
+    private static final String LOADER_THREAD_NAME_PREFIX = "cache-loader-";
+
+    private final ConcurrentMap<String, CaffeineCache<?, ?>> caches;
 
     private final List<String> configPids;
 
-    public CaffeineCacheService() {
+    /**
+     * The {@link CacheLoader} services keyed by the name of the cache they back.
+     */
+    private final ConcurrentMap<String, CacheLoader<?, ?>> cacheLoaders;
+
+    /**
+     * The {@link CacheSerializer} services keyed by the name of the cache they serve.
+     */
+    private final ConcurrentMap<String, CacheSerializer<?>> cacheSerializers;
+
+    /**
+     * The {@link CacheWeigher} services keyed by the name of the cache they weigh the entries of.
+     */
+    private final ConcurrentMap<String, CacheWeigher<?, ?>> cacheWeighers;
+
+    /**
+     * The {@link CacheExpiry} services keyed by the name of the cache they expire the entries of.
+     */
+    private final ConcurrentMap<String, CacheExpiry<?, ?>> cacheExpiries;
+
+    /**
+     * Runs the async loads and the refreshes of all the caches, loaders are usually blocked on I/O therefore
+     * these must not run on the common pool.
+     */
+    private final ThreadPoolExecutor loaderExecutor;
+
+    private final CacheInvalidationBus invalidationBus;
+
+    /**
+     * Where the cache snapshots are written on deactivation, null if the framework has no file system support.
+     */
+    private final @Nullable Path snapshotDirectory;
+
+    private final int warmUpParallelism;
+
+    @Activate
+    public CaffeineCacheService(@NotNull BundleContext context) {
         this.caches = new ConcurrentHashMap<>();
         this.configPids = new CopyOnWriteArrayList<>();
+        this.cacheLoaders = new ConcurrentHashMap<>();
+        this.cacheSerializers = new ConcurrentHashMap<>();
+        this.cacheWeighers = new ConcurrentHashMap<>();
+        this.cacheExpiries = new ConcurrentHashMap<>();
+        this.loaderExecutor = newLoaderExecutor(context);
+        this.invalidationBus = new CacheInvalidationBus(this.caches::get, getInvalidationBatchMillis(context));
+        this.snapshotDirectory = getSnapshotDirectory(context);
+        this.warmUpParallelism = getWarmUpParallelism(context);
     }
 
     /**
@@ -69,6 +155,32 @@ public class CaffeineCacheService implements CacheService {
         return (Cache<K, V>) this.caches.get(cacheName);
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public <K, V> @Nullable AsyncCache<K, V> getAsyncCache(String cacheName) {
+        Cache<K, V> cache = this.getCache(cacheName);
+        return cache == null ? null : cache.async();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public @Nullable CacheStats getStats(String cacheName) {
+        Cache<?, ?> cache = this.getCache(cacheName);
+        return cache == null ? null : cache.stats();
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Set<String> getCacheNames() {
+        return Set.copyOf(this.caches.keySet());
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -79,15 +191,64 @@ public class CaffeineCacheService implements CacheService {
         }
     }
 
+    private static ThreadPoolExecutor newLoaderExecutor(BundleContext context) {
+        String threads = context.getProperty(PROPERTY_CACHE_LOADER_THREADS);
+        int poolSize = StringUtils.isEmpty(threads)
+                ? Runtime.getRuntime().availableProcessors() * 2
+                : Integer.parseInt(threads.trim());
+        AtomicInteger threadCounter = new AtomicInteger();
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new LinkedBlockingQueue<>(), runnable -> {
+            Thread thread = new Thread(runnable, LOADER_THREAD_NAME_PREFIX + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        LOGGER.info("Cache loader pool initialized with size: [{}]", poolSize);
+        return executor;
+    }
+
+    private static long getInvalidationBatchMillis(BundleContext context) {
+        String batchMillis = context.getProperty(PROPERTY_CACHE_INVALIDATION_BATCH_MILLIS);
+        return StringUtils.isEmpty(batchMillis) ? DEFAULT_INVALIDATION_BATCH_MILLIS : Long.parseLong(batchMillis.trim());
+    }
+
+    private static @Nullable Path getSnapshotDirectory(BundleContext context) {
+        String snapshotDir = context.getProperty(PROPERTY_CACHE_SNAPSHOT_DIR);
+        if (StringUtils.isNotEmpty(snapshotDir)) {
+            return Paths.get(snapshotDir.trim());
+        }
+        File dataFile = context.getDataFile(SNAPSHOT_DATA_FILE);
+        return dataFile == null ? null : dataFile.toPath();
+    }
+
+    private static int getWarmUpParallelism(BundleContext context) {
+        String parallelism = context.getProperty(PROPERTY_CACHE_WARMUP_PARALLELISM);
+        return StringUtils.isEmpty(parallelism) ? DEFAULT_WARMUP_PARALLELISM : Integer.parseInt(parallelism.trim());
+    }
+
+    /**
+     * Writes the snapshot of the given cache before it goes away, then evicts and closes it.
+     */
+    private void retire(CaffeineCache<?, ?> cache) {
+        if (this.snapshotDirectory != null) {
+            cache.writeSnapshot(this.snapshotDirectory);
+        }
+        cache.evictLocally();
+        cache.close();
+    }
+
     // <<------------------------------------------- OSGi INTERNAL ------------------------------------------->>
 
     /**
-     * First evict all the caches and then clears the {@link #caches} map.
+     * First snapshots and evicts all the caches and then clears the {@link #caches} map.
      */
     @Deactivate
     protected void stop() {
-        this.caches.values().forEach(Cache::evict);
+        this.invalidationBus.close();
+        this.caches.values().forEach(this::retire);
         this.caches.clear();
+        this.loaderExecutor.shutdown();
     }
 
     @Reference(service = CaffeineCacheConfigFactory.class, cardinality = MULTIPLE, policy = DYNAMIC)
@@ -96,13 +257,132 @@ public class CaffeineCacheService implements CacheService {
         if (this.caches.containsKey(cacheName)) {
             throw new CaffeineCacheConfigFactoryBindException(String.format("Cache:(%s) already exists!!", cacheName));
         }
-        this.caches.put(cacheName, new CaffeineCache<>(cacheName, configFactory.getCacheSpec()));
+        CaffeineCache<?, ?> cache = new CaffeineCache<>(configFactory, this.loaderExecutor,
+                this.invalidationBus);
+        this.caches.put(cacheName, cache);
         this.configPids.add(configFactory.getServicePid());
+        // The per cache services might have been bound before the cache got created.
+        CacheLoader<?, ?> cacheLoader = this.cacheLoaders.get(cacheName);
+        if (cacheLoader != null) {
+            cache.setCacheLoader(cacheLoader);
+        }
+        CacheSerializer<?> cacheSerializer = this.cacheSerializers.get(cacheName);
+        if (cacheSerializer != null) {
+            cache.setCacheSerializer(cacheSerializer);
+        }
+        CacheWeigher<?, ?> cacheWeigher = this.cacheWeighers.get(cacheName);
+        if (cacheWeigher != null) {
+            cache.setCacheWeigher(cacheWeigher);
+        }
+        CacheExpiry<?, ?> cacheExpiry = this.cacheExpiries.get(cacheName);
+        if (cacheExpiry != null) {
+            cache.setCacheExpiry(cacheExpiry);
+        }
+        if (this.snapshotDirectory != null) {
+            cache.readSnapshot(this.snapshotDirectory, this.warmUpParallelism);
+        }
     }
 
     protected void unbindCaffeineCacheConfigFactory(@NotNull CaffeineCacheConfigFactory configFactory) {
         if (this.configPids.remove(configFactory.getServicePid())) {
-            CacheUtil.nullSafeEvict(this.caches.remove(configFactory.getCacheName()));
+            CaffeineCache<?, ?> cache = this.caches.remove(configFactory.getCacheName());
+            if (cache != null) {
+                this.retire(cache);
+            }
+        }
+    }
+
+    @Reference(service = CacheLoader.class, cardinality = MULTIPLE, policy = DYNAMIC)
+    protected void bindCacheLoader(@NotNull CacheLoader<?, ?> cacheLoader, Map<String, Object> properties) {
+        String cacheName = CacheUtil.getCacheName(properties);
+        this.cacheLoaders.put(cacheName, cacheLoader);
+        CaffeineCache<?, ?> cache = this.caches.get(cacheName);
+        if (cache != null) {
+            cache.setCacheLoader(cacheLoader);
         }
     }
+
+    protected void unbindCacheLoader(@NotNull CacheLoader<?, ?> cacheLoader, Map<String, Object> properties) {
+        String cacheName = CacheUtil.getCacheName(properties);
+        if (this.cacheLoaders.remove(cacheName, cacheLoader)) {
+            CaffeineCache<?, ?> cache = this.caches.get(cacheName);
+            if (cache != null) {
+                cache.setCacheLoader(null);
+            }
+        }
+    }
+
+    @Reference(service = CacheSerializer.class, cardinality = MULTIPLE, policy = DYNAMIC)
+    protected void bindCacheSerializer(@NotNull CacheSerializer<?> cacheSerializer, Map<String, Object> properties) {
+        String cacheName = CacheUtil.getCacheName(properties);
+        this.cacheSerializers.put(cacheName, cacheSerializer);
+        CaffeineCache<?, ?> cache = this.caches.get(cacheName);
+        if (cache != null) {
+            cache.setCacheSerializer(cacheSerializer);
+        }
+    }
+
+    protected void unbindCacheSerializer(@NotNull CacheSerializer<?> cacheSerializer, Map<String, Object> properties) {
+        String cacheName = CacheUtil.getCacheName(properties);
+        if (this.cacheSerializers.remove(cacheName, cacheSerializer)) {
+            CaffeineCache<?, ?> cache = this.caches.get(cacheName);
+            if (cache != null) {
+                cache.setCacheSerializer(null);
+            }
+        }
+    }
+
+    @Reference(service = CacheWeigher.class, cardinality = MULTIPLE, policy = DYNAMIC)
+    protected void bindCacheWeigher(@NotNull CacheWeigher<?, ?> cacheWeigher, Map<String, Object> properties) {
+        String cacheName = CacheUtil.getCacheName(properties);
+        this.cacheWeighers.put(cacheName, cacheWeigher);
+        CaffeineCache<?, ?> cache = this.caches.get(cacheName);
+        if (cache != null) {
+            cache.setCacheWeigher(cacheWeigher);
+        }
+    }
+
+    protected void unbindCacheWeigher(@NotNull CacheWeigher<?, ?> cacheWeigher, Map<String, Object> properties) {
+        String cacheName = CacheUtil.getCacheName(properties);
+        if (this.cacheWeighers.remove(cacheName, cacheWeigher)) {
+            CaffeineCache<?, ?> cache = this.caches.get(cacheName);
+            if (cache != null) {
+                cache.setCacheWeigher(null);
+            }
+        }
+    }
+
+    @Reference(service = CacheExpiry.class, cardinality = MULTIPLE, policy = DYNAMIC)
+    protected void bindCacheExpiry(@NotNull CacheExpiry<?, ?> cacheExpiry, Map<String, Object> properties) {
+        String cacheName = CacheUtil.getCacheName(properties);
+        this.cacheExpiries.put(cacheName, cacheExpiry);
+        CaffeineCache<?, ?> cache = this.caches.get(cacheName);
+        if (cache != null) {
+            cache.setCacheExpiry(cacheExpiry);
+        }
+    }
+
+    protected void unbindCacheExpiry(@NotNull CacheExpiry<?, ?> cacheExpiry, Map<String, Object> properties) {
+        String cacheName = CacheUtil.getCacheName(properties);
+        if (this.cacheExpiries.remove(cacheName, cacheExpiry)) {
+            CaffeineCache<?, ?> cache = this.caches.get(cacheName);
+            if (cache != null) {
+                cache.setCacheExpiry(null);
+            }
+        }
+    }
+
+    @Reference(
+            service = CacheInvalidationTransport.class,
+            cardinality = OPTIONAL,
+            policy = DYNAMIC,
+            policyOption = GREEDY
+    )
+    protected void bindCacheInvalidationTransport(@NotNull CacheInvalidationTransport transport) {
+        this.invalidationBus.setTransport(transport);
+    }
+
+    protected void unbindCacheInvalidationTransport(@NotNull CacheInvalidationTransport transport) {
+        this.invalidationBus.unsetTransport(transport);
+    }
 }
@@ -0,0 +1,262 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import org.jetbrains.annotations.Nullable;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Encodes and decodes the cache invalidation messages exchanged by the {@link CacheInvalidationBus}.
+ * <p>
+ * A message is a header (magic, sender node id, block count) followed by one block per cache which either
+ * evicts the whole cache or lists the keys to remove. Only String, Integer, Long and UUID keys are encoded, as well as
+ * the lists of these such as the composite keys of the {@link com.adeptj.modules.commons.cache.Cached} methods, so
+ * nothing is ever deserialized from the wire.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class InvalidationCodec {
+
+    private static final int MAGIC = 0x41434931;
+
+    private static final int HEADER_BYTES = Integer.BYTES + 2 * Long.BYTES + Short.BYTES;
+
+    private static final byte FLAG_EVICT_ALL = 1;
+
+    private static final byte TAG_STRING = 1;
+
+    private static final byte TAG_INTEGER = 2;
+
+    private static final byte TAG_LONG = 3;
+
+    private static final byte TAG_UUID = 4;
+
+    private static final byte TAG_NULL = 5;
+
+    private static final byte TAG_LIST = 6;
+
+    /**
+     * A String key longer than this many chars may not fit writeUTF, which is limited to 65535 bytes of modified
+     * UTF-8 (at most 3 bytes per char), it is written as length-prefixed UTF-8 bytes instead.
+     */
+    private static final int MAX_UTF_CHARS = 65535 / 3;
+
+    private static final byte TAG_LONG_STRING = 7;
+
+    private InvalidationCodec() {
+    }
+
+    static boolean isEncodable(Object key) {
+        if (key instanceof List) {
+            for (Object part : (List<?>) key) {
+                if (part != null && !isEncodable(part)) {
+                    return false;
+                }
+            }
+            return true;
+        }
+        return key instanceof String || key instanceof Integer || key instanceof Long || key instanceof UUID;
+    }
+
+    /**
+     * Encodes the invalidation of a single cache, a block too large for one message evicts the whole cache instead.
+     */
+    static byte[] encodeBlock(String cacheName, boolean evictAll, Collection<Object> keys, int maxMessageSize)
+            throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeUTF(cacheName);
+            out.writeByte(evictAll ? FLAG_EVICT_ALL : 0);
+            if (!evictAll) {
+                out.writeInt(keys.size());
+                for (Object key : keys) {
+                    writeKey(out, key);
+                }
+            }
+        }
+        if (!evictAll && HEADER_BYTES + bytes.size() > maxMessageSize) {
+            return encodeBlock(cacheName, true, keys, maxMessageSize);
+        }
+        return bytes.toByteArray();
+    }
+
+    /**
+     * Packs the blocks into as few messages as the max message size allows.
+     */
+    static List<byte[]> pack(UUID nodeId, List<byte[]> blocks, int maxMessageSize) throws IOException {
+        List<byte[]> messages = new ArrayList<>();
+        List<byte[]> batch = new ArrayList<>();
+        int batchSize = HEADER_BYTES;
+        for (byte[] block : blocks) {
+            if (!batch.isEmpty() && batchSize + block.length > maxMessageSize) {
+                messages.add(encodeMessage(nodeId, batch));
+                batch.clear();
+                batchSize = HEADER_BYTES;
+            }
+            batch.add(block);
+            batchSize += block.length;
+        }
+        if (!batch.isEmpty()) {
+            messages.add(encodeMessage(nodeId, batch));
+        }
+        return messages;
+    }
+
+    /**
+     * Decodes the given message, null if it isn't an invalidation message at all.
+     */
+    static @Nullable Message decode(byte[] message) throws IOException {
+        try (DataInputStream in = new DataInputStream(new ByteArrayInputStream(message))) {
+            if (message.length < HEADER_BYTES || in.readInt() != MAGIC) {
+                return null;
+            }
+            UUID nodeId = new UUID(in.readLong(), in.readLong());
+            int blockCount = in.readUnsignedShort();
+            List<Invalidation> invalidations = new ArrayList<>(blockCount);
+            for (int i = 0; i < blockCount; i++) {
+                String cacheName = in.readUTF();
+                boolean evictAll = in.readByte() == FLAG_EVICT_ALL;
+                List<Object> keys = new ArrayList<>();
+                if (!evictAll) {
+                    int keyCount = in.readInt();
+                    for (int k = 0; k < keyCount; k++) {
+                        keys.add(readKey(in));
+                    }
+                }
+                invalidations.add(new Invalidation(cacheName, evictAll, keys));
+            }
+            return new Message(nodeId, invalidations);
+        }
+    }
+
+    private static byte[] encodeMessage(UUID nodeId, List<byte[]> blocks) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (DataOutputStream out = new DataOutputStream(bytes)) {
+            out.writeInt(MAGIC);
+            out.writeLong(nodeId.getMostSignificantBits());
+            out.writeLong(nodeId.getLeastSignificantBits());
+            out.writeShort(blocks.size());
+            for (byte[] block : blocks) {
+                out.write(block);
+            }
+        }
+        return bytes.toByteArray();
+    }
+
+    static void writeKey(DataOutputStream out, Object key) throws IOException {
+        if (key == null) {
+            out.writeByte(TAG_NULL);
+        } else if (key instanceof String && ((String) key).length() > MAX_UTF_CHARS) {
+            byte[] bytes = ((String) key).getBytes(StandardCharsets.UTF_8);
+            out.writeByte(TAG_LONG_STRING);
+            out.writeInt(bytes.length);
+            out.write(bytes);
+        } else if (key instanceof String) {
+            out.writeByte(TAG_STRING);
+            out.writeUTF((String) key);
+        } else if (key instanceof Integer) {
+            out.writeByte(TAG_INTEGER);
+            out.writeInt((Integer) key);
+        } else if (key instanceof Long) {
+            out.writeByte(TAG_LONG);
+            out.writeLong((Long) key);
+        } else if (key instanceof UUID) {
+            out.writeByte(TAG_UUID);
+            out.writeLong(((UUID) key).getMostSignificantBits());
+            out.writeLong(((UUID) key).getLeastSignificantBits());
+        } else if (key instanceof List) {
+            List<?> parts = (List<?>) key;
+            out.writeByte(TAG_LIST);
+            out.writeInt(parts.size());
+            for (Object part : parts) {
+                writeKey(out, part);
+            }
+        } else {
+            throw new IllegalArgumentException("Unsupported key type: " + key.getClass().getName());
+        }
+    }
+
+    static Object readKey(DataInputStream in) throws IOException {
+        byte tag = in.readByte();
+        switch (tag) {
+            case TAG_STRING:
+                return in.readUTF();
+            case TAG_INTEGER:
+                return in.readInt();
+            case TAG_LONG:
+                return in.readLong();
+            case TAG_UUID:
+                return new UUID(in.readLong(), in.readLong());
+            case TAG_NULL:
+                return null;
+            case TAG_LONG_STRING:
+                byte[] bytes = new byte[in.readInt()];
+                in.readFully(bytes);
+                return new String(bytes, StandardCharsets.UTF_8);
+            case TAG_LIST:
+                int size = in.readInt();
+                List<Object> parts = new ArrayList<>();
+                for (int i = 0; i < size; i++) {
+                    parts.add(readKey(in));
+                }
+                return parts;
+            default:
+                throw new IOException("Unknown key tag: " + tag);
+        }
+    }
+
+    static final class Message {
+
+        final UUID nodeId;
+
+        final List<Invalidation> invalidations;
+
+        Message(UUID nodeId, List<Invalidation> invalidations) {
+            this.nodeId = nodeId;
+            this.invalidations = invalidations;
+        }
+    }
+
+    static final class Invalidation {
+
+        final String cacheName;
+
+        final boolean evictAll;
+
+        final List<Object> keys;
+
+        Invalidation(String cacheName, boolean evictAll, List<Object> keys) {
+            this.cacheName = cacheName;
+            this.evictAll = evictAll;
+            this.keys = keys;
+        }
+    }
+}
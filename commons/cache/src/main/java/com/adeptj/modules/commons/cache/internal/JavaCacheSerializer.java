@@ -0,0 +1,102 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import com.adeptj.modules.commons.cache.CacheSerializer;
+import org.jetbrains.annotations.NotNull;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.ObjectStreamClass;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.lang.ref.WeakReference;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * {@link CacheSerializer} based on Java serialization, used by the off-heap tier when no serializer is registered for
+ * a cache.
+ * <p>
+ * The value classes usually come from other bundles which this bundle can't see, therefore the classes written
+ * are remembered and resolved from there while reading the values back.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class JavaCacheSerializer<V> implements CacheSerializer<V> {
+
+    private final ConcurrentMap<String, WeakReference<Class<?>>> classes = new ConcurrentHashMap<>();
+
+    @Override
+    public byte[] serialize(@NotNull V value) {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream out = new ClassRecordingOutputStream(bytes)) {
+            out.writeObject(value);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return bytes.toByteArray();
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public V deserialize(byte[] bytes) {
+        try (ObjectInputStream in = new RecordedClassInputStream(new ByteArrayInputStream(bytes))) {
+            return (V) in.readObject();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        } catch (ClassNotFoundException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    private final class ClassRecordingOutputStream extends ObjectOutputStream {
+
+        ClassRecordingOutputStream(OutputStream out) throws IOException {
+            super(out);
+        }
+
+        @Override
+        protected void annotateClass(Class<?> cl) {
+            // Replaces the cleared references and the classes of an updated bundle.
+            classes.compute(cl.getName(), (name, reference) ->
+                    reference == null || reference.get() != cl ? new WeakReference<>(cl) : reference);
+        }
+    }
+
+    private final class RecordedClassInputStream extends ObjectInputStream {
+
+        RecordedClassInputStream(InputStream in) throws IOException {
+            super(in);
+        }
+
+        @Override
+        protected Class<?> resolveClass(ObjectStreamClass desc) throws IOException, ClassNotFoundException {
+            WeakReference<Class<?>> reference = classes.get(desc.getName());
+            Class<?> cl = reference == null ? null : reference.get();
+            return cl == null ? super.resolveClass(desc) : cl;
+        }
+    }
+}
@@ -0,0 +1,142 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import com.adeptj.modules.commons.cache.CacheInvalidationTransport;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.Nullable;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.metatype.annotations.Designate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.net.DatagramPacket;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.MulticastSocket;
+import java.net.NetworkInterface;
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static org.osgi.service.component.annotations.ConfigurationPolicy.REQUIRE;
+
+/**
+ * {@link CacheInvalidationTransport} over UDP multicast.
+ * <p>
+ * The messages are looped back to the sending host too, so several nodes can share a single box for testing; the
+ * invalidation bus drops its own messages. Multicast is neither reliable nor authenticated, the worst a lost or a
+ * forged message does though is leaving an entry stale till it expires or evicting it early.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+@Designate(ocd = MulticastInvalidationTransportConfig.class)
+@Component(service = CacheInvalidationTransport.class, configurationPolicy = REQUIRE)
+public class MulticastInvalidationTransport implements CacheInvalidationTransport {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final String RECEIVER_THREAD_NAME = "cache-invalidation-receiver";
+
+    /**
+     * Largest UDP payload, peers may be configured with a larger max message size than this node.
+     */
+    private static final int MAX_DATAGRAM_SIZE = 65507;
+
+    private final InetSocketAddress group;
+
+    private final @Nullable NetworkInterface networkInterface;
+
+    private final int maxMessageSize;
+
+    private final MulticastSocket socket;
+
+    private volatile Consumer<byte[]> receiver;
+
+    @Activate
+    public MulticastInvalidationTransport(MulticastInvalidationTransportConfig config) throws IOException {
+        this.group = new InetSocketAddress(InetAddress.getByName(config.group_address()), config.port());
+        this.networkInterface = StringUtils.isEmpty(config.network_interface())
+                ? null
+                : NetworkInterface.getByName(config.network_interface());
+        this.maxMessageSize = config.max_message_size();
+        this.socket = new MulticastSocket(config.port());
+        this.socket.setTimeToLive(config.time_to_live());
+        if (this.networkInterface != null) {
+            this.socket.setNetworkInterface(this.networkInterface);
+        }
+        this.socket.joinGroup(this.group, this.networkInterface);
+        Thread thread = new Thread(this::receive, RECEIVER_THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+        LOGGER.info("Joined cache invalidation multicast group [{}]", this.group);
+    }
+
+    @Override
+    public void send(byte[] message) throws IOException {
+        this.socket.send(new DatagramPacket(message, message.length, this.group));
+    }
+
+    @Override
+    public void setReceiver(@Nullable Consumer<byte[]> receiver) {
+        this.receiver = receiver;
+    }
+
+    @Override
+    public int getMaxMessageSize() {
+        return this.maxMessageSize;
+    }
+
+    private void receive() {
+        byte[] buffer = new byte[MAX_DATAGRAM_SIZE];
+        while (!this.socket.isClosed()) {
+            DatagramPacket packet = new DatagramPacket(buffer, buffer.length);
+            try {
+                this.socket.receive(packet);
+                Consumer<byte[]> currentReceiver = this.receiver;
+                if (currentReceiver != null) {
+                    currentReceiver.accept(Arrays.copyOf(packet.getData(), packet.getLength()));
+                }
+            } catch (IOException ex) {
+                if (!this.socket.isClosed()) {
+                    LOGGER.error(ex.getMessage(), ex);
+                }
+            }
+        }
+    }
+
+    // <<------------------------------------------- OSGi INTERNAL ------------------------------------------->>
+
+    @Deactivate
+    protected void stop() {
+        try {
+            this.socket.leaveGroup(this.group, this.networkInterface);
+        } catch (IOException ex) {
+            LOGGER.error(ex.getMessage(), ex);
+        } finally {
+            this.socket.close();
+        }
+        LOGGER.info("Left cache invalidation multicast group [{}]", this.group);
+    }
+}
@@ -0,0 +1,60 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import org.osgi.service.metatype.annotations.AttributeDefinition;
+import org.osgi.service.metatype.annotations.ObjectClassDefinition;
+
+/**
+ * Configuration for the UDP multicast based cache invalidation transport.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+@ObjectClassDefinition(
+        name = "AdeptJ Cache Invalidation Multicast Transport Configuration",
+        description = "Configuration for propagating the cache invalidations to the other nodes over UDP multicast."
+)
+public @interface MulticastInvalidationTransportConfig {
+
+    @AttributeDefinition(name = "Group Address", description = "The multicast group all the nodes join.")
+    String group_address() default "239.255.27.1";
+
+    @AttributeDefinition(name = "Port", description = "The port the multicast messages are exchanged on.")
+    int port() default 45700;
+
+    @AttributeDefinition(
+            name = "Time To Live",
+            description = "The number of hops a message may travel, 1 keeps it within the local network."
+    )
+    int time_to_live() default 1;
+
+    @AttributeDefinition(
+            name = "Network Interface",
+            description = "Name of the network interface to use, e.g. eth0, the system default is used if left blank."
+    )
+    String network_interface();
+
+    @AttributeDefinition(
+            name = "Max Message Size",
+            description = "Maximum size of a message in bytes, keep it within the network MTU to avoid fragmentation."
+    )
+    int max_message_size() default 1400;
+}
@@ -0,0 +1,411 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import com.adeptj.modules.commons.cache.CacheSerializer;
+import org.jetbrains.annotations.Nullable;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.locks.Lock;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import static java.nio.channels.FileChannel.MapMode.READ_WRITE;
+import static java.nio.file.StandardOpenOption.CREATE;
+import static java.nio.file.StandardOpenOption.READ;
+import static java.nio.file.StandardOpenOption.TRUNCATE_EXISTING;
+import static java.nio.file.StandardOpenOption.WRITE;
+
+/**
+ * Second tier of a {@link CaffeineCache} which holds the serialized values evicted from the heap.
+ * <p>
+ * The values live in a single direct or memory-mapped buffer used as a ring, i.e. a value is always written right
+ * after the previous one and the oldest values are dropped when the ring wraps over them. Only the keys and the
+ * slot positions are kept on the heap.
+ * <p>
+ * A value expires after the configured time to live or the time it had left on the heap, whichever is shorter. The
+ * buffer is freed right away when the store is closed, rather than whenever the garbage collector gets to it.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class OffHeapStore<K, V> {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    /**
+     * sun.misc.Unsafe#invokeCleaner bound to the Unsafe instance, null where not available.
+     */
+    private static final MethodHandle INVOKE_CLEANER = findInvokeCleaner();
+
+    private final String cacheName;
+
+    /**
+     * The direct or mapped buffer holding the values, guarded by {@link #lock} and null once the store is closed.
+     */
+    private ByteBuffer buffer;
+
+    private final int capacity;
+
+    private final long ttlNanos;
+
+    private final @Nullable FileChannel channel;
+
+    private final @Nullable Path file;
+
+    private final ReadWriteLock lock;
+
+    /**
+     * The live slots by key, guarded by {@link #lock}.
+     */
+    private final Map<K, Slot<K>> index;
+
+    /**
+     * All the slots in the order they were written including the ones overwritten by a later put of the same key,
+     * guarded by {@link #lock}.
+     */
+    private final Deque<Slot<K>> slots;
+
+    private volatile CacheSerializer<V> serializer;
+
+    private int writePosition;
+
+    private long usedBytes;
+
+    private OffHeapStore(String cacheName, ByteBuffer buffer, long ttlNanos, FileChannel channel, Path file) {
+        this.cacheName = cacheName;
+        this.buffer = buffer;
+        this.capacity = buffer.capacity();
+        this.ttlNanos = ttlNanos;
+        this.channel = channel;
+        this.file = file;
+        this.lock = new ReentrantReadWriteLock();
+        this.index = new HashMap<>();
+        this.slots = new ArrayDeque<>();
+        this.serializer = new JavaCacheSerializer<>();
+    }
+
+    static <K, V> OffHeapStore<K, V> newStore(String cacheName, long maxSizeBytes, long ttlNanos,
+                                              @Nullable Path directory) throws IOException {
+        int capacity = (int) Math.min(maxSizeBytes, Integer.MAX_VALUE - 8);
+        if (directory == null) {
+            LOGGER.info("Off-heap tier of CaffeineCache ({}) allocated with [{}] bytes!!", cacheName, capacity);
+            return new OffHeapStore<>(cacheName, ByteBuffer.allocateDirect(capacity), ttlNanos, null, null);
+        }
+        Files.createDirectories(directory);
+        Path file = directory.resolve(cacheName + ".l2");
+        FileChannel channel = FileChannel.open(file, CREATE, READ, WRITE, TRUNCATE_EXISTING);
+        try {
+            ByteBuffer buffer = channel.map(READ_WRITE, 0, capacity);
+            LOGGER.info("Off-heap tier of CaffeineCache ({}) mapped to file [{}] with [{}] bytes!!", cacheName, file,
+                    capacity);
+            return new OffHeapStore<>(cacheName, buffer, ttlNanos, channel, file);
+        } catch (IOException ex) {
+            channel.close();
+            throw ex;
+        }
+    }
+
+    /**
+     * Stores the given value, values larger than the store or failing to serialize are skipped.
+     *
+     * @param ttlNanos the time the value has left to live on the heap, -1 if it doesn't expire there.
+     */
+    void put(K key, V value, long ttlNanos) {
+        CacheSerializer<V> valueSerializer = this.serializer;
+        byte[] bytes;
+        try {
+            bytes = valueSerializer.serialize(value);
+        } catch (RuntimeException ex) { // NOSONAR
+            LOGGER.debug("Skipping value of CaffeineCache ({}) as it couldn't be serialized!!", this.cacheName, ex);
+            return;
+        }
+        if (bytes.length > this.capacity) {
+            return;
+        }
+        Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            if (this.buffer == null || valueSerializer != this.serializer) {
+                // Closed or serializer changed meanwhile, the bytes can't be read back by the new one.
+                return;
+            }
+            int offset = this.writePosition;
+            if (offset + bytes.length > this.capacity) {
+                // The tail of the ring is too small, drop what is left there from the previous lap and wrap around.
+                this.reclaim(offset, this.capacity);
+                offset = 0;
+            }
+            this.reclaim(offset, offset + bytes.length);
+            ByteBuffer target = this.buffer.duplicate();
+            target.position(offset);
+            target.put(bytes);
+            long expiresAt = System.nanoTime() + (ttlNanos < 0 ? this.ttlNanos : Math.min(ttlNanos, this.ttlNanos));
+            Slot<K> slot = new Slot<>(key, offset, bytes.length, expiresAt);
+            this.slots.addLast(slot);
+            Slot<K> oldSlot = this.index.put(key, slot);
+            if (oldSlot != null) {
+                this.usedBytes -= oldSlot.length;
+            }
+            this.usedBytes += bytes.length;
+            this.writePosition = offset + bytes.length;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Gets the value for the given key without removing it.
+     */
+    @Nullable V get(K key) {
+        byte[] bytes;
+        Lock readLock = this.lock.readLock();
+        readLock.lock();
+        try {
+            bytes = this.read(this.index.get(key));
+        } finally {
+            readLock.unlock();
+        }
+        return this.deserialize(bytes);
+    }
+
+    /**
+     * Removes and returns the value for the given key along with the time it has left to live, used while
+     * promoting the value back to the heap.
+     */
+    @Nullable Value<V> take(K key) {
+        byte[] bytes;
+        long expiresAt = 0L;
+        Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            Slot<K> slot = this.index.remove(key);
+            if (slot != null) {
+                this.usedBytes -= slot.length;
+                expiresAt = slot.expiresAt;
+            }
+            bytes = this.read(slot);
+        } finally {
+            writeLock.unlock();
+        }
+        V value = this.deserialize(bytes);
+        return value == null ? null : new Value<>(value, Math.max(0L, expiresAt - System.nanoTime()));
+    }
+
+    void remove(K key) {
+        Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            Slot<K> slot = this.index.remove(key);
+            if (slot != null) {
+                this.usedBytes -= slot.length;
+            }
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    void clear() {
+        Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            this.index.clear();
+            this.slots.clear();
+            this.writePosition = 0;
+            this.usedBytes = 0;
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    long size() {
+        Lock readLock = this.lock.readLock();
+        readLock.lock();
+        try {
+            return this.index.size();
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    long usedBytes() {
+        Lock readLock = this.lock.readLock();
+        readLock.lock();
+        try {
+            return this.usedBytes;
+        } finally {
+            readLock.unlock();
+        }
+    }
+
+    /**
+     * Sets the serializer, the values written by the previous one can't be read anymore so those are dropped.
+     */
+    void setSerializer(@Nullable CacheSerializer<V> serializer) {
+        Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            this.serializer = serializer == null ? new JavaCacheSerializer<>() : serializer;
+            this.clear();
+        } finally {
+            writeLock.unlock();
+        }
+    }
+
+    /**
+     * Drops the values and frees the buffer, the store stays empty afterwards.
+     */
+    void close() {
+        ByteBuffer closedBuffer;
+        Lock writeLock = this.lock.writeLock();
+        writeLock.lock();
+        try {
+            this.clear();
+            closedBuffer = this.buffer;
+            this.buffer = null;
+        } finally {
+            writeLock.unlock();
+        }
+        // No reader can get to the buffer anymore, the mapped one must be unmapped before the file can be deleted.
+        if (closedBuffer != null) {
+            release(closedBuffer);
+        }
+        if (this.channel != null) {
+            try {
+                this.channel.close();
+                Files.deleteIfExists(this.file);
+            } catch (IOException ex) {
+                LOGGER.error(ex.getMessage(), ex);
+            }
+        }
+    }
+
+    /**
+     * Drops the oldest slots starting within [from, to), the ring guarantees that these are at the head.
+     */
+    private void reclaim(int from, int to) {
+        Slot<K> head;
+        while ((head = this.slots.peekFirst()) != null && head.offset >= from && head.offset < to) {
+            this.slots.pollFirst();
+            if (this.index.remove(head.key, head)) {
+                this.usedBytes -= head.length;
+            }
+        }
+    }
+
+    /**
+     * Copies the bytes of the given slot, null if there is no slot, it has expired or the store is closed.
+     */
+    private byte[] read(@Nullable Slot<K> slot) {
+        if (slot == null || this.buffer == null || System.nanoTime() - slot.expiresAt > 0) {
+            return null;
+        }
+        byte[] bytes = new byte[slot.length];
+        ByteBuffer source = this.buffer.duplicate();
+        source.position(slot.offset);
+        source.get(bytes);
+        return bytes;
+    }
+
+    private @Nullable V deserialize(byte[] bytes) {
+        if (bytes == null) {
+            return null;
+        }
+        try {
+            return this.serializer.deserialize(bytes);
+        } catch (RuntimeException ex) { // NOSONAR
+            LOGGER.debug("Treating value of CaffeineCache ({}) as a miss as it couldn't be deserialized!!",
+                    this.cacheName, ex);
+            return null;
+        }
+    }
+
+    private static void release(ByteBuffer buffer) {
+        if (INVOKE_CLEANER == null) {
+            return;
+        }
+        try {
+            INVOKE_CLEANER.invokeExact(buffer);
+        } catch (Throwable ex) { // NOSONAR
+            LOGGER.debug("Off-heap buffer couldn't be freed, leaving it to the garbage collector!!", ex);
+        }
+    }
+
+    private static @Nullable MethodHandle findInvokeCleaner() {
+        try {
+            Class<?> unsafeClass = Class.forName("sun.misc.Unsafe");
+            Field theUnsafe = unsafeClass.getDeclaredField("theUnsafe");
+            theUnsafe.setAccessible(true);
+            return MethodHandles.lookup()
+                    .findVirtual(unsafeClass, "invokeCleaner", MethodType.methodType(void.class, ByteBuffer.class))
+                    .bindTo(theUnsafe.get(null));
+        } catch (ReflectiveOperationException | RuntimeException ex) {
+            LOGGER.debug("Off-heap buffers will be freed by the garbage collector!!", ex);
+            return null;
+        }
+    }
+
+    /**
+     * A value taken from the store along with the nanoseconds it had left to live.
+     */
+    static final class Value<V> {
+
+        final V value;
+
+        final long ttlNanos;
+
+        Value(V value, long ttlNanos) {
+            this.value = value;
+            this.ttlNanos = ttlNanos;
+        }
+    }
+
+    private static final class Slot<K> {
+
+        private final K key;
+
+        private final int offset;
+
+        private final int length;
+
+        private final long expiresAt;
+
+        Slot(K key, int offset, int length, long expiresAt) {
+            this.key = key;
+            this.offset = offset;
+            this.length = length;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
@@ -0,0 +1,67 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * CacheStatsTest
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class CacheStatsTest {
+
+    @Test
+    public void testDerivedRates() {
+        CacheStats stats = newStats(3, 1, 2, 2, 400);
+        assertEquals(4, stats.getRequestCount());
+        assertEquals(0.75, stats.getHitRate());
+        assertEquals(100.0, stats.getAverageLoadPenalty());
+    }
+
+    @Test
+    public void testRatesWithoutRequests() {
+        CacheStats stats = newStats(0, 0, 0, 0, 0);
+        assertEquals(0, stats.getRequestCount());
+        assertEquals(1.0, stats.getHitRate());
+        assertEquals(0.0, stats.getAverageLoadPenalty());
+    }
+
+    @Test
+    public void testRemovalCountsUnmodifiable() {
+        Map<String, Long> removals = new HashMap<>();
+        removals.put("SIZE", 2L);
+        CacheStats stats = new CacheStats("test", true, 0, -1, -1, 0, 0, 0, 0, 0, 0, 0, removals, 0, 0, 0, 0);
+        assertEquals(2, (long) stats.getRemovalCounts().get("SIZE"));
+        assertThrows(UnsupportedOperationException.class, () -> stats.getRemovalCounts().put("EXPIRED", 1L));
+    }
+
+    private static CacheStats newStats(long hits, long misses, long loadSuccesses, long loadFailures, long loadTime) {
+        return new CacheStats("test", true, 0, -1, -1, hits, misses, loadSuccesses, loadFailures, loadTime, 0, 0,
+                new HashMap<>(), 0, 0, 0, 0);
+    }
+}
@@ -0,0 +1,109 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import java.util.stream.StreamSupport;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * BatchSpliteratorTest
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class BatchSpliteratorTest {
+
+    @Test
+    public void testElementsGroupedInOrder() {
+        List<Integer> source = IntStream.range(0, 7).boxed().collect(Collectors.toList());
+        BatchSpliterator<Integer> batches = new BatchSpliterator<>(source.spliterator(), 3);
+        assertEquals(3, batches.estimateSize());
+        List<List<Integer>> result = StreamSupport.stream(batches, false).collect(Collectors.toList());
+        assertEquals(Arrays.asList(Arrays.asList(0, 1, 2), Arrays.asList(3, 4, 5), Arrays.asList(6)), result);
+    }
+
+    @Test
+    public void testEmptySourceHasNoBatches() {
+        BatchSpliterator<Integer> batches = new BatchSpliterator<>(new ArrayList<Integer>().spliterator(), 3);
+        assertEquals(0, batches.estimateSize());
+        assertFalse(batches.tryAdvance(batch -> {
+            throw new AssertionError("No batch expected");
+        }));
+    }
+
+    @Test
+    public void testSplitAlongSource() {
+        List<Integer> source = IntStream.range(0, 100).boxed().collect(Collectors.toList());
+        BatchSpliterator<Integer> suffix = new BatchSpliterator<>(source.spliterator(), 10);
+        Spliterator<List<Integer>> prefix = suffix.trySplit();
+        assertNotNull(prefix);
+        List<Integer> seen = new ArrayList<>();
+        prefix.forEachRemaining(batch -> {
+            assertTrue(batch.size() <= 10);
+            seen.addAll(batch);
+        });
+        suffix.forEachRemaining(seen::addAll);
+        assertEquals(source, seen);
+        // A source which can't split leaves the batches unsplit.
+        assertNull(new BatchSpliterator<>(Arrays.asList(1).spliterator(), 10).trySplit());
+    }
+
+    @Test
+    public void testParallelBatchesCoverConcurrentMap() {
+        Map<Integer, Integer> map = new ConcurrentHashMap<>();
+        IntStream.range(0, 10_000).forEach(i -> map.put(i, i));
+        BatchSpliterator<Integer> batches = new BatchSpliterator<>(map.keySet().spliterator(), 64);
+        assertTrue(batches.hasCharacteristics(Spliterator.CONCURRENT));
+        assertTrue(batches.hasCharacteristics(Spliterator.NONNULL));
+        List<Integer> keys = StreamSupport.stream(batches, true)
+                .peek(batch -> assertTrue(batch.size() <= 64))
+                .flatMap(List::stream)
+                .sorted()
+                .collect(Collectors.toList());
+        assertEquals(IntStream.range(0, 10_000).boxed().collect(Collectors.toList()), keys);
+    }
+
+    @Test
+    public void testUnknownSizeKeptUnknown() {
+        Spliterator<Integer> source = IntStream.iterate(0, i -> i + 1).boxed().spliterator();
+        assertEquals(Long.MAX_VALUE, new BatchSpliterator<>(source, 10).estimateSize());
+    }
+
+    @Test
+    public void testNonPositiveBatchSizeRejected() {
+        assertThrows(IllegalArgumentException.class, () -> new BatchSpliterator<>(Arrays.asList(1).spliterator(), 0));
+    }
+}
@@ -0,0 +1,135 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import com.adeptj.modules.commons.cache.CacheInvalidationTransport;
+import org.jetbrains.annotations.Nullable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * CacheInvalidationBusTest
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class CacheInvalidationBusTest {
+
+    private CacheInvalidationBus senderBus;
+
+    private CacheInvalidationBus peerBus;
+
+    private CaffeineCache<Object, String> sender;
+
+    private CaffeineCache<Object, String> peer;
+
+    @BeforeEach
+    public void setUp() {
+        LoopbackTransport senderTransport = new LoopbackTransport();
+        LoopbackTransport peerTransport = new LoopbackTransport();
+        senderTransport.peer = peerTransport;
+        peerTransport.peer = senderTransport;
+        this.senderBus = new CacheInvalidationBus(name -> this.sender, 60_000);
+        this.peerBus = new CacheInvalidationBus(name -> this.peer, 60_000);
+        this.sender = CaffeineCacheTest.newCache(Runnable::run, this.senderBus, "cluster.invalidation", "true");
+        this.peer = CaffeineCacheTest.newCache(Runnable::run, this.peerBus, "cluster.invalidation", "true");
+        this.senderBus.setTransport(senderTransport);
+        this.peerBus.setTransport(peerTransport);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.peerBus.close();
+    }
+
+    @Test
+    public void testRemovedCompositeKeyInvalidatedOnPeer() {
+        // Typed as Object, the same as the caching proxies do, a List would pick remove(Iterable).
+        Object key = Arrays.asList("user", 7L);
+        this.peer.put(Arrays.asList("user", 7L), "stale");
+        this.peer.put(Arrays.asList("user", 8L), "other");
+        this.sender.remove(key);
+        // Closing flushes the pending invalidations.
+        this.senderBus.close();
+        assertNull(this.peer.getIfPresent(key));
+        assertEquals("other", this.peer.getIfPresent(Arrays.asList("user", 8L)));
+    }
+
+    @Test
+    public void testPutOfUnencodableKeyDoesNotEvictPeer() {
+        this.peer.put(1.0d, "one");
+        this.peer.put("a", "a");
+        this.sender.put(1.0d, "new");
+        this.senderBus.close();
+        assertEquals("one", this.peer.getIfPresent(1.0d));
+        assertEquals("a", this.peer.getIfPresent("a"));
+    }
+
+    @Test
+    public void testRemoveOfUnencodableKeyEvictsPeer() {
+        this.peer.put(1.0d, "one");
+        this.peer.put("a", "a");
+        this.sender.remove(1.0d);
+        this.senderBus.close();
+        assertNull(this.peer.getIfPresent(1.0d));
+        assertNull(this.peer.getIfPresent("a"));
+    }
+
+    @Test
+    public void testPutInvalidatedOnPeer() {
+        this.peer.put("a", "stale");
+        this.sender.put("a", "fresh");
+        this.senderBus.close();
+        assertNull(this.peer.getIfPresent("a"));
+        assertEquals("fresh", this.sender.getIfPresent("a"));
+    }
+
+    private static final class LoopbackTransport implements CacheInvalidationTransport {
+
+        private LoopbackTransport peer;
+
+        private volatile Consumer<byte[]> receiver;
+
+        @Override
+        public void send(byte[] message) {
+            Consumer<byte[]> peerReceiver = this.peer.receiver;
+            if (peerReceiver != null) {
+                peerReceiver.accept(message);
+            }
+        }
+
+        @Override
+        public void setReceiver(@Nullable Consumer<byte[]> receiver) {
+            this.receiver = receiver;
+        }
+
+        @Override
+        public int getMaxMessageSize() {
+            return 1400;
+        }
+    }
+}
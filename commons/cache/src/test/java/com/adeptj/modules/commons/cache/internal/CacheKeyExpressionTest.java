@@ -0,0 +1,118 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Method;
+import java.util.List;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CacheKeyExpressionTest
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class CacheKeyExpressionTest {
+
+    private static final Object[] ARGS = {"AdeptJ", 42, true};
+
+    @Test
+    public void testIndexedExpressions() throws Exception {
+        Method method = method("find", String.class, int.class, boolean.class);
+        assertSame(ARGS[0], CacheKeyExpression.compile("#p0", method).apply(ARGS));
+        assertEquals(42, CacheKeyExpression.compile("#a1", method).apply(ARGS));
+        assertEquals(true, CacheKeyExpression.compile(" #p2 ", method).apply(ARGS));
+    }
+
+    @Test
+    public void testNamedExpressions() throws Exception {
+        // The module is compiled with -parameters.
+        Method method = method("find", String.class, int.class, boolean.class);
+        assertEquals("AdeptJ", CacheKeyExpression.compile("#name", method).apply(ARGS));
+        assertEquals(42, CacheKeyExpression.compile("#age", method).apply(ARGS));
+    }
+
+    @Test
+    public void testCommaSeparatedExpressionsMakeListKey() throws Exception {
+        Method method = method("find", String.class, int.class, boolean.class);
+        Function<Object[], Object> key = CacheKeyExpression.compile("#p2, #name", method);
+        assertEquals(List.of(true, "AdeptJ"), key.apply(ARGS));
+        // Equal arguments make equal keys.
+        assertEquals(key.apply(ARGS), key.apply(ARGS.clone()));
+    }
+
+    @Test
+    public void testEmptyExpression() throws Exception {
+        Function<Object[], Object> only = CacheKeyExpression.compile("", method("get", String.class));
+        assertEquals("AdeptJ", only.apply(new Object[]{"AdeptJ"}));
+        Method method = method("find", String.class, int.class, boolean.class);
+        Object[] args = ARGS.clone();
+        Object key = CacheKeyExpression.compile("", method).apply(args);
+        assertEquals(List.of("AdeptJ", 42, true), key);
+        // The key doesn't see later changes of the argument array.
+        args[0] = "Changed";
+        assertEquals(List.of("AdeptJ", 42, true), key);
+    }
+
+    @Test
+    public void testInvalidExpressionsRejected() throws Exception {
+        Method method = method("find", String.class, int.class, boolean.class);
+        assertThrows(IllegalArgumentException.class, () -> CacheKeyExpression.compile("p0", method));
+        assertThrows(IllegalArgumentException.class, () -> CacheKeyExpression.compile("#", method));
+        assertThrows(IllegalArgumentException.class, () -> CacheKeyExpression.compile("#p0, p1", method));
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> CacheKeyExpression.compile("#unknown", method));
+        assertTrue(ex.getMessage().contains("#unknown"));
+    }
+
+    @Test
+    public void testOutOfRangeIndexRejected() throws Exception {
+        Method method = method("find", String.class, int.class, boolean.class);
+        assertThrows(IllegalArgumentException.class, () -> CacheKeyExpression.compile("#p3", method));
+        assertThrows(IllegalArgumentException.class, () -> CacheKeyExpression.compile("#a9", method));
+    }
+
+    @Test
+    public void testMethodWithoutArgumentsNeedsExpression() throws Exception {
+        Method method = method("count");
+        assertThrows(IllegalArgumentException.class, () -> CacheKeyExpression.compile("", method));
+        assertThrows(IllegalArgumentException.class, () -> CacheKeyExpression.compile("#p0", method));
+    }
+
+    private static Method method(String name, Class<?>... parameterTypes) throws NoSuchMethodException {
+        return Repository.class.getMethod(name, parameterTypes);
+    }
+
+    interface Repository {
+
+        Object find(String name, int age, boolean active);
+
+        Object get(String id);
+
+        long count();
+    }
+}
@@ -0,0 +1,273 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import com.adeptj.modules.commons.cache.AsyncCache;
+import com.adeptj.modules.commons.cache.Cache;
+import com.adeptj.modules.commons.cache.CacheEvict;
+import com.adeptj.modules.commons.cache.CacheService;
+import com.adeptj.modules.commons.cache.CacheStats;
+import com.adeptj.modules.commons.cache.Cached;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CachingInvocationHandlerTest
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class CachingInvocationHandlerTest {
+
+    @Test
+    public void testCachedHitAndMiss() {
+        UserRepository target = new UserRepository();
+        Repository proxy = newProxy(target, newCacheService(), Repository.class);
+        assertEquals("USER-1", proxy.find("1"));
+        assertEquals("USER-1", proxy.find("1"));
+        assertEquals(1, target.invocations.get());
+        assertEquals("USER-2", proxy.find("2"));
+        assertEquals(2, target.invocations.get());
+    }
+
+    @Test
+    public void testCacheEvict() {
+        UserRepository target = new UserRepository();
+        TestCacheService cacheService = newCacheService();
+        Repository proxy = newProxy(target, cacheService, Repository.class);
+        proxy.find("1");
+        proxy.find("2");
+        // Evicts after invoking the target, only the key of the argument.
+        proxy.update("1");
+        assertEquals(List.of("1"), target.updates);
+        assertEquals(1, cacheService.cache.size());
+        proxy.find("1");
+        proxy.find("2");
+        assertEquals(3, target.invocations.get());
+        proxy.deleteAll();
+        assertEquals(0, cacheService.cache.size());
+    }
+
+    @Test
+    public void testTargetInvokedWithoutCache() {
+        UserRepository target = new UserRepository();
+        Repository proxy = newProxy(target, new TestCacheService(null), Repository.class);
+        proxy.find("1");
+        proxy.find("1");
+        proxy.update("1");
+        assertEquals(2, target.invocations.get());
+        assertEquals(List.of("1"), target.updates);
+    }
+
+    @Test
+    public void testCheckedExceptionPropagated() {
+        UserRepository target = new UserRepository();
+        Repository proxy = newProxy(target, newCacheService(), Repository.class);
+        IOException ex = assertThrows(IOException.class, () -> proxy.load("io"));
+        assertEquals("io", ex.getMessage());
+        // Failures are not cached.
+        assertThrows(IOException.class, () -> proxy.load("io"));
+        assertEquals(2, target.invocations.get());
+        assertThrows(IOException.class, () -> newProxy(target, new TestCacheService(null), Repository.class)
+                .load("io"));
+    }
+
+    @Test
+    public void testUncheckedExceptionPropagated() throws Exception {
+        UserRepository target = new UserRepository();
+        Repository proxy = newProxy(target, newCacheService(), Repository.class);
+        IllegalStateException ex = assertThrows(IllegalStateException.class, () -> proxy.load("state"));
+        assertEquals("state", ex.getMessage());
+        assertEquals("LOADED-ok", proxy.load("ok"));
+        assertThrows(IllegalStateException.class, () -> proxy.update(null));
+    }
+
+    @Test
+    public void testAnnotationOnImplementation() {
+        TestCacheService cacheService = newCacheService();
+        UserRepository target = new UserRepository();
+        Repository proxy = newProxy(target, cacheService, Repository.class);
+        assertEquals(1, proxy.countByName("AdeptJ"));
+        assertEquals(1, proxy.countByName("AdeptJ"));
+        assertEquals(1L, cacheService.cache.getIfPresent("AdeptJ"));
+    }
+
+    @Test
+    public void testNonPublicInterface() {
+        HiddenRepository target = id -> "HIDDEN-" + id;
+        TestCacheService cacheService = newCacheService();
+        HiddenRepository proxy = newProxy(target, cacheService, HiddenRepository.class);
+        assertEquals("HIDDEN-1", proxy.find("1"));
+        assertEquals("HIDDEN-1", cacheService.cache.getIfPresent("1"));
+    }
+
+    @Test
+    public void testObjectMethods() {
+        Repository proxy = newProxy(new UserRepository(), newCacheService(), Repository.class);
+        assertEquals(proxy, proxy);
+        assertNotEquals(proxy, newProxy(new UserRepository(), newCacheService(), Repository.class));
+        assertEquals(System.identityHashCode(proxy), proxy.hashCode());
+        assertTrue(proxy.toString().startsWith("CachingProxy("));
+    }
+
+    @Test
+    public void testNoHandlerWithoutAnnotations() {
+        Runnable target = () -> {
+        };
+        assertNull(CachingInvocationHandler.create(target, List.of(Runnable.class), newCacheService()));
+    }
+
+    @Test
+    public void testCachedVoidMethodRejected() {
+        VoidRepository target = id -> {
+        };
+        assertThrows(IllegalArgumentException.class,
+                () -> CachingInvocationHandler.create(target, List.of(VoidRepository.class), newCacheService()));
+    }
+
+    private static <T> T newProxy(T target, CacheService cacheService, Class<T> type) {
+        CachingInvocationHandler handler = CachingInvocationHandler.create(target, List.of(type), cacheService);
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[]{type}, handler));
+    }
+
+    private static TestCacheService newCacheService() {
+        return new TestCacheService(CaffeineCacheTest.newCache(Runnable::run));
+    }
+
+    public interface Repository {
+
+        @Cached(cache = "test", key = "#id")
+        String find(String id);
+
+        @Cached(cache = "test", key = "#p0")
+        String load(String id) throws IOException;
+
+        long countByName(String name);
+
+        @CacheEvict(cache = "test", key = "#p0")
+        void update(String id);
+
+        @CacheEvict(cache = "test", allEntries = true)
+        void deleteAll();
+    }
+
+    interface HiddenRepository {
+
+        @Cached(cache = "test")
+        String find(String id);
+    }
+
+    public interface VoidRepository {
+
+        @Cached(cache = "test")
+        void touch(String id);
+    }
+
+    private static final class UserRepository implements Repository {
+
+        private final AtomicInteger invocations = new AtomicInteger();
+
+        private final List<String> updates = new ArrayList<>();
+
+        @Override
+        public String find(String id) {
+            this.invocations.incrementAndGet();
+            return "USER-" + id;
+        }
+
+        @Override
+        public String load(String id) throws IOException {
+            this.invocations.incrementAndGet();
+            if (id.equals("io")) {
+                throw new IOException(id);
+            }
+            if (id.equals("state")) {
+                throw new IllegalStateException(id);
+            }
+            return "LOADED-" + id;
+        }
+
+        @Cached(cache = "test")
+        @Override
+        public long countByName(String name) {
+            return this.invocations.incrementAndGet();
+        }
+
+        @Override
+        public void update(String id) {
+            if (id == null) {
+                throw new IllegalStateException("id is null");
+            }
+            this.updates.add(id);
+        }
+
+        @Override
+        public void deleteAll() {
+            // NOOP
+        }
+    }
+
+    private static final class TestCacheService implements CacheService {
+
+        private final Cache<Object, Object> cache;
+
+        TestCacheService(Cache<Object, Object> cache) {
+            this.cache = cache;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public <K, V> Cache<K, V> getCache(String cacheName) {
+            return "test".equals(cacheName) ? (Cache<K, V>) this.cache : null;
+        }
+
+        @Override
+        public <K, V> AsyncCache<K, V> getAsyncCache(String cacheName) {
+            return null;
+        }
+
+        @Override
+        public CacheStats getStats(String cacheName) {
+            return null;
+        }
+
+        @Override
+        public Set<String> getCacheNames() {
+            return this.cache == null ? Set.of() : Set.of("test");
+        }
+
+        @Override
+        public void evictCaches(String... cacheNames) {
+            // NOOP
+        }
+    }
+}
@@ -0,0 +1,121 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import com.adeptj.modules.commons.cache.Cached;
+import org.junit.jupiter.api.Test;
+import org.osgi.framework.Constants;
+import org.osgi.framework.Filter;
+import org.osgi.framework.FrameworkUtil;
+import org.osgi.framework.ServiceReference;
+
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Dictionary;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CachingProxyTrackerTest
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class CachingProxyTrackerTest {
+
+    @Test
+    public void testFilterMatchesRepositoriesAndOptedInServices() throws Exception {
+        Filter filter = FrameworkUtil.createFilter(CachingProxyTracker.FILTER);
+        assertTrue(filter.matches(properties(Constants.OBJECTCLASS,
+                new String[]{"com.adeptj.modules.data.jpa.JpaRepository", "com.example.UserRepository"})));
+        assertTrue(filter.matches(properties(Constants.OBJECTCLASS, new String[]{"com.example.UserService"},
+                Cached.CACHING_PROXY_ENABLED, true)));
+        assertFalse(filter.matches(properties(Constants.OBJECTCLASS, new String[]{"com.example.UserService"})));
+        assertFalse(filter.matches(properties(Constants.OBJECTCLASS, new String[]{"com.example.UserService"},
+                Cached.CACHING_PROXY_ENABLED, false)));
+        // Never the proxies themselves.
+        assertFalse(filter.matches(properties(Constants.OBJECTCLASS,
+                new String[]{"com.adeptj.modules.data.jpa.JpaRepository"}, Cached.CACHING_PROXY, true)));
+    }
+
+    @Test
+    public void testPropertiesCopiedWithoutFrameworkManagedOnes() {
+        Dictionary<String, Object> properties = CachingProxyTracker.getProperties(newReference(properties(
+                Constants.OBJECTCLASS, new String[]{"com.example.UserRepository"},
+                Constants.SERVICE_ID, 7L,
+                Constants.SERVICE_PID, "com.example.UserRepository",
+                Constants.SERVICE_BUNDLEID, 3L,
+                Constants.SERVICE_SCOPE, Constants.SCOPE_SINGLETON,
+                "component.name", "com.example.UserRepository",
+                "component.id", 11L,
+                "osgi.unit.name", "users",
+                Cached.CACHING_PROXY_ENABLED, true)));
+        assertEquals(Map.of("osgi.unit.name", "users", Cached.CACHING_PROXY_ENABLED, true,
+                Constants.SERVICE_RANKING, 1, Cached.CACHING_PROXY, true), toMap(properties));
+    }
+
+    @Test
+    public void testRankingOneAboveTheService() {
+        assertEquals(1, rankingOf(properties()));
+        assertEquals(6, rankingOf(properties(Constants.SERVICE_RANKING, 5)));
+        assertEquals(-9, rankingOf(properties(Constants.SERVICE_RANKING, -10)));
+        // The framework treats a non Integer ranking as 0.
+        assertEquals(1, rankingOf(properties(Constants.SERVICE_RANKING, "5")));
+        assertNull(CachingProxyTracker.getProperties(newReference(properties())).get(Constants.SERVICE_PID));
+    }
+
+    private static Object rankingOf(Map<String, Object> properties) {
+        return CachingProxyTracker.getProperties(newReference(properties)).get(Constants.SERVICE_RANKING);
+    }
+
+    private static Map<String, Object> properties(Object... keyValues) {
+        Map<String, Object> properties = new HashMap<>();
+        for (int i = 0; i < keyValues.length; i += 2) {
+            properties.put((String) keyValues[i], keyValues[i + 1]);
+        }
+        return properties;
+    }
+
+    private static Map<String, Object> toMap(Dictionary<String, Object> properties) {
+        Map<String, Object> map = new HashMap<>();
+        Collections.list(properties.keys()).forEach(key -> map.put(key, properties.get(key)));
+        return map;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static ServiceReference<Object> newReference(Map<String, Object> properties) {
+        return (ServiceReference<Object>) Proxy.newProxyInstance(ServiceReference.class.getClassLoader(),
+                new Class<?>[]{ServiceReference.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "getProperty":
+                            return properties.get((String) args[0]);
+                        case "getPropertyKeys":
+                            return properties.keySet().toArray(new String[0]);
+                        default:
+                            throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+}
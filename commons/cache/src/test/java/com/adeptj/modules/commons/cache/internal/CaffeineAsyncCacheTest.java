@@ -0,0 +1,191 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import com.adeptj.modules.commons.cache.AsyncCache;
+import com.adeptj.modules.commons.cache.CacheLoader;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CaffeineAsyncCacheTest
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class CaffeineAsyncCacheTest {
+
+    private ExecutorService executor;
+
+    @BeforeEach
+    public void setUp() {
+        this.executor = Executors.newFixedThreadPool(4);
+    }
+
+    @AfterEach
+    public void tearDown() {
+        this.executor.shutdownNow();
+    }
+
+    @Test
+    public void testConcurrentMissesShareOneLoad() throws Exception {
+        CaffeineCache<String, String> cache = CaffeineCacheTest.newCache(this.executor);
+        CountDownLatch release = new CountDownLatch(1);
+        AtomicInteger loads = new AtomicInteger();
+        cache.setCacheLoader((CacheLoader<String, String>) key -> {
+            loads.incrementAndGet();
+            release.await(5, TimeUnit.SECONDS);
+            return key.toUpperCase();
+        });
+        AsyncCache<String, String> asyncCache = cache.async();
+        CompletableFuture<String> first = asyncCache.getAsync("a");
+        CompletableFuture<String> second = asyncCache.getAsync("a");
+        // Cancelling one caller's future must not affect the shared load.
+        second.cancel(true);
+        CompletableFuture<String> third = asyncCache.getAsync("a");
+        release.countDown();
+        assertEquals("A", first.get(5, TimeUnit.SECONDS));
+        assertEquals("A", third.get(5, TimeUnit.SECONDS));
+        assertEquals(1, loads.get());
+        // Completed from the cache now.
+        assertTrue(asyncCache.getAsync("a").isDone());
+    }
+
+    @Test
+    public void testFailedLoadNotRemembered() throws Exception {
+        CaffeineCache<String, String> cache = CaffeineCacheTest.newCache(this.executor);
+        AtomicInteger loads = new AtomicInteger();
+        cache.setCacheLoader((CacheLoader<String, String>) key -> {
+            if (loads.incrementAndGet() == 1) {
+                throw new IllegalStateException("first load fails");
+            }
+            return key.toUpperCase();
+        });
+        AsyncCache<String, String> asyncCache = cache.async();
+        ExecutionException ex = assertThrows(ExecutionException.class,
+                () -> asyncCache.getAsync("a").get(5, TimeUnit.SECONDS));
+        assertTrue(ex.getCause() instanceof IllegalStateException);
+        assertEquals("A", asyncCache.getAsync("a").get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    public void testConcurrentGetAllSharesInFlightKeys() throws Exception {
+        CaffeineCache<String, String> cache = CaffeineCacheTest.newCache(this.executor);
+        List<Set<String>> loadAllCalls = new CopyOnWriteArrayList<>();
+        CountDownLatch firstLoading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Function<Set<String>, Map<String, String>> bulkLoader = keys -> {
+            loadAllCalls.add(new TreeSet<>(keys));
+            if (keys.contains("a")) {
+                firstLoading.countDown();
+                await(release);
+            }
+            return keys.stream().collect(Collectors.toMap(Function.identity(), String::toUpperCase));
+        };
+        Future<Map<String, String>> first = this.executor.submit(() -> cache.getAll(Arrays.asList("a", "b"),
+                bulkLoader));
+        assertTrue(firstLoading.await(5, TimeUnit.SECONDS));
+        // b is in flight, the second caller only loads c and then waits for b.
+        Future<Map<String, String>> second = this.executor.submit(() -> cache.getAll(Arrays.asList("b", "c"),
+                bulkLoader));
+        assertThrows(TimeoutException.class, () -> second.get(100, TimeUnit.MILLISECONDS));
+        assertEquals("C", cache.getIfPresent("c"));
+        release.countDown();
+        assertEquals(Map.of("a", "A", "b", "B"), first.get(5, TimeUnit.SECONDS));
+        assertEquals(Map.of("b", "B", "c", "C"), second.get(5, TimeUnit.SECONDS));
+        assertEquals(2, loadAllCalls.size());
+        assertEquals(Set.of("a", "b"), loadAllCalls.get(0));
+        assertEquals(Set.of("c"), loadAllCalls.get(1));
+    }
+
+    @Test
+    public void testFailedGetAllFailsTheSharers() throws Exception {
+        CaffeineCache<String, String> cache = CaffeineCacheTest.newCache(this.executor);
+        CountDownLatch loading = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Future<Map<String, String>> first = this.executor.submit(() -> cache.getAll(Arrays.asList("a"), keys -> {
+            loading.countDown();
+            await(release);
+            throw new IllegalStateException("bulk load fails");
+        }));
+        assertTrue(loading.await(5, TimeUnit.SECONDS));
+        AtomicInteger loads = new AtomicInteger();
+        Future<Map<String, String>> second = this.executor.submit(() -> cache.getAll(Arrays.asList("a"), keys -> {
+            loads.incrementAndGet();
+            return Map.of();
+        }));
+        release.countDown();
+        ExecutionException ex = assertThrows(ExecutionException.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertTrue(ex.getCause() instanceof IllegalStateException);
+        // The second caller either shared the failed load or came after it and loaded a itself.
+        try {
+            assertEquals(Map.of(), second.get(5, TimeUnit.SECONDS));
+            assertEquals(1, loads.get());
+        } catch (ExecutionException sharedFailure) {
+            assertTrue(sharedFailure.getCause() instanceof IllegalStateException);
+            assertEquals(0, loads.get());
+        }
+        // The failed load isn't remembered.
+        assertEquals(Map.of("a", "A"), cache.getAll(Arrays.asList("a"), keys -> Map.of("a", "A")));
+    }
+
+    private static void await(CountDownLatch latch) {
+        try {
+            assertTrue(latch.await(5, TimeUnit.SECONDS));
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    @Test
+    public void testRejectedLoadCompletesExceptionally() {
+        CaffeineCache<String, String> cache = CaffeineCacheTest.newCache(this.executor);
+        cache.setCacheLoader((CacheLoader<String, String>) String::toUpperCase);
+        this.executor.shutdown();
+        CompletableFuture<String> future = cache.async().getAsync("a");
+        assertTrue(future.isCompletedExceptionally());
+        assertFalse(cache.keys().contains("a"));
+    }
+}
@@ -0,0 +1,92 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CaffeineCacheConfigFactoryTest
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class CaffeineCacheConfigFactoryTest {
+
+    @Test
+    public void testMaximumWeightWithMaximumSizeRefused() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> newConfig("maximumSize=100", "maximum.weight", 1024L));
+        assertTrue(ex.getMessage().contains("maximumSize"));
+        assertThrows(IllegalArgumentException.class, () -> newConfig("maximumWeight=100", "maximum.weight", 1024L));
+    }
+
+    @Test
+    public void testVariableExpiryWithFixedExpiryRefused() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> newConfig("maximumSize=100,expireAfterWrite=1h", "variable.expiry", true));
+        assertTrue(ex.getMessage().contains("expireAfterWrite"));
+        assertThrows(IllegalArgumentException.class,
+                () -> newConfig("maximumSize=100,expireAfterAccess=1h", "variable.expiry", true));
+    }
+
+    @Test
+    public void testEntriesSnapshotWithClusterInvalidationRefused() {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("cluster.invalidation", true);
+        properties.put("snapshot.mode", "ENTRIES");
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> newConfig("maximumSize=100", properties));
+        assertTrue(ex.getMessage().contains("snapshot.mode"));
+        properties.put("snapshot.mode", "KEYS");
+        assertEquals("KEYS", newConfig("maximumSize=100", properties).getSnapshotMode());
+    }
+
+    @Test
+    public void testCompatibleOptionsAccepted() {
+        CaffeineCacheConfigFactory config = newConfig("expireAfterWrite=1h", "maximum.weight", 1024L);
+        assertEquals(1024L, config.getMaximumWeight());
+        config = newConfig("maximumSize=100", "variable.expiry", true);
+        assertTrue(config.isVariableExpiry());
+        // Both make a working cache.
+        CaffeineCacheTest.newCache(Runnable::run, "cache.spec", "expireAfterWrite=1h", "maximum.weight", 1024L)
+                .put("a", "1");
+        CaffeineCacheTest.newCache(Runnable::run, "variable.expiry", true).put("a", "1");
+    }
+
+    private static CaffeineCacheConfigFactory newConfig(String cacheSpec, String key, Object value) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(key, value);
+        return newConfig(cacheSpec, properties);
+    }
+
+    private static CaffeineCacheConfigFactory newConfig(String cacheSpec, Map<String, Object> properties) {
+        properties.put("cache.name", "test");
+        properties.put("cache.spec", cacheSpec);
+        properties.put("service.pid", "test.pid");
+        return new CaffeineCacheConfigFactory(properties);
+    }
+}
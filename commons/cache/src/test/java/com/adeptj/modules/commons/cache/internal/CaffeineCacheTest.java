@@ -0,0 +1,359 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import com.adeptj.modules.commons.cache.CacheLoader;
+import com.adeptj.modules.commons.cache.CacheLoaderException;
+import com.adeptj.modules.commons.cache.CacheSerializer;
+import com.adeptj.modules.commons.cache.CacheStats;
+import org.jetbrains.annotations.NotNull;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * CaffeineCacheTest
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class CaffeineCacheTest {
+
+    @Test
+    public void testGetLoadsWithCacheLoader() {
+        CaffeineCache<String, String> cache = newCache(Runnable::run);
+        AtomicInteger loads = new AtomicInteger();
+        cache.setCacheLoader((CacheLoader<String, String>) key -> {
+            loads.incrementAndGet();
+            return key.toUpperCase();
+        });
+        assertEquals("A", cache.get("a"));
+        assertEquals("A", cache.get("a"));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    public void testGetWithoutCacheLoaderStaysMiss() {
+        CaffeineCache<String, String> cache = newCache(Runnable::run);
+        assertNull(cache.get("a"));
+        assertEquals(0, cache.size());
+        // A loader bound later is picked up without rebuilding the cache.
+        cache.setCacheLoader((CacheLoader<String, String>) String::toUpperCase);
+        assertEquals("A", cache.get("a"));
+        cache.setCacheLoader(null);
+        assertNull(cache.get("b"));
+    }
+
+    @Test
+    public void testGetAllLoadsMissesInOneCall() {
+        CaffeineCache<String, String> cache = newCache(Runnable::run);
+        List<Set<String>> loadAllCalls = new ArrayList<>();
+        cache.setCacheLoader(new CacheLoader<String, String>() {
+
+            @Override
+            public String load(@NotNull String key) {
+                throw new AssertionError("Misses must be loaded via loadAll!!");
+            }
+
+            @Override
+            public @NotNull Map<String, String> loadAll(@NotNull Set<? extends String> keys) {
+                loadAllCalls.add(new TreeSet<>(keys));
+                Map<String, String> values = new HashMap<>();
+                keys.stream().filter(key -> !"d".equals(key)).forEach(key -> values.put(key, key.toUpperCase()));
+                return values;
+            }
+        });
+        cache.put("a", "cached");
+        Map<String, String> values = cache.getAll(Arrays.asList("a", "b", "c", "d"));
+        assertEquals(1, loadAllCalls.size());
+        assertEquals(new TreeSet<>(Arrays.asList("b", "c", "d")), loadAllCalls.get(0));
+        assertEquals("cached", values.get("a"));
+        assertEquals("B", values.get("b"));
+        assertEquals("C", values.get("c"));
+        // Keys without a value are left out.
+        assertEquals(3, values.size());
+        assertEquals("B", cache.getIfPresent("b"));
+    }
+
+    @Test
+    public void testCheckedLoaderExceptionWrapped() {
+        CaffeineCache<String, String> cache = newCache(Runnable::run);
+        IOException failure = new IOException("down");
+        cache.setCacheLoader((CacheLoader<String, String>) key -> {
+            throw failure;
+        });
+        CacheLoaderException ex = assertThrows(CacheLoaderException.class, () -> cache.get("a"));
+        assertEquals(failure, ex.getCause());
+        assertNull(cache.getIfPresent("a"));
+    }
+
+    @Test
+    public void testRefreshWithoutCacheLoaderKeepsValue() {
+        CaffeineCache<String, String> cache = newCache(Runnable::run);
+        cache.put("a", "1");
+        cache.refresh("a");
+        assertEquals("1", cache.getIfPresent("a"));
+        cache.setCacheLoader((CacheLoader<String, String>) key -> "2");
+        cache.refresh("a");
+        assertEquals("2", cache.getIfPresent("a"));
+    }
+
+    @Test
+    public void testGetWithMappingFunction() {
+        CaffeineCache<String, String> cache = newCache(Runnable::run);
+        cache.setCacheLoader((CacheLoader<String, String>) key -> "loader");
+        // The mapping function given by the caller wins over the CacheLoader.
+        assertEquals("mapped", cache.get("a", key -> "mapped"));
+        assertTrue(cache.keys().contains("a"));
+    }
+
+    @Test
+    public void testStatsCountRemovalsByCause() {
+        CaffeineCache<String, String> cache = newCache(Runnable::run, "cache.spec", "maximumSize=2");
+        cache.put("a", "1");
+        cache.put("a", "2");
+        cache.remove("a");
+        cache.put("b", "1");
+        cache.put("c", "1");
+        cache.put("d", "1");
+        cache.size();
+        CacheStats stats = cache.stats();
+        assertEquals("test", stats.getCacheName());
+        assertEquals(1, (long) stats.getRemovalCounts().get("REPLACED"));
+        assertEquals(1, (long) stats.getRemovalCounts().get("EXPLICIT"));
+        assertEquals(1, (long) stats.getRemovalCounts().get("SIZE"));
+        assertEquals(0, (long) stats.getRemovalCounts().get("EXPIRED"));
+        // Without a weighted eviction policy.
+        assertEquals(-1L, stats.getWeightedSize());
+        assertEquals(-1L, stats.getMaximumWeight());
+    }
+
+    @Test
+    public void testStatsRecordedOnlyIfEnabled() {
+        CaffeineCache<String, String> cache = newCache(Runnable::run, "record.stats", "true");
+        cache.put("a", "1");
+        cache.getIfPresent("a");
+        cache.getIfPresent("b");
+        CacheStats stats = cache.stats();
+        assertTrue(stats.isRecordingStats());
+        assertEquals(1, stats.getHitCount());
+        assertEquals(1, stats.getMissCount());
+        assertEquals(1, stats.getEstimatedSize());
+        assertFalse(newCache(Runnable::run).stats().isRecordingStats());
+    }
+
+    @Test
+    public void testSizeEvictionSpillsToOffHeapTier() {
+        CaffeineCache<String, String> cache = newCache(Runnable::run, "cache.spec", "maximumSize=1",
+                "l2.enabled", "true", "l2.max.size.mb", "1");
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.size();
+        assertEquals(1, cache.stats().getOffHeapSize());
+        // Either of them is promoted back from the off-heap tier.
+        assertEquals("1", cache.getIfPresent("a"));
+        assertEquals("2", cache.getIfPresent("b"));
+        cache.close();
+    }
+
+    @Test
+    public void testWritesWinOverSpilledValues() {
+        CaffeineCache<String, String> cache = newCache(Runnable::run, "cache.spec", "maximumSize=1",
+                "l2.enabled", "true", "l2.max.size.mb", "1");
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.size();
+        cache.put("a", "3");
+        cache.put("b", "4");
+        cache.size();
+        assertEquals("3", cache.getIfPresent("a"));
+        assertEquals("4", cache.getIfPresent("b"));
+        cache.remove("a");
+        cache.remove("b");
+        assertNull(cache.getIfPresent("a"));
+        assertNull(cache.getIfPresent("b"));
+        assertEquals(0, cache.stats().getOffHeapSize());
+        cache.close();
+    }
+
+    @Test
+    public void testSpilledValueKeepsHeapExpiry() throws Exception {
+        CaffeineCache<String, String> cache = newCache(Runnable::run,
+                "cache.spec", "maximumSize=1,expireAfterWrite=1s", "l2.enabled", "true", "l2.max.size.mb", "1");
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.size();
+        assertEquals(1, cache.stats().getOffHeapSize());
+        Thread.sleep(1100);
+        // Expired on the heap as well as in the off-heap tier despite its time to live of an hour.
+        assertNull(cache.getIfPresent("a"));
+        assertNull(cache.getIfPresent("b"));
+        cache.close();
+    }
+
+    @Test
+    public void testNullLoadsCachedAsNegatives() {
+        CaffeineCache<String, String> cache = newCache(Runnable::run, "negative.cache.ttl", "60");
+        AtomicInteger loads = new AtomicInteger();
+        cache.setCacheLoader((CacheLoader<String, String>) key -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        assertNull(cache.get("a"));
+        assertNull(cache.get("a"));
+        assertNull(cache.get("a", key -> "mapped"));
+        assertEquals(1, loads.get());
+        assertEquals(2, cache.stats().getNegativeHitCount());
+        // A put overrides the negative.
+        cache.put("a", "1");
+        assertEquals("1", cache.get("a"));
+    }
+
+    @Test
+    public void testNullLoadsNotCachedByDefault() {
+        CaffeineCache<String, String> cache = newCache(Runnable::run, "early.refresh.beta", "1.0");
+        AtomicInteger loads = new AtomicInteger();
+        cache.setCacheLoader((CacheLoader<String, String>) key -> {
+            loads.incrementAndGet();
+            return null;
+        });
+        assertNull(cache.get("a"));
+        assertNull(cache.get("a"));
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    public void testHitRefreshedEarlyThroughCacheLoader() {
+        // The huge beta makes a refresh on every hit all but certain.
+        CaffeineCache<String, String> cache = newCache(Runnable::run,
+                "cache.spec", "maximumSize=100,expireAfterWrite=1h", "early.refresh.beta", "1e15");
+        AtomicInteger loads = new AtomicInteger();
+        cache.setCacheLoader((CacheLoader<String, String>) key -> String.valueOf(loads.incrementAndGet()));
+        assertEquals("1", cache.get("a"));
+        // The hit answers the current value and refreshes it in the background.
+        assertEquals("1", cache.get("a"));
+        assertEquals("2", cache.getIfPresent("a"));
+        assertEquals(1, cache.stats().getEarlyRefreshCount());
+    }
+
+    @Test
+    public void testMappingFunctionNeverRunForEarlyRefresh() {
+        CaffeineCache<String, String> cache = newCache(Runnable::run,
+                "cache.spec", "maximumSize=100,expireAfterWrite=1h", "early.refresh.beta", "1e15");
+        AtomicInteger calls = new AtomicInteger();
+        Function<String, String> mappingFunction = key -> String.valueOf(calls.incrementAndGet());
+        assertEquals("1", cache.get("a", mappingFunction));
+        assertEquals("1", cache.get("a", mappingFunction));
+        assertEquals("1", cache.get("a", mappingFunction));
+        assertEquals(1, calls.get());
+        assertEquals(0, cache.stats().getEarlyRefreshCount());
+    }
+
+    @Test
+    public void testEntriesSnapshotRoundTrip() throws IOException {
+        Path directory = Files.createTempDirectory("snapshots");
+        CaffeineCache<String, String> cache = newCache(Runnable::run, "snapshot.mode", "ENTRIES",
+                "cache.spec", "maximumSize=100,expireAfterWrite=1h");
+        cache.setCacheSerializer(new StringSerializer());
+        cache.put("a", "1");
+        cache.put("b", "2");
+        cache.writeSnapshot(directory);
+        Path file = CacheSnapshot.file(directory, "test");
+        assertTrue(Files.exists(file));
+        CaffeineCache<String, String> restored = newCache(Runnable::run, "snapshot.mode", "ENTRIES",
+                "cache.spec", "maximumSize=100,expireAfterWrite=1h");
+        restored.readSnapshot(directory, 1);
+        assertFalse(Files.exists(file));
+        // Waits for the CacheSerializer.
+        assertNull(restored.getIfPresent("a"));
+        restored.setCacheSerializer(new StringSerializer());
+        assertEquals("1", restored.getIfPresent("a"));
+        assertEquals("2", restored.getIfPresent("b"));
+        Files.delete(directory);
+    }
+
+    @Test
+    public void testEntriesSnapshotWithoutSerializerWarmsKeys() throws IOException {
+        Path directory = Files.createTempDirectory("snapshots");
+        CaffeineCache<String, String> cache = newCache(Runnable::run, "snapshot.mode", "ENTRIES");
+        cache.put("a", "1");
+        cache.writeSnapshot(directory);
+        CaffeineCache<String, String> restored = newCache(Runnable::run, "snapshot.mode", "ENTRIES");
+        restored.readSnapshot(directory, 1);
+        // Only the key was written, it is loaded again through the CacheLoader.
+        restored.setCacheSerializer(new StringSerializer());
+        assertNull(restored.getIfPresent("a"));
+        restored.setCacheLoader((CacheLoader<String, String>) key -> "loaded-" + key);
+        assertEquals("loaded-a", restored.getIfPresent("a"));
+        Files.delete(directory);
+    }
+
+    /**
+     * Creates a cache named test with a maximumSize=100 spec, the given properties are added to or override
+     * the defaults.
+     */
+    static <K, V> CaffeineCache<K, V> newCache(Executor executor, Object... properties) {
+        return newCache(executor, null, properties);
+    }
+
+    static <K, V> CaffeineCache<K, V> newCache(Executor executor, CacheInvalidationBus invalidationBus,
+                                               Object... properties) {
+        Map<String, Object> config = new HashMap<>();
+        config.put("cache.name", "test");
+        config.put("cache.spec", "maximumSize=100");
+        config.put("service.pid", "test.pid");
+        for (int i = 0; i < properties.length; i += 2) {
+            config.put((String) properties[i], properties[i + 1]);
+        }
+        return new CaffeineCache<>(new CaffeineCacheConfigFactory(config), executor, invalidationBus);
+    }
+
+    private static final class StringSerializer implements CacheSerializer<String> {
+
+        @Override
+        public byte[] serialize(@NotNull String value) {
+            return value.getBytes(StandardCharsets.UTF_8);
+        }
+
+        @Override
+        public String deserialize(byte[] bytes) {
+            return new String(bytes, StandardCharsets.UTF_8);
+        }
+    }
+}
@@ -0,0 +1,119 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import org.apache.commons.lang3.StringUtils;
+import org.junit.jupiter.api.Test;
+
+import java.io.IOException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * InvalidationCodecTest
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class InvalidationCodecTest {
+
+    private static final int MAX_MESSAGE_SIZE = 1400;
+
+    @Test
+    public void testKeysRoundTrip() throws IOException {
+        UUID nodeId = UUID.randomUUID();
+        List<Object> keys = Arrays.asList("a", 1, 2L, UUID.randomUUID(), Arrays.asList("user", 7L, null));
+        byte[] block = InvalidationCodec.encodeBlock("users", false, keys, MAX_MESSAGE_SIZE);
+        List<byte[]> messages = InvalidationCodec.pack(nodeId, Collections.singletonList(block), MAX_MESSAGE_SIZE);
+        assertEquals(1, messages.size());
+        InvalidationCodec.Message message = InvalidationCodec.decode(messages.get(0));
+        assertNotNull(message);
+        assertEquals(nodeId, message.nodeId);
+        assertEquals(1, message.invalidations.size());
+        InvalidationCodec.Invalidation invalidation = message.invalidations.get(0);
+        assertEquals("users", invalidation.cacheName);
+        assertFalse(invalidation.evictAll);
+        // Decoded lists are equal to, and hash like, the composite keys of the sender.
+        assertEquals(keys, invalidation.keys);
+        assertEquals(keys.get(4).hashCode(), invalidation.keys.get(4).hashCode());
+    }
+
+    @Test
+    public void testStringKeyBeyondWriteUtfLimit() throws IOException {
+        String key = StringUtils.repeat('\u20AC', 30000);
+        byte[] block = InvalidationCodec.encodeBlock("users", false, Collections.singletonList(key), 1 << 20);
+        InvalidationCodec.Message message = InvalidationCodec.decode(
+                InvalidationCodec.pack(UUID.randomUUID(), Collections.singletonList(block), 1 << 20).get(0));
+        assertNotNull(message);
+        assertEquals(key, message.invalidations.get(0).keys.get(0));
+    }
+
+    @Test
+    public void testOversizedBlockEvictsWholeCache() throws IOException {
+        List<Object> keys = Collections.singletonList(StringUtils.repeat('a', 2 * MAX_MESSAGE_SIZE));
+        byte[] block = InvalidationCodec.encodeBlock("users", false, keys, MAX_MESSAGE_SIZE);
+        InvalidationCodec.Message message = InvalidationCodec.decode(
+                InvalidationCodec.pack(UUID.randomUUID(), Collections.singletonList(block), MAX_MESSAGE_SIZE).get(0));
+        assertNotNull(message);
+        assertTrue(message.invalidations.get(0).evictAll);
+        assertTrue(message.invalidations.get(0).keys.isEmpty());
+    }
+
+    @Test
+    public void testBlocksPackedWithinMaxMessageSize() throws IOException {
+        List<byte[]> blocks = Arrays.asList(
+                InvalidationCodec.encodeBlock("a", false, Collections.singletonList(StringUtils.repeat('a', 800)),
+                        MAX_MESSAGE_SIZE),
+                InvalidationCodec.encodeBlock("b", false, Collections.singletonList(StringUtils.repeat('b', 800)),
+                        MAX_MESSAGE_SIZE),
+                InvalidationCodec.encodeBlock("c", true, Collections.emptyList(), MAX_MESSAGE_SIZE));
+        List<byte[]> messages = InvalidationCodec.pack(UUID.randomUUID(), blocks, MAX_MESSAGE_SIZE);
+        assertEquals(2, messages.size());
+        int invalidations = 0;
+        for (byte[] message : messages) {
+            assertTrue(message.length <= MAX_MESSAGE_SIZE);
+            invalidations += InvalidationCodec.decode(message).invalidations.size();
+        }
+        assertEquals(3, invalidations);
+    }
+
+    @Test
+    public void testForeignMessageIgnored() throws IOException {
+        assertNull(InvalidationCodec.decode(new byte[]{1, 2, 3}));
+        assertNull(InvalidationCodec.decode(new byte[64]));
+    }
+
+    @Test
+    public void testEncodableKeys() {
+        assertTrue(InvalidationCodec.isEncodable("a"));
+        assertTrue(InvalidationCodec.isEncodable(1L));
+        assertTrue(InvalidationCodec.isEncodable(Arrays.asList(1, null, "b")));
+        assertFalse(InvalidationCodec.isEncodable(1.0d));
+        assertFalse(InvalidationCodec.isEncodable(Arrays.asList(1, new Object())));
+    }
+}
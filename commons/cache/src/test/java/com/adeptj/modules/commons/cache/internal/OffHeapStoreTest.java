@@ -0,0 +1,138 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://adeptj.com)                               #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.cache.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * OffHeapStoreTest
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class OffHeapStoreTest {
+
+    private static final long TTL_NANOS = TimeUnit.HOURS.toNanos(1);
+
+    @Test
+    public void testPutAndTake() throws Exception {
+        OffHeapStore<String, String> store = OffHeapStore.newStore("test", 1024, TTL_NANOS, null);
+        store.put("a", "1", -1L);
+        assertEquals(1, store.size());
+        assertTrue(store.usedBytes() > 0);
+        assertEquals("1", store.get("a"));
+        OffHeapStore.Value<String> taken = store.take("a");
+        assertNotNull(taken);
+        assertEquals("1", taken.value);
+        assertTrue(taken.ttlNanos > 0 && taken.ttlNanos <= TTL_NANOS);
+        assertNull(store.take("a"));
+        assertEquals(0, store.size());
+        assertEquals(0, store.usedBytes());
+        store.close();
+    }
+
+    @Test
+    public void testHeapTimeToLiveCarriedOver() throws Exception {
+        OffHeapStore<String, String> store = OffHeapStore.newStore("test", 1024, TTL_NANOS, null);
+        store.put("a", "1", TimeUnit.MINUTES.toNanos(1));
+        OffHeapStore.Value<String> taken = store.take("a");
+        assertNotNull(taken);
+        assertTrue(taken.ttlNanos <= TimeUnit.MINUTES.toNanos(1));
+        // A value about to expire on the heap doesn't outlive that in the store.
+        store.put("b", "2", TimeUnit.MILLISECONDS.toNanos(1));
+        Thread.sleep(10);
+        assertNull(store.get("b"));
+        assertNull(store.take("b"));
+        store.close();
+    }
+
+    @Test
+    public void testOldestValuesDroppedWhenRingWraps() throws Exception {
+        OffHeapStore<Integer, byte[]> store = OffHeapStore.newStore("test", 4096, TTL_NANOS, null);
+        for (int i = 0; i < 10; i++) {
+            store.put(i, new byte[1000], -1L);
+        }
+        assertTrue(store.size() < 10);
+        assertTrue(store.usedBytes() <= 4096);
+        assertNull(store.get(0));
+        assertNotNull(store.get(9));
+        // Larger than the whole store.
+        store.put(10, new byte[8192], -1L);
+        assertNull(store.get(10));
+        store.close();
+    }
+
+    @Test
+    public void testPutOverwritesPreviousValue() throws Exception {
+        OffHeapStore<String, String> store = OffHeapStore.newStore("test", 1024, TTL_NANOS, null);
+        store.put("a", "1", -1L);
+        store.put("a", "2", -1L);
+        assertEquals(1, store.size());
+        assertEquals("2", store.get("a"));
+        store.remove("a");
+        assertNull(store.get("a"));
+        store.close();
+    }
+
+    @Test
+    public void testSerializerChangeDropsValues() throws Exception {
+        OffHeapStore<String, String> store = OffHeapStore.newStore("test", 1024, TTL_NANOS, null);
+        store.put("a", "1", -1L);
+        store.setSerializer(new JavaCacheSerializer<>());
+        assertEquals(0, store.size());
+        assertNull(store.get("a"));
+        store.close();
+    }
+
+    @Test
+    public void testClosedStoreStaysEmpty() throws Exception {
+        OffHeapStore<String, String> store = OffHeapStore.newStore("test", 1024, TTL_NANOS, null);
+        store.put("a", "1", -1L);
+        store.close();
+        assertNull(store.get("a"));
+        store.put("b", "2", -1L);
+        assertEquals(0, store.size());
+        assertNull(store.take("b"));
+    }
+
+    @Test
+    public void testMappedStoreFileDeletedOnClose() throws Exception {
+        Path directory = Files.createTempDirectory("l2");
+        OffHeapStore<String, String> store = OffHeapStore.newStore("test", 1024, TTL_NANOS, directory);
+        Path file = directory.resolve("test.l2");
+        assertTrue(Files.exists(file));
+        store.put("a", "1", -1L);
+        assertEquals("1", store.get("a"));
+        store.close();
+        assertFalse(Files.exists(file));
+        assertNull(store.get("a"));
+        Files.delete(directory);
+    }
+}
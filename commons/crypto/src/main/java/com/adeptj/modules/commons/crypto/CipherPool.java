@@ -0,0 +1,87 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.crypto;
+
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+
+import javax.crypto.Cipher;
+import javax.crypto.Mac;
+import javax.crypto.SecretKeyFactory;
+import java.security.GeneralSecurityException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Per thread pool of JCA {@link Cipher}, {@link Mac} and {@link SecretKeyFactory} instances so that the costly
+ * JCA provider lookup is done only once per thread and algorithm.
+ * <p>
+ * Note: The returned instances are shared by all the callers on the same thread, callers must (re)initialize
+ * them before use and must not hold them across calls which might use the same algorithm on the same thread.
+ * The pooled values are JDK types only, so no bundle class loader is pinned by the threads.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public final class CipherPool {
+
+    private static final ThreadLocal<Map<String, Cipher>> CIPHERS = ThreadLocal.withInitial(HashMap::new);
+
+    private static final ThreadLocal<Map<String, Mac>> MACS = ThreadLocal.withInitial(HashMap::new);
+
+    private static final ThreadLocal<Map<String, SecretKeyFactory>> SECRET_KEY_FACTORIES =
+            ThreadLocal.withInitial(HashMap::new);
+
+    private CipherPool() {
+    }
+
+    public static Cipher getCipher(String transformation) throws GeneralSecurityException {
+        Validate.isTrue(StringUtils.isNotEmpty(transformation), "transformation can't be null!!");
+        Map<String, Cipher> ciphers = CIPHERS.get();
+        Cipher cipher = ciphers.get(transformation);
+        if (cipher == null) {
+            cipher = Cipher.getInstance(transformation);
+            ciphers.put(transformation, cipher);
+        }
+        return cipher;
+    }
+
+    public static Mac getMac(String algorithm) throws GeneralSecurityException {
+        Validate.isTrue(StringUtils.isNotEmpty(algorithm), "algorithm can't be null!!");
+        Map<String, Mac> macs = MACS.get();
+        Mac mac = macs.get(algorithm);
+        if (mac == null) {
+            mac = Mac.getInstance(algorithm);
+            macs.put(algorithm, mac);
+        }
+        return mac;
+    }
+
+    public static SecretKeyFactory getSecretKeyFactory(String algorithm) throws GeneralSecurityException {
+        Validate.isTrue(StringUtils.isNotEmpty(algorithm), "algorithm can't be null!!");
+        Map<String, SecretKeyFactory> factories = SECRET_KEY_FACTORIES.get();
+        SecretKeyFactory factory = factories.get(algorithm);
+        if (factory == null) {
+            factory = SecretKeyFactory.getInstance(algorithm);
+            factories.put(algorithm, factory);
+        }
+        return factory;
+    }
+}
@@ -29,6 +29,10 @@ public class CryptoException extends RuntimeException {
 
     private static final long serialVersionUID = 7698185120915491624L;
 
+    public CryptoException(String message) {
+        super(message);
+    }
+
     public CryptoException(Throwable cause) {
         super(cause);
     }
@@ -22,6 +22,10 @@ package com.adeptj.modules.commons.crypto;
 
 import org.osgi.annotation.versioning.ProviderType;
 
+import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.WritableByteChannel;
+
 /**
  * Service interface for encrypting/decrypting any text using AES/GCM/NoPadding algorithm.
  *
@@ -33,4 +37,48 @@ public interface CryptoService {
     String encrypt(String plainText);
 
     String decrypt(String cipherText);
+
+    /**
+     * Encrypts the remaining bytes of src and writes iv+salt+cipherBytes to dst without any intermediate copies.
+     * <p>
+     * Note: dst must have at least 44 bytes (iv+salt+auth tag) more remaining than src.
+     *
+     * @param src the plain bytes, consumed fully.
+     * @param dst the buffer in which the iv+salt+cipherBytes are written.
+     * @return number of bytes written to dst.
+     */
+    int encrypt(ByteBuffer src, ByteBuffer dst);
+
+    /**
+     * Decrypts the remaining iv+salt+cipherBytes of src, as produced by {@link #encrypt(ByteBuffer, ByteBuffer)},
+     * and writes the plain bytes to dst.
+     *
+     * @param src the iv+salt+cipherBytes, consumed fully.
+     * @param dst the buffer in which the plain bytes are written.
+     * @return number of bytes written to dst.
+     */
+    int decrypt(ByteBuffer src, ByteBuffer dst);
+
+    /**
+     * Encrypts the src channel into the dst channel as a stream of independently authenticated AES-GCM segments
+     * so that the memory used is constant irrespective of the size of the data.
+     * <p>
+     * Note: Neither of the channels is closed by this method, both must be in blocking mode.
+     *
+     * @param src the channel to read the plain bytes from till end of stream.
+     * @param dst the channel to write the cipher stream to.
+     */
+    void encrypt(ReadableByteChannel src, WritableByteChannel dst);
+
+    /**
+     * Decrypts a cipher stream produced by {@link #encrypt(ReadableByteChannel, WritableByteChannel)}.
+     * <p>
+     * Note: Each segment is authenticated before being written to dst, a truncated or tampered stream results
+     * in a {@link CryptoException} after the segments preceding the broken one have already been written.
+     * Any bytes following the final segment are rejected likewise. Both the channels must be in blocking mode.
+     *
+     * @param src the channel to read the cipher stream from.
+     * @param dst the channel to write the plain bytes to.
+     */
+    void decrypt(ReadableByteChannel src, WritableByteChannel dst);
 }
@@ -24,7 +24,6 @@ import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.Validate;
 
 import javax.crypto.SecretKey;
-import javax.crypto.SecretKeyFactory;
 import javax.crypto.spec.PBEKeySpec;
 import java.security.GeneralSecurityException;
 import java.util.Arrays;
@@ -64,8 +63,13 @@ public class CryptoUtil {
         Validate.isTrue(ArrayUtils.isNotEmpty(password), "password can't be null or empty!!");
         Validate.isTrue((iterations >= MIN_ITERATIONS), String.format("iterations should be at least %d!!",
                 MIN_ITERATIONS));
-        return SecretKeyFactory.getInstance(algorithm)
-                .generateSecret(new PBEKeySpec(password, salt, iterations, keyLength))
-                .getEncoded();
+        PBEKeySpec keySpec = new PBEKeySpec(password, salt, iterations, keyLength);
+        try {
+            return CipherPool.getSecretKeyFactory(algorithm)
+                    .generateSecret(keySpec)
+                    .getEncoded();
+        } finally {
+            keySpec.clearPassword();
+        }
     }
 }
@@ -22,6 +22,9 @@ package com.adeptj.modules.commons.crypto;
 
 import org.osgi.annotation.versioning.ProviderType;
 
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+
 /**
  * Service for encoding/matching passwords using BCrypt.
  *
@@ -33,4 +36,24 @@ public interface PasswordEncoder {
     String encode(char[] rawPassword);
 
     boolean matches(char[] rawPassword, char[] encodedPassword);
+
+    /**
+     * Matches the password on a dedicated bounded worker pool so that the caller's thread is not blocked
+     * by the costly BCrypt verification.
+     * <p>
+     * Note: The passed arrays are copied, so the caller is free to clear them as soon as this method returns.
+     *
+     * @param rawPassword     the raw password.
+     * @param encodedPassword the BCrypt encoded password.
+     * @return a {@link CompletionStage} which completes with the match result or completes exceptionally
+     * with {@link RejectedExecutionException} if the worker pool and its queue are saturated.
+     */
+    CompletionStage<Boolean> matchesAsync(char[] rawPassword, char[] encodedPassword);
+
+    /**
+     * Returns the current metrics of the async password matching.
+     *
+     * @return the {@link PasswordEncoderMetrics} snapshot.
+     */
+    PasswordEncoderMetrics getMetrics();
 }
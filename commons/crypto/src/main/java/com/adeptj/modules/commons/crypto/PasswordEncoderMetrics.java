@@ -0,0 +1,87 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.crypto;
+
+/**
+ * Point in time snapshot of the async password matching metrics of {@link PasswordEncoder}.
+ * <p>
+ * Queue wait is the time a task spent in the work queue before a worker picked it up, hash time is the time
+ * taken by the actual password verification, a high queue wait compared to hash time means that the
+ * worker pool is saturated.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public final class PasswordEncoderMetrics {
+
+    private final long completedTasks;
+
+    private final long rejectedTasks;
+
+    private final int queueDepth;
+
+    private final long totalQueueWaitNanos;
+
+    private final long totalHashNanos;
+
+    public PasswordEncoderMetrics(long completedTasks, long rejectedTasks, int queueDepth, long totalQueueWaitNanos,
+                                  long totalHashNanos) {
+        this.completedTasks = completedTasks;
+        this.rejectedTasks = rejectedTasks;
+        this.queueDepth = queueDepth;
+        this.totalQueueWaitNanos = totalQueueWaitNanos;
+        this.totalHashNanos = totalHashNanos;
+    }
+
+    public long getCompletedTasks() {
+        return completedTasks;
+    }
+
+    public long getRejectedTasks() {
+        return rejectedTasks;
+    }
+
+    public int getQueueDepth() {
+        return queueDepth;
+    }
+
+    public long getTotalQueueWaitNanos() {
+        return totalQueueWaitNanos;
+    }
+
+    public long getTotalHashNanos() {
+        return totalHashNanos;
+    }
+
+    public long getAverageQueueWaitNanos() {
+        return this.completedTasks == 0 ? 0 : this.totalQueueWaitNanos / this.completedTasks;
+    }
+
+    public long getAverageHashNanos() {
+        return this.completedTasks == 0 ? 0 : this.totalHashNanos / this.completedTasks;
+    }
+
+    @Override
+    public String toString() {
+        return String.format("PasswordEncoderMetrics[completed=%d, rejected=%d, queueDepth=%d, avgQueueWait=%dns, "
+                        + "avgHash=%dns]", this.completedTasks, this.rejectedTasks, this.queueDepth,
+                this.getAverageQueueWaitNanos(), this.getAverageHashNanos());
+    }
+}
@@ -20,6 +20,7 @@
 
 package com.adeptj.modules.commons.crypto.internal;
 
+import com.adeptj.modules.commons.crypto.CipherPool;
 import com.adeptj.modules.commons.crypto.CryptoException;
 import com.adeptj.modules.commons.crypto.CryptoService;
 import com.adeptj.modules.commons.crypto.CryptoUtil;
@@ -36,8 +37,12 @@ import org.slf4j.LoggerFactory;
 import javax.crypto.Cipher;
 import javax.crypto.spec.GCMParameterSpec;
 import javax.crypto.spec.SecretKeySpec;
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
 import java.nio.ByteBuffer;
+import java.nio.channels.ReadableByteChannel;
+import java.nio.channels.SelectableChannel;
+import java.nio.channels.WritableByteChannel;
 import java.security.GeneralSecurityException;
 import java.util.Arrays;
 import java.util.Base64;
@@ -68,21 +73,61 @@ public class AesGcmCryptoService implements CryptoService {
 
     private static final String PROPERTY_CRYPTO_ITERATIONS = "crypto.iterations";
 
+    private static final String PROPERTY_CRYPTO_KEY_CACHE_SIZE = "crypto.key.cache.size";
+
+    private static final int DEFAULT_KEY_CACHE_SIZE = 64;
+
     private static final int PBE_KEY_LENGTH = 128;
 
     private static final int GCM_AUTH_TAG_LENGTH = PBE_KEY_LENGTH;
 
     private static final String PBE_ALGO = "PBKDF2WithHmacSHA256";
 
+    private static final int GCM_AUTH_TAG_BYTES = GCM_AUTH_TAG_LENGTH / Byte.SIZE;
+
+    /**
+     * Max plain text bytes encrypted in a single segment of a cipher stream.
+     */
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    /**
+     * Each segment of a cipher stream starts with a final segment flag(1 byte) and the cipher length(4 bytes).
+     */
+    private static final int SEGMENT_HEADER_LENGTH = 5;
+
+    private static final byte FINAL_SEGMENT = 1;
+
+    private static final byte NON_FINAL_SEGMENT = 0;
+
+    private static final String TRUNCATED_STREAM_MSG = "Cipher stream is truncated!!";
+
+    private static final String TRAILING_BYTES_MSG = "Cipher stream has trailing bytes after the final segment!!";
+
     private char[] cryptoKey;
 
     private int iterations;
 
+    /**
+     * Cache of the derived keys, null when key caching is disabled by setting crypto.key.cache.size to 0.
+     */
+    private DerivedKeyCache keyCache;
+
+    /**
+     * Salt used by all the encrypt calls when key caching is enabled, so that the key is derived only once.
+     */
+    private byte[] encryptionSalt;
+
     @Activate
     public AesGcmCryptoService(BundleContext context) {
         try {
             this.cryptoKey = context.getProperty(PROPERTY_CRYPTO_KEY).toCharArray();
             this.iterations = Integer.parseInt(context.getProperty(PROPERTY_CRYPTO_ITERATIONS));
+            int keyCacheSize = this.getKeyCacheSize(context);
+            if (keyCacheSize > 0) {
+                this.keyCache = new DerivedKeyCache(keyCacheSize);
+                this.encryptionSalt = RandomUtil.randomBytes(SALT_LENGTH);
+                LOGGER.info("Derived key caching enabled with max size: [{}]", keyCacheSize);
+            }
         } catch (Exception ex) {
             // This will make sure this service is activated successfully and CryptoPlugin initialization will also
             // be successful which is a required plugin by ConfigAdmin.
@@ -100,8 +145,8 @@ public class AesGcmCryptoService implements CryptoService {
         try {
             // 1. get iv
             iv = RandomUtil.randomBytes(IV_LENGTH);
-            // 2. get salt
-            salt = RandomUtil.randomBytes(SALT_LENGTH);
+            // 2. get salt, reuse the encryption salt when key caching is enabled, it is wiped in finally block.
+            salt = this.newEncryptionSalt();
             // 3. init encrypt mode cipher
             Cipher cipher = this.initCipher(ENCRYPT_MODE, salt, iv);
             // 4. generate cipher bytes
@@ -155,24 +200,247 @@ public class AesGcmCryptoService implements CryptoService {
         }
     }
 
+    @Override
+    public int encrypt(ByteBuffer src, ByteBuffer dst) {
+        Validate.isTrue(src != null && src.hasRemaining(), "src can't be null or empty!!");
+        Validate.isTrue(dst != null, "dst can't be null!!");
+        Validate.isTrue(dst.remaining() >= (IV_LENGTH + SALT_LENGTH + src.remaining() + GCM_AUTH_TAG_BYTES),
+                "Not enough space remaining in dst!!");
+        byte[] iv = null;
+        byte[] salt = null;
+        try {
+            iv = RandomUtil.randomBytes(IV_LENGTH);
+            salt = this.newEncryptionSalt();
+            Cipher cipher = this.initCipher(ENCRYPT_MODE, salt, iv);
+            int start = dst.position();
+            dst.put(iv).put(salt);
+            cipher.doFinal(src, dst);
+            return dst.position() - start;
+        } catch (GeneralSecurityException ex) {
+            LOGGER.error(ex.getMessage(), ex);
+            throw new CryptoException(ex);
+        } finally {
+            CryptoUtil.nullSafeWipeAll(iv, salt);
+        }
+    }
+
+    @Override
+    public int decrypt(ByteBuffer src, ByteBuffer dst) {
+        Validate.isTrue(src != null && src.remaining() >= (IV_LENGTH + SALT_LENGTH + GCM_AUTH_TAG_BYTES),
+                "src can't be null and must contain at least iv, salt and auth tag!!");
+        Validate.isTrue(dst != null, "dst can't be null!!");
+        Validate.isTrue(dst.remaining() >= (src.remaining() - IV_LENGTH - SALT_LENGTH - GCM_AUTH_TAG_BYTES),
+                "Not enough space remaining in dst!!");
+        byte[] iv = new byte[IV_LENGTH];
+        byte[] salt = new byte[SALT_LENGTH];
+        try {
+            src.get(iv).get(salt);
+            return this.initCipher(DECRYPT_MODE, salt, iv).doFinal(src, dst);
+        } catch (GeneralSecurityException ex) {
+            LOGGER.error(ex.getMessage(), ex);
+            throw new CryptoException(ex);
+        } finally {
+            CryptoUtil.nullSafeWipeAll(iv, salt);
+        }
+    }
+
+    @Override
+    public void encrypt(ReadableByteChannel src, WritableByteChannel dst) {
+        Validate.isTrue(src != null, "src can't be null!!");
+        Validate.isTrue(dst != null, "dst can't be null!!");
+        Validate.isTrue(isBlocking(src) && isBlocking(dst), "src and dst must be in blocking mode!!");
+        byte[] iv = null;
+        byte[] salt = null;
+        ByteBuffer plainBuffer = null;
+        ByteBuffer cipherBuffer = null;
+        try {
+            // 1. write the stream header i.e. iv+salt
+            iv = RandomUtil.randomBytes(IV_LENGTH);
+            salt = this.newEncryptionSalt();
+            writeFully(dst, ByteBuffer.allocate(IV_LENGTH + SALT_LENGTH).put(iv).put(salt).flip());
+            SecretKeySpec secretKeySpec = this.newSecretKey(salt);
+            // Not a pooled cipher, this one is held across the channel I/O which may call back into this service.
+            Cipher cipher = Cipher.getInstance(CIPHER_ALGO);
+            plainBuffer = ByteBuffer.allocate(SEGMENT_SIZE);
+            cipherBuffer = ByteBuffer.allocate(SEGMENT_HEADER_LENGTH + SEGMENT_SIZE + GCM_AUTH_TAG_BYTES);
+            boolean finalSegment = false;
+            for (int segment = 0; !finalSegment; segment++) {
+                // 2. read at most SEGMENT_SIZE bytes, the segment which hits the end of stream is the final one.
+                plainBuffer.clear();
+                finalSegment = readFully(src, plainBuffer);
+                plainBuffer.flip();
+                byte flag = finalSegment ? FINAL_SEGMENT : NON_FINAL_SEGMENT;
+                // 3. encrypt the segment and prefix it with the segment header.
+                initSegmentCipher(cipher, ENCRYPT_MODE, secretKeySpec, iv, segment, flag);
+                cipherBuffer.clear().position(SEGMENT_HEADER_LENGTH);
+                int cipherLength = cipher.doFinal(plainBuffer, cipherBuffer);
+                cipherBuffer.put(0, flag).putInt(1, cipherLength).flip();
+                writeFully(dst, cipherBuffer);
+            }
+        } catch (IOException | GeneralSecurityException ex) {
+            LOGGER.error(ex.getMessage(), ex);
+            throw new CryptoException(ex);
+        } finally {
+            CryptoUtil.nullSafeWipeAll(iv, salt);
+            wipe(plainBuffer);
+            wipe(cipherBuffer);
+        }
+    }
+
+    @Override
+    public void decrypt(ReadableByteChannel src, WritableByteChannel dst) {
+        Validate.isTrue(src != null, "src can't be null!!");
+        Validate.isTrue(dst != null, "dst can't be null!!");
+        Validate.isTrue(isBlocking(src) && isBlocking(dst), "src and dst must be in blocking mode!!");
+        byte[] iv = new byte[IV_LENGTH];
+        byte[] salt = new byte[SALT_LENGTH];
+        ByteBuffer cipherBuffer = null;
+        ByteBuffer plainBuffer = null;
+        try {
+            // 1. read the stream header i.e. iv+salt
+            ByteBuffer header = ByteBuffer.allocate(IV_LENGTH + SALT_LENGTH);
+            if (readFully(src, header)) {
+                throw new CryptoException(TRUNCATED_STREAM_MSG);
+            }
+            header.flip().get(iv).get(salt);
+            SecretKeySpec secretKeySpec = this.newSecretKey(salt);
+            // Not a pooled cipher, this one is held across the channel I/O which may call back into this service.
+            Cipher cipher = Cipher.getInstance(CIPHER_ALGO);
+            ByteBuffer segmentHeader = ByteBuffer.allocate(SEGMENT_HEADER_LENGTH);
+            cipherBuffer = ByteBuffer.allocate(SEGMENT_SIZE + GCM_AUTH_TAG_BYTES);
+            plainBuffer = ByteBuffer.allocate(SEGMENT_SIZE);
+            boolean finalSegment = false;
+            for (int segment = 0; !finalSegment; segment++) {
+                // 2. read the segment header, reaching the end of stream before the final segment is an error.
+                segmentHeader.clear();
+                if (readFully(src, segmentHeader)) {
+                    throw new CryptoException(TRUNCATED_STREAM_MSG);
+                }
+                byte flag = segmentHeader.get(0);
+                int cipherLength = segmentHeader.getInt(1);
+                if (cipherLength < GCM_AUTH_TAG_BYTES || cipherLength > cipherBuffer.capacity()) {
+                    throw new CryptoException("Invalid cipher stream segment length: " + cipherLength);
+                }
+                // 3. read the segment cipher bytes and decrypt them, the flag is authenticated as AAD.
+                cipherBuffer.clear().limit(cipherLength);
+                if (readFully(src, cipherBuffer)) {
+                    throw new CryptoException(TRUNCATED_STREAM_MSG);
+                }
+                cipherBuffer.flip();
+                initSegmentCipher(cipher, DECRYPT_MODE, secretKeySpec, iv, segment, flag);
+                plainBuffer.clear();
+                cipher.doFinal(cipherBuffer, plainBuffer);
+                writeFully(dst, plainBuffer.flip());
+                finalSegment = (flag == FINAL_SEGMENT);
+            }
+            // 4. nothing is allowed after the final segment, the trailing bytes are not authenticated.
+            if (!readFully(src, ByteBuffer.allocate(1))) {
+                throw new CryptoException(TRAILING_BYTES_MSG);
+            }
+        } catch (IOException | GeneralSecurityException ex) {
+            LOGGER.error(ex.getMessage(), ex);
+            throw new CryptoException(ex);
+        } finally {
+            CryptoUtil.nullSafeWipeAll(iv, salt);
+            wipe(cipherBuffer);
+            wipe(plainBuffer);
+        }
+    }
+
+    private byte[] newEncryptionSalt() {
+        // Reuse the encryption salt when key caching is enabled, callers are supposed to wipe the returned salt.
+        return (this.keyCache == null) ? RandomUtil.randomBytes(SALT_LENGTH) : this.encryptionSalt.clone();
+    }
+
     private Cipher initCipher(int mode, byte[] salt, byte[] iv) throws GeneralSecurityException {
+        GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_AUTH_TAG_LENGTH, iv);
+        Cipher cipher = CipherPool.getCipher(CIPHER_ALGO);
+        cipher.init(mode, this.newSecretKey(salt), parameterSpec);
+        return cipher;
+    }
+
+    private SecretKeySpec newSecretKey(byte[] salt) throws GeneralSecurityException {
         byte[] key = null;
         try {
-            key = CryptoUtil.newSecretKeyBytes(PBE_ALGO, this.cryptoKey, salt, this.iterations, PBE_KEY_LENGTH);
-            SecretKeySpec secretKeySpec = new SecretKeySpec(key, SECRET_KEY_SPEC_ALGO);
-            GCMParameterSpec parameterSpec = new GCMParameterSpec(GCM_AUTH_TAG_LENGTH, iv);
-            Cipher cipher = Cipher.getInstance(CIPHER_ALGO);
-            cipher.init(mode, secretKeySpec, parameterSpec);
-            return cipher;
+            key = (this.keyCache == null) ? this.deriveKey(salt) : this.keyCache.get(salt, this::deriveKey);
+            // SecretKeySpec keeps a copy of the key bytes therefore wiping the derived key is safe.
+            return new SecretKeySpec(key, SECRET_KEY_SPEC_ALGO);
         } finally {
             CryptoUtil.nullSafeWipe(key);
         }
     }
 
+    private byte[] deriveKey(byte[] salt) throws GeneralSecurityException {
+        return CryptoUtil.newSecretKeyBytes(PBE_ALGO, this.cryptoKey, salt, this.iterations, PBE_KEY_LENGTH);
+    }
+
+    private int getKeyCacheSize(BundleContext context) {
+        String keyCacheSize = context.getProperty(PROPERTY_CRYPTO_KEY_CACHE_SIZE);
+        return StringUtils.isEmpty(keyCacheSize) ? DEFAULT_KEY_CACHE_SIZE : Integer.parseInt(keyCacheSize.trim());
+    }
+
+    /**
+     * Initializes the cipher for a stream segment, the segment iv is the stream iv whose last four bytes are
+     * XORed with the segment index so that segments can't be reordered, and the segment flag is added as AAD
+     * so that a stream can't be truncated at a segment boundary.
+     */
+    private static void initSegmentCipher(Cipher cipher, int mode, SecretKeySpec key, byte[] iv, int segment,
+                                          byte flag) throws GeneralSecurityException {
+        byte[] segmentIv = iv.clone();
+        for (int i = 0; i < Integer.BYTES; i++) {
+            segmentIv[IV_LENGTH - 1 - i] ^= (byte) (segment >>> (Byte.SIZE * i));
+        }
+        cipher.init(mode, key, new GCMParameterSpec(GCM_AUTH_TAG_LENGTH, segmentIv));
+        cipher.updateAAD(new byte[]{flag});
+    }
+
+    private static boolean isBlocking(Object channel) {
+        return !(channel instanceof SelectableChannel) || ((SelectableChannel) channel).isBlocking();
+    }
+
+    /**
+     * Reads from the channel till either the buffer is full or the end of stream is reached.
+     * <p>
+     * A blocking channel never reads zero bytes into a buffer having space remaining, so a zero read means the
+     * channel is non-blocking and is rejected rather than spinning on it.
+     *
+     * @return true if the end of stream is reached.
+     */
+    private static boolean readFully(ReadableByteChannel src, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            int read = src.read(buffer);
+            if (read == -1) {
+                return true;
+            }
+            if (read == 0) {
+                throw new IOException("Channel read returned no bytes, non-blocking channels are not supported!!");
+            }
+        }
+        return false;
+    }
+
+    private static void writeFully(WritableByteChannel dst, ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            if (dst.write(buffer) == 0) {
+                throw new IOException("Channel write returned no bytes, non-blocking channels are not supported!!");
+            }
+        }
+    }
+
+    private static void wipe(ByteBuffer buffer) {
+        if (buffer != null) {
+            CryptoUtil.nullSafeWipe(buffer.array());
+        }
+    }
+
     // << ------------------------------------------ OSGi Internal ------------------------------------------>>
 
     @Deactivate
     protected void stop() {
         Arrays.fill(this.cryptoKey, Character.MIN_VALUE);
+        if (this.keyCache != null) {
+            this.keyCache.clear();
+        }
+        CryptoUtil.nullSafeWipe(this.encryptionSalt);
     }
 }
\ No newline at end of file
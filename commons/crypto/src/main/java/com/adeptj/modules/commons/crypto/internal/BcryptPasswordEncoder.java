@@ -21,14 +21,31 @@
 package com.adeptj.modules.commons.crypto.internal;
 
 import at.favre.lib.crypto.bcrypt.BCrypt;
+import com.adeptj.modules.commons.crypto.CryptoUtil;
 import com.adeptj.modules.commons.crypto.PasswordEncoder;
+import com.adeptj.modules.commons.crypto.PasswordEncoderMetrics;
 import com.adeptj.modules.commons.utils.RandomUtil;
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.Validate;
 import org.jetbrains.annotations.NotNull;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
 import org.osgi.service.metatype.annotations.Designate;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionStage;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
 
 /**
  * Service implementation for encoding/matching passwords using BCrypt.
@@ -39,11 +56,38 @@ import org.osgi.service.metatype.annotations.Designate;
 @Component
 public class BcryptPasswordEncoder implements PasswordEncoder {
 
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final String WORKER_THREAD_NAME_PREFIX = "bcrypt-worker-";
+
+    private static final int MAX_VERIFICATION_CACHE_SIZE = 1 << 20;
+
     private final int exponentialCost;
 
+    private final ThreadPoolExecutor executor;
+
+    /**
+     * Cache of the successful verifications, null unless enabled via configuration.
+     */
+    private final VerifiedCredentialCache verificationCache;
+
+    private final LongAdder completedTasks;
+
+    private final LongAdder rejectedTasks;
+
+    private final LongAdder totalQueueWaitNanos;
+
+    private final LongAdder totalHashNanos;
+
     @Activate
     public BcryptPasswordEncoder(@NotNull PasswordEncoderConfig config) {
         this.exponentialCost = config.exponential_cost();
+        this.completedTasks = new LongAdder();
+        this.rejectedTasks = new LongAdder();
+        this.totalQueueWaitNanos = new LongAdder();
+        this.totalHashNanos = new LongAdder();
+        this.executor = newExecutor(config);
+        this.verificationCache = newVerificationCache(config);
     }
 
     @Override
@@ -56,6 +100,103 @@ public class BcryptPasswordEncoder implements PasswordEncoder {
     public boolean matches(char[] rawPassword, char[] encodedPassword) {
         Validate.isTrue(ArrayUtils.isNotEmpty(rawPassword), "rawPassword can't be null!!");
         Validate.isTrue(ArrayUtils.isNotEmpty(encodedPassword), "encodedPassword can't be null!!");
-        return BCrypt.verifyer().verify(rawPassword, encodedPassword).verified;
+        if (this.verificationCache == null) {
+            return BCrypt.verifyer().verify(rawPassword, encodedPassword).verified;
+        }
+        byte[] key = this.verificationCache.newKey(rawPassword, encodedPassword);
+        try {
+            if (this.verificationCache.isVerified(key)) {
+                return true;
+            }
+            boolean verified = BCrypt.verifyer().verify(rawPassword, encodedPassword).verified;
+            if (verified) {
+                this.verificationCache.put(key);
+            }
+            return verified;
+        } finally {
+            CryptoUtil.nullSafeWipe(key);
+        }
+    }
+
+    @Override
+    public CompletionStage<Boolean> matchesAsync(char[] rawPassword, char[] encodedPassword) {
+        Validate.isTrue(ArrayUtils.isNotEmpty(rawPassword), "rawPassword can't be null!!");
+        Validate.isTrue(ArrayUtils.isNotEmpty(encodedPassword), "encodedPassword can't be null!!");
+        // Copies are needed as the caller may clear the arrays before the task is executed.
+        char[] rawPasswordCopy = rawPassword.clone();
+        char[] encodedPasswordCopy = encodedPassword.clone();
+        long submitTime = System.nanoTime();
+        try {
+            return CompletableFuture.supplyAsync(() -> {
+                long startTime = System.nanoTime();
+                try {
+                    return this.matches(rawPasswordCopy, encodedPasswordCopy);
+                } finally {
+                    long endTime = System.nanoTime();
+                    this.totalQueueWaitNanos.add(startTime - submitTime);
+                    this.totalHashNanos.add(endTime - startTime);
+                    this.completedTasks.increment();
+                    Arrays.fill(rawPasswordCopy, Character.MIN_VALUE);
+                    Arrays.fill(encodedPasswordCopy, Character.MIN_VALUE);
+                }
+            }, this.executor);
+        } catch (RejectedExecutionException ex) {
+            this.rejectedTasks.increment();
+            Arrays.fill(rawPasswordCopy, Character.MIN_VALUE);
+            Arrays.fill(encodedPasswordCopy, Character.MIN_VALUE);
+            return CompletableFuture.failedFuture(ex);
+        }
+    }
+
+    @Override
+    public PasswordEncoderMetrics getMetrics() {
+        return new PasswordEncoderMetrics(this.completedTasks.sum(),
+                this.rejectedTasks.sum(),
+                this.executor.getQueue().size(),
+                this.totalQueueWaitNanos.sum(),
+                this.totalHashNanos.sum());
+    }
+
+    private static @NotNull ThreadPoolExecutor newExecutor(@NotNull PasswordEncoderConfig config) {
+        int poolSize = config.async_pool_size() > 0
+                ? config.async_pool_size()
+                : Runtime.getRuntime().availableProcessors();
+        Validate.isTrue(config.async_queue_capacity() > 0, "async.queue.capacity must be greater than 0!!");
+        AtomicInteger threadCounter = new AtomicInteger();
+        // AbortPolicy(default) makes sure that the tasks are rejected fast when the queue is full.
+        ThreadPoolExecutor executor = new ThreadPoolExecutor(poolSize, poolSize, 60L, TimeUnit.SECONDS,
+                new ArrayBlockingQueue<>(config.async_queue_capacity()), runnable -> {
+            Thread thread = new Thread(runnable, WORKER_THREAD_NAME_PREFIX + threadCounter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        executor.allowCoreThreadTimeOut(true);
+        LOGGER.info("BCrypt async worker pool initialized with size: [{}] and queue capacity: [{}]", poolSize,
+                config.async_queue_capacity());
+        return executor;
+    }
+
+    private static VerifiedCredentialCache newVerificationCache(@NotNull PasswordEncoderConfig config) {
+        if (!config.verification_cache_enabled()) {
+            return null;
+        }
+        Validate.isTrue(config.verification_cache_ttl() > 0, "verification.cache.ttl must be greater than 0!!");
+        Validate.isTrue(config.verification_cache_max_size() > 0
+                        && config.verification_cache_max_size() <= MAX_VERIFICATION_CACHE_SIZE,
+                "verification.cache.max.size must be between 1 and 1048576!!");
+        LOGGER.info("Password verification cache enabled with ttl: [{}s] and max size: [{}]",
+                config.verification_cache_ttl(), config.verification_cache_max_size());
+        return new VerifiedCredentialCache(Duration.ofSeconds(config.verification_cache_ttl()),
+                config.verification_cache_max_size());
+    }
+
+    // << ------------------------------------------ OSGi Internal ------------------------------------------>>
+
+    @Deactivate
+    protected void stop() {
+        this.executor.shutdown();
+        if (this.verificationCache != null) {
+            this.verificationCache.clear();
+        }
     }
 }
@@ -0,0 +1,107 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.crypto.internal;
+
+import com.adeptj.modules.commons.crypto.CryptoUtil;
+
+import java.nio.ByteBuffer;
+import java.security.GeneralSecurityException;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * A bounded, access ordered cache of PBKDF2 derived AES keys indexed by the salt used for the derivation.
+ * <p>
+ * Key bytes are wiped when an entry is evicted or the cache is cleared, callers always get a copy which they
+ * are supposed to wipe after use.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class DerivedKeyCache {
+
+    private final int maxSize;
+
+    private final Map<ByteBuffer, byte[]> keys;
+
+    DerivedKeyCache(int maxSize) {
+        this.maxSize = maxSize;
+        this.keys = new LinkedHashMap<>(16, 0.75f, true);
+    }
+
+    /**
+     * Returns a copy of the key derived for the given salt, the key is derived using the given {@link KeyDeriver}
+     * and cached only if not already present.
+     * <p>
+     * Note: The derivation itself is done outside the lock so that a slow PBKDF2 run for one salt doesn't block
+     * the lookups for other salts.
+     *
+     * @param salt    the salt used for key derivation.
+     * @param deriver the function which derives the key for given salt.
+     * @return copy of the derived key bytes.
+     * @throws GeneralSecurityException if key derivation fails.
+     */
+    byte[] get(byte[] salt, KeyDeriver deriver) throws GeneralSecurityException {
+        ByteBuffer cacheKey = ByteBuffer.wrap(salt.clone());
+        synchronized (this.keys) {
+            byte[] key = this.keys.get(cacheKey);
+            if (key != null) {
+                return key.clone();
+            }
+        }
+        byte[] derivedKey = deriver.derive(salt);
+        synchronized (this.keys) {
+            byte[] key = this.keys.putIfAbsent(cacheKey, derivedKey);
+            if (key != null) {
+                // Some other thread derived the same key in the meantime, keep that one.
+                CryptoUtil.nullSafeWipe(derivedKey);
+                return key.clone();
+            }
+            this.evictEldest();
+            return derivedKey.clone();
+        }
+    }
+
+    void clear() {
+        synchronized (this.keys) {
+            this.keys.values().forEach(CryptoUtil::nullSafeWipe);
+            this.keys.clear();
+        }
+    }
+
+    private void evictEldest() {
+        Iterator<byte[]> iterator = this.keys.values().iterator();
+        while (this.keys.size() > this.maxSize && iterator.hasNext()) {
+            CryptoUtil.nullSafeWipe(iterator.next());
+            iterator.remove();
+        }
+    }
+
+    /**
+     * Derives the secret key bytes for the given salt.
+     *
+     * @author Rakesh.Kumar, AdeptJ
+     */
+    @FunctionalInterface
+    interface KeyDeriver {
+        byte[] derive(byte[] salt) throws GeneralSecurityException;
+    }
+}
@@ -40,4 +40,36 @@ public @interface PasswordEncoderConfig {
             description = "The exponential cost (log2 factor) between 4 and 31 e.g. 12 will be 2^12 = 4096 iterations"
     )
     int exponential_cost() default 12;
+
+    @AttributeDefinition(
+            name = "Async Worker Pool Size",
+            description = "Number of threads used for async password matching, 0 means number of CPU cores"
+    )
+    int async_pool_size() default 0;
+
+    @AttributeDefinition(
+            name = "Async Queue Capacity",
+            description = "Max number of async password matching tasks waiting for a worker, further tasks are rejected"
+    )
+    int async_queue_capacity() default 64;
+
+    @AttributeDefinition(
+            name = "Verification Cache Enabled",
+            description = "Whether to cache the successful password verifications for a short time so that the "
+                    + "repeated matches for same credentials skip the BCrypt run"
+    )
+    boolean verification_cache_enabled();
+
+    @AttributeDefinition(
+            name = "Verification Cache TTL",
+            description = "Time in seconds for which a successful password verification is cached"
+    )
+    long verification_cache_ttl() default 60;
+
+    @AttributeDefinition(
+            name = "Verification Cache Max Size",
+            description = "Max number of successful password verifications cached at any time(1 to 1048576), "
+                    + "rounded up to a power of 2, each entry takes 48 bytes of off-heap memory"
+    )
+    int verification_cache_max_size() default 1024;
 }
@@ -0,0 +1,191 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.crypto.internal;
+
+import com.adeptj.modules.commons.crypto.CipherPool;
+import com.adeptj.modules.commons.crypto.CryptoException;
+import com.adeptj.modules.commons.crypto.CryptoUtil;
+import com.adeptj.modules.commons.utils.RandomUtil;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.security.GeneralSecurityException;
+import java.time.Duration;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * A short lived, bounded cache of successfully verified (rawPassword, encodedPassword) pairs.
+ * <p>
+ * Neither the raw password nor the encoded password is stored, the entries are keyed by a HMAC-SHA256 of the
+ * pair computed with a random per activation key, so the cache content is useless without that key which
+ * is wiped on {@link #clear()}.
+ * <p>
+ * The entries live in a direct buffer, i.e. off the Java heap, so they never show up in a heap dump. The buffer
+ * is a set associative table of {@link #WAYS} slots per bucket, a bucket is picked by the digest bits and a new
+ * entry takes either a free or an expired slot of its bucket, when all of them are live the entry is not cached
+ * rather than evicting a live one. The memory used is fixed at activation: {@link #SLOT_LENGTH} bytes per slot.
+ * <p>
+ * Only the successful verifications are cached, therefore a cache hit only tells a caller what the match
+ * result itself tells, a wrong password always pays the full BCrypt cost. The digests are compared in
+ * constant time.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class VerifiedCredentialCache {
+
+    private static final String HMAC_ALGO = "HmacSHA256";
+
+    private static final int HMAC_KEY_LENGTH = 32;
+
+    private static final byte SEPARATOR = 0;
+
+    private static final int DIGEST_LENGTH = 32;
+
+    private static final int WAYS = 4;
+
+    /**
+     * Slot layout: used flag(8 bytes) + expiry time in nanos(8 bytes) + HMAC digest(32 bytes).
+     */
+    private static final int SLOT_LENGTH = 48;
+
+    private static final int EXPIRY_OFFSET = 8;
+
+    private static final int DIGEST_OFFSET = 16;
+
+    private static final long USED = 1L;
+
+    private final byte[] hmacKey;
+
+    private final long ttlNanos;
+
+    private final int bucketMask;
+
+    private final ByteBuffer slots;
+
+    VerifiedCredentialCache(Duration ttl, int maxSize) {
+        this.hmacKey = RandomUtil.randomBytes(HMAC_KEY_LENGTH);
+        this.ttlNanos = ttl.toNanos();
+        int buckets = 1;
+        while ((long) buckets * WAYS < maxSize) {
+            buckets <<= 1;
+        }
+        this.bucketMask = buckets - 1;
+        this.slots = ByteBuffer.allocateDirect(buckets * WAYS * SLOT_LENGTH);
+    }
+
+    byte[] newKey(char[] rawPassword, char[] encodedPassword) {
+        try {
+            Mac mac = CipherPool.getMac(HMAC_ALGO);
+            mac.init(new SecretKeySpec(this.hmacKey, HMAC_ALGO));
+            update(mac, rawPassword);
+            mac.update(SEPARATOR);
+            update(mac, encodedPassword);
+            return mac.doFinal();
+        } catch (GeneralSecurityException ex) {
+            throw new CryptoException(ex);
+        }
+    }
+
+    boolean isVerified(byte[] key) {
+        int bucket = this.bucketOffset(key);
+        synchronized (this.slots) {
+            for (int way = 0; way < WAYS; way++) {
+                int slot = bucket + (way * SLOT_LENGTH);
+                if (this.slots.getLong(slot) == USED && this.digestEquals(slot, key)) {
+                    if (System.nanoTime() - this.slots.getLong(slot + EXPIRY_OFFSET) < 0) {
+                        return true;
+                    }
+                    this.free(slot);
+                    return false;
+                }
+            }
+        }
+        return false;
+    }
+
+    void put(byte[] key) {
+        int bucket = this.bucketOffset(key);
+        long now = System.nanoTime();
+        synchronized (this.slots) {
+            int freeSlot = -1;
+            for (int way = 0; way < WAYS; way++) {
+                int slot = bucket + (way * SLOT_LENGTH);
+                boolean used = this.slots.getLong(slot) == USED;
+                if (used && this.digestEquals(slot, key)) {
+                    this.slots.putLong(slot + EXPIRY_OFFSET, now + this.ttlNanos);
+                    return;
+                }
+                if (freeSlot == -1 && (!used || now - this.slots.getLong(slot + EXPIRY_OFFSET) >= 0)) {
+                    freeSlot = slot;
+                }
+            }
+            if (freeSlot == -1) {
+                // All the slots of the bucket are live, just skip caching rather than evicting the live ones.
+                return;
+            }
+            this.slots.putLong(freeSlot, USED);
+            this.slots.putLong(freeSlot + EXPIRY_OFFSET, now + this.ttlNanos);
+            for (int index = 0; index < DIGEST_LENGTH; index++) {
+                this.slots.put(freeSlot + DIGEST_OFFSET + index, key[index]);
+            }
+        }
+    }
+
+    void clear() {
+        synchronized (this.slots) {
+            for (int index = 0; index < this.slots.capacity(); index += Long.BYTES) {
+                this.slots.putLong(index, 0L);
+            }
+        }
+        CryptoUtil.nullSafeWipe(this.hmacKey);
+    }
+
+    private int bucketOffset(byte[] key) {
+        // The digest bits are uniformly distributed, any four of them make a good enough bucket index.
+        return (ByteBuffer.wrap(key).getInt() & this.bucketMask) * WAYS * SLOT_LENGTH;
+    }
+
+    private boolean digestEquals(int slot, byte[] key) {
+        int diff = 0;
+        for (int index = 0; index < DIGEST_LENGTH; index++) {
+            diff |= this.slots.get(slot + DIGEST_OFFSET + index) ^ key[index];
+        }
+        return diff == 0;
+    }
+
+    private void free(int slot) {
+        for (int index = 0; index < SLOT_LENGTH; index += Long.BYTES) {
+            this.slots.putLong(slot + index, 0L);
+        }
+    }
+
+    private static void update(Mac mac, char[] chars) {
+        ByteBuffer bytes = UTF_8.encode(CharBuffer.wrap(chars));
+        try {
+            mac.update(bytes);
+        } finally {
+            CryptoUtil.nullSafeWipe(bytes.array());
+        }
+    }
+}
@@ -0,0 +1,233 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.crypto.internal;
+
+import com.adeptj.modules.commons.crypto.CryptoException;
+import com.adeptj.modules.commons.crypto.CryptoService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.osgi.framework.BundleContext;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.ByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.Pipe;
+import java.nio.channels.ReadableByteChannel;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.Random;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * AesGcmCryptoServiceTest
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class AesGcmCryptoServiceTest {
+
+    private static final int IV_AND_SALT_LENGTH = 28;
+
+    private static final int SEGMENT_HEADER_LENGTH = 5;
+
+    private static final int SEGMENT_SIZE = 64 * 1024;
+
+    private static final int AUTH_TAG_LENGTH = 16;
+
+    private AesGcmCryptoService cryptoService;
+
+    @BeforeEach
+    public void init() {
+        this.cryptoService = newCryptoService("64");
+    }
+
+    @Test
+    public void testEncryptDecryptText() {
+        String cipherText = this.cryptoService.encrypt("AdeptJ Modules");
+        assertEquals("AdeptJ Modules", this.cryptoService.decrypt(cipherText));
+    }
+
+    @Test
+    public void testEncryptDecryptByteBuffer() {
+        byte[] plainBytes = "AdeptJ Modules".getBytes(UTF_8);
+        ByteBuffer cipherBuffer = ByteBuffer.allocate(IV_AND_SALT_LENGTH + plainBytes.length + AUTH_TAG_LENGTH);
+        int cipherLength = this.cryptoService.encrypt(ByteBuffer.wrap(plainBytes), cipherBuffer);
+        assertEquals(cipherBuffer.capacity(), cipherLength);
+        ByteBuffer plainBuffer = ByteBuffer.allocate(plainBytes.length);
+        assertEquals(plainBytes.length, this.cryptoService.decrypt(cipherBuffer.flip(), plainBuffer));
+        assertArrayEquals(plainBytes, plainBuffer.array());
+    }
+
+    @Test
+    public void testStreamRoundTrip() {
+        // Exact multiple of the segment size, a segment size + 1 and an empty stream exercise the segment edges.
+        for (int length : new int[]{0, 1, SEGMENT_SIZE, SEGMENT_SIZE + 1, (3 * SEGMENT_SIZE) + 17}) {
+            byte[] plainBytes = randomBytes(length);
+            assertArrayEquals(plainBytes, this.decryptStream(this.encryptStream(plainBytes)));
+        }
+    }
+
+    @Test
+    public void testStreamSegmentFraming() {
+        byte[] cipherStream = this.encryptStream(randomBytes(SEGMENT_SIZE + 10));
+        ByteBuffer buffer = ByteBuffer.wrap(cipherStream).position(IV_AND_SALT_LENGTH);
+        // 1st segment: a full non final segment.
+        assertEquals(0, buffer.get());
+        assertEquals(SEGMENT_SIZE + AUTH_TAG_LENGTH, buffer.getInt());
+        buffer.position(buffer.position() + SEGMENT_SIZE + AUTH_TAG_LENGTH);
+        // 2nd segment: the final segment carrying the remaining bytes.
+        assertEquals(1, buffer.get());
+        assertEquals(10 + AUTH_TAG_LENGTH, buffer.getInt());
+        assertEquals(10 + AUTH_TAG_LENGTH, buffer.remaining());
+    }
+
+    @Test
+    public void testTamperedStreamRejected() {
+        byte[] cipherStream = this.encryptStream(randomBytes(100));
+        cipherStream[cipherStream.length - 1] ^= 1;
+        assertThrows(CryptoException.class, () -> this.decryptStream(cipherStream));
+    }
+
+    @Test
+    public void testTamperedFinalFlagRejected() {
+        byte[] cipherStream = this.encryptStream(randomBytes(100));
+        cipherStream[IV_AND_SALT_LENGTH] = 0;
+        assertThrows(CryptoException.class, () -> this.decryptStream(cipherStream));
+    }
+
+    @Test
+    public void testTruncatedStreamRejected() {
+        byte[] cipherStream = this.encryptStream(randomBytes(SEGMENT_SIZE + 10));
+        // Cut at the segment boundary i.e. drop the final segment.
+        int firstSegmentEnd = IV_AND_SALT_LENGTH + SEGMENT_HEADER_LENGTH + SEGMENT_SIZE + AUTH_TAG_LENGTH;
+        assertThrows(CryptoException.class, () -> this.decryptStream(Arrays.copyOf(cipherStream, firstSegmentEnd)));
+        // Cut in the middle of the final segment.
+        assertThrows(CryptoException.class,
+                () -> this.decryptStream(Arrays.copyOf(cipherStream, cipherStream.length - 1)));
+        // Cut in the stream header.
+        assertThrows(CryptoException.class, () -> this.decryptStream(Arrays.copyOf(cipherStream, 10)));
+    }
+
+    @Test
+    public void testTrailingBytesRejected() {
+        byte[] cipherStream = this.encryptStream(randomBytes(100));
+        assertThrows(CryptoException.class,
+                () -> this.decryptStream(Arrays.copyOf(cipherStream, cipherStream.length + 1)));
+    }
+
+    @Test
+    public void testNonBlockingChannelRejected() throws Exception {
+        Pipe pipe = Pipe.open();
+        try {
+            pipe.source().configureBlocking(false);
+            assertThrows(IllegalArgumentException.class,
+                    () -> this.cryptoService.decrypt(pipe.source(), Channels.newChannel(new ByteArrayOutputStream())));
+        } finally {
+            pipe.source().close();
+            pipe.sink().close();
+        }
+    }
+
+    @Test
+    public void testZeroReadRejected() {
+        ReadableByteChannel src = new ReadableByteChannel() {
+
+            @Override
+            public int read(ByteBuffer dst) {
+                return 0;
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+                // NOOP
+            }
+        };
+        assertThrows(CryptoException.class,
+                () -> this.cryptoService.encrypt(src, Channels.newChannel(new ByteArrayOutputStream())));
+    }
+
+    @Test
+    public void testStreamWithReentrantChannel() {
+        byte[] plainBytes = randomBytes((2 * SEGMENT_SIZE) + 5);
+        ReadableByteChannel delegate = Channels.newChannel(new ByteArrayInputStream(plainBytes));
+        // The channel uses the pooled cipher of the same thread on every read, the stream must not be affected.
+        ReadableByteChannel src = new ReadableByteChannel() {
+
+            @Override
+            public int read(ByteBuffer dst) throws IOException {
+                assertEquals("AdeptJ", cryptoService.decrypt(cryptoService.encrypt("AdeptJ")));
+                return delegate.read(dst);
+            }
+
+            @Override
+            public boolean isOpen() {
+                return true;
+            }
+
+            @Override
+            public void close() {
+                // NOOP
+            }
+        };
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        this.cryptoService.encrypt(src, Channels.newChannel(out));
+        assertArrayEquals(plainBytes, this.decryptStream(out.toByteArray()));
+    }
+
+    private byte[] encryptStream(byte[] plainBytes) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        this.cryptoService.encrypt(Channels.newChannel(new ByteArrayInputStream(plainBytes)), Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    private byte[] decryptStream(byte[] cipherStream) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        this.cryptoService.decrypt(Channels.newChannel(new ByteArrayInputStream(cipherStream)), Channels.newChannel(out));
+        return out.toByteArray();
+    }
+
+    static AesGcmCryptoService newCryptoService(String keyCacheSize) {
+        Map<String, String> properties = Map.of("crypto.key", "AdeptJ_Test_Crypto_Key",
+                "crypto.iterations", "1000",
+                "crypto.key.cache.size", keyCacheSize);
+        BundleContext context = (BundleContext) Proxy.newProxyInstance(CryptoService.class.getClassLoader(),
+                new Class<?>[]{BundleContext.class},
+                (proxy, method, args) -> "getProperty".equals(method.getName()) ? properties.get(args[0]) : null);
+        return new AesGcmCryptoService(context);
+    }
+
+    static byte[] randomBytes(int length) {
+        byte[] bytes = new byte[length];
+        new Random(length).nextBytes(bytes);
+        return bytes;
+    }
+}
@@ -0,0 +1,110 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.crypto.internal;
+
+import com.adeptj.modules.commons.crypto.PasswordEncoderMetrics;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * BcryptPasswordEncoderTest
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class BcryptPasswordEncoderTest {
+
+    private BcryptPasswordEncoder encoder;
+
+    @AfterEach
+    public void destroy() {
+        if (this.encoder != null) {
+            this.encoder.stop();
+        }
+    }
+
+    @Test
+    public void testMatchesAsync() throws Exception {
+        this.encoder = new BcryptPasswordEncoder(newConfig(Map.of("exponential_cost", 4, "verification_cache_enabled", false)));
+        char[] encodedPassword = this.encoder.encode("secret".toCharArray()).toCharArray();
+        assertTrue(this.encoder.matchesAsync("secret".toCharArray(), encodedPassword).toCompletableFuture().get());
+        assertFalse(this.encoder.matchesAsync("Secret".toCharArray(), encodedPassword).toCompletableFuture().get());
+        PasswordEncoderMetrics metrics = this.encoder.getMetrics();
+        assertEquals(2, metrics.getCompletedTasks());
+        assertEquals(0, metrics.getRejectedTasks());
+        assertTrue(metrics.getTotalHashNanos() > 0);
+    }
+
+    @Test
+    public void testCallerArraysWipedAfterSubmit() throws Exception {
+        this.encoder = new BcryptPasswordEncoder(newConfig(Map.of("exponential_cost", 4, "verification_cache_enabled", false)));
+        char[] rawPassword = "secret".toCharArray();
+        char[] encodedPassword = this.encoder.encode(rawPassword).toCharArray();
+        CompletableFuture<Boolean> result = this.encoder.matchesAsync(rawPassword, encodedPassword)
+                .toCompletableFuture();
+        // The task works on copies, so the caller is free to wipe its arrays right away.
+        Arrays.fill(rawPassword, Character.MIN_VALUE);
+        assertTrue(result.get());
+    }
+
+    @Test
+    public void testRejectedWhenQueueFull() throws Exception {
+        this.encoder = new BcryptPasswordEncoder(newConfig(Map.of("exponential_cost", 10,
+                "async_pool_size", 1,
+                "async_queue_capacity", 1,
+                "verification_cache_enabled", false)));
+        char[] encodedPassword = this.encoder.encode("secret".toCharArray()).toCharArray();
+        List<CompletableFuture<Boolean>> results = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            results.add(this.encoder.matchesAsync("secret".toCharArray(), encodedPassword).toCompletableFuture());
+        }
+        int rejected = 0;
+        for (CompletableFuture<Boolean> result : results) {
+            try {
+                assertTrue(result.get());
+            } catch (ExecutionException ex) {
+                assertTrue(ex.getCause() instanceof RejectedExecutionException);
+                rejected++;
+            }
+        }
+        // One task running and one waiting in the queue, the rest are rejected fast.
+        assertTrue(rejected >= 8, "rejected: " + rejected);
+        assertEquals(rejected, this.encoder.getMetrics().getRejectedTasks());
+    }
+
+    static PasswordEncoderConfig newConfig(Map<String, Object> properties) {
+        return (PasswordEncoderConfig) Proxy.newProxyInstance(PasswordEncoderConfig.class.getClassLoader(),
+                new Class<?>[]{PasswordEncoderConfig.class},
+                (proxy, method, args) -> properties.getOrDefault(method.getName(), method.getDefaultValue()));
+    }
+}
@@ -0,0 +1,103 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.crypto.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+
+/**
+ * DerivedKeyCacheTest
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class DerivedKeyCacheTest {
+
+    @Test
+    public void testKeyDerivedOnlyOncePerSalt() throws Exception {
+        DerivedKeyCache cache = new DerivedKeyCache(4);
+        AtomicInteger derivations = new AtomicInteger();
+        byte[] salt = {1, 2, 3};
+        byte[] key1 = cache.get(salt, s -> {
+            derivations.incrementAndGet();
+            return new byte[]{9, 9};
+        });
+        byte[] key2 = cache.get(salt.clone(), s -> {
+            derivations.incrementAndGet();
+            return new byte[]{8, 8};
+        });
+        assertEquals(1, derivations.get());
+        assertArrayEquals(key1, key2);
+        // Callers get copies which they wipe, that must not wipe the cached key.
+        assertNotSame(key1, key2);
+        key1[0] = 0;
+        assertArrayEquals(new byte[]{9, 9}, cache.get(salt, s -> new byte[]{7, 7}));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedKeyEvicted() throws Exception {
+        DerivedKeyCache cache = new DerivedKeyCache(2);
+        AtomicInteger derivations = new AtomicInteger();
+        DerivedKeyCache.KeyDeriver deriver = s -> {
+            derivations.incrementAndGet();
+            return s.clone();
+        };
+        cache.get(new byte[]{1}, deriver);
+        cache.get(new byte[]{2}, deriver);
+        // Access 1 so that 2 becomes the eldest.
+        cache.get(new byte[]{1}, deriver);
+        cache.get(new byte[]{3}, deriver);
+        assertEquals(3, derivations.get());
+        cache.get(new byte[]{1}, deriver);
+        assertEquals(3, derivations.get());
+        cache.get(new byte[]{2}, deriver);
+        assertEquals(4, derivations.get());
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        DerivedKeyCache cache = new DerivedKeyCache(2);
+        AtomicInteger derivations = new AtomicInteger();
+        DerivedKeyCache.KeyDeriver deriver = s -> {
+            derivations.incrementAndGet();
+            return s.clone();
+        };
+        cache.get(new byte[]{1}, deriver);
+        cache.clear();
+        cache.get(new byte[]{1}, deriver);
+        assertEquals(2, derivations.get());
+    }
+
+    @Test
+    public void testCachedAndUncachedServicesInterop() {
+        AesGcmCryptoService cached = AesGcmCryptoServiceTest.newCryptoService("64");
+        AesGcmCryptoService uncached = AesGcmCryptoServiceTest.newCryptoService("0");
+        assertEquals("AdeptJ", uncached.decrypt(cached.encrypt("AdeptJ")));
+        assertEquals("AdeptJ", cached.decrypt(uncached.encrypt("AdeptJ")));
+        // Cached encryption reuses the salt, the iv still makes every cipher text unique.
+        assertNotEquals(cached.encrypt("AdeptJ"), cached.encrypt("AdeptJ"));
+    }
+}
@@ -0,0 +1,107 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.commons.crypto.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * VerifiedCredentialCacheTest
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class VerifiedCredentialCacheTest {
+
+    private static final char[] ENCODED_PASSWORD = "$2a$12$R9h/cIPz0gi.URNNX3kh2OPST9/PgBkqquzi.Ss7KIUgO2t0jWMUW"
+            .toCharArray();
+
+    @Test
+    public void testVerifiedCredentials() {
+        VerifiedCredentialCache cache = new VerifiedCredentialCache(Duration.ofMinutes(1), 16);
+        byte[] key = cache.newKey("secret".toCharArray(), ENCODED_PASSWORD);
+        assertEquals(32, key.length);
+        assertArrayEquals(key, cache.newKey("secret".toCharArray(), ENCODED_PASSWORD));
+        assertFalse(cache.isVerified(key));
+        cache.put(key);
+        assertTrue(cache.isVerified(key));
+        assertFalse(cache.isVerified(cache.newKey("Secret".toCharArray(), ENCODED_PASSWORD)));
+    }
+
+    @Test
+    public void testKeysDifferAcrossInstances() {
+        VerifiedCredentialCache cache1 = new VerifiedCredentialCache(Duration.ofMinutes(1), 16);
+        VerifiedCredentialCache cache2 = new VerifiedCredentialCache(Duration.ofMinutes(1), 16);
+        byte[] key = cache1.newKey("secret".toCharArray(), ENCODED_PASSWORD);
+        cache1.put(key);
+        assertFalse(cache2.isVerified(cache2.newKey("secret".toCharArray(), ENCODED_PASSWORD)));
+    }
+
+    @Test
+    public void testExpiredEntry() throws Exception {
+        VerifiedCredentialCache cache = new VerifiedCredentialCache(Duration.ofMillis(1), 16);
+        byte[] key = cache.newKey("secret".toCharArray(), ENCODED_PASSWORD);
+        cache.put(key);
+        Thread.sleep(5);
+        assertFalse(cache.isVerified(key));
+    }
+
+    @Test
+    public void testBoundedSize() {
+        // A single bucket of four slots, the fifth live entry is not cached.
+        VerifiedCredentialCache cache = new VerifiedCredentialCache(Duration.ofMinutes(1), 4);
+        byte[][] keys = new byte[5][];
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = cache.newKey(("secret" + i).toCharArray(), ENCODED_PASSWORD);
+            cache.put(keys[i]);
+        }
+        for (int i = 0; i < 4; i++) {
+            assertTrue(cache.isVerified(keys[i]));
+        }
+        assertFalse(cache.isVerified(keys[4]));
+    }
+
+    @Test
+    public void testExpiredSlotReused() throws Exception {
+        VerifiedCredentialCache cache = new VerifiedCredentialCache(Duration.ofMillis(500), 4);
+        for (int i = 0; i < 4; i++) {
+            cache.put(cache.newKey(("secret" + i).toCharArray(), ENCODED_PASSWORD));
+        }
+        Thread.sleep(600);
+        byte[] key = cache.newKey("secret4".toCharArray(), ENCODED_PASSWORD);
+        cache.put(key);
+        assertTrue(cache.isVerified(key));
+    }
+
+    @Test
+    public void testClear() {
+        VerifiedCredentialCache cache = new VerifiedCredentialCache(Duration.ofMinutes(1), 16);
+        byte[] key = cache.newKey("secret".toCharArray(), ENCODED_PASSWORD);
+        cache.put(key);
+        cache.clear();
+        assertFalse(cache.isVerified(key));
+    }
+}
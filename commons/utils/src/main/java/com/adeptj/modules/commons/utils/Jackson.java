@@ -20,6 +20,7 @@
 
 package com.adeptj.modules.commons.utils;
 
+import com.fasterxml.jackson.core.JsonFactory;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -56,6 +57,18 @@ public class Jackson {
         return DEFAULT_OBJECT_MAPPER;
     }
 
+    /**
+     * The thread safe {@link JsonFactory} of the default {@link ObjectMapper} for the streaming read/write.
+     * <p>
+     * Note: Generators created directly from this factory don't apply the {@link ObjectMapper} features
+     * such as indentation and inclusion rules.
+     *
+     * @return the {@link JsonFactory}
+     */
+    public static JsonFactory jsonFactory() {
+        return Jackson.objectMapper().getFactory();
+    }
+
     public static ObjectNode objectNode() {
         return (ObjectNode) Jackson.objectReader().createObjectNode();
     }
@@ -25,8 +25,12 @@ import com.adeptj.modules.data.jpa.criteria.DeleteCriteria;
 import com.adeptj.modules.data.jpa.criteria.ReadCriteria;
 import com.adeptj.modules.data.jpa.criteria.TupleCriteria;
 import com.adeptj.modules.data.jpa.criteria.UpdateCriteria;
+import com.adeptj.modules.data.jpa.dto.BatchResultDTO;
 import com.adeptj.modules.data.jpa.dto.CrudDTO;
+import com.adeptj.modules.data.jpa.dto.PageDTO;
 import com.adeptj.modules.data.jpa.dto.ResultSetMappingDTO;
+import com.adeptj.modules.data.jpa.dto.UpsertDTO;
+import com.adeptj.modules.data.jpa.query.BatchWriteMode;
 import com.adeptj.modules.data.jpa.query.InParam;
 import com.adeptj.modules.data.jpa.query.OutParam;
 import com.adeptj.modules.data.jpa.query.QueryParam;
@@ -36,6 +40,7 @@ import org.osgi.annotation.versioning.ConsumerType;
 import javax.persistence.Tuple;
 import java.io.Serializable;
 import java.util.List;
+import java.util.stream.Stream;
 
 /**
  * JPA 2.2 Repository for CRUD operations to be performed by the application on underlying DB.
@@ -60,11 +65,59 @@ public interface JpaRepository<T extends BaseEntity, ID extends Serializable> {
 
     /**
      * Inserts the given JPA entities in DB.
+     * <p>
+     * Each batch is committed in its own transaction, its statements are sent to the database in JDBC batches
+     * as per the batch writing configured on the EntityManagerFactory.
+     *
+     * @param entities  the JPA entity instances
+     * @param batchSize the interval with which there is a commit to database
+     * @return the no. of rows written, rows/sec and the per batch latency
+     */
+    BatchResultDTO batchInsert(List<T> entities, int batchSize);
+
+    /**
+     * Updates the given JPA entities in DB, each of them must exist already.
+     *
+     * @param entities  the JPA entity instances
+     * @param batchSize the interval with which there is a commit to database
+     * @return the no. of rows written, rows/sec and the per batch latency
+     */
+    BatchResultDTO batchUpdate(List<T> entities, int batchSize);
+
+    /**
+     * Merges the given JPA entities in DB, the ones which don't exist are inserted.
      *
      * @param entities  the JPA entity instances
      * @param batchSize the interval with which there is a commit to database
+     * @return the no. of rows written, rows/sec and the per batch latency
      */
-    void batchInsert(List<T> entities, int batchSize);
+    BatchResultDTO batchMerge(List<T> entities, int batchSize);
+
+    /**
+     * Writes the given JPA entities in DB as per the given {@link BatchWriteMode}, the entities are split into
+     * parallelism no. of partitions which are written in parallel, each using its own EntityManager.
+     * <p>
+     * Note: The batches are committed independently, therefore the ones committed before a failure stay in DB,
+     * the {@link com.adeptj.modules.data.jpa.exception.BatchWriteException} thrown reports them.
+     *
+     * @param entities    the JPA entity instances
+     * @param mode        whether to insert, update or merge the entities
+     * @param batchSize   the interval with which there is a commit to database
+     * @param parallelism no. of partitions written in parallel, at most 8, 1 means that the calling thread writes
+     *                    all of them. Each partition holds a DB connection, so it must stay below the pool size.
+     * @return the no. of rows written, rows/sec and the per batch latency
+     */
+    BatchResultDTO batchWrite(List<T> entities, BatchWriteMode mode, int batchSize, int parallelism);
+
+    /**
+     * Inserts the rows or updates the existing ones using a native multi row upsert statement per batch,
+     * the dialect of the statement is specified by the {@link UpsertDTO}.
+     *
+     * @param upsertDTO DTO holding the table, columns, conflict columns and the rows along with the batch size
+     *                  and parallelism
+     * @return the no. of rows written, rows/sec and the per batch latency
+     */
+    BatchResultDTO batchUpsert(UpsertDTO upsertDTO);
 
     /**
      * Updates the given JPA entity in DB.
@@ -134,6 +187,13 @@ public interface JpaRepository<T extends BaseEntity, ID extends Serializable> {
      *
      * @param criteria Object composed of the JPA entity class.
      *                 The mapping of entity attributes on which criteria has to be applied using AND operator.
+     *                 The conditions(range, IN, LIKE, IS NULL, OR groups etc.) applied using AND operator.
+     *                 The joins and fetch joins, the entities are distinct if any of these is on a collection.
+     *                 The sort orders, which like the conditions can't go through a fetch, only through a join,
+     *                 which may be on the same attribute. With a join on a collection, only on the attributes of
+     *                 the entity itself, as DISTINCT can only sort by the selected columns.
+     *                 The startPos and maxResult for pagination, applied only if greater than 0, and not allowed
+     *                 together with a fetch on a collection.
      * @return returns no. of rows found
      */
     List<T> findByCriteria(ReadCriteria<T> criteria);
@@ -183,6 +243,23 @@ public interface JpaRepository<T extends BaseEntity, ID extends Serializable> {
      */
     List<T> findWithPagination(Class<T> entity, int startPos, int maxResult);
 
+    /**
+     * Finds a page of the given JPA entity using keyset(seek) pagination, unlike {@link #findWithPagination}
+     * the cost of a page doesn't grow with its depth as the rows before it are never scanned.
+     * <p>
+     * The criteria can't have sort orders, startPos or maxResult as the pages are ordered by orderBy and limited by
+     * limit, nor can it fetch a collection.
+     *
+     * @param criteria Object composed of the JPA entity class.
+     *                 The mapping of entity attributes on which criteria has to be applied using AND operator.
+     * @param afterKey the {@link PageDTO#getNextPageToken()} of the previous page, null for the first page
+     * @param limit    maximum number of results in the page
+     * @param orderBy  the entity attribute the pages are ordered by in ascending order, it must be unique and
+     *                 non null, such as the primary key
+     * @return the page along with the token for the next one
+     */
+    PageDTO<T> findPage(ReadCriteria<T> criteria, String afterKey, int limit, String orderBy);
+
     /**
      * Finds the entity instances of given type using query specified in JPQL format.
      *
@@ -198,8 +275,8 @@ public interface JpaRepository<T extends BaseEntity, ID extends Serializable> {
      *
      * @param entity        the JPA entity class object
      * @param attributeName entity attribute against which IN has to be applied
-     * @param values        values on which IN has to be applied
-     * @return List of entity found by criteria
+     * @param values        values on which IN has to be applied, queried in batches of 1000
+     * @return List of entity found by criteria, empty if there are no values
      */
     List<T> findByINOperator(Class<T> entity, String attributeName, List<Object> values);
 
@@ -225,6 +302,58 @@ public interface JpaRepository<T extends BaseEntity, ID extends Serializable> {
      */
     List<T> findByNativeQuery(Class<T> resultClass, ResultSetMappingDTO mappingDTO);
 
+    /**
+     * Streams all entities of given type, the rows are fetched from the database fetchSize rows at a time
+     * using a forward only server side cursor.
+     * <p>
+     * Note: The returned stream holds an open cursor and EntityManager, therefore it must always be closed,
+     * preferably using a try-with-resources statement. The persistence context is cleared after every
+     * fetchSize rows, so the entities streamed earlier are detached by then. The rows are read in a transaction
+     * which is rolled back when the stream is closed, so nothing changed through the streamed entities is saved.
+     * <p>
+     * MySQL streams only if the JDBC URL has {@code useCursorFetch=true}, without it the driver reads the whole
+     * result into memory.
+     *
+     * @param entity    the JPA entity class object
+     * @param fetchSize no. of rows fetched per database round trip, must be greater than 0
+     * @return Stream of the rows(Entity instances)
+     */
+    Stream<T> streamAll(Class<T> entity, int fetchSize);
+
+    /**
+     * Streams the given JPA entity using Criteria API, see {@link #streamAll(Class, int)} for the details.
+     *
+     * @param criteria  Object composed of the JPA entity class.
+     *                  The mapping of entity attributes on which criteria has to be applied using AND operator.
+     * @param fetchSize no. of rows fetched per database round trip, must be greater than 0
+     * @return Stream of the rows found
+     */
+    Stream<T> streamByCriteria(ReadCriteria<T> criteria, int fetchSize);
+
+    /**
+     * Streams the entity instances of given type using query specified in JPQL format,
+     * see {@link #streamAll(Class, int)} for the details.
+     *
+     * @param crudDTO   DTO holding the JPA entity class object.
+     *                  The query in JPQL format
+     *                  The list of parameters to bind to query parameters (named or positional)
+     * @param fetchSize no. of rows fetched per database round trip, must be greater than 0
+     * @return Stream of entity found by JPA query(JPQL format) execution
+     */
+    Stream<T> streamByJpaQuery(CrudDTO<T> crudDTO, int fetchSize);
+
+    /**
+     * Streams the entity using given native query and project in the given result class,
+     * see {@link #streamAll(Class, int)} for the details.
+     *
+     * @param resultClass the type of the query result, basically an entity class.
+     * @param nativeQuery the native query string
+     * @param fetchSize   no. of rows fetched per database round trip, must be greater than 0
+     * @param params      List of parameters to bind to query parameters (named or positional)
+     * @return Stream of entity found by query execution
+     */
+    Stream<T> streamByNativeQuery(Class<T> resultClass, String nativeQuery, int fetchSize, QueryParam... params);
+
     /**
      * First find the entity using the given Jpa query and then Map the result to the constructor
      * of type specified as resultClass.
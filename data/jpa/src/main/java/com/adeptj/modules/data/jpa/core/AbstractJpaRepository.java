@@ -28,10 +28,14 @@ import com.adeptj.modules.data.jpa.criteria.DeleteCriteria;
 import com.adeptj.modules.data.jpa.criteria.ReadCriteria;
 import com.adeptj.modules.data.jpa.criteria.TupleCriteria;
 import com.adeptj.modules.data.jpa.criteria.UpdateCriteria;
+import com.adeptj.modules.data.jpa.dto.BatchResultDTO;
 import com.adeptj.modules.data.jpa.dto.CrudDTO;
+import com.adeptj.modules.data.jpa.dto.PageDTO;
 import com.adeptj.modules.data.jpa.dto.ResultSetMappingDTO;
+import com.adeptj.modules.data.jpa.dto.UpsertDTO;
 import com.adeptj.modules.data.jpa.exception.JpaException;
 import com.adeptj.modules.data.jpa.internal.EntityManagerFactoryLifecycle;
+import com.adeptj.modules.data.jpa.query.BatchWriteMode;
 import com.adeptj.modules.data.jpa.query.InParam;
 import com.adeptj.modules.data.jpa.query.OutParam;
 import com.adeptj.modules.data.jpa.query.QueryParam;
@@ -52,16 +56,18 @@ import javax.persistence.StoredProcedureQuery;
 import javax.persistence.Tuple;
 import javax.persistence.TypedQuery;
 import javax.persistence.criteria.CriteriaBuilder;
-import javax.persistence.criteria.CriteriaDelete;
 import javax.persistence.criteria.CriteriaQuery;
-import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
-import javax.persistence.criteria.Selection;
 import java.io.Serializable;
 import java.lang.invoke.MethodHandles;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
 import java.util.List;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static javax.persistence.ParameterMode.OUT;
 
@@ -82,6 +88,13 @@ public abstract class AbstractJpaRepository<T extends BaseEntity, ID extends Ser
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    private static final int IN_OPERATOR_BATCH_SIZE = 1000;
+
+    /**
+     * Parameter of findPage bound to the decoded page token, so that every page shares the same SQL.
+     */
+    private static final String AFTER_KEY = "afterKey";
+
     /**
      * The {@link EntityManagerFactory}'s lifecycle is managed by EntityManagerFactoryLifecycle therefore consumers
      * must not attempt to create or close it on their own.
@@ -92,10 +105,25 @@ public abstract class AbstractJpaRepository<T extends BaseEntity, ID extends Ser
      */
     protected EntityManagerFactory entityManagerFactory;
 
+    /**
+     * The named queries of the *Criteria based methods, registered with the current {@link EntityManagerFactory}.
+     */
+    private volatile CriteriaQueryCache criteriaQueryCache;
+
     public void setEntityManagerFactory(EntityManagerFactory entityManagerFactory) {
         this.entityManagerFactory = entityManagerFactory;
     }
 
+    private CriteriaQueryCache getCriteriaQueryCache() {
+        CriteriaQueryCache cache = this.criteriaQueryCache;
+        // A new EntityManagerFactory doesn't know the named queries registered with the previous one.
+        if (cache == null || !cache.isFor(this.entityManagerFactory)) {
+            cache = new CriteriaQueryCache(this.entityManagerFactory);
+            this.criteriaQueryCache = cache;
+        }
+        return cache;
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -117,29 +145,48 @@ public abstract class AbstractJpaRepository<T extends BaseEntity, ID extends Ser
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
     @Override
-    public void batchInsert(List<T> entities, int batchSize) {
-        Validate.noNullElements(entities);
-        Validate.isTrue(batchSize > 1, "batchSize should be greater than 1!!");
-        EntityManager em = JpaUtil.createEntityManager(this.entityManagerFactory);
-        try {
-            em.getTransaction().begin();
-            for (int i = 0; i < entities.size(); i++) {
-                if (i > 0 && (i % batchSize == 0)) {
-                    em.getTransaction().commit();
-                    em.getTransaction().begin();
-                    em.clear();
-                }
-                em.persist(entities.get(i));
-            }
-            em.getTransaction().commit();
-        } catch (Exception ex) { // NOSONAR
-            Transactions.markRollback(em);
-            throw new JpaException(ex);
-        } finally {
-            Transactions.rollback(em);
-            JpaUtil.closeEntityManager(em);
-        }
+    public BatchResultDTO batchInsert(List<T> entities, int batchSize) {
+        return this.batchWrite(entities, BatchWriteMode.INSERT, batchSize, 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BatchResultDTO batchUpdate(List<T> entities, int batchSize) {
+        return this.batchWrite(entities, BatchWriteMode.UPDATE, batchSize, 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BatchResultDTO batchMerge(List<T> entities, int batchSize) {
+        return this.batchWrite(entities, BatchWriteMode.MERGE, batchSize, 1);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BatchResultDTO batchWrite(List<T> entities, BatchWriteMode mode, int batchSize, int parallelism) {
+        BatchResultDTO result = BatchWrites.write(this.entityManagerFactory, entities, mode, batchSize, parallelism);
+        LOGGER.debug("batchWrite: [{}] {}", mode, result);
+        return result;
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public BatchResultDTO batchUpsert(UpsertDTO upsertDTO) {
+        BatchResultDTO result = BatchWrites.upsert(this.entityManagerFactory, upsertDTO);
+        LOGGER.debug("batchUpsert: [{}] {}", upsertDTO.getTable(), result);
+        return result;
     }
 
     /**
@@ -171,13 +218,9 @@ public abstract class AbstractJpaRepository<T extends BaseEntity, ID extends Ser
     public int updateByCriteria(UpdateCriteria<T> criteria) {
         EntityManager em = JpaUtil.createEntityManager(this.entityManagerFactory);
         try {
-            CriteriaBuilder cb = em.getCriteriaBuilder();
-            CriteriaUpdate<T> cu = cb.createCriteriaUpdate(criteria.getEntity());
-            criteria.getUpdateAttributes().forEach(cu::set);
-            Root<T> root = cu.from(criteria.getEntity());
-            Predicate[] predicates = Predicates.using(cb, root, criteria.getCriteriaAttributes());
+            Query query = this.getCriteriaQueryCache().update(em, criteria);
             em.getTransaction().begin();
-            int rowsUpdated = em.createQuery(cu.where(predicates)).executeUpdate();
+            int rowsUpdated = query.executeUpdate();
             em.getTransaction().commit();
             LOGGER.debug("No. of rows updated: {}", rowsUpdated);
             return rowsUpdated;
@@ -246,11 +289,7 @@ public abstract class AbstractJpaRepository<T extends BaseEntity, ID extends Ser
         EntityManager em = JpaUtil.createEntityManager(this.entityManagerFactory);
         try {
             em.getTransaction().begin();
-            CriteriaBuilder cb = em.getCriteriaBuilder();
-            CriteriaDelete<T> cd = cb.createCriteriaDelete(criteria.getEntity());
-            Root<T> root = cd.from(criteria.getEntity());
-            Predicate[] predicates = Predicates.using(cb, root, criteria.getCriteriaAttributes());
-            int rowsDeleted = em.createQuery(cd.where(predicates)).executeUpdate();
+            int rowsDeleted = this.getCriteriaQueryCache().delete(em, criteria).executeUpdate();
             em.getTransaction().commit();
             LOGGER.debug("deleteByCriteria: No. of rows deleted: [{}]", rowsDeleted);
             return rowsDeleted;
@@ -306,11 +345,9 @@ public abstract class AbstractJpaRepository<T extends BaseEntity, ID extends Ser
     public List<T> findByCriteria(ReadCriteria<T> criteria) {
         EntityManager em = JpaUtil.createEntityManager(this.entityManagerFactory);
         try {
-            CriteriaBuilder cb = em.getCriteriaBuilder();
-            CriteriaQuery<T> cq = cb.createQuery(criteria.getEntity());
-            Root<T> root = cq.from(criteria.getEntity());
-            Predicate[] predicates = Predicates.using(cb, root, criteria.getCriteriaAttributes());
-            return em.createQuery(cq.where(predicates)).getResultList();
+            TypedQuery<T> query = this.getCriteriaQueryCache().read(em, criteria);
+            JpaUtil.setPagination(query, criteria.getStartPos(), criteria.getMaxResult());
+            return query.getResultList();
         } catch (Exception ex) { // NOSONAR
             throw new JpaException(ex);
         } finally {
@@ -325,16 +362,7 @@ public abstract class AbstractJpaRepository<T extends BaseEntity, ID extends Ser
     public List<Tuple> findByTupleCriteria(TupleCriteria<T> criteria) {
         EntityManager em = JpaUtil.createEntityManager(this.entityManagerFactory);
         try {
-            CriteriaBuilder cb = em.getCriteriaBuilder();
-            CriteriaQuery<Tuple> cq = cb.createTupleQuery();
-            Root<T> root = cq.from(criteria.getEntity());
-            List<Selection<?>> selections = criteria.getSelections()
-                    .stream()
-                    .map(root::get)
-                    .collect(Collectors.toList());
-            return em.createQuery(cq.multiselect(selections)
-                    .where(Predicates.using(cb, root, criteria.getCriteriaAttributes())))
-                    .getResultList();
+            return this.getCriteriaQueryCache().tuple(em, criteria).getResultList();
         } catch (Exception ex) { // NOSONAR
             throw new JpaException(ex);
         } finally {
@@ -394,6 +422,61 @@ public abstract class AbstractJpaRepository<T extends BaseEntity, ID extends Ser
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public PageDTO<T> findPage(ReadCriteria<T> criteria, String afterKey, int limit, String orderBy) {
+        Validate.isTrue(limit > 0, "limit should be greater than 0!!");
+        Validate.notEmpty(orderBy, "orderBy can't be null!!");
+        Validate.isTrue(!CriteriaPaths.fetchesCollection(this.entityManagerFactory.getMetamodel(),
+                        criteria.getEntity(), criteria.getJoinAttributes()),
+                "findPage can't be used with a fetch on a collection!!");
+        Validate.isTrue(criteria.getSortOrders().isEmpty(), "findPage orders by orderBy, sort orders can't be used!!");
+        Validate.isTrue(criteria.getStartPos() <= 0 && criteria.getMaxResult() <= 0,
+                "findPage pages by afterKey and limit, startPos and maxResult can't be used!!");
+        EntityManager em = JpaUtil.createEntityManager(this.entityManagerFactory);
+        try {
+            CriteriaBuilder cb = em.getCriteriaBuilder();
+            CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+            Root<T> root = cq.from(criteria.getEntity());
+            CriteriaPaths paths = new CriteriaPaths(root, criteria.getJoinAttributes());
+            Path<Comparable<Object>> key = root.get(orderBy);
+            List<Predicate> predicates = new ArrayList<>();
+            if (criteria.getCriteriaAttributes() != null) {
+                predicates.addAll(Arrays.asList(Predicates.using(cb, root, criteria.getCriteriaAttributes())));
+            }
+            predicates.addAll(Arrays.asList(Conditions.compile(cb, paths, criteria.getConditions())));
+            if (afterKey != null) {
+                predicates.add(cb.greaterThan(key, CriteriaPaths.parameter(cb, key, AFTER_KEY)));
+            }
+            // Seeks past the last key instead of skipping rows, one extra row tells whether there is a next page.
+            TypedQuery<Tuple> query = em.createQuery(cq.multiselect(root, key)
+                    .distinct(!criteria.getJoinAttributes().isEmpty())
+                    .where(predicates.toArray(new Predicate[0]))
+                    .orderBy(cb.asc(key)))
+                    .setMaxResults(limit + 1);
+            Conditions.bind(query, criteria.getConditions());
+            if (afterKey != null) {
+                query.setParameter(AFTER_KEY, PageTokens.decode(afterKey, orderBy, key.getJavaType()));
+            }
+            List<Tuple> tuples = query.getResultList();
+            int size = Math.min(tuples.size(), limit);
+            List<T> content = new ArrayList<>(size);
+            for (int i = 0; i < size; i++) {
+                content.add(tuples.get(i).get(0, criteria.getEntity()));
+            }
+            String nextPageToken = tuples.size() > limit
+                    ? PageTokens.encode(orderBy, tuples.get(limit - 1).get(1))
+                    : null;
+            return new PageDTO<>(content, nextPageToken);
+        } catch (Exception ex) { // NOSONAR
+            throw new JpaException(ex);
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -403,6 +486,7 @@ public abstract class AbstractJpaRepository<T extends BaseEntity, ID extends Ser
         try {
             TypedQuery<T> query = em.createQuery(crudDTO.getJpaQuery(), crudDTO.getEntity());
             JpaUtil.bindQueryParams(query, crudDTO.getQueryParams());
+            JpaUtil.setPagination(query, crudDTO.getStartPos(), crudDTO.getMaxResult());
             return query.getResultList();
         } catch (Exception ex) { // NOSONAR
             throw new JpaException(ex);
@@ -416,12 +500,24 @@ public abstract class AbstractJpaRepository<T extends BaseEntity, ID extends Ser
      */
     @Override
     public List<T> findByINOperator(Class<T> entity, String attributeName, List<Object> values) {
+        if (values == null || values.isEmpty()) {
+            return new ArrayList<>();
+        }
         EntityManager em = JpaUtil.createEntityManager(this.entityManagerFactory);
         try {
-            CriteriaQuery<T> cq = em.getCriteriaBuilder().createQuery(entity);
+            CriteriaBuilder cb = em.getCriteriaBuilder();
+            CriteriaQuery<T> cq = cb.createQuery(entity);
             Root<T> root = cq.from(entity);
-            Predicate predicate = root.get(attributeName).in(values);
-            return em.createQuery(cq.select(root).where(predicate)).getResultList();
+            @SuppressWarnings({"unchecked", "rawtypes"})
+            ParameterExpression<Collection<?>> valuesParam = (ParameterExpression) cb.parameter(Collection.class);
+            TypedQuery<T> query = em.createQuery(cq.select(root).where(root.get(attributeName).in(valuesParam)));
+            // The same query runs for each batch so that the IN list stays within the database's limits.
+            List<T> entities = new ArrayList<>(values.size());
+            for (int from = 0; from < values.size(); from += IN_OPERATOR_BATCH_SIZE) {
+                int to = Math.min(from + IN_OPERATOR_BATCH_SIZE, values.size());
+                entities.addAll(query.setParameter(valuesParam, values.subList(from, to)).getResultList());
+            }
+            return entities;
         } catch (Exception ex) { // NOSONAR
             throw new JpaException(ex);
         } finally {
@@ -462,6 +558,54 @@ public abstract class AbstractJpaRepository<T extends BaseEntity, ID extends Ser
         }
     }
 
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<T> streamAll(Class<T> entity, int fetchSize) {
+        return ResultStreams.stream(this.entityManagerFactory, em -> {
+            CriteriaQuery<T> cq = em.getCriteriaBuilder().createQuery(entity);
+            return em.createQuery(cq.select(cq.from(entity)));
+        }, fetchSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<T> streamByCriteria(ReadCriteria<T> criteria, int fetchSize) {
+        return ResultStreams.stream(this.entityManagerFactory, em -> {
+            TypedQuery<T> query = this.getCriteriaQueryCache().read(em, criteria);
+            JpaUtil.setPagination(query, criteria.getStartPos(), criteria.getMaxResult());
+            return query;
+        }, fetchSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<T> streamByJpaQuery(CrudDTO<T> crudDTO, int fetchSize) {
+        return ResultStreams.stream(this.entityManagerFactory, em -> {
+            TypedQuery<T> query = em.createQuery(crudDTO.getJpaQuery(), crudDTO.getEntity());
+            JpaUtil.bindQueryParams(query, crudDTO.getQueryParams());
+            return query;
+        }, fetchSize);
+    }
+
+    /**
+     * {@inheritDoc}
+     */
+    @Override
+    public Stream<T> streamByNativeQuery(Class<T> resultClass, String nativeQuery, int fetchSize,
+                                         QueryParam... params) {
+        return ResultStreams.stream(this.entityManagerFactory, em -> {
+            Query query = em.createNativeQuery(nativeQuery, resultClass);
+            JpaUtil.bindQueryParams(query, params);
+            return query;
+        }, fetchSize);
+    }
+
     /**
      * {@inheritDoc}
      */
@@ -486,15 +630,7 @@ public abstract class AbstractJpaRepository<T extends BaseEntity, ID extends Ser
     public <C> List<C> findByCriteriaWithDTOProjection(ConstructorCriteria<T, C> criteria) {
         EntityManager em = JpaUtil.createEntityManager(this.entityManagerFactory);
         try {
-            CriteriaBuilder cb = em.getCriteriaBuilder();
-            CriteriaQuery<C> cq = cb.createQuery(criteria.getConstructorClass());
-            Root<T> root = cq.from(criteria.getEntity());
-            return em.createQuery(cq.select(cb.construct(criteria.getConstructorClass(), criteria.getSelections()
-                    .stream()
-                    .map(root::get)
-                    .toArray(Selection[]::new)))
-                    .where(Predicates.using(cb, root, criteria.getCriteriaAttributes())))
-                    .getResultList();
+            return this.getCriteriaQueryCache().construct(em, criteria).getResultList();
         } catch (Exception ex) { // NOSONAR
             throw new JpaException(ex);
         } finally {
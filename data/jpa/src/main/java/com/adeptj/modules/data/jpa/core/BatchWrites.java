@@ -0,0 +1,363 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.data.jpa.core;
+
+import com.adeptj.modules.data.jpa.dto.BatchResultDTO;
+import com.adeptj.modules.data.jpa.dto.UpsertDTO;
+import com.adeptj.modules.data.jpa.exception.BatchWriteException;
+import com.adeptj.modules.data.jpa.exception.JpaException;
+import com.adeptj.modules.data.jpa.query.BatchWriteMode;
+import com.adeptj.modules.data.jpa.util.JpaUtil;
+import com.adeptj.modules.data.jpa.util.Transactions;
+import org.apache.commons.lang3.Validate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityNotFoundException;
+import javax.persistence.PersistenceUnitUtil;
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.EntityType;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+import java.util.regex.Pattern;
+import java.util.stream.Collectors;
+
+/**
+ * The bulk write pipeline behind the AbstractJpaRepository batch* methods.
+ * <p>
+ * Each batch is written and committed in its own transaction, the flush on commit sends the statements to the
+ * database in JDBC batches as per the EclipseLink batch writing configured on the EntityManagerFactory.
+ * When asked for, the rows are split into contiguous partitions which are written in parallel, each with its own
+ * {@link EntityManager}, therefore a failure doesn't roll back the batches committed before it, these are reported
+ * by the {@link BatchWriteException} thrown. Each partition holds a connection till it is done, so the parallelism
+ * is capped at {@link #MAX_PARALLELISM} and must stay below the size of the connection pool.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class BatchWrites {
+
+    private static final Pattern IDENTIFIER = Pattern.compile("[A-Za-z_][A-Za-z0-9_$.]*");
+
+    static final int MAX_PARALLELISM = 8;
+
+    private static final AtomicInteger THREAD_COUNTER = new AtomicInteger();
+
+    private BatchWrites() {
+    }
+
+    static <T> BatchResultDTO write(EntityManagerFactory emf, List<T> entities, BatchWriteMode mode, int batchSize,
+                                    int parallelism) {
+        Validate.noNullElements(entities);
+        Validate.notNull(mode, "BatchWriteMode can't be null!!");
+        Validate.isTrue(batchSize > 1, "batchSize should be greater than 1!!");
+        validateParallelism(parallelism);
+        return partitioned(entities, parallelism, partition -> write(emf, partition, mode, batchSize));
+    }
+
+    static BatchResultDTO upsert(EntityManagerFactory emf, UpsertDTO upsertDTO) {
+        Validate.isTrue(IDENTIFIER.matcher(upsertDTO.getTable()).matches(), "Invalid table name!!");
+        Validate.notNull(upsertDTO.getDialect(), "Dialect can't be null!!");
+        List<String> columns = upsertDTO.getColumns();
+        Validate.notEmpty(columns, "columns can't be empty!!");
+        Validate.notEmpty(upsertDTO.getConflictColumns(), "conflictColumns can't be empty!!");
+        Validate.isTrue(columns.containsAll(upsertDTO.getConflictColumns()), "conflictColumns should be in columns!!");
+        columns.forEach(column -> Validate.isTrue(IDENTIFIER.matcher(column).matches(), "Invalid column name!!"));
+        Validate.isTrue(upsertDTO.getBatchSize() > 0, "batchSize should be greater than 0!!");
+        Validate.isTrue((long) upsertDTO.getBatchSize() * columns.size() <= upsertDTO.getDialect().getMaxParams(),
+                "batchSize * columns should not exceed %d bind parameters!!", upsertDTO.getDialect().getMaxParams());
+        validateParallelism(upsertDTO.getParallelism());
+        upsertDTO.getRows().forEach(row -> Validate.isTrue(row != null && row.length == columns.size(),
+                "Each row should have a value for each of the columns!!"));
+        return partitioned(upsertDTO.getRows(), upsertDTO.getParallelism(), partition -> upsert(emf, upsertDTO, partition));
+    }
+
+    private static void validateParallelism(int parallelism) {
+        Validate.isTrue(parallelism > 0 && parallelism <= MAX_PARALLELISM, "parallelism should be between 1 and %d!!",
+                MAX_PARALLELISM);
+    }
+
+    /**
+     * Writes the partitions of the items in parallel, the calling thread writes the last one itself. If any of the
+     * partitions fails, the batches committed by all of them are reported by the {@link BatchWriteException}.
+     */
+    static <E> BatchResultDTO partitioned(List<E> items, int parallelism, Function<List<E>, Stats> writer) {
+        long start = System.nanoTime();
+        int partitions = Math.max(1, Math.min(parallelism, items.size()));
+        int partitionSize = Math.max(1, (items.size() + partitions - 1) / partitions);
+        List<FutureTask<Stats>> tasks = new ArrayList<>(partitions);
+        // No items still make a single, empty, partition.
+        for (int from = 0; from < items.size() || tasks.isEmpty(); from += partitionSize) {
+            List<E> partition = items.subList(from, Math.min(from + partitionSize, items.size()));
+            tasks.add(new FutureTask<>(() -> writer.apply(partition)));
+        }
+        ExecutorService executor = tasks.size() == 1 ? null : Executors.newFixedThreadPool(tasks.size() - 1,
+                runnable -> {
+                    Thread thread = new Thread(runnable, "AdeptJ-JPA-BatchWriter-" + THREAD_COUNTER.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+        try {
+            for (FutureTask<Stats> task : tasks.subList(0, tasks.size() - 1)) {
+                executor.execute(task);
+            }
+            tasks.get(tasks.size() - 1).run();
+            Stats stats = new Stats();
+            Throwable failure = null;
+            for (FutureTask<Stats> task : tasks) {
+                try {
+                    stats.add(task.get());
+                } catch (ExecutionException ex) {
+                    Throwable cause = ex.getCause();
+                    if (cause instanceof PartitionFailure) {
+                        stats.add(((PartitionFailure) cause).committed);
+                        cause = cause.getCause();
+                    }
+                    if (failure == null) {
+                        failure = cause;
+                    } else {
+                        failure.addSuppressed(cause);
+                    }
+                }
+            }
+            BatchResultDTO result = stats.toResult(System.nanoTime() - start);
+            if (failure != null) {
+                throw new BatchWriteException(failure, result);
+            }
+            return result;
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new JpaException(ex);
+        } finally {
+            if (executor != null) {
+                executor.shutdownNow();
+            }
+        }
+    }
+
+    private static <T> Stats write(EntityManagerFactory emf, List<T> entities, BatchWriteMode mode, int batchSize) {
+        Stats stats = new Stats();
+        EntityManager em = JpaUtil.createEntityManager(emf);
+        try {
+            for (int from = 0; from < entities.size(); from += batchSize) {
+                List<T> batch = entities.subList(from, Math.min(from + batchSize, entities.size()));
+                long start = System.nanoTime();
+                em.getTransaction().begin();
+                Set<Object> existingIds = mode == BatchWriteMode.INSERT ? Set.of() : loadBatch(em, batch);
+                for (T entity : batch) {
+                    write(em, entity, mode, existingIds);
+                }
+                em.getTransaction().commit();
+                em.clear();
+                stats.record(batch.size(), System.nanoTime() - start);
+            }
+            return stats;
+        } catch (Exception ex) { // NOSONAR
+            Transactions.markRollback(em);
+            throw new PartitionFailure(ex, stats);
+        } finally {
+            Transactions.rollback(em);
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    private static <T> void write(EntityManager em, T entity, BatchWriteMode mode, Set<Object> existingIds) {
+        switch (mode) {
+            case INSERT:
+                em.persist(entity);
+                break;
+            case UPDATE:
+                Object id = em.getEntityManagerFactory().getPersistenceUnitUtil().getIdentifier(entity);
+                if (id == null || (!existingIds.contains(id) && em.find(entity.getClass(), id) == null)) {
+                    throw new EntityNotFoundException(String.format("Entity [%s] with id [%s] doesn't exist!!",
+                            entity.getClass().getName(), id));
+                }
+                em.merge(entity);
+                break;
+            case MERGE:
+                em.merge(entity);
+                break;
+            default:
+                throw new IllegalStateException("Unexpected BatchWriteMode: " + mode);
+        }
+    }
+
+    /**
+     * Loads the existing rows of the batch with a single IN query so that the merges find them in the persistence
+     * context instead of selecting them one by one, returns the ids loaded.
+     */
+    private static <T> Set<Object> loadBatch(EntityManager em, List<T> batch) {
+        PersistenceUnitUtil util = em.getEntityManagerFactory().getPersistenceUnitUtil();
+        List<Object> ids = batch.stream()
+                .map(util::getIdentifier)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (ids.isEmpty()) {
+            return Set.of();
+        }
+        EntityType<?> entityType = em.getMetamodel().entity(batch.get(0).getClass());
+        if (!entityType.hasSingleIdAttribute()) {
+            return Set.of();
+        }
+        return load(em, entityType, ids)
+                .stream()
+                .map(util::getIdentifier)
+                .collect(Collectors.toCollection(HashSet::new));
+    }
+
+    private static <E> List<E> load(EntityManager em, EntityType<E> entityType, List<Object> ids) {
+        CriteriaQuery<E> cq = em.getCriteriaBuilder().createQuery(entityType.getJavaType());
+        Root<E> root = cq.from(entityType.getJavaType());
+        String idAttribute = entityType.getId(entityType.getIdType().getJavaType()).getName();
+        return em.createQuery(cq.select(root).where(root.get(idAttribute).in(ids))).getResultList();
+    }
+
+    private static Stats upsert(EntityManagerFactory emf, UpsertDTO upsertDTO, List<Object[]> rows) {
+        Stats stats = new Stats();
+        EntityManager em = JpaUtil.createEntityManager(emf);
+        try {
+            String batchSql = null;
+            for (int from = 0; from < rows.size(); from += upsertDTO.getBatchSize()) {
+                List<Object[]> batch = rows.subList(from, Math.min(from + upsertDTO.getBatchSize(), rows.size()));
+                if (batchSql == null || batch.size() < upsertDTO.getBatchSize()) {
+                    batchSql = upsertSql(upsertDTO, batch.size());
+                }
+                long start = System.nanoTime();
+                em.getTransaction().begin();
+                Query query = em.createNativeQuery(batchSql);
+                int position = 1;
+                for (Object[] row : batch) {
+                    for (Object value : row) {
+                        query.setParameter(position++, value);
+                    }
+                }
+                query.executeUpdate();
+                em.getTransaction().commit();
+                stats.record(batch.size(), System.nanoTime() - start);
+            }
+            return stats;
+        } catch (Exception ex) { // NOSONAR
+            Transactions.markRollback(em);
+            throw new PartitionFailure(ex, stats);
+        } finally {
+            Transactions.rollback(em);
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    static String upsertSql(UpsertDTO upsertDTO, int rows) {
+        List<String> columns = upsertDTO.getColumns();
+        StringBuilder sql = new StringBuilder("INSERT INTO ")
+                .append(upsertDTO.getTable())
+                .append(" (")
+                .append(String.join(", ", columns))
+                .append(") VALUES ");
+        int position = 1;
+        for (int row = 0; row < rows; row++) {
+            sql.append(row == 0 ? "(" : ", (");
+            for (int column = 0; column < columns.size(); column++) {
+                sql.append(column == 0 ? "?" : ", ?").append(position++);
+            }
+            sql.append(')');
+        }
+        List<String> updates = columns.stream()
+                .filter(column -> !upsertDTO.getConflictColumns().contains(column))
+                .collect(Collectors.toList());
+        switch (upsertDTO.getDialect()) {
+            case POSTGRESQL:
+                sql.append(" ON CONFLICT (").append(String.join(", ", upsertDTO.getConflictColumns())).append(')');
+                if (updates.isEmpty()) {
+                    sql.append(" DO NOTHING");
+                } else {
+                    sql.append(" DO UPDATE SET ").append(updates.stream()
+                            .map(column -> column + " = EXCLUDED." + column)
+                            .collect(Collectors.joining(", ")));
+                }
+                break;
+            case MYSQL:
+                // With nothing to update the row is set to itself, which makes the duplicate a no-op.
+                String noOp = upsertDTO.getConflictColumns().get(0);
+                sql.append(" ON DUPLICATE KEY UPDATE ").append(updates.isEmpty()
+                        ? noOp + " = " + noOp
+                        : updates.stream()
+                        .map(column -> column + " = VALUES(" + column + ")")
+                        .collect(Collectors.joining(", ")));
+                break;
+            default:
+                throw new IllegalStateException("Unexpected Dialect: " + upsertDTO.getDialect());
+        }
+        return sql.toString();
+    }
+
+    /**
+     * Failure of a partition along with the batches it committed before.
+     */
+    static final class PartitionFailure extends RuntimeException {
+
+        private static final long serialVersionUID = 2473869154827193411L;
+
+        private final transient Stats committed;
+
+        PartitionFailure(Exception cause, Stats committed) {
+            super(null, cause, false, false);
+            this.committed = committed;
+        }
+    }
+
+    static final class Stats {
+
+        private long rows;
+
+        private int batches;
+
+        private long totalBatchNanos;
+
+        private long maxBatchNanos;
+
+        void record(int batchRows, long batchNanos) {
+            this.rows += batchRows;
+            this.batches++;
+            this.totalBatchNanos += batchNanos;
+            this.maxBatchNanos = Math.max(this.maxBatchNanos, batchNanos);
+        }
+
+        void add(Stats other) {
+            this.rows += other.rows;
+            this.batches += other.batches;
+            this.totalBatchNanos += other.totalBatchNanos;
+            this.maxBatchNanos = Math.max(this.maxBatchNanos, other.maxBatchNanos);
+        }
+
+        BatchResultDTO toResult(long elapsedNanos) {
+            return new BatchResultDTO(this.rows, this.batches, elapsedNanos, this.totalBatchNanos, this.maxBatchNanos);
+        }
+    }
+}
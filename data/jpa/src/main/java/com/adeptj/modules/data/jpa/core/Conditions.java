@@ -0,0 +1,122 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.data.jpa.core;
+
+import com.adeptj.modules.data.jpa.criteria.Condition;
+
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import java.util.Collection;
+import java.util.List;
+
+/**
+ * Compiles the {@link Condition}s to Criteria API predicates having a parameter in place of each value, and binds
+ * the values to the query later on, both walk the conditions in the same order so the parameters line up.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class Conditions {
+
+    private static final String PARAM_PREFIX = "w";
+
+    private Conditions() {
+    }
+
+    static Predicate[] compile(CriteriaBuilder cb, CriteriaPaths paths, List<Condition> conditions) {
+        int[] counter = new int[1];
+        return conditions.stream()
+                .map(condition -> compile(cb, paths, condition, counter))
+                .toArray(Predicate[]::new);
+    }
+
+    static void bind(Query query, List<Condition> conditions) {
+        int[] counter = new int[1];
+        conditions.forEach(condition -> bind(query, condition, counter));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate compile(CriteriaBuilder cb, CriteriaPaths paths, Condition condition, int[] counter) {
+        switch (condition.getOperator()) {
+            case AND:
+                return cb.and(condition.getConditions()
+                        .stream()
+                        .map(nested -> compile(cb, paths, nested, counter))
+                        .toArray(Predicate[]::new));
+            case OR:
+                return cb.or(condition.getConditions()
+                        .stream()
+                        .map(nested -> compile(cb, paths, nested, counter))
+                        .toArray(Predicate[]::new));
+            case IS_NULL:
+                return paths.get(condition.getAttribute()).isNull();
+            case IS_NOT_NULL:
+                return paths.get(condition.getAttribute()).isNotNull();
+            case IN:
+                ParameterExpression<Collection<?>> values =
+                        (ParameterExpression) cb.parameter(Collection.class, PARAM_PREFIX + counter[0]++);
+                return paths.get(condition.getAttribute()).in(values);
+            case LIKE:
+                return cb.like(paths.get(condition.getAttribute()), cb.parameter(String.class, PARAM_PREFIX + counter[0]++));
+            case EQUAL:
+                return cb.equal(paths.get(condition.getAttribute()), parameter(cb, paths, condition, counter));
+            case NOT_EQUAL:
+                return cb.notEqual(paths.get(condition.getAttribute()), parameter(cb, paths, condition, counter));
+            default:
+                return compare(cb, paths, condition, counter);
+        }
+    }
+
+    private static Predicate compare(CriteriaBuilder cb, CriteriaPaths paths, Condition condition, int[] counter) {
+        Path<Comparable<Object>> path = paths.get(condition.getAttribute());
+        ParameterExpression<Comparable<Object>> value = parameter(cb, paths, condition, counter);
+        switch (condition.getOperator()) {
+            case GREATER_THAN:
+                return cb.greaterThan(path, value);
+            case GREATER_THAN_OR_EQUAL_TO:
+                return cb.greaterThanOrEqualTo(path, value);
+            case LESS_THAN:
+                return cb.lessThan(path, value);
+            case LESS_THAN_OR_EQUAL_TO:
+                return cb.lessThanOrEqualTo(path, value);
+            case BETWEEN:
+                return cb.between(path, value, parameter(cb, paths, condition, counter));
+            default:
+                throw new IllegalStateException("Unexpected Operator: " + condition.getOperator());
+        }
+    }
+
+    private static <Y> ParameterExpression<Y> parameter(CriteriaBuilder cb, CriteriaPaths paths, Condition condition,
+                                                        int[] counter) {
+        Path<Y> path = paths.get(condition.getAttribute());
+        return CriteriaPaths.parameter(cb, path, PARAM_PREFIX + counter[0]++);
+    }
+
+    private static void bind(Query query, Condition condition, int[] counter) {
+        if (condition.getConditions().isEmpty()) {
+            condition.getValues().forEach(value -> CriteriaPaths.bind(query, PARAM_PREFIX + counter[0]++, value));
+        } else {
+            condition.getConditions().forEach(nested -> bind(query, nested, counter));
+        }
+    }
+}
@@ -0,0 +1,261 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.data.jpa.core;
+
+import com.adeptj.modules.data.jpa.criteria.JoinAttribute;
+import com.adeptj.modules.data.jpa.criteria.SortOrder;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.commons.lang3.Validate;
+
+import javax.persistence.Query;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.FetchParent;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Order;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Root;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.Metamodel;
+import java.lang.invoke.MethodType;
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Resolves the attribute paths of a Criteria query against its root and joins, each path is resolved only once.
+ * <p>
+ * An attribute such as addresses.city starts from the join declared on addresses, if any, otherwise from the root.
+ * The fetches are kept apart from the joins, an attribute going through a fetch is rejected as filtering or sorting
+ * on it would drop the fetched elements not matching, it needs a join on the same attribute, which is a separate
+ * alias.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class CriteriaPaths {
+
+    private static final char SEPARATOR = '.';
+
+    private final Root<?> root;
+
+    private final Map<String, From<?, ?>> joins;
+
+    private final Map<String, FetchParent<?, ?>> fetches;
+
+    private final Map<String, Path<?>> paths;
+
+    CriteriaPaths(Root<?> root, List<JoinAttribute> joinAttributes) {
+        this.root = root;
+        this.joins = new HashMap<>();
+        this.fetches = new HashMap<>();
+        this.paths = new HashMap<>();
+        joinAttributes.forEach(this::join);
+    }
+
+    @SuppressWarnings("unchecked")
+    <Y> Path<Y> get(String attribute) {
+        return (Path<Y>) this.paths.computeIfAbsent(attribute, this::resolve);
+    }
+
+    List<Order> orders(CriteriaBuilder cb, List<SortOrder> sortOrders) {
+        List<Order> orders = new ArrayList<>(sortOrders.size());
+        for (SortOrder sortOrder : sortOrders) {
+            Path<?> path = this.get(sortOrder.getAttribute());
+            orders.add(sortOrder.isAscending() ? cb.asc(path) : cb.desc(path));
+        }
+        return orders;
+    }
+
+    @SuppressWarnings("unchecked")
+    static <Y> ParameterExpression<Y> parameter(CriteriaBuilder cb, Path<Y> path, String name) {
+        // Primitive attributes are bound as their wrappers.
+        return cb.parameter((Class<Y>) MethodType.methodType(path.getJavaType()).wrap().returnType(), name);
+    }
+
+    /**
+     * Binds the value to the named parameter created by {@link #parameter}. As the parameter is typed after its
+     * attribute, a number of another type, such as an int given for a long id, is converted to the attribute type
+     * first, a number which doesn't fit in the attribute type is rejected rather than truncated.
+     */
+    static void bind(Query query, String name, Object value) {
+        Class<?> type = query.getParameter(name).getParameterType();
+        if (!(value instanceof Number) || type == null || type.isInstance(value)
+                || !Number.class.isAssignableFrom(type)) {
+            query.setParameter(name, value);
+            return;
+        }
+        try {
+            query.setParameter(name, convert((Number) value, type));
+        } catch (ArithmeticException | NumberFormatException ex) {
+            throw new IllegalArgumentException(String.format("Value [%s] of parameter [%s] doesn't fit in %s!!",
+                    value, name, type.getName()), ex);
+        }
+    }
+
+    private static Object convert(Number number, Class<?> type) {
+        if (type == Double.class) {
+            return number.doubleValue();
+        }
+        if (type == Float.class) {
+            return number.floatValue();
+        }
+        BigDecimal decimal = new BigDecimal(number.toString());
+        if (type == Long.class) {
+            return decimal.longValueExact();
+        }
+        if (type == Integer.class) {
+            return decimal.intValueExact();
+        }
+        if (type == Short.class) {
+            return decimal.shortValueExact();
+        }
+        if (type == Byte.class) {
+            return decimal.byteValueExact();
+        }
+        if (type == BigInteger.class) {
+            return decimal.toBigIntegerExact();
+        }
+        return type == BigDecimal.class ? decimal : number;
+    }
+
+    /**
+     * Whether any of the fetches goes through a collection, the rows of the query are then the joined rows rather
+     * than the entities, so a row limit would cut the entities and their fetched collections short.
+     */
+    static boolean fetchesCollection(Metamodel metamodel, Class<?> entity, List<JoinAttribute> joinAttributes) {
+        for (JoinAttribute joinAttribute : joinAttributes) {
+            if (joinAttribute.isFetch() && throughCollection(metamodel, entity, joinAttribute.getAttribute())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether any of the joins or fetches goes through a collection, the entity is then repeated for each of
+     * the joined rows.
+     */
+    static boolean joinsCollection(Metamodel metamodel, Class<?> entity, List<JoinAttribute> joinAttributes) {
+        for (JoinAttribute joinAttribute : joinAttributes) {
+            if (throughCollection(metamodel, entity, joinAttribute.getAttribute())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Whether the attribute is a column of the entity itself, i.e. it goes neither through a join nor through
+     * an association, only such columns are a part of the select list of a query selecting the entity.
+     */
+    static boolean ofEntity(Metamodel metamodel, Class<?> entity, List<JoinAttribute> joinAttributes,
+                            String attribute) {
+        for (JoinAttribute joinAttribute : joinAttributes) {
+            String joined = joinAttribute.getAttribute();
+            if (attribute.equals(joined) || attribute.startsWith(joined + SEPARATOR)) {
+                return false;
+            }
+        }
+        ManagedType<?> type = metamodel.managedType(entity);
+        String[] parts = StringUtils.split(attribute, SEPARATOR);
+        for (int i = 0; i < parts.length; i++) {
+            Attribute<?, ?> part = type.getAttribute(parts[i]);
+            if (part.isAssociation() || part.isCollection()) {
+                return false;
+            }
+            if (i < parts.length - 1) {
+                // Only an embeddable has attributes of its own here.
+                type = metamodel.managedType(part.getJavaType());
+            }
+        }
+        return true;
+    }
+
+    private static boolean throughCollection(Metamodel metamodel, Class<?> entity, String attribute) {
+        ManagedType<?> type = metamodel.managedType(entity);
+        for (String part : StringUtils.split(attribute, SEPARATOR)) {
+            Attribute<?, ?> joined = type.getAttribute(part);
+            if (joined.isCollection()) {
+                return true;
+            }
+            type = metamodel.managedType(joined.getJavaType());
+        }
+        return false;
+    }
+
+    private void join(JoinAttribute joinAttribute) {
+        String attribute = joinAttribute.getAttribute();
+        int index = attribute.lastIndexOf(SEPARATOR);
+        String parentAttribute = index == -1 ? null : attribute.substring(0, index);
+        String name = attribute.substring(index + 1);
+        if (joinAttribute.isFetch()) {
+            FetchParent<?, ?> parent = parentAttribute == null ? this.root : this.fetches.get(parentAttribute);
+            Validate.notNull(parent, "Fetch [%s] should be preceded by the fetch on its parent!!", attribute);
+            this.fetches.put(attribute, parent.fetch(name, joinAttribute.getJoinType()));
+        } else {
+            From<?, ?> parent = parentAttribute == null ? this.root : this.joins.get(parentAttribute);
+            Validate.notNull(parent, "Join [%s] should be preceded by the join on its parent!!", attribute);
+            this.joins.put(attribute, parent.join(name, joinAttribute.getJoinType()));
+        }
+    }
+
+    private Path<?> resolve(String attribute) {
+        From<?, ?> join = this.joins.get(attribute);
+        if (join != null) {
+            return join;
+        }
+        Path<?> path = this.root;
+        String joined = "";
+        String remaining = attribute;
+        // The longest joined prefix wins.
+        for (int index = attribute.lastIndexOf(SEPARATOR); index != -1; index = attribute.lastIndexOf(SEPARATOR, index - 1)) {
+            join = this.joins.get(attribute.substring(0, index));
+            if (join != null) {
+                path = join;
+                joined = attribute.substring(0, index);
+                remaining = attribute.substring(index + 1);
+                break;
+            }
+        }
+        this.rejectFetched(attribute, joined);
+        for (String part : remaining.split("\\.")) {
+            path = path.get(part);
+        }
+        return path;
+    }
+
+    /**
+     * Rejects the attribute if it goes through a fetch beyond its longest joined prefix.
+     */
+    private void rejectFetched(String attribute, String joined) {
+        for (String fetched : this.fetches.keySet()) {
+            boolean throughFetch = attribute.equals(fetched) || attribute.startsWith(fetched + SEPARATOR);
+            if (throughFetch && joined.length() < fetched.length()) {
+                throw new IllegalArgumentException(String.format("Attribute [%s] goes through the fetch on [%s], "
+                        + "add a join on [%s] to filter, sort or select by it!!", attribute, fetched, fetched));
+            }
+        }
+    }
+}
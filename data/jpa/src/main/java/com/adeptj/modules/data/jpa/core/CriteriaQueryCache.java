@@ -0,0 +1,310 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.data.jpa.core;
+
+import com.adeptj.modules.data.jpa.BaseEntity;
+import com.adeptj.modules.data.jpa.criteria.BaseCriteria;
+import com.adeptj.modules.data.jpa.criteria.Condition;
+import com.adeptj.modules.data.jpa.criteria.ConstructorCriteria;
+import com.adeptj.modules.data.jpa.criteria.DeleteCriteria;
+import com.adeptj.modules.data.jpa.criteria.JoinAttribute;
+import com.adeptj.modules.data.jpa.criteria.ReadCriteria;
+import com.adeptj.modules.data.jpa.criteria.SortOrder;
+import com.adeptj.modules.data.jpa.criteria.TupleCriteria;
+import com.adeptj.modules.data.jpa.criteria.UpdateCriteria;
+import org.apache.commons.lang3.Validate;
+import org.eclipse.persistence.queries.DatabaseQuery;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
+import javax.persistence.Tuple;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.CriteriaUpdate;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import javax.persistence.criteria.Selection;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Caches the Criteria API queries of the *Criteria based repository methods by their shape, i.e. the operation,
+ * the entity, the criteria attribute names, the shape of the conditions, the joins, the sort orders and
+ * the selections or the update attribute names.
+ * <p>
+ * The query of a shape is built once with a parameter in place of each value and registered as a named query
+ * with the {@link EntityManagerFactory}, so EclipseLink translates it to SQL only once, the later calls just
+ * create the named query and bind the values.
+ * <p>
+ * A null criteria value is compared using IS NULL, hence it is a part of the shape rather than a bound value.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class CriteriaQueryCache {
+
+    private static final int MAX_SHAPES = 1024;
+
+    private static final String NULL_MARKER = " IS NULL";
+
+    private static final String CRITERIA_PARAM_PREFIX = "c";
+
+    private static final String UPDATE_PARAM_PREFIX = "u";
+
+    private static final String QUERY_NAME_PREFIX = "AdeptJ.CriteriaQuery.";
+
+    private static final AtomicLong QUERY_COUNTER = new AtomicLong();
+
+    private final EntityManagerFactory entityManagerFactory;
+
+    private final ConcurrentMap<List<Object>, String> queryNames;
+
+    CriteriaQueryCache(EntityManagerFactory entityManagerFactory) {
+        this.entityManagerFactory = entityManagerFactory;
+        this.queryNames = new ConcurrentHashMap<>();
+    }
+
+    boolean isFor(EntityManagerFactory entityManagerFactory) {
+        return this.entityManagerFactory == entityManagerFactory;
+    }
+
+    <T extends BaseEntity> TypedQuery<T> read(EntityManager em, ReadCriteria<T> criteria) {
+        Validate.isTrue((criteria.getStartPos() <= 0 && criteria.getMaxResult() <= 0)
+                        || !CriteriaPaths.fetchesCollection(em.getMetamodel(), criteria.getEntity(),
+                        criteria.getJoinAttributes()),
+                "startPos and maxResult can't be used with a fetch on a collection!!");
+        // A join on a collection repeats the entity for each of the joined rows, hence the DISTINCT, which some
+        // databases, PostgreSQL for one, can only sort by the selected columns, i.e. the ones of the entity itself.
+        boolean distinct = CriteriaPaths.joinsCollection(em.getMetamodel(), criteria.getEntity(),
+                criteria.getJoinAttributes());
+        for (SortOrder sortOrder : criteria.getSortOrders()) {
+            Validate.isTrue(!distinct || CriteriaPaths.ofEntity(em.getMetamodel(), criteria.getEntity(),
+                    criteria.getJoinAttributes(), sortOrder.getAttribute()),
+                    "Sort order [%s] should be on an attribute of the entity itself when joining a collection!!",
+                    sortOrder.getAttribute());
+        }
+        List<String> where = shapeOf(criteria.getCriteriaAttributes());
+        TypedQuery<T> query = this.typedQuery(em, shapeOf(Operation.READ, criteria, where), criteria.getEntity(),
+                manager -> {
+                    CriteriaBuilder cb = manager.getCriteriaBuilder();
+                    CriteriaQuery<T> cq = cb.createQuery(criteria.getEntity());
+                    Root<T> root = cq.from(criteria.getEntity());
+                    CriteriaPaths paths = new CriteriaPaths(root, criteria.getJoinAttributes());
+                    return manager.createQuery(cq.select(root)
+                            .distinct(distinct)
+                            .where(predicates(cb, paths, criteria, where))
+                            .orderBy(paths.orders(cb, criteria.getSortOrders())));
+                });
+        bind(query, criteria, where);
+        return query;
+    }
+
+    <T extends BaseEntity> TypedQuery<Tuple> tuple(EntityManager em, TupleCriteria<T> criteria) {
+        List<String> where = shapeOf(criteria.getCriteriaAttributes());
+        List<String> selections = criteria.getSelections();
+        TypedQuery<Tuple> query = this.typedQuery(em, shapeOf(Operation.TUPLE, criteria, where, selections),
+                Tuple.class, manager -> {
+                    CriteriaBuilder cb = manager.getCriteriaBuilder();
+                    CriteriaQuery<Tuple> cq = cb.createTupleQuery();
+                    CriteriaPaths paths = new CriteriaPaths(cq.from(criteria.getEntity()), criteria.getJoinAttributes());
+                    return manager.createQuery(cq.multiselect(selections(paths, selections))
+                            .where(predicates(cb, paths, criteria, where))
+                            .orderBy(paths.orders(cb, criteria.getSortOrders())));
+                });
+        bind(query, criteria, where);
+        return query;
+    }
+
+    <T extends BaseEntity, C> TypedQuery<C> construct(EntityManager em, ConstructorCriteria<T, C> criteria) {
+        List<String> where = shapeOf(criteria.getCriteriaAttributes());
+        List<String> selections = criteria.getSelections();
+        Class<C> constructorClass = criteria.getConstructorClass();
+        TypedQuery<C> query = this.typedQuery(em,
+                shapeOf(Operation.CONSTRUCT, criteria, where, constructorClass, selections), constructorClass,
+                manager -> {
+                    CriteriaBuilder cb = manager.getCriteriaBuilder();
+                    CriteriaQuery<C> cq = cb.createQuery(constructorClass);
+                    CriteriaPaths paths = new CriteriaPaths(cq.from(criteria.getEntity()), criteria.getJoinAttributes());
+                    return manager.createQuery(cq.select(cb.construct(constructorClass, selections(paths, selections)
+                            .toArray(new Selection[0])))
+                            .where(predicates(cb, paths, criteria, where))
+                            .orderBy(paths.orders(cb, criteria.getSortOrders())));
+                });
+        bind(query, criteria, where);
+        return query;
+    }
+
+    <T extends BaseEntity> Query update(EntityManager em, UpdateCriteria<T> criteria) {
+        List<String> where = shapeOf(criteria.getCriteriaAttributes());
+        List<String> updates = new ArrayList<>(criteria.getUpdateAttributes().keySet());
+        updates.sort(null);
+        Query query = this.query(em, shapeOf(Operation.UPDATE, criteria, where, updates), manager -> {
+            CriteriaBuilder cb = manager.getCriteriaBuilder();
+            CriteriaUpdate<T> cu = cb.createCriteriaUpdate(criteria.getEntity());
+            Root<T> root = cu.from(criteria.getEntity());
+            List<ParameterExpression<?>> parameters = new ArrayList<>(updates.size());
+            for (int i = 0; i < updates.size(); i++) {
+                parameters.add(set(cb, cu, root.get(updates.get(i)), UPDATE_PARAM_PREFIX + i));
+            }
+            Query updateQuery = manager.createQuery(cu.where(predicates(cb, new CriteriaPaths(root, List.of()),
+                    criteria, where)));
+            // EclipseLink registers only the parameters of the WHERE clause as the arguments of the query,
+            // the ones of the SET clause couldn't be bound otherwise.
+            DatabaseQuery databaseQuery = updateQuery.unwrap(DatabaseQuery.class);
+            for (ParameterExpression<?> parameter : parameters) {
+                if (!databaseQuery.getArguments().contains(parameter.getName())) {
+                    databaseQuery.addArgument(parameter.getName(), parameter.getJavaType());
+                }
+            }
+            return updateQuery;
+        });
+        for (int i = 0; i < updates.size(); i++) {
+            CriteriaPaths.bind(query, UPDATE_PARAM_PREFIX + i, criteria.getUpdateAttributes().get(updates.get(i)));
+        }
+        bind(query, criteria, where);
+        return query;
+    }
+
+    <T extends BaseEntity> Query delete(EntityManager em, DeleteCriteria<T> criteria) {
+        List<String> where = shapeOf(criteria.getCriteriaAttributes());
+        Query query = this.query(em, shapeOf(Operation.DELETE, criteria, where), manager -> {
+            CriteriaBuilder cb = manager.getCriteriaBuilder();
+            CriteriaDelete<T> cd = cb.createCriteriaDelete(criteria.getEntity());
+            Root<T> root = cd.from(criteria.getEntity());
+            return manager.createQuery(cd.where(predicates(cb, new CriteriaPaths(root, List.of()), criteria, where)));
+        });
+        bind(query, criteria, where);
+        return query;
+    }
+
+    private <R> TypedQuery<R> typedQuery(EntityManager em, List<Object> shape, Class<R> resultClass,
+                                         Function<EntityManager, TypedQuery<R>> queryFactory) {
+        String name = this.queryName(em, shape, queryFactory);
+        return name == null ? queryFactory.apply(em) : em.createNamedQuery(name, resultClass);
+    }
+
+    private Query query(EntityManager em, List<Object> shape, Function<EntityManager, Query> queryFactory) {
+        String name = this.queryName(em, shape, queryFactory);
+        return name == null ? queryFactory.apply(em) : em.createNamedQuery(name);
+    }
+
+    /**
+     * Returns the name of the named query registered for the given shape, registering it on the first call,
+     * or null if there are too many shapes already, in which case the query is built on each call.
+     */
+    private String queryName(EntityManager em, List<Object> shape, Function<EntityManager, ? extends Query> factory) {
+        String name = this.queryNames.get(shape);
+        if (name != null || this.queryNames.size() >= MAX_SHAPES) {
+            return name;
+        }
+        return this.queryNames.computeIfAbsent(shape, key -> {
+            String queryName = QUERY_NAME_PREFIX + QUERY_COUNTER.incrementAndGet();
+            this.entityManagerFactory.addNamedQuery(queryName, factory.apply(em));
+            return queryName;
+        });
+    }
+
+    private static List<Object> shapeOf(Operation operation, BaseCriteria<?> criteria, List<String> where,
+                                        Object... parts) {
+        List<Object> shape = new ArrayList<>();
+        shape.add(operation);
+        shape.add(criteria.getEntity());
+        shape.add(where);
+        shape.add(criteria.getConditions().stream().map(Condition::getShape).collect(Collectors.toList()));
+        shape.add(criteria.getJoinAttributes().stream().map(JoinAttribute::toString).collect(Collectors.toList()));
+        shape.add(criteria.getSortOrders().stream().map(SortOrder::toString).collect(Collectors.toList()));
+        shape.addAll(Arrays.asList(parts));
+        return shape;
+    }
+
+    private static List<String> shapeOf(Map<String, Object> criteriaAttributes) {
+        List<String> shape = new ArrayList<>();
+        if (criteriaAttributes != null) {
+            criteriaAttributes.forEach((name, value) -> shape.add(value == null ? name + NULL_MARKER : name));
+            // Sorted so that the same attributes make the same shape whatever the iteration order of the map is.
+            shape.sort(null);
+        }
+        return shape;
+    }
+
+    private static Predicate[] predicates(CriteriaBuilder cb, CriteriaPaths paths, BaseCriteria<?> criteria,
+                                          List<String> where) {
+        List<Predicate> predicates = new ArrayList<>(where.size() + criteria.getConditions().size());
+        for (int i = 0; i < where.size(); i++) {
+            String attribute = where.get(i);
+            if (attribute.endsWith(NULL_MARKER)) {
+                predicates.add(paths.get(attribute.substring(0, attribute.length() - NULL_MARKER.length())).isNull());
+            } else {
+                Path<Object> path = paths.get(attribute);
+                predicates.add(cb.equal(path, CriteriaPaths.parameter(cb, path, CRITERIA_PARAM_PREFIX + i)));
+            }
+        }
+        predicates.addAll(Arrays.asList(Conditions.compile(cb, paths, criteria.getConditions())));
+        return predicates.toArray(new Predicate[0]);
+    }
+
+    private static void bind(Query query, BaseCriteria<?> criteria, List<String> where) {
+        for (int i = 0; i < where.size(); i++) {
+            String attribute = where.get(i);
+            if (!attribute.endsWith(NULL_MARKER)) {
+                CriteriaPaths.bind(query, CRITERIA_PARAM_PREFIX + i, criteria.getCriteriaAttributes().get(attribute));
+            }
+        }
+        Conditions.bind(query, criteria.getConditions());
+    }
+
+    private static List<Selection<?>> selections(CriteriaPaths paths, List<String> selections) {
+        List<Selection<?>> selected = new ArrayList<>(selections.size());
+        selections.forEach(selection -> selected.add(paths.get(selection)));
+        return selected;
+    }
+
+    private static <T, Y> ParameterExpression<Y> set(CriteriaBuilder cb, CriteriaUpdate<T> cu, Path<Y> path,
+                                                      String name) {
+        ParameterExpression<Y> parameter = CriteriaPaths.parameter(cb, path, name);
+        cu.set(path, parameter);
+        return parameter;
+    }
+
+    private enum Operation {
+
+        READ,
+
+        TUPLE,
+
+        CONSTRUCT,
+
+        UPDATE,
+
+        DELETE,
+    }
+}
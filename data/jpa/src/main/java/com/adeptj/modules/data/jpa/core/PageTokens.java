@@ -0,0 +1,120 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.data.jpa.core;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Encodes the last key of a keyset page as an opaque token and decodes it back to the type of the orderBy attribute.
+ * <p>
+ * The token is the attribute name and the key's string form, Base64 encoded, nothing is ever deserialized from it.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class PageTokens {
+
+    private static final char SEPARATOR = ':';
+
+    private static final Map<Class<?>, Function<String, Object>> PARSERS = new HashMap<>();
+
+    static {
+        PARSERS.put(String.class, value -> value);
+        PARSERS.put(Long.class, Long::valueOf);
+        PARSERS.put(Integer.class, Integer::valueOf);
+        PARSERS.put(Short.class, Short::valueOf);
+        PARSERS.put(Byte.class, Byte::valueOf);
+        PARSERS.put(Double.class, Double::valueOf);
+        PARSERS.put(Float.class, Float::valueOf);
+        PARSERS.put(Character.class, value -> value.charAt(0));
+        PARSERS.put(long.class, Long::valueOf);
+        PARSERS.put(int.class, Integer::valueOf);
+        PARSERS.put(short.class, Short::valueOf);
+        PARSERS.put(byte.class, Byte::valueOf);
+        PARSERS.put(double.class, Double::valueOf);
+        PARSERS.put(float.class, Float::valueOf);
+        PARSERS.put(char.class, value -> value.charAt(0));
+        PARSERS.put(BigInteger.class, BigInteger::new);
+        PARSERS.put(BigDecimal.class, BigDecimal::new);
+        PARSERS.put(UUID.class, UUID::fromString);
+        PARSERS.put(Instant.class, Instant::parse);
+        PARSERS.put(LocalDate.class, LocalDate::parse);
+        PARSERS.put(LocalTime.class, LocalTime::parse);
+        PARSERS.put(LocalDateTime.class, LocalDateTime::parse);
+        PARSERS.put(OffsetDateTime.class, OffsetDateTime::parse);
+        PARSERS.put(ZonedDateTime.class, ZonedDateTime::parse);
+        PARSERS.put(Timestamp.class, Timestamp::valueOf);
+        PARSERS.put(java.sql.Date.class, value -> new java.sql.Date(Long.parseLong(value)));
+        PARSERS.put(Date.class, value -> new Date(Long.parseLong(value)));
+    }
+
+    private PageTokens() {
+    }
+
+    static String encode(String orderBy, Object key) {
+        if (key == null) {
+            throw new IllegalStateException(String.format("Attribute [%s] is null, can't be used as a key!!", orderBy));
+        }
+        String value = key instanceof Date && !(key instanceof Timestamp)
+                ? String.valueOf(((Date) key).getTime())
+                : key.toString();
+        return Base64.getUrlEncoder()
+                .withoutPadding()
+                .encodeToString((orderBy + SEPARATOR + value).getBytes(StandardCharsets.UTF_8));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    static Comparable<Object> decode(String token, String orderBy, Class<?> keyType) {
+        String decoded;
+        try {
+            decoded = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException ex) { // NOSONAR
+            throw new IllegalArgumentException("Malformed page token!!");
+        }
+        int index = decoded.indexOf(SEPARATOR);
+        if (index == -1 || !orderBy.equals(decoded.substring(0, index))) {
+            throw new IllegalArgumentException(String.format("Page token is not ordered by [%s]!!", orderBy));
+        }
+        String value = decoded.substring(index + 1);
+        if (keyType.isEnum()) {
+            return (Comparable<Object>) (Comparable) Enum.valueOf((Class) keyType, value);
+        }
+        Function<String, Object> parser = PARSERS.get(keyType);
+        if (parser == null) {
+            throw new IllegalArgumentException(String.format("Key type [%s] is not supported!!", keyType.getName()));
+        }
+        return (Comparable<Object>) parser.apply(value);
+    }
+}
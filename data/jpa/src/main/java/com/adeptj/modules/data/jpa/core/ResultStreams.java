@@ -0,0 +1,145 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.data.jpa.core;
+
+import com.adeptj.modules.data.jpa.exception.JpaException;
+import com.adeptj.modules.data.jpa.util.JpaUtil;
+import org.apache.commons.lang3.Validate;
+import org.eclipse.persistence.config.EntityManagerProperties;
+import org.eclipse.persistence.config.HintValues;
+import org.eclipse.persistence.config.QueryHints;
+import org.eclipse.persistence.config.ResultSetConcurrency;
+import org.eclipse.persistence.config.ResultSetType;
+import org.eclipse.persistence.queries.ScrollableCursor;
+
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.Query;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+/**
+ * Streams the results of a JPA {@link Query} through an EclipseLink forward only, read only {@link ScrollableCursor}
+ * so that the rows are fetched from the database fetchSize rows at a time instead of all at once.
+ * <p>
+ * Note: JPA's getResultStream is getResultList().stream() by default, which EclipseLink doesn't override, hence the
+ * cursor is obtained via the query hints.
+ * <p>
+ * The cursor is opened in a transaction which is never committed but rolled back when the stream is closed, the
+ * reads go through the connection of the transaction which is thus not in auto-commit mode. The PostgreSQL driver
+ * ignores the fetch size under auto-commit and reads the whole result at once. MySQL Connector/J needs
+ * {@code useCursorFetch=true} in the JDBC URL, without it the whole result is read at once regardless.
+ * <p>
+ * The persistence context is cleared after every fetchSize rows, therefore the entities streamed earlier are
+ * detached by then, and the cursor and the {@link EntityManager} are closed when the stream is closed.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class ResultStreams {
+
+    private ResultStreams() {
+    }
+
+    /**
+     * Creates the query using a fresh {@link EntityManager} and streams its results, the EntityManager is owned by
+     * the stream and closed along with it, or right away if the query fails.
+     */
+    static <E> Stream<E> stream(EntityManagerFactory emf, Function<EntityManager, Query> queryFactory, int fetchSize) {
+        Validate.isTrue(fetchSize > 0, "fetchSize should be greater than 0!!");
+        EntityManager em = JpaUtil.createEntityManager(emf);
+        ScrollableCursor cursor;
+        try {
+            em.setProperty(EntityManagerProperties.JOIN_EXISTING_TRANSACTION, HintValues.TRUE);
+            em.getTransaction().begin();
+            Query query = queryFactory.apply(em);
+            query.setHint(QueryHints.SCROLLABLE_CURSOR, HintValues.TRUE);
+            query.setHint(QueryHints.RESULT_SET_TYPE, ResultSetType.ForwardOnly);
+            query.setHint(QueryHints.RESULT_SET_CONCURRENCY, ResultSetConcurrency.ReadOnly);
+            query.setHint(QueryHints.JDBC_FETCH_SIZE, fetchSize);
+            cursor = (ScrollableCursor) query.getSingleResult();
+        } catch (Exception ex) { // NOSONAR
+            close(em);
+            throw new JpaException(ex);
+        }
+        return StreamSupport.stream(new CursorSpliterator<E>(em, cursor, fetchSize), false)
+                .onClose(() -> close(em, cursor));
+    }
+
+    private static void close(EntityManager em, ScrollableCursor cursor) {
+        try {
+            cursor.close();
+        } finally {
+            close(em);
+        }
+    }
+
+    private static void close(EntityManager em) {
+        try {
+            if (em.getTransaction().isActive()) {
+                em.getTransaction().rollback();
+            }
+        } finally {
+            JpaUtil.closeEntityManager(em);
+        }
+    }
+
+    private static final class CursorSpliterator<E> extends Spliterators.AbstractSpliterator<E> {
+
+        private final EntityManager em;
+
+        private final ScrollableCursor cursor;
+
+        private final int fetchSize;
+
+        private long count;
+
+        CursorSpliterator(EntityManager em, ScrollableCursor cursor, int fetchSize) {
+            super(Long.MAX_VALUE, Spliterator.ORDERED | Spliterator.NONNULL);
+            this.em = em;
+            this.cursor = cursor;
+            this.fetchSize = fetchSize;
+        }
+
+        @SuppressWarnings("unchecked")
+        @Override
+        public boolean tryAdvance(Consumer<? super E> action) {
+            E result;
+            try {
+                if (!this.cursor.hasNext()) {
+                    return false;
+                }
+                result = (E) this.cursor.next();
+            } catch (Exception ex) { // NOSONAR
+                throw new JpaException(ex);
+            }
+            action.accept(result);
+            // Detaches what has been streamed so far, this is what keeps the memory use flat.
+            if (++this.count % this.fetchSize == 0) {
+                this.em.clear();
+            }
+            return true;
+        }
+    }
+}
@@ -22,6 +22,7 @@ package com.adeptj.modules.data.jpa.criteria;
 
 import com.adeptj.modules.data.jpa.BaseEntity;
 
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -35,6 +36,12 @@ public abstract class BaseCriteria<T extends BaseEntity> {
 
     Map<String, Object> criteriaAttributes;
 
+    List<Condition> conditions;
+
+    List<JoinAttribute> joinAttributes;
+
+    List<SortOrder> sortOrders;
+
     BaseCriteria(Class<T> entity) {
         this.entity = entity;
     }
@@ -46,4 +53,19 @@ public abstract class BaseCriteria<T extends BaseEntity> {
     public Map<String, Object> getCriteriaAttributes() {
         return criteriaAttributes;
     }
+
+    /**
+     * The conditions applied along with the criteria attributes using AND operator.
+     */
+    public List<Condition> getConditions() {
+        return conditions == null ? List.of() : conditions;
+    }
+
+    public List<JoinAttribute> getJoinAttributes() {
+        return joinAttributes == null ? List.of() : joinAttributes;
+    }
+
+    public List<SortOrder> getSortOrders() {
+        return sortOrders == null ? List.of() : sortOrders;
+    }
 }
@@ -0,0 +1,208 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.data.jpa.criteria;
+
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * A typed condition of the *Criteria where clause, the values are always bound as query parameters.
+ * <p>
+ * The attribute is either an entity attribute or a path through it such as address.city, the first part of which
+ * may also be a joined attribute.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public final class Condition {
+
+    private final Operator operator;
+
+    private final String attribute;
+
+    private final List<Object> values;
+
+    private final List<Condition> conditions;
+
+    private Condition(Operator operator, String attribute, List<Object> values, List<Condition> conditions) {
+        this.operator = operator;
+        this.attribute = attribute;
+        this.values = values;
+        this.conditions = conditions;
+    }
+
+    public Operator getOperator() {
+        return operator;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public List<Object> getValues() {
+        return values;
+    }
+
+    /**
+     * The nested conditions of an AND or OR group.
+     */
+    public List<Condition> getConditions() {
+        return conditions;
+    }
+
+    /**
+     * The structure of the condition without the values, e.g. OR(EQUAL(name), IN(id)).
+     */
+    public String getShape() {
+        if (this.conditions.isEmpty()) {
+            return this.operator + "(" + this.attribute + ")";
+        }
+        return this.conditions.stream()
+                .map(Condition::getShape)
+                .collect(Collectors.joining(", ", this.operator + "(", ")"));
+    }
+
+    /**
+     * A null value is compared using IS NULL.
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull Condition equal(String attribute, Object value) {
+        return value == null ? isNull(attribute) : of(Operator.EQUAL, attribute, value);
+    }
+
+    /**
+     * A null value is compared using IS NOT NULL.
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull Condition notEqual(String attribute, Object value) {
+        return value == null ? isNotNull(attribute) : of(Operator.NOT_EQUAL, attribute, value);
+    }
+
+    @Contract("_, _ -> new")
+    public static @NotNull Condition greaterThan(String attribute, Comparable<?> value) {
+        return of(Operator.GREATER_THAN, attribute, value);
+    }
+
+    @Contract("_, _ -> new")
+    public static @NotNull Condition greaterThanOrEqualTo(String attribute, Comparable<?> value) {
+        return of(Operator.GREATER_THAN_OR_EQUAL_TO, attribute, value);
+    }
+
+    @Contract("_, _ -> new")
+    public static @NotNull Condition lessThan(String attribute, Comparable<?> value) {
+        return of(Operator.LESS_THAN, attribute, value);
+    }
+
+    @Contract("_, _ -> new")
+    public static @NotNull Condition lessThanOrEqualTo(String attribute, Comparable<?> value) {
+        return of(Operator.LESS_THAN_OR_EQUAL_TO, attribute, value);
+    }
+
+    @Contract("_, _, _ -> new")
+    public static @NotNull Condition between(String attribute, Comparable<?> from, Comparable<?> to) {
+        return of(Operator.BETWEEN, attribute, from, to);
+    }
+
+    /**
+     * The values are bound as a single collection parameter, so the query is the same whatever their count is.
+     */
+    @Contract("_, _ -> new")
+    public static @NotNull Condition in(String attribute, Collection<?> values) {
+        Validate.notEmpty(values, "IN values can't be empty!!");
+        return of(Operator.IN, attribute, values);
+    }
+
+    @Contract("_, _ -> new")
+    public static @NotNull Condition like(String attribute, String pattern) {
+        return of(Operator.LIKE, attribute, pattern);
+    }
+
+    @Contract("_ -> new")
+    public static @NotNull Condition isNull(String attribute) {
+        return of(Operator.IS_NULL, attribute);
+    }
+
+    @Contract("_ -> new")
+    public static @NotNull Condition isNotNull(String attribute) {
+        return of(Operator.IS_NOT_NULL, attribute);
+    }
+
+    @Contract("_ -> new")
+    public static @NotNull Condition and(Condition... conditions) {
+        return group(Operator.AND, conditions);
+    }
+
+    @Contract("_ -> new")
+    public static @NotNull Condition or(Condition... conditions) {
+        return group(Operator.OR, conditions);
+    }
+
+    private static @NotNull Condition of(Operator operator, String attribute, Object... values) {
+        Validate.notEmpty(attribute, "attribute can't be null!!");
+        for (Object value : values) {
+            Validate.notNull(value, "%s value can't be null!!", operator);
+        }
+        return new Condition(operator, attribute, List.of(values), List.of());
+    }
+
+    private static @NotNull Condition group(Operator operator, Condition... conditions) {
+        Validate.notEmpty(conditions, "%s conditions can't be empty!!", operator);
+        Validate.noNullElements(conditions);
+        return new Condition(operator, null, List.of(), List.copyOf(Arrays.asList(conditions)));
+    }
+
+    /**
+     * The operators supported by the {@link Condition}.
+     */
+    public enum Operator {
+
+        EQUAL,
+
+        NOT_EQUAL,
+
+        GREATER_THAN,
+
+        GREATER_THAN_OR_EQUAL_TO,
+
+        LESS_THAN,
+
+        LESS_THAN_OR_EQUAL_TO,
+
+        BETWEEN,
+
+        IN,
+
+        LIKE,
+
+        IS_NULL,
+
+        IS_NOT_NULL,
+
+        AND,
+
+        OR,
+    }
+}
@@ -24,6 +24,7 @@ import com.adeptj.modules.data.jpa.BaseEntity;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
+import javax.persistence.criteria.JoinType;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -72,6 +73,12 @@ public class ConstructorCriteria<T extends BaseEntity, C> extends BaseCriteria<T
 
         private List<String> selections;
 
+        private List<Condition> conditions;
+
+        private List<JoinAttribute> joinAttributes;
+
+        private List<SortOrder> sortOrders;
+
         private Builder(Class<T> entity, Class<C> constructorClass) {
             this.entity = entity;
             this.constructorClass = constructorClass;
@@ -101,10 +108,53 @@ public class ConstructorCriteria<T extends BaseEntity, C> extends BaseCriteria<T
             return this;
         }
 
+        public Builder<T, C> addCondition(Condition condition) {
+            if (this.conditions == null) {
+                this.conditions = new ArrayList<>();
+            }
+            this.conditions.add(condition);
+            return this;
+        }
+
+        public Builder<T, C> addConditions(Condition... conditions) {
+            if (this.conditions == null) {
+                this.conditions = new ArrayList<>();
+            }
+            this.conditions.addAll(Arrays.asList(conditions));
+            return this;
+        }
+
+        public Builder<T, C> addJoin(String attributeName) {
+            return this.addJoinAttribute(new JoinAttribute(attributeName, JoinType.INNER, false));
+        }
+
+        public Builder<T, C> addLeftJoin(String attributeName) {
+            return this.addJoinAttribute(new JoinAttribute(attributeName, JoinType.LEFT, false));
+        }
+
+        private Builder<T, C> addJoinAttribute(JoinAttribute joinAttribute) {
+            if (this.joinAttributes == null) {
+                this.joinAttributes = new ArrayList<>();
+            }
+            this.joinAttributes.add(joinAttribute);
+            return this;
+        }
+
+        public Builder<T, C> addSortOrder(SortOrder sortOrder) {
+            if (this.sortOrders == null) {
+                this.sortOrders = new ArrayList<>();
+            }
+            this.sortOrders.add(sortOrder);
+            return this;
+        }
+
         public ConstructorCriteria<T, C> build() {
             ConstructorCriteria<T, C> criteria = new ConstructorCriteria<>(this.entity, this.constructorClass);
             criteria.criteriaAttributes = this.criteriaAttributes;
             criteria.selections = this.selections;
+            criteria.conditions = this.conditions;
+            criteria.joinAttributes = this.joinAttributes;
+            criteria.sortOrders = this.sortOrders;
             return criteria;
         }
     }
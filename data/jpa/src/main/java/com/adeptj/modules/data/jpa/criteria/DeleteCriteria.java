@@ -24,7 +24,10 @@ import com.adeptj.modules.data.jpa.BaseEntity;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -52,6 +55,8 @@ public class DeleteCriteria<T extends BaseEntity> extends BaseCriteria<T> {
 
         private Map<String, Object> criteriaAttributes;
 
+        private List<Condition> conditions;
+
         private Builder(Class<T> entity) {
             this.entity = entity;
         }
@@ -64,9 +69,26 @@ public class DeleteCriteria<T extends BaseEntity> extends BaseCriteria<T> {
             return this;
         }
 
+        public Builder<T> addCondition(Condition condition) {
+            if (this.conditions == null) {
+                this.conditions = new ArrayList<>();
+            }
+            this.conditions.add(condition);
+            return this;
+        }
+
+        public Builder<T> addConditions(Condition... conditions) {
+            if (this.conditions == null) {
+                this.conditions = new ArrayList<>();
+            }
+            this.conditions.addAll(Arrays.asList(conditions));
+            return this;
+        }
+
         public DeleteCriteria<T> build() {
             DeleteCriteria<T> criteria = new DeleteCriteria<>(this.entity);
             criteria.criteriaAttributes = this.criteriaAttributes;
+            criteria.conditions = this.conditions;
             return criteria;
         }
     }
@@ -0,0 +1,65 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.data.jpa.criteria;
+
+import javax.persistence.criteria.JoinType;
+
+/**
+ * An attribute joined by the *Criteria query, optionally fetched along with the entity.
+ * <p>
+ * The joined attribute can be used as the first part of the {@link Condition} and {@link SortOrder} attributes,
+ * e.g. addresses.city for a join on addresses. A fetched attribute can't, as filtering it would drop the fetched
+ * elements not matching, such conditions and sort orders need a join on the same attribute, which is a separate
+ * alias.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public final class JoinAttribute {
+
+    private final String attribute;
+
+    private final JoinType joinType;
+
+    private final boolean fetch;
+
+    JoinAttribute(String attribute, JoinType joinType, boolean fetch) {
+        this.attribute = attribute;
+        this.joinType = joinType;
+        this.fetch = fetch;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public JoinType getJoinType() {
+        return joinType;
+    }
+
+    public boolean isFetch() {
+        return fetch;
+    }
+
+    @Override
+    public String toString() {
+        return (this.fetch ? "FETCH " : "JOIN ") + this.joinType + "(" + this.attribute + ")";
+    }
+}
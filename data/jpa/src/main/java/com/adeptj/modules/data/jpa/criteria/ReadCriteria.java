@@ -24,6 +24,7 @@ import com.adeptj.modules.data.jpa.BaseEntity;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
+import javax.persistence.criteria.JoinType;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.HashMap;
@@ -81,6 +82,12 @@ public class ReadCriteria<T extends BaseEntity> extends BaseCriteria<T> {
 
         private int maxResult;
 
+        private List<Condition> conditions;
+
+        private List<JoinAttribute> joinAttributes;
+
+        private List<SortOrder> sortOrders;
+
         private Builder(Class<T> entity) {
             this.entity = entity;
         }
@@ -119,12 +126,68 @@ public class ReadCriteria<T extends BaseEntity> extends BaseCriteria<T> {
             return this;
         }
 
+        public Builder<T> addCondition(Condition condition) {
+            if (this.conditions == null) {
+                this.conditions = new ArrayList<>();
+            }
+            this.conditions.add(condition);
+            return this;
+        }
+
+        public Builder<T> addConditions(Condition... conditions) {
+            if (this.conditions == null) {
+                this.conditions = new ArrayList<>();
+            }
+            this.conditions.addAll(Arrays.asList(conditions));
+            return this;
+        }
+
+        public Builder<T> addJoin(String attributeName) {
+            return this.addJoinAttribute(new JoinAttribute(attributeName, JoinType.INNER, false));
+        }
+
+        public Builder<T> addLeftJoin(String attributeName) {
+            return this.addJoinAttribute(new JoinAttribute(attributeName, JoinType.LEFT, false));
+        }
+
+        /**
+         * Joins and fetches the given attribute along with the entity. The conditions and sort orders can't refer
+         * to it, these need a join on the same attribute, and a fetch on a collection rules out startPos and
+         * maxResult.
+         */
+        public Builder<T> addFetch(String attributeName) {
+            return this.addJoinAttribute(new JoinAttribute(attributeName, JoinType.INNER, true));
+        }
+
+        public Builder<T> addLeftFetch(String attributeName) {
+            return this.addJoinAttribute(new JoinAttribute(attributeName, JoinType.LEFT, true));
+        }
+
+        private Builder<T> addJoinAttribute(JoinAttribute joinAttribute) {
+            if (this.joinAttributes == null) {
+                this.joinAttributes = new ArrayList<>();
+            }
+            this.joinAttributes.add(joinAttribute);
+            return this;
+        }
+
+        public Builder<T> addSortOrder(SortOrder sortOrder) {
+            if (this.sortOrders == null) {
+                this.sortOrders = new ArrayList<>();
+            }
+            this.sortOrders.add(sortOrder);
+            return this;
+        }
+
         public ReadCriteria<T> build() {
             ReadCriteria<T> criteria = new ReadCriteria<>(this.entity);
             criteria.criteriaAttributes = this.criteriaAttributes;
             criteria.posParams = this.posParams;
             criteria.startPos = this.startPos;
             criteria.maxResult = this.maxResult;
+            criteria.conditions = this.conditions;
+            criteria.joinAttributes = this.joinAttributes;
+            criteria.sortOrders = this.sortOrders;
             return criteria;
         }
     }
@@ -0,0 +1,66 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.data.jpa.criteria;
+
+import org.apache.commons.lang3.Validate;
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+/**
+ * The order of the rows found by the *Criteria query.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public final class SortOrder {
+
+    private final String attribute;
+
+    private final boolean ascending;
+
+    private SortOrder(String attribute, boolean ascending) {
+        Validate.notEmpty(attribute, "attribute can't be null!!");
+        this.attribute = attribute;
+        this.ascending = ascending;
+    }
+
+    public String getAttribute() {
+        return attribute;
+    }
+
+    public boolean isAscending() {
+        return ascending;
+    }
+
+    @Contract("_ -> new")
+    public static @NotNull SortOrder asc(String attribute) {
+        return new SortOrder(attribute, true);
+    }
+
+    @Contract("_ -> new")
+    public static @NotNull SortOrder desc(String attribute) {
+        return new SortOrder(attribute, false);
+    }
+
+    @Override
+    public String toString() {
+        return (this.ascending ? "ASC(" : "DESC(") + this.attribute + ")";
+    }
+}
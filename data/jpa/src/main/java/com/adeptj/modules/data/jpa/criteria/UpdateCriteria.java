@@ -24,7 +24,10 @@ import com.adeptj.modules.data.jpa.BaseEntity;
 import org.jetbrains.annotations.Contract;
 import org.jetbrains.annotations.NotNull;
 
+import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -60,6 +63,8 @@ public class UpdateCriteria<T extends BaseEntity> extends BaseCriteria<T> {
 
         private Map<String, Object> updateAttributes;
 
+        private List<Condition> conditions;
+
         private Builder(Class<T> entity) {
             this.entity = entity;
         }
@@ -80,10 +85,27 @@ public class UpdateCriteria<T extends BaseEntity> extends BaseCriteria<T> {
             return this;
         }
 
+        public Builder<T> addCondition(Condition condition) {
+            if (this.conditions == null) {
+                this.conditions = new ArrayList<>();
+            }
+            this.conditions.add(condition);
+            return this;
+        }
+
+        public Builder<T> addConditions(Condition... conditions) {
+            if (this.conditions == null) {
+                this.conditions = new ArrayList<>();
+            }
+            this.conditions.addAll(Arrays.asList(conditions));
+            return this;
+        }
+
         public UpdateCriteria<T> build() {
             UpdateCriteria<T> criteria = new UpdateCriteria<>(this.entity);
             criteria.criteriaAttributes = this.criteriaAttributes;
             criteria.updateAttributes = this.updateAttributes;
+            criteria.conditions = this.conditions;
             return criteria;
         }
     }
@@ -0,0 +1,80 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.data.jpa.dto;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Outcome of a batch write, the throughput and the per batch latency of it.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class BatchResultDTO {
+
+    private final long rows;
+
+    private final int batches;
+
+    private final long elapsedNanos;
+
+    private final long totalBatchNanos;
+
+    private final long maxBatchNanos;
+
+    public BatchResultDTO(long rows, int batches, long elapsedNanos, long totalBatchNanos, long maxBatchNanos) {
+        this.rows = rows;
+        this.batches = batches;
+        this.elapsedNanos = elapsedNanos;
+        this.totalBatchNanos = totalBatchNanos;
+        this.maxBatchNanos = maxBatchNanos;
+    }
+
+    public long getRows() {
+        return rows;
+    }
+
+    public int getBatches() {
+        return batches;
+    }
+
+    public long getElapsedMillis() {
+        return TimeUnit.NANOSECONDS.toMillis(this.elapsedNanos);
+    }
+
+    public double getRowsPerSecond() {
+        return this.elapsedNanos == 0 ? 0 : this.rows * (double) TimeUnit.SECONDS.toNanos(1) / this.elapsedNanos;
+    }
+
+    public double getAverageBatchLatencyMillis() {
+        return this.batches == 0 ? 0 : this.totalBatchNanos / (double) this.batches / TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    public double getMaxBatchLatencyMillis() {
+        return this.maxBatchNanos / (double) TimeUnit.MILLISECONDS.toNanos(1);
+    }
+
+    @Override
+    public String toString() {
+        return String.format("BatchResult[rows=%d, batches=%d, elapsed=%dms, rows/sec=%.1f, avgBatch=%.2fms, " +
+                        "maxBatch=%.2fms]", this.rows, this.batches, this.getElapsedMillis(), this.getRowsPerSecond(),
+                this.getAverageBatchLatencyMillis(), this.getMaxBatchLatencyMillis());
+    }
+}
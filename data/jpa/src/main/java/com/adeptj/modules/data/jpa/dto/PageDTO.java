@@ -0,0 +1,55 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.data.jpa.dto;
+
+import java.util.List;
+
+/**
+ * A page of entities found by keyset pagination, see JpaRepository#findPage.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class PageDTO<T> {
+
+    private final List<T> content;
+
+    private final String nextPageToken;
+
+    public PageDTO(List<T> content, String nextPageToken) {
+        this.content = content;
+        this.nextPageToken = nextPageToken;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * Opaque token to be passed as the afterKey for fetching the next page, null if this is the last page.
+     */
+    public String getNextPageToken() {
+        return nextPageToken;
+    }
+
+    public boolean hasNext() {
+        return this.nextPageToken != null;
+    }
+}
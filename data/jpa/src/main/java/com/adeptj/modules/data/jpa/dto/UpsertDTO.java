@@ -0,0 +1,187 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.data.jpa.dto;
+
+import org.jetbrains.annotations.Contract;
+import org.jetbrains.annotations.NotNull;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * UpsertDTO holding the rows to be written by a native multi row upsert, see JpaRepository#batchUpsert.
+ * <p>
+ * Note: The table and column names are written in the SQL as is, therefore they must never come from the user input.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class UpsertDTO {
+
+    private final String table;
+
+    private final Dialect dialect;
+
+    private List<String> columns;
+
+    private List<String> conflictColumns;
+
+    private List<Object[]> rows;
+
+    private int batchSize;
+
+    private int parallelism;
+
+    private UpsertDTO(String table, Dialect dialect) {
+        this.table = table;
+        this.dialect = dialect;
+    }
+
+    public String getTable() {
+        return table;
+    }
+
+    public Dialect getDialect() {
+        return dialect;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public List<String> getConflictColumns() {
+        return conflictColumns;
+    }
+
+    public List<Object[]> getRows() {
+        return rows;
+    }
+
+    public int getBatchSize() {
+        return batchSize;
+    }
+
+    public int getParallelism() {
+        return parallelism;
+    }
+
+    @Contract(value = "_, _ -> new", pure = true)
+    public static @NotNull Builder builder(String table, Dialect dialect) {
+        return new Builder(table, dialect);
+    }
+
+    /**
+     * The databases supported by the upsert along with the maximum number of bind parameters in a statement.
+     */
+    public enum Dialect {
+
+        /**
+         * INSERT ... ON CONFLICT (conflictColumns) DO UPDATE
+         */
+        POSTGRESQL(32767),
+
+        /**
+         * INSERT ... ON DUPLICATE KEY UPDATE, the conflictColumns are the unique key columns.
+         */
+        MYSQL(65535);
+
+        private final int maxParams;
+
+        Dialect(int maxParams) {
+            this.maxParams = maxParams;
+        }
+
+        public int getMaxParams() {
+            return maxParams;
+        }
+    }
+
+    /**
+     * Builder for creating {@link UpsertDTO}
+     */
+    public static class Builder {
+
+        private final String table;
+
+        private final Dialect dialect;
+
+        private final List<String> columns;
+
+        private final List<String> conflictColumns;
+
+        private final List<Object[]> rows;
+
+        private int batchSize = 500;
+
+        private int parallelism = 1;
+
+        private Builder(String table, Dialect dialect) {
+            this.table = table;
+            this.dialect = dialect;
+            this.columns = new ArrayList<>();
+            this.conflictColumns = new ArrayList<>();
+            this.rows = new ArrayList<>();
+        }
+
+        public Builder columns(String... columns) {
+            this.columns.addAll(Arrays.asList(columns));
+            return this;
+        }
+
+        public Builder conflictColumns(String... conflictColumns) {
+            this.conflictColumns.addAll(Arrays.asList(conflictColumns));
+            return this;
+        }
+
+        /**
+         * Adds a row, the values must be in the order of the columns.
+         */
+        public Builder row(Object... values) {
+            this.rows.add(values);
+            return this;
+        }
+
+        public Builder rows(List<Object[]> rows) {
+            this.rows.addAll(rows);
+            return this;
+        }
+
+        public Builder batchSize(int batchSize) {
+            this.batchSize = batchSize;
+            return this;
+        }
+
+        public Builder parallelism(int parallelism) {
+            this.parallelism = parallelism;
+            return this;
+        }
+
+        public UpsertDTO build() {
+            UpsertDTO upsertDTO = new UpsertDTO(this.table, this.dialect);
+            upsertDTO.columns = new ArrayList<>(this.columns);
+            upsertDTO.conflictColumns = new ArrayList<>(this.conflictColumns);
+            upsertDTO.rows = new ArrayList<>(this.rows);
+            upsertDTO.batchSize = this.batchSize;
+            upsertDTO.parallelism = this.parallelism;
+            return upsertDTO;
+        }
+    }
+}
@@ -0,0 +1,50 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.data.jpa.exception;
+
+import com.adeptj.modules.data.jpa.dto.BatchResultDTO;
+
+/**
+ * Exception thrown when a batch write fails, carries the outcome of the batches committed before the failure as
+ * these stay in DB.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class BatchWriteException extends JpaException {
+
+    private static final long serialVersionUID = -3905786219452396142L;
+
+    private final transient BatchResultDTO committed;
+
+    public BatchWriteException(Throwable throwable, BatchResultDTO committed) {
+        super(throwable);
+        this.committed = committed;
+    }
+
+    /**
+     * The no. of rows and batches committed before the failure, across all the partitions.
+     *
+     * @return the outcome of the committed batches
+     */
+    public BatchResultDTO getCommitted() {
+        return committed;
+    }
+}
@@ -116,6 +116,24 @@ public @interface EntityManagerFactoryConfig {
     )
     int queryRetryAttemptCount();
 
+    @AttributeDefinition(
+            name = "JDBC Batch Writing",
+            description = "Whether EclipseLink should group the INSERT/UPDATE/DELETE statements of a flush into " +
+                    "JDBC batches, note that the inserts of entities having IDENTITY ids can't be batched",
+            options = {
+                    @Option(label = "JDBC", value = "JDBC"),
+                    @Option(label = "Buffered", value = "Buffered"),
+                    @Option(label = "Oracle-JDBC", value = "Oracle-JDBC"),
+                    @Option(label = "None", value = "None")
+            })
+    String batchWriting() default "JDBC";
+
+    @AttributeDefinition(
+            name = "JDBC Batch Writing Size",
+            description = "Maximum number of statements in a JDBC batch"
+    )
+    int batchWritingSize() default 100;
+
     @AttributeDefinition(
             name = "Transaction Type",
             description = "JPA Transaction Type(JTA is not supported at this moment!)",
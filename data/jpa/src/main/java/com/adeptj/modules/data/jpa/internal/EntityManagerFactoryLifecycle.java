@@ -71,6 +71,9 @@ public class EntityManagerFactoryLifecycle {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    // The caching proxies of the repositories are left out, those delegate to the repositories bound here.
+    private static final String REPOSITORY_FILTER = "(!(cache.proxy=true))";
+
     private static final String PU_NAME_NULL_EX_MSG = "PersistenceInfoProvider [%s]#getPersistenceUnitName " +
             "must return a non null unit name!!";
 
@@ -142,7 +145,7 @@ public class EntityManagerFactoryLifecycle {
 
     // <<----------------------------------- JpaRepository Bind ------------------------------------>>
 
-    @Reference(service = JpaRepository.class, cardinality = MULTIPLE, policy = DYNAMIC)
+    @Reference(service = JpaRepository.class, target = REPOSITORY_FILTER, cardinality = MULTIPLE, policy = DYNAMIC)
     protected void bindJpaRepository(JpaRepository<?, ?> repository) {
         if (!(repository instanceof AbstractJpaRepository)) {
             throw new JpaRepositoryBindException("The repository instance must extend AbstractJpaRepository!");
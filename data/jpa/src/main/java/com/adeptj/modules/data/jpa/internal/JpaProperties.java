@@ -32,6 +32,8 @@ import java.util.stream.Stream;
 
 import static com.adeptj.modules.commons.utils.Constants.EQ;
 import static com.adeptj.modules.data.jpa.JpaConstants.SHARED_CACHE_MODE;
+import static org.eclipse.persistence.config.PersistenceUnitProperties.BATCH_WRITING;
+import static org.eclipse.persistence.config.PersistenceUnitProperties.BATCH_WRITING_SIZE;
 import static org.eclipse.persistence.config.PersistenceUnitProperties.DDL_GENERATION;
 import static org.eclipse.persistence.config.PersistenceUnitProperties.DDL_GENERATION_MODE;
 import static org.eclipse.persistence.config.PersistenceUnitProperties.DEPLOY_ON_STARTUP;
@@ -56,6 +58,9 @@ final class JpaProperties {
         properties.put(DDL_GENERATION, config.ddlGeneration());
         properties.put(DDL_GENERATION_MODE, config.ddlGenerationOutputMode());
         properties.put(SESSION_CUSTOMIZER, new QueryRetryCustomizer(config.queryRetryAttemptCount()));
+        properties.put(BATCH_WRITING, config.batchWriting());
+        // BATCH_WRITING_SIZE must be a string value
+        properties.put(BATCH_WRITING_SIZE, Integer.toString(config.batchWritingSize()));
         // DEPLOY_ON_STARTUP must be a string value
         properties.put(DEPLOY_ON_STARTUP, Boolean.toString(config.deployOnStartup()));
         properties.put(LOGGING_LEVEL, config.loggingLevel());
@@ -0,0 +1,44 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.data.jpa.query;
+
+/**
+ * Enum specifying how the entities are written by a batch write.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public enum BatchWriteMode {
+
+    /**
+     * Persists the entities, they must not exist already.
+     */
+    INSERT,
+
+    /**
+     * Merges the entities which must exist already, a missing one fails the batch.
+     */
+    UPDATE,
+
+    /**
+     * Merges the entities, inserting the ones which don't exist.
+     */
+    MERGE,
+}
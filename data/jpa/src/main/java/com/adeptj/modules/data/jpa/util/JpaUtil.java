@@ -97,6 +97,23 @@ public final class JpaUtil {
         }
     }
 
+    /**
+     * Applies the pagination to the given JPA {@link Query}, a non positive value means that the respective
+     * limit isn't set.
+     *
+     * @param query     the JPA {@link Query} or {@link TypedQuery}
+     * @param startPos  position of the first result
+     * @param maxResult maximum number of results to retrieve
+     */
+    public static void setPagination(Query query, int startPos, int maxResult) {
+        if (startPos > 0) {
+            query.setFirstResult(startPos);
+        }
+        if (maxResult > 0) {
+            query.setMaxResults(maxResult);
+        }
+    }
+
     public static void bindStoredProcedureInParams(StoredProcedureQuery query, InParam... params) {
         if (ArrayUtils.isNotEmpty(params)) {
             for (InParam param : params) {
@@ -20,17 +20,26 @@
 
 package com.adeptj.modules.data.jpa;
 
+import com.adeptj.modules.data.jpa.criteria.Condition;
 import com.adeptj.modules.data.jpa.criteria.ConstructorCriteria;
 import com.adeptj.modules.data.jpa.criteria.DeleteCriteria;
 import com.adeptj.modules.data.jpa.criteria.ReadCriteria;
+import com.adeptj.modules.data.jpa.criteria.SortOrder;
 import com.adeptj.modules.data.jpa.criteria.TupleCriteria;
 import com.adeptj.modules.data.jpa.criteria.UpdateCriteria;
 import com.adeptj.modules.data.jpa.dto.CrudDTO;
+import com.adeptj.modules.data.jpa.dto.PageDTO;
 import com.adeptj.modules.data.jpa.dto.ResultSetMappingDTO;
 import com.adeptj.modules.data.jpa.entity.Address;
 import com.adeptj.modules.data.jpa.entity.User;
+import com.adeptj.modules.data.jpa.exception.BatchWriteException;
+import com.adeptj.modules.data.jpa.exception.JpaException;
+import com.adeptj.modules.data.jpa.query.BatchWriteMode;
 import com.adeptj.modules.data.jpa.query.NamedParam;
 import com.adeptj.modules.data.jpa.query.PositionalParam;
+import org.eclipse.persistence.jpa.JpaHelper;
+import org.eclipse.persistence.sessions.Session;
+import org.eclipse.persistence.sessions.server.ConnectionPool;
 import org.junit.jupiter.api.AfterAll;
 import org.junit.jupiter.api.BeforeAll;
 import org.junit.jupiter.api.Disabled;
@@ -38,13 +47,22 @@ import org.junit.jupiter.api.Test;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.EntityNotFoundException;
 import javax.persistence.Persistence;
 import java.lang.invoke.MethodHandles;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import static com.adeptj.modules.data.jpa.query.QueryType.JPA;
 import static com.adeptj.modules.data.jpa.query.QueryType.NATIVE;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
 
 /**
  * JpaCrudRepositoryTest
@@ -58,12 +76,15 @@ public class UserRepositoryTest {
 
     private static final String UNIT_NAME = "AdeptJ_PU";
 
+    private static EntityManagerFactory entityManagerFactory;
+
     private static UserRepository repository;
 
     @BeforeAll
     public static void init() {
+        entityManagerFactory = Persistence.createEntityManagerFactory(UNIT_NAME);
         repository = new UserRepository();
-        repository.setEntityManagerFactory(Persistence.createEntityManagerFactory(UNIT_NAME));
+        repository.setEntityManagerFactory(entityManagerFactory);
         LOGGER.info("EntityManagerFactory created!!");
     }
 
@@ -108,6 +129,34 @@ public class UserRepositoryTest {
         repository.batchInsert(users, 5);
     }
 
+    @Test
+    public void testBatchUpdateFailsOnMissingEntity() {
+        List<User> users = batchUsers(201, 4);
+        users.forEach(user -> user.setLastName("Updated"));
+        users.add(missingUser());
+        BatchWriteException ex = assertThrows(BatchWriteException.class, () -> repository.batchUpdate(users, 2));
+        assertTrue(ex.getCause() instanceof EntityNotFoundException);
+        // The first two batches were committed before the one holding the missing entity failed.
+        assertEquals(4, ex.getCommitted().getRows());
+        assertEquals(2, ex.getCommitted().getBatches());
+        users.subList(0, 4).forEach(user -> assertEquals("Updated",
+                repository.findById(User.class, user.getId()).getLastName()));
+    }
+
+    @Test
+    public void testBatchWriteExceptionCommittedAcrossPartitions() {
+        List<User> users = batchUsers(211, 3);
+        users.forEach(user -> user.setLastName("Updated"));
+        // Partitions [0, 1] and [missing, 2], only the first of these commits.
+        users.add(2, missingUser());
+        BatchWriteException ex = assertThrows(BatchWriteException.class,
+                () -> repository.batchWrite(users, BatchWriteMode.UPDATE, 2, 2));
+        assertTrue(ex.getCause() instanceof EntityNotFoundException);
+        assertEquals(2, ex.getCommitted().getRows());
+        assertEquals(1, ex.getCommitted().getBatches());
+        assertEquals("Doe", repository.findById(User.class, users.get(3).getId()).getLastName());
+    }
+
     @Test
     public void testExecuteInTransaction() {
         User user = repository.executeCallbackInTransaction(em -> {
@@ -174,6 +223,87 @@ public class UserRepositoryTest {
         LOGGER.info("Rows found: {}", users.size());
     }
 
+    @Test
+    public void testFindByCriteriaWithConditions() {
+        // The fetch loads all the addresses, the join on the same attribute is the one filtered.
+        List<User> users = repository.findByCriteria(ReadCriteria.builder(User.class)
+                .addLeftFetch("addresses")
+                .addLeftJoin("addresses")
+                .addConditions(Condition.like("email", "%@johndoe.com"),
+                        Condition.or(Condition.in("addresses.city", List.of("Gurugram", "New Delhi")),
+                                Condition.isNull("secondaryContact")),
+                        Condition.between("id", 1L, 100L))
+                .addSortOrder(SortOrder.desc("id"))
+                .build());
+        users.forEach(user -> LOGGER.info("User: {}, Addresses: {}", user.getId(), user.getAddresses().size()));
+    }
+
+    @Test
+    public void testFindByCriteriaRejectsSortOrderThroughCollectionJoin() {
+        // SELECT DISTINCT can't be sorted by the columns of the joined addresses, not a part of the select list.
+        assertThrows(JpaException.class, () -> repository.findByCriteria(ReadCriteria.builder(User.class)
+                .addJoin("addresses")
+                .addConditions(Condition.in("addresses.city", List.of("Gurugram", "New Delhi")))
+                .addSortOrder(SortOrder.asc("addresses.city"))
+                .build()));
+        List<User> users = repository.findByCriteria(ReadCriteria.builder(User.class)
+                .addJoin("addresses")
+                .addConditions(Condition.in("addresses.city", List.of("Gurugram", "New Delhi")))
+                .addSortOrder(SortOrder.asc("email"))
+                .build());
+        // Distinct even though the users have an address in each of the cities.
+        assertEquals(users.size(), ids(users).stream().distinct().count());
+    }
+
+    @Test
+    public void testFindByCriteriaRejectsConditionOnFetch() {
+        assertThrows(JpaException.class, () -> repository.findByCriteria(ReadCriteria.builder(User.class)
+                .addLeftFetch("addresses")
+                .addConditions(Condition.in("addresses.city", List.of("Gurugram", "New Delhi")))
+                .build()));
+    }
+
+    @Test
+    public void testFindByCriteriaRejectsPaginationWithCollectionFetch() {
+        assertThrows(JpaException.class, () -> repository.findByCriteria(ReadCriteria.builder(User.class)
+                .addLeftFetch("addresses")
+                .maxResult(10)
+                .build()));
+    }
+
+    @Test
+    public void testFindByCriteriaQueryCache() {
+        Session session = entityManagerFactory.unwrap(Session.class);
+        // The first call builds the query and registers it as a named query, the later ones only bind the values.
+        List<User> first = repository.findByCriteria(ReadCriteria.builder(User.class)
+                .addCriteriaAttribute("contact", "1234567893")
+                .build());
+        long namedQueries = countCriteriaQueries(session);
+        List<User> second = repository.findByCriteria(ReadCriteria.builder(User.class)
+                .addCriteriaAttribute("contact", "1234567893")
+                .build());
+        assertEquals(namedQueries, countCriteriaQueries(session));
+        assertEquals(ids(first), ids(second));
+        // Another value makes the same shape.
+        repository.findByCriteria(ReadCriteria.builder(User.class)
+                .addCriteriaAttribute("contact", "1234567890")
+                .build());
+        assertEquals(namedQueries, countCriteriaQueries(session));
+    }
+
+    @Test
+    public void testFindByCriteriaConvertsValuesToAttributeType() {
+        // The id is a Long, the int values are converted to it.
+        List<User> users = repository.findByCriteria(ReadCriteria.builder(User.class)
+                .addCriteriaAttribute("id", 9)
+                .build());
+        assertEquals(List.of(9L), ids(users));
+        users = repository.findByCriteria(ReadCriteria.builder(User.class)
+                .addConditions(Condition.between("id", 1, 100))
+                .build());
+        users.forEach(user -> assertTrue(user.getId() >= 1L && user.getId() <= 100L));
+    }
+
     @Test
     public void testFindById() {
         User user = repository.findById(User.class, 9L);
@@ -253,6 +383,105 @@ public class UserRepositoryTest {
         });
     }
 
+    @Test
+    public void testFindPage() {
+        ReadCriteria<User> criteria = ReadCriteria.builder(User.class)
+                .addConditions(Condition.like("email", "%@johndoe.com"))
+                .build();
+        List<Long> paged = new ArrayList<>();
+        String afterKey = null;
+        do {
+            PageDTO<User> page = repository.findPage(criteria, afterKey, 7, "id");
+            assertTrue(page.getContent().size() <= 7);
+            paged.addAll(ids(page.getContent()));
+            afterKey = page.getNextPageToken();
+        } while (afterKey != null);
+        List<Long> all = ids(repository.findByCriteria(ReadCriteria.builder(User.class)
+                .addConditions(Condition.like("email", "%@johndoe.com"))
+                .addSortOrder(SortOrder.asc("id"))
+                .build()));
+        assertEquals(all, paged);
+    }
+
+    @Test
+    public void testFindPageRejectsSortOrdersAndPagination() {
+        assertThrows(IllegalArgumentException.class, () -> repository.findPage(ReadCriteria.builder(User.class)
+                .addSortOrder(SortOrder.desc("email"))
+                .build(), null, 10, "id"));
+        assertThrows(IllegalArgumentException.class, () -> repository.findPage(ReadCriteria.builder(User.class)
+                .maxResult(10)
+                .build(), null, 10, "id"));
+        assertThrows(IllegalArgumentException.class, () -> repository.findPage(ReadCriteria.builder(User.class)
+                .startPos(10)
+                .build(), null, 10, "id"));
+    }
+
+    @Test
+    public void testFindPageRejectsTokenOfAnotherOrder() {
+        String token = repository.findPage(ReadCriteria.builder(User.class).build(), null, 1, "id")
+                .getNextPageToken();
+        assertThrows(JpaException.class,
+                () -> repository.findPage(ReadCriteria.builder(User.class).build(), token, 1, "email"));
+    }
+
+    @Test
+    public void testStreamAll() {
+        try (Stream<User> users = repository.streamAll(User.class, 10)) {
+            assertEquals(repository.countByCriteria(User.class), users.count());
+        }
+        assertConnectionsReleased();
+    }
+
+    @Test
+    public void testStreamByCriteria() {
+        ReadCriteria<User> criteria = ReadCriteria.builder(User.class)
+                .addConditions(Condition.like("email", "%@johndoe.com"))
+                .addSortOrder(SortOrder.asc("id"))
+                .build();
+        try (Stream<User> users = repository.streamByCriteria(criteria, 5)) {
+            List<Long> streamed = users.map(User::getId).collect(Collectors.toList());
+            assertEquals(ids(repository.findByCriteria(criteria)), streamed);
+        }
+        assertConnectionsReleased();
+    }
+
+    @Test
+    public void testStreamByNativeQuery() {
+        try (Stream<User> users = repository.streamByNativeQuery(User.class,
+                "SELECT * FROM  Users u WHERE FIRST_NAME = ?1", 5, new PositionalParam(1, "John3"))) {
+            users.forEach(user -> assertEquals("John3", user.getFirstName()));
+        }
+        assertConnectionsReleased();
+    }
+
+    @Test
+    public void testStreamClearsPersistenceContextEveryFetchSize() {
+        // Each row is the same user, the persistence context hands out the same instance till it is cleared.
+        List<User> users;
+        try (Stream<User> stream = repository.streamByJpaQuery(CrudDTO.builder(User.class)
+                .jpaQuery("SELECT u FROM User u, User v WHERE u.id = (SELECT MIN(w.id) FROM User w)")
+                .build(), 2)) {
+            users = stream.limit(3).collect(Collectors.toList());
+        }
+        assertEquals(3, users.size());
+        assertSame(users.get(0), users.get(1));
+        assertNotSame(users.get(1), users.get(2));
+        assertEquals(users.get(1).getId(), users.get(2).getId());
+    }
+
+    @Test
+    public void testStreamClosedOnException() {
+        assertThrows(IllegalStateException.class, () -> {
+            try (Stream<User> users = repository.streamAll(User.class, 2)) {
+                users.forEach(user -> {
+                    throw new IllegalStateException("Failed at user: " + user.getId());
+                });
+            }
+        });
+        // The stream's transaction was rolled back and its connection is back in the pool.
+        assertConnectionsReleased();
+    }
+
     @Test
     public void testFindByNativeQuery() {
         List<User> users = repository.findByNativeQuery(User.class,
@@ -363,4 +592,45 @@ public class UserRepositoryTest {
         List<User> users = repository.findByStoredProcedure(User.class, "fetchAllUsers");
         users.forEach(user -> LOGGER.info("Users: {}", user.getEmail()));
     }
+
+    private static void assertConnectionsReleased() {
+        ConnectionPool pool = JpaHelper.getServerSession(entityManagerFactory).getDefaultConnectionPool();
+        assertEquals(pool.getTotalNumberOfConnections(), pool.getConnectionsAvailable().size());
+    }
+
+    private static long countCriteriaQueries(Session session) {
+        return session.getQueries()
+                .keySet()
+                .stream()
+                .filter(name -> name.startsWith("AdeptJ.CriteriaQuery."))
+                .count();
+    }
+
+    private static List<User> batchUsers(int from, int count) {
+        List<User> users = new ArrayList<>();
+        for (int i = from; i < from + count; i++) {
+            User usr = new User();
+            usr.setContact("1234567893" + i);
+            usr.setFirstName("John" + i);
+            usr.setLastName("Doe");
+            usr.setEmail(i + "john.doe@johndoe.com");
+            users.add(usr);
+        }
+        repository.batchInsert(users, count);
+        return users;
+    }
+
+    private static User missingUser() {
+        User usr = new User();
+        usr.setId(Long.MAX_VALUE);
+        usr.setContact("12345678930");
+        usr.setFirstName("John");
+        usr.setLastName("Doe");
+        usr.setEmail("missing.john.doe@johndoe.com");
+        return usr;
+    }
+
+    private static List<Long> ids(List<User> users) {
+        return users.stream().map(User::getId).collect(Collectors.toList());
+    }
 }
@@ -0,0 +1,237 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.data.jpa.core;
+
+import com.adeptj.modules.data.jpa.dto.BatchResultDTO;
+import com.adeptj.modules.data.jpa.dto.UpsertDTO;
+import com.adeptj.modules.data.jpa.dto.UpsertDTO.Dialect;
+import com.adeptj.modules.data.jpa.exception.BatchWriteException;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * BatchWritesTest
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class BatchWritesTest {
+
+    @Test
+    public void testPostgreSqlUpsertSql() {
+        UpsertDTO upsertDTO = UpsertDTO.builder("adeptj.users", Dialect.POSTGRESQL)
+                .columns("id", "first_name", "email")
+                .conflictColumns("id")
+                .build();
+        assertEquals("INSERT INTO adeptj.users (id, first_name, email) VALUES (?1, ?2, ?3), (?4, ?5, ?6) "
+                        + "ON CONFLICT (id) DO UPDATE SET first_name = EXCLUDED.first_name, email = EXCLUDED.email",
+                BatchWrites.upsertSql(upsertDTO, 2));
+    }
+
+    @Test
+    public void testPostgreSqlUpsertSqlWithoutUpdateColumns() {
+        UpsertDTO upsertDTO = UpsertDTO.builder("users", Dialect.POSTGRESQL)
+                .columns("id", "email")
+                .conflictColumns("id", "email")
+                .build();
+        assertEquals("INSERT INTO users (id, email) VALUES (?1, ?2) ON CONFLICT (id, email) DO NOTHING",
+                BatchWrites.upsertSql(upsertDTO, 1));
+    }
+
+    @Test
+    public void testMySqlUpsertSql() {
+        UpsertDTO upsertDTO = UpsertDTO.builder("users", Dialect.MYSQL)
+                .columns("id", "first_name", "email")
+                .conflictColumns("email")
+                .build();
+        assertEquals("INSERT INTO users (id, first_name, email) VALUES (?1, ?2, ?3), (?4, ?5, ?6), (?7, ?8, ?9) "
+                        + "ON DUPLICATE KEY UPDATE id = VALUES(id), first_name = VALUES(first_name)",
+                BatchWrites.upsertSql(upsertDTO, 3));
+    }
+
+    @Test
+    public void testMySqlUpsertSqlWithoutUpdateColumns() {
+        UpsertDTO upsertDTO = UpsertDTO.builder("users", Dialect.MYSQL)
+                .columns("id")
+                .conflictColumns("id")
+                .build();
+        assertEquals("INSERT INTO users (id) VALUES (?1), (?2) ON DUPLICATE KEY UPDATE id = id",
+                BatchWrites.upsertSql(upsertDTO, 2));
+    }
+
+    @Test
+    public void testUpsertValidation() {
+        // The EntityManagerFactory is never reached as the validation fails first.
+        assertUpsertRejected("Invalid table name!!", UpsertDTO.builder("users; DROP TABLE users", Dialect.MYSQL)
+                .columns("id")
+                .conflictColumns("id"));
+        assertUpsertRejected("Invalid column name!!", UpsertDTO.builder("users", Dialect.MYSQL)
+                .columns("id", "email) VALUES (1, 2); --")
+                .conflictColumns("id"));
+        assertUpsertRejected("Invalid column name!!", UpsertDTO.builder("users", Dialect.MYSQL)
+                .columns("id", "1email")
+                .conflictColumns("id"));
+        assertUpsertRejected("conflictColumns should be in columns!!", UpsertDTO.builder("users", Dialect.MYSQL)
+                .columns("id")
+                .conflictColumns("email"));
+        assertUpsertRejected("conflictColumns can't be empty!!", UpsertDTO.builder("users", Dialect.MYSQL)
+                .columns("id"));
+        assertUpsertRejected("batchSize should be greater than 0!!", UpsertDTO.builder("users", Dialect.MYSQL)
+                .columns("id")
+                .conflictColumns("id")
+                .batchSize(0));
+        assertUpsertRejected("parallelism should be between 1 and 8!!", UpsertDTO.builder("users", Dialect.MYSQL)
+                .columns("id")
+                .conflictColumns("id")
+                .parallelism(BatchWrites.MAX_PARALLELISM + 1));
+        assertUpsertRejected("Each row should have a value for each of the columns!!",
+                UpsertDTO.builder("users", Dialect.MYSQL)
+                        .columns("id", "email")
+                        .conflictColumns("id")
+                        .row(1L));
+    }
+
+    @Test
+    public void testUpsertMaxParams() {
+        // 4 columns * 8192 rows is one more than the 32767 bind parameters allowed by PostgreSQL.
+        assertUpsertRejected("batchSize * columns should not exceed 32767 bind parameters!!",
+                UpsertDTO.builder("users", Dialect.POSTGRESQL)
+                        .columns("id", "first_name", "last_name", "email")
+                        .conflictColumns("id")
+                        .batchSize(8192));
+        // The last of the positional parameters of a full batch is at the limit.
+        UpsertDTO upsertDTO = UpsertDTO.builder("users", Dialect.POSTGRESQL)
+                .columns("id", "first_name", "last_name", "email")
+                .conflictColumns("id")
+                .batchSize(8191)
+                .build();
+        String sql = BatchWrites.upsertSql(upsertDTO, upsertDTO.getBatchSize());
+        assertTrue(sql.contains("(?32761, ?32762, ?32763, ?32764) ON CONFLICT (id)"));
+    }
+
+    @Test
+    public void testPartitioned() {
+        List<Integer> items = IntStream.range(0, 10).boxed().collect(Collectors.toList());
+        List<List<Integer>> partitions = Collections.synchronizedList(new ArrayList<>());
+        Set<Thread> threads = ConcurrentHashMap.newKeySet();
+        BatchResultDTO result = BatchWrites.partitioned(items, 3, partition -> {
+            partitions.add(partition);
+            threads.add(Thread.currentThread());
+            return stats(partition.size(), 2);
+        });
+        assertEquals(10, result.getRows());
+        assertEquals(6, result.getBatches());
+        assertEquals(3, partitions.size());
+        assertEquals(items, partitions.stream()
+                .sorted((left, right) -> left.get(0).compareTo(right.get(0)))
+                .flatMap(List::stream)
+                .collect(Collectors.toList()));
+        assertEquals(3, threads.size());
+        assertTrue(threads.contains(Thread.currentThread()));
+    }
+
+    @Test
+    public void testPartitionedWithoutItems() {
+        List<List<Integer>> partitions = new ArrayList<>();
+        BatchResultDTO result = BatchWrites.partitioned(List.<Integer>of(), 4, partition -> {
+            partitions.add(partition);
+            return new BatchWrites.Stats();
+        });
+        assertEquals(0, result.getRows());
+        assertEquals(List.of(List.of()), partitions);
+    }
+
+    @Test
+    public void testPartitionedFailure() {
+        List<Integer> items = IntStream.range(0, 9).boxed().collect(Collectors.toList());
+        IllegalStateException cause = new IllegalStateException("partition failed");
+        BatchWriteException ex = assertThrows(BatchWriteException.class,
+                () -> BatchWrites.partitioned(items, 3, partition -> {
+                    if (partition.contains(4)) {
+                        // Its first batch of 2 rows was committed before the failure.
+                        throw new BatchWrites.PartitionFailure(cause, stats(2, 1));
+                    }
+                    return stats(partition.size(), 2);
+                }));
+        assertSame(cause, ex.getCause());
+        assertEquals(0, ex.getCause().getSuppressed().length);
+        assertEquals(8, ex.getCommitted().getRows());
+        assertEquals(5, ex.getCommitted().getBatches());
+    }
+
+    @Test
+    public void testPartitionedFailures() {
+        List<Integer> items = IntStream.range(0, 9).boxed().collect(Collectors.toList());
+        BatchWriteException ex = assertThrows(BatchWriteException.class,
+                () -> BatchWrites.partitioned(items, 3, partition -> {
+                    if (partition.contains(8)) {
+                        return stats(partition.size(), 1);
+                    }
+                    // Nothing committed by the failed partitions.
+                    throw new BatchWrites.PartitionFailure(new IllegalStateException("partition " + partition),
+                            new BatchWrites.Stats());
+                }));
+        assertEquals("partition [0, 1, 2]", ex.getCause().getMessage());
+        assertEquals(1, ex.getCause().getSuppressed().length);
+        assertEquals("partition [3, 4, 5]", ex.getCause().getSuppressed()[0].getMessage());
+        assertEquals(3, ex.getCommitted().getRows());
+        assertEquals(1, ex.getCommitted().getBatches());
+    }
+
+    @Test
+    public void testPartitionedUnexpectedFailure() {
+        IllegalArgumentException cause = new IllegalArgumentException();
+        BatchWriteException ex = assertThrows(BatchWriteException.class,
+                () -> BatchWrites.partitioned(List.of(1, 2), 2, partition -> {
+                    if (partition.contains(1)) {
+                        throw cause;
+                    }
+                    return stats(1, 1);
+                }));
+        assertSame(cause, ex.getCause());
+        assertEquals(1, ex.getCommitted().getRows());
+    }
+
+    private static void assertUpsertRejected(String message, UpsertDTO.Builder builder) {
+        UpsertDTO upsertDTO = builder.build();
+        assertEquals(message, assertThrows(IllegalArgumentException.class,
+                () -> BatchWrites.upsert(null, upsertDTO)).getMessage());
+    }
+
+    private static BatchWrites.Stats stats(int rows, int batches) {
+        BatchWrites.Stats stats = new BatchWrites.Stats();
+        for (int batch = 0; batch < batches; batch++) {
+            stats.record(batch == 0 ? rows - (rows / batches) * (batches - 1) : rows / batches, 1_000L);
+        }
+        return stats;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+
+package com.adeptj.modules.data.jpa.core;
+
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * PageTokensTest
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class PageTokensTest {
+
+    @Test
+    public void testRoundTrip() {
+        List<Object> keys = List.of("john.doe@johndoe.com", "a:b", 42L, 42, (short) 42, (byte) 42, 4.2d, 4.2f, 'A',
+                new BigInteger("123456789012345678901234567890"), new BigDecimal("12345.678900"),
+                UUID.randomUUID(), Instant.parse("2020-01-01T10:15:30.123456Z"), LocalDate.of(2020, 1, 1),
+                LocalTime.of(10, 15, 30), LocalDateTime.of(2020, 1, 1, 10, 15, 30, 123),
+                OffsetDateTime.of(2020, 1, 1, 10, 15, 30, 0, ZoneOffset.ofHoursMinutes(5, 30)),
+                ZonedDateTime.of(2020, 1, 1, 10, 15, 30, 0, ZoneId.of("Asia/Kolkata")));
+        for (Object key : keys) {
+            assertEquals(key, PageTokens.decode(PageTokens.encode("key", key), "key", key.getClass()));
+        }
+    }
+
+    @Test
+    public void testPrimitiveKeyTypes() {
+        assertEquals(42L, PageTokens.decode(PageTokens.encode("id", 42L), "id", long.class));
+        assertEquals(42, PageTokens.decode(PageTokens.encode("id", 42), "id", int.class));
+        assertEquals('A', PageTokens.decode(PageTokens.encode("code", 'A'), "code", char.class));
+    }
+
+    @Test
+    public void testEnumKey() {
+        assertSame(TimeUnit.SECONDS, PageTokens.decode(PageTokens.encode("unit", TimeUnit.SECONDS), "unit",
+                TimeUnit.class));
+    }
+
+    @Test
+    public void testDateAndTimestampKeys() {
+        // A Date is carried as its epoch millis, a Timestamp in its string form which keeps the nanos.
+        Date date = new Date(1577873730123L);
+        assertEquals(date, PageTokens.decode(PageTokens.encode("createdOn", date), "createdOn", Date.class));
+        java.sql.Date sqlDate = new java.sql.Date(1577873730123L);
+        assertEquals(sqlDate, PageTokens.decode(PageTokens.encode("createdOn", sqlDate), "createdOn",
+                java.sql.Date.class));
+        Timestamp timestamp = Timestamp.valueOf("2020-01-01 10:15:30.123456789");
+        Object decoded = PageTokens.decode(PageTokens.encode("createdOn", timestamp), "createdOn",
+                Timestamp.class);
+        assertEquals(timestamp, decoded);
+        assertEquals(123456789, ((Timestamp) decoded).getNanos());
+    }
+
+    @Test
+    public void testTokenIsUrlSafe() {
+        String token = PageTokens.encode("email", "?john+doe/@johndoe.com>");
+        assertTrue(token.matches("[A-Za-z0-9_-]+"));
+        assertFalse(token.contains("john"));
+    }
+
+    @Test
+    public void testMalformedTokenRejected() {
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> PageTokens.decode("not a token!!", "id", Long.class));
+        assertEquals("Malformed page token!!", ex.getMessage());
+        assertThrows(NumberFormatException.class,
+                () -> PageTokens.decode(PageTokens.encode("id", "abc"), "id", Long.class));
+    }
+
+    @Test
+    public void testOrderByMismatchRejected() {
+        String token = PageTokens.encode("id", 42L);
+        IllegalArgumentException ex = assertThrows(IllegalArgumentException.class,
+                () -> PageTokens.decode(token, "email", String.class));
+        assertTrue(ex.getMessage().contains("email"));
+        // Neither a prefix of the attribute name nor a token without separator passes.
+        assertThrows(IllegalArgumentException.class, () -> PageTokens.decode(token, "i", Long.class));
+        assertThrows(IllegalArgumentException.class, () -> PageTokens.decode("aWQ", "id", Long.class));
+    }
+
+    @Test
+    public void testNullKeyAndUnsupportedTypeRejected() {
+        assertThrows(IllegalStateException.class, () -> PageTokens.encode("id", null));
+        assertThrows(IllegalArgumentException.class,
+                () -> PageTokens.decode(PageTokens.encode("data", "x"), "data", Object.class));
+    }
+}
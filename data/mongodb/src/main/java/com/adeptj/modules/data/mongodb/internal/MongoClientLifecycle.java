@@ -43,7 +43,9 @@ public class MongoClientLifecycle {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
-    private static final String SERVICE_FILTER = "(&(mongodb.database.name=*)(mongodb.collection.name=*))";
+    // The caching proxies of the repositories are left out, those delegate to the repositories bound here.
+    private static final String SERVICE_FILTER =
+            "(&(mongodb.database.name=*)(mongodb.collection.name=*)(!(cache.proxy=true)))";
 
     private final MongoClient mongoClient;
 
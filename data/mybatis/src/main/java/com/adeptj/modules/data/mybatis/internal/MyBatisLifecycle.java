@@ -39,6 +39,9 @@ public class MyBatisLifecycle {
 
     private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
 
+    // The caching proxies of the repositories are left out, those delegate to the repositories bound here.
+    private static final String REPOSITORY_FILTER = "(!(cache.proxy=true))";
+
     private final SqlSessionFactory sessionFactory;
 
     @Activate
@@ -91,7 +94,7 @@ public class MyBatisLifecycle {
 
     // <<------------------------------------- OSGi Internal  -------------------------------------->>
 
-    @Reference(service = MyBatisRepository.class, cardinality = MULTIPLE, policy = DYNAMIC)
+    @Reference(service = MyBatisRepository.class, target = REPOSITORY_FILTER, cardinality = MULTIPLE, policy = DYNAMIC)
     protected void bindMyBatisRepository(MyBatisRepository<?, ?> repository) {
         if (!(repository instanceof AbstractMyBatisRepository)) {
             throw new MyBatisRepositoryBindException("The repository instance must extend AbstractMyBatisRepository!");
@@ -0,0 +1,105 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+package com.adeptj.modules.webconsole.plugins.cache;
+
+import com.adeptj.modules.commons.cache.CacheService;
+import com.adeptj.modules.commons.cache.CacheStats;
+import com.adeptj.modules.commons.utils.JsonUtil;
+import com.adeptj.modules.commons.utils.annotation.WebConsolePlugin;
+import org.apache.commons.lang3.StringUtils;
+import org.apache.felix.webconsole.AbstractWebConsolePlugin;
+import org.osgi.service.component.annotations.Activate;
+import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Reference;
+import org.osgi.service.http.whiteboard.propertytypes.HttpWhiteboardResource;
+
+import javax.servlet.Servlet;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+import java.io.IOException;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Collectors;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+
+/**
+ * The CacheStatsPlugin renders the statistics of all the configured caches, the page polls the stats.json
+ * endpoint of this plugin so that the numbers are live.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+@HttpWhiteboardResource(pattern = "/cache-plugin/*", prefix = "static")
+@WebConsolePlugin(label = CacheStatsPlugin.PLUGIN_LABEL_VALUE, title = CacheStatsPlugin.PLUGIN_TITLE_VALUE)
+@Component(service = Servlet.class)
+public class CacheStatsPlugin extends AbstractWebConsolePlugin {
+
+    static final String PLUGIN_LABEL_VALUE = "cache-stats";
+
+    static final String PLUGIN_TITLE_VALUE = "Cache Stats";
+
+    private static final String STATS_JSON_SUFFIX = "/stats.json";
+
+    private static final String CONTENT_TYPE_JSON = "application/json";
+
+    private static final String CACHE_STATS_HTML_LOCATION = "/templates/cache-stats.html";
+
+    private final CacheService cacheService;
+
+    @Activate
+    public CacheStatsPlugin(@Reference CacheService cacheService) {
+        this.cacheService = cacheService;
+    }
+
+    // << ---------------------------------- From AbstractWebConsolePlugin ---------------------------------->>
+
+    @Override
+    public String getLabel() {
+        return PLUGIN_LABEL_VALUE;
+    }
+
+    @Override
+    public String getTitle() {
+        return PLUGIN_TITLE_VALUE;
+    }
+
+    @Override
+    protected boolean isHtmlRequest(HttpServletRequest req) {
+        return !StringUtils.endsWith(req.getRequestURI(), STATS_JSON_SUFFIX);
+    }
+
+    @Override
+    protected void renderContent(HttpServletRequest req, HttpServletResponse res) throws IOException {
+        if (this.isHtmlRequest(req)) {
+            res.getWriter().print(super.readTemplateFile(CACHE_STATS_HTML_LOCATION));
+            return;
+        }
+        List<CacheStats> stats = this.cacheService.getCacheNames()
+                .stream()
+                .sorted()
+                .map(this.cacheService::getStats)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        res.setContentType(CONTENT_TYPE_JSON);
+        res.setCharacterEncoding(UTF_8.name());
+        res.setHeader("Cache-Control", "no-store");
+        res.getWriter().print(JsonUtil.serialize(stats));
+    }
+}
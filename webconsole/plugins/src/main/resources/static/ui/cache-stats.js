@@ -0,0 +1,67 @@
+(function () {
+    var POLL_INTERVAL_MILLIS = 2000;
+
+    function cell(row, text) {
+        var td = document.createElement('td');
+        td.textContent = text;
+        row.appendChild(td);
+    }
+
+    function removals(counts) {
+        return Object.keys(counts)
+            .filter(function (cause) {
+                return counts[cause] > 0;
+            })
+            .map(function (cause) {
+                return cause + ': ' + counts[cause];
+            })
+            .join(', ');
+    }
+
+    function render(table, stats) {
+        var body = table.tBodies[0];
+        while (body.firstChild) {
+            body.removeChild(body.firstChild);
+        }
+        stats.forEach(function (stat) {
+            var row = document.createElement('tr');
+            var recording = stat.recordingStats;
+            cell(row, stat.cacheName);
+            cell(row, stat.estimatedSize);
+            cell(row, stat.weightedSize < 0 ? '-' : stat.weightedSize + ' / ' + stat.maximumWeight);
+            cell(row, recording ? stat.hitCount : '-');
+            cell(row, recording ? stat.missCount : '-');
+            cell(row, recording ? (stat.hitRate * 100).toFixed(2) + '%' : '-');
+            cell(row, stat.negativeHitCount);
+            cell(row, stat.earlyRefreshCount);
+            cell(row, recording ? (stat.averageLoadPenalty / 1000000).toFixed(3) + ' ms' : '-');
+            cell(row, recording ? stat.loadFailureCount : '-');
+            cell(row, recording ? stat.evictionCount : '-');
+            cell(row, removals(stat.removalCounts));
+            cell(row, stat.offHeapSize + ' / ' + (stat.offHeapBytes / 1048576).toFixed(2) + ' MB');
+            body.appendChild(row);
+        });
+    }
+
+    function poll(table) {
+        fetch(table.getAttribute('data-stats-url'), {credentials: 'same-origin'})
+            .then(function (response) {
+                return response.json();
+            })
+            .then(function (stats) {
+                render(table, stats);
+            })
+            .finally(function () {
+                setTimeout(function () {
+                    poll(table);
+                }, POLL_INTERVAL_MILLIS);
+            });
+    }
+
+    document.addEventListener('DOMContentLoaded', function () {
+        var table = document.getElementById('cacheStats');
+        if (table) {
+            poll(table);
+        }
+    });
+})();
@@ -0,0 +1,114 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.security.jwt.internal;
+
+import io.jsonwebtoken.JwtException;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileSystems;
+import java.nio.file.Path;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+
+import static java.nio.file.StandardWatchEventKinds.ENTRY_CREATE;
+import static java.nio.file.StandardWatchEventKinds.ENTRY_MODIFY;
+
+/**
+ * Watches the JWKS file and updates the {@link JwtKeyRing} whenever the file is created or modified.
+ * <p>
+ * A JWKS file which fails to load is logged and ignored, the key ring keeps the previous keys then.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class JwksFileWatcher implements Runnable {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final String WATCHER_THREAD_NAME = "jwks-file-watcher";
+
+    private final Path jwksFile;
+
+    private final JwtKeyRing keyRing;
+
+    private final WatchService watchService;
+
+    JwksFileWatcher(@NotNull Path jwksFile, JwtKeyRing keyRing) throws IOException {
+        this.jwksFile = jwksFile.toAbsolutePath();
+        this.keyRing = keyRing;
+        this.watchService = FileSystems.getDefault().newWatchService();
+        this.jwksFile.getParent().register(this.watchService, ENTRY_CREATE, ENTRY_MODIFY);
+    }
+
+    void start() {
+        Thread thread = new Thread(this, WATCHER_THREAD_NAME);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    void stop() {
+        try {
+            this.watchService.close();
+        } catch (IOException ex) {
+            LOGGER.error(ex.getMessage(), ex);
+        }
+    }
+
+    @Override
+    public void run() {
+        try {
+            WatchKey watchKey;
+            while ((watchKey = this.watchService.take()) != null) {
+                boolean jwksFileChanged = false;
+                for (WatchEvent<?> event : watchKey.pollEvents()) {
+                    Object context = event.context();
+                    if (context instanceof Path && this.jwksFile.getFileName().equals(context)) {
+                        jwksFileChanged = true;
+                    }
+                }
+                if (jwksFileChanged) {
+                    this.reload();
+                }
+                if (!watchKey.reset()) {
+                    LOGGER.warn("JWKS file directory is no more accessible, stopped watching: [{}]", this.jwksFile);
+                    break;
+                }
+            }
+        } catch (ClosedWatchServiceException ex) { // NOSONAR
+            LOGGER.info("Stopped watching JWKS file: [{}]", this.jwksFile);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    void reload() {
+        try {
+            this.keyRing.update(JwksLoader.load(this.jwksFile));
+        } catch (JwtKeyInitializationException | JwtException | IllegalArgumentException ex) {
+            LOGGER.error(ex.getMessage(), ex);
+        }
+    }
+}
@@ -0,0 +1,164 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.security.jwt.internal;
+
+import com.adeptj.modules.commons.utils.Jackson;
+import com.adeptj.modules.commons.utils.JacksonException;
+import com.fasterxml.jackson.databind.JsonNode;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.apache.commons.lang3.StringUtils;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.io.IOException;
+import java.lang.invoke.MethodHandles;
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.AlgorithmParameters;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.PrivateKey;
+import java.security.PublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.security.spec.ECParameterSpec;
+import java.security.spec.ECPoint;
+import java.security.spec.ECPrivateKeySpec;
+import java.security.spec.ECPublicKeySpec;
+import java.security.spec.RSAPrivateCrtKeySpec;
+import java.security.spec.RSAPrivateKeySpec;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.List;
+
+/**
+ * Loads the RSA and EC keys from a JWKS(RFC 7517) file.
+ * <p>
+ * Every key must have a kid, the alg is optional and defaults to RS256 for RSA keys and to the curve's
+ * ES algorithm for EC keys. A key having the private parameters can also be used for signing.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class JwksLoader {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private static final String KEY_TYPE_RSA = "RSA";
+
+    private static final String KEY_TYPE_EC = "EC";
+
+    private JwksLoader() {
+    }
+
+    static @NotNull List<JwtKeyInfo> load(@NotNull Path jwksFile) {
+        try {
+            JsonNode keys = Jackson.parse(Files.readAllBytes(jwksFile)).get("keys");
+            if (keys == null || !keys.isArray()) {
+                throw new JwtKeyInitializationException("JWKS must have a keys array!!", null);
+            }
+            List<JwtKeyInfo> jwtKeys = new ArrayList<>();
+            for (JsonNode jwk : keys) {
+                jwtKeys.add(toJwtKeyInfo(jwk));
+            }
+            LOGGER.info("Loaded {} key(s) from JWKS file: [{}]", jwtKeys.size(), jwksFile);
+            return jwtKeys;
+        } catch (IOException | JacksonException | GeneralSecurityException ex) {
+            throw new JwtKeyInitializationException(ex.getMessage(), ex);
+        }
+    }
+
+    private static @NotNull JwtKeyInfo toJwtKeyInfo(@NotNull JsonNode jwk) throws GeneralSecurityException {
+        String kid = Jackson.asString(jwk, "kid");
+        if (StringUtils.isEmpty(kid)) {
+            throw new JwtKeyInitializationException("JWK must have a kid!!", null);
+        }
+        String kty = Jackson.asString(jwk, "kty");
+        if (KEY_TYPE_RSA.equals(kty)) {
+            return toRsaKey(kid, jwk);
+        }
+        if (KEY_TYPE_EC.equals(kty)) {
+            return toEcKey(kid, jwk);
+        }
+        throw new JwtKeyInitializationException(String.format("Unsupported kty [%s] of JWK [%s]!!", kty, kid), null);
+    }
+
+    private static @NotNull JwtKeyInfo toRsaKey(String kid, JsonNode jwk) throws GeneralSecurityException {
+        KeyFactory keyFactory = KeyFactory.getInstance(KEY_TYPE_RSA);
+        BigInteger modulus = toBigInteger(jwk, "n");
+        PublicKey publicKey = keyFactory.generatePublic(new RSAPublicKeySpec(modulus, toBigInteger(jwk, "e")));
+        PrivateKey privateKey = null;
+        if (jwk.has("d")) {
+            // Prefer the CRT form which is considerably faster for signing.
+            privateKey = keyFactory.generatePrivate(jwk.has("p")
+                    ? new RSAPrivateCrtKeySpec(modulus,
+                    toBigInteger(jwk, "e"),
+                    toBigInteger(jwk, "d"),
+                    toBigInteger(jwk, "p"),
+                    toBigInteger(jwk, "q"),
+                    toBigInteger(jwk, "dp"),
+                    toBigInteger(jwk, "dq"),
+                    toBigInteger(jwk, "qi"))
+                    : new RSAPrivateKeySpec(modulus, toBigInteger(jwk, "d")));
+        }
+        String alg = Jackson.asString(jwk, "alg");
+        SignatureAlgorithm algorithm = SignatureAlgorithm.forName(alg == null ? "RS256" : alg);
+        return new JwtKeyInfo(kid, algorithm, privateKey, publicKey);
+    }
+
+    private static @NotNull JwtKeyInfo toEcKey(String kid, JsonNode jwk) throws GeneralSecurityException {
+        String crv = Jackson.asString(jwk, "crv");
+        SignatureAlgorithm algorithm;
+        String curveName;
+        if ("P-256".equals(crv)) {
+            algorithm = SignatureAlgorithm.ES256;
+            curveName = "secp256r1";
+        } else if ("P-384".equals(crv)) {
+            algorithm = SignatureAlgorithm.ES384;
+            curveName = "secp384r1";
+        } else if ("P-521".equals(crv)) {
+            algorithm = SignatureAlgorithm.ES512;
+            curveName = "secp521r1";
+        } else {
+            throw new JwtKeyInitializationException(String.format("Unsupported crv [%s] of JWK [%s]!!", crv, kid),
+                    null);
+        }
+        AlgorithmParameters parameters = AlgorithmParameters.getInstance(KEY_TYPE_EC);
+        parameters.init(new ECGenParameterSpec(curveName));
+        ECParameterSpec parameterSpec = parameters.getParameterSpec(ECParameterSpec.class);
+        KeyFactory keyFactory = KeyFactory.getInstance(KEY_TYPE_EC);
+        ECPoint point = new ECPoint(toBigInteger(jwk, "x"), toBigInteger(jwk, "y"));
+        PublicKey publicKey = keyFactory.generatePublic(new ECPublicKeySpec(point, parameterSpec));
+        PrivateKey privateKey = jwk.has("d")
+                ? keyFactory.generatePrivate(new ECPrivateKeySpec(toBigInteger(jwk, "d"), parameterSpec))
+                : null;
+        return new JwtKeyInfo(kid, algorithm, privateKey, publicKey);
+    }
+
+    private static @NotNull BigInteger toBigInteger(JsonNode jwk, String param) {
+        String value = Jackson.asString(jwk, param);
+        if (StringUtils.isEmpty(value)) {
+            throw new JwtKeyInitializationException(String.format("JWK parameter [%s] is missing!!", param), null);
+        }
+        return new BigInteger(1, Base64.getUrlDecoder().decode(value));
+    }
+}
@@ -44,17 +44,36 @@ public @interface JwtConfig {
      */
     long DEFAULT_EXPIRATION_TIME = 720L;
 
+    String CLAIMS_CODEC_JSONB = "JSONB";
+
+    String CLAIMS_CODEC_JACKSON = "JACKSON";
+
     @AttributeDefinition(
             name = "JWT Signature Algorithm",
-            description = "Signature Algorithm for JWT signing, only RSA is supported at this moment.",
+            description = "Signature Algorithm for JWT signing, RSA and ECDSA are supported at this moment, "
+                    + "the keys must be of the selected algorithm's family and ECDSA keys of the matching curve.",
             options = {
                     @Option(label = "RSA 256", value = "RS256"),
                     @Option(label = "RSA 384", value = "RS384"),
                     @Option(label = "RSA 512", value = "RS512"),
+                    @Option(label = "ECDSA P-256 (ES256)", value = "ES256"),
+                    @Option(label = "ECDSA P-384 (ES384)", value = "ES384"),
+                    @Option(label = "ECDSA P-521 (ES512)", value = "ES512"),
             }
     )
     String signatureAlgorithm();
 
+    @AttributeDefinition(
+            name = "JWT Claims Codec",
+            description = "Codec for serializing/deserializing the JWT claims, Jackson streams the claims directly "
+                    + "to/from bytes and is meant for the claims made of maps, collections and JSON primitives.",
+            options = {
+                    @Option(label = "Json-B", value = CLAIMS_CODEC_JSONB),
+                    @Option(label = "Jackson Streaming", value = CLAIMS_CODEC_JACKSON),
+            }
+    )
+    String claimsCodec() default CLAIMS_CODEC_JSONB;
+
     @AttributeDefinition(
             name = "Jwt PrivateKey(Signing Key)",
             description = "PrivateKey data (PEM-encoded PKCS#8 format) for JWT signing."
@@ -74,6 +93,21 @@ public @interface JwtConfig {
     )
     String publicKey();
 
+    @AttributeDefinition(
+            name = "Jwt Key ID",
+            description = "Key ID(kid) of the above key pair, if provided then it is set as kid header of the JWTs "
+                    + "signed with this key pair. The JWTs without kid header are always verified with this key pair."
+    )
+    String keyId();
+
+    @AttributeDefinition(
+            name = "JWKS File",
+            description = "Path of a JWKS file which is watched for changes, the JWTs are verified with the key "
+                    + "matching their kid header and signed with the first key having private parameters. "
+                    + "A key removed from the file is still used for verification till the JWT Expiration Time."
+    )
+    String jwksFile();
+
     @AttributeDefinition(name = "JWT Default Issuer", description = "Default Issuer of JWT")
     String defaultIssuer() default "AdeptJ Runtime";
 
@@ -86,6 +120,28 @@ public @interface JwtConfig {
     )
     boolean logJwtVerificationExceptionTrace();
 
+    @AttributeDefinition(
+            name = "JWT Verification Cache Enabled",
+            description = "Whether to cache the verified JWT claims till the JWT expires so that a JWT presented "
+                    + "again skips the signature verification."
+    )
+    boolean verificationCacheEnabled();
+
+    @AttributeDefinition(
+            name = "JWT Verification Cache Name",
+            description = "Name of the cache configured in AdeptJ CacheService for keeping the verified JWT claims, "
+                    + "a built-in bounded cache is used if blank or if no such cache exists. The cache may be shared, "
+                    + "only the entries of this service are removed when it is deactivated."
+    )
+    String verificationCacheName();
+
+    @AttributeDefinition(
+            name = "JWT Verification Cache Max Size",
+            description = "Max number of verified JWT claims kept by the built-in cache, the least recently used "
+                    + "ones are evicted beyond that."
+    )
+    int verificationCacheMaxSize() default 1024;
+
     @AttributeDefinition(
             name = "Mandatory JWT Claims",
             description = "Mandatory JWT claims which need to be checked for null and emptiness."
@@ -27,21 +27,35 @@ import java.security.PrivateKey;
 import java.security.PublicKey;
 
 /**
- * Holder of JWT {@link SignatureAlgorithm}, signing and verification keys.
+ * Holder of JWT {@link SignatureAlgorithm}, signing and verification keys along with the optional key id(kid).
+ * <p>
+ * The signing key is null for a verification only key.
  *
  * @author Rakesh.Kumar, AdeptJ
  */
 final class JwtKeyInfo {
 
+    private final String keyId;
+
     private final SignatureAlgorithm signatureAlgorithm;
 
     private final KeyPair keyPair;
 
     JwtKeyInfo(SignatureAlgorithm signatureAlgorithm, PrivateKey signingKey, PublicKey verificationKey) {
+        this(null, signatureAlgorithm, signingKey, verificationKey);
+    }
+
+    JwtKeyInfo(String keyId, SignatureAlgorithm signatureAlgorithm, PrivateKey signingKey,
+               PublicKey verificationKey) {
+        this.keyId = keyId;
         this.signatureAlgorithm = signatureAlgorithm;
         this.keyPair = new KeyPair(verificationKey, signingKey);
     }
 
+    String getKeyId() {
+        return keyId;
+    }
+
     SignatureAlgorithm getSignatureAlgorithm() {
         return signatureAlgorithm;
     }
@@ -53,4 +67,8 @@ final class JwtKeyInfo {
     PublicKey getPublicKey() {
         return this.keyPair.getPublic();
     }
+
+    boolean canSign() {
+        return this.keyPair.getPrivate() != null;
+    }
 }
@@ -0,0 +1,171 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.security.jwt.internal;
+
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.security.SignatureException;
+import org.jetbrains.annotations.NotNull;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+
+import java.lang.invoke.MethodHandles;
+import java.security.Key;
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Ring of the JWT keys indexed by key id(kid) for verification and a single active key for signing.
+ * <p>
+ * The configured key is the default key, it verifies the JWTs having no kid header and signs the JWTs till a
+ * key with private key material is loaded from the JWKS file. The JWKS keys are swapped in atomically by
+ * {@link #update(Collection)}, a key which disappears from the JWKS file is retired i.e. kept for verification
+ * till the JWTs signed by it can't be valid anymore, so that the rotation never fails in-flight JWTs.
+ * <p>
+ * Lookups are lock free, updates are serialized by the single JWKS watcher thread.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class JwtKeyRing extends SigningKeyResolverAdapter {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(MethodHandles.lookup().lookupClass());
+
+    private final JwtKeyInfo defaultKey;
+
+    private final long retentionMillis;
+
+    private final ConcurrentMap<String, JwtKeyInfo> keys;
+
+    private final ConcurrentMap<String, RetiredKey> retiredKeys;
+
+    private volatile JwtKeyInfo signingKey;
+
+    JwtKeyRing(@NotNull JwtKeyInfo defaultKey, @NotNull Duration retention) {
+        this.defaultKey = defaultKey;
+        this.retentionMillis = retention.toMillis();
+        this.keys = new ConcurrentHashMap<>();
+        this.retiredKeys = new ConcurrentHashMap<>();
+        this.signingKey = defaultKey;
+        if (defaultKey.getKeyId() != null) {
+            this.keys.put(defaultKey.getKeyId(), defaultKey);
+        }
+    }
+
+    JwtKeyInfo getSigningKey() {
+        return this.signingKey;
+    }
+
+    /**
+     * Replaces the JWKS keys with the given ones, the first key having private key material becomes the signing
+     * key, and the default key signs if there is none.
+     *
+     * @param jwksKeys the keys loaded from JWKS file.
+     */
+    void update(@NotNull Collection<JwtKeyInfo> jwksKeys) {
+        long now = System.currentTimeMillis();
+        Map<String, JwtKeyInfo> newKeys = new ConcurrentHashMap<>();
+        for (JwtKeyInfo key : jwksKeys) {
+            newKeys.put(key.getKeyId(), key);
+        }
+        // 1. add or replace the keys, a key coming back is no more retired.
+        newKeys.forEach((kid, key) -> {
+            this.keys.put(kid, key);
+            this.retiredKeys.remove(kid);
+        });
+        // 2. retire the keys which are gone, the default key is never retired.
+        this.keys.keySet().stream()
+                .filter(kid -> !newKeys.containsKey(kid) && !kid.equals(this.defaultKey.getKeyId()))
+                .forEach(kid -> {
+                    RetiredKey retiredKey = new RetiredKey(this.keys.get(kid), now + this.retentionMillis);
+                    if (retiredKey.key != null && this.retiredKeys.putIfAbsent(kid, retiredKey) == null) {
+                        LOGGER.info("JWT key [{}] retired, it will be used for verification only!!", kid);
+                    }
+                });
+        this.signingKey = jwksKeys.stream()
+                .filter(JwtKeyInfo::canSign)
+                .findFirst()
+                .orElse(this.defaultKey);
+        this.purgeRetiredKeys(now);
+        LOGGER.info("JWT key ring updated with {} key(s), signing key: [{}]", newKeys.size(),
+                this.signingKey.getKeyId());
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+        return this.resolveVerificationKey(header.getKeyId());
+    }
+
+    @Override
+    public Key resolveSigningKey(JwsHeader header, String plaintext) {
+        return this.resolveVerificationKey(header.getKeyId());
+    }
+
+    private Key resolveVerificationKey(String kid) {
+        if (kid == null) {
+            return this.defaultKey.getPublicKey();
+        }
+        JwtKeyInfo key = this.keys.get(kid);
+        RetiredKey retiredKey = this.retiredKeys.get(kid);
+        if (retiredKey != null && retiredKey.key == key && retiredKey.isExpired(System.currentTimeMillis())) {
+            this.purgeRetiredKeys(System.currentTimeMillis());
+            key = null;
+        }
+        if (key == null) {
+            throw new SignatureException(String.format("No JWT verification key found for kid [%s]!!", kid));
+        }
+        return key.getPublicKey();
+    }
+
+    private void purgeRetiredKeys(long now) {
+        this.retiredKeys.forEach((kid, retiredKey) -> {
+            // Conditional removal so that the key with same kid added again by an update stays.
+            if (retiredKey.isExpired(now) && this.retiredKeys.remove(kid, retiredKey)
+                    && this.keys.remove(kid, retiredKey.key)) {
+                LOGGER.info("Retired JWT key [{}] removed!!", kid);
+            }
+        });
+    }
+
+    /**
+     * A retired key along with the time in millis till it can still be used for verification.
+     *
+     * @author Rakesh.Kumar, AdeptJ
+     */
+    private static final class RetiredKey {
+
+        private final JwtKeyInfo key;
+
+        private final long retiredTill;
+
+        private RetiredKey(JwtKeyInfo key, long retiredTill) {
+            this.key = key;
+            this.retiredTill = retiredTill;
+        }
+
+        private boolean isExpired(long now) {
+            return this.retiredTill <= now;
+        }
+    }
+}
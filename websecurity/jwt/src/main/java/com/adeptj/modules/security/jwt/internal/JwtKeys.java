@@ -20,6 +20,7 @@
 
 package com.adeptj.modules.security.jwt.internal;
 
+import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.lang.Assert;
 import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
@@ -68,6 +69,10 @@ final class JwtKeys {
 
     private static final String REGEX_SPACE = "\\s";
 
+    private static final String KEY_ALGO_RSA = "RSA";
+
+    private static final String KEY_ALGO_EC = "EC";
+
     private static final String KEYPASS_NULL_MSG = "privateKeyPassword can't be blank!!";
 
     private static final String INVALID_PUBLIC_KEY_MSG = "Invalid PublicKey, must start with -----BEGIN PUBLIC KEY-----";
@@ -78,8 +83,28 @@ final class JwtKeys {
     private JwtKeys() {
     }
 
+    /**
+     * Resolves the JCA {@link KeyFactory} algorithm for the given {@link SignatureAlgorithm}.
+     * <p>
+     * Note: {@link SignatureAlgorithm#getFamilyName()} can't be used for EC keys as it returns ECDSA
+     * which is not a {@link KeyFactory} algorithm.
+     *
+     * @param signatureAlgorithm the JWT signature algorithm
+     * @return the JCA key algorithm i.e. either RSA or EC
+     */
+    static String getKeyAlgorithm(@NotNull SignatureAlgorithm signatureAlgorithm) {
+        if (signatureAlgorithm.isRsa()) {
+            return KEY_ALGO_RSA;
+        }
+        if (signatureAlgorithm.isEllipticCurve()) {
+            return KEY_ALGO_EC;
+        }
+        throw new IllegalArgumentException(String.format("Unsupported JWT SignatureAlgorithm: %s",
+                signatureAlgorithm.getValue()));
+    }
+
     static PrivateKey createSigningKey(@NotNull JwtConfig config, String algorithm) {
-        LOGGER.info("Creating RSA signing key!!");
+        LOGGER.info("Creating {} signing key!!", algorithm);
         Assert.isTrue(StringUtils.startsWithAny(config.privateKey(), PRIVATE_ENCRYPTED_KEY_HEADER, PRIVATE_KEY_HEADER),
                 INVALID_PRIVATE_KEY_MSG);
         try {
@@ -105,7 +130,7 @@ final class JwtKeys {
     }
 
     static PublicKey createVerificationKey(@NotNull JwtConfig config, String algorithm) {
-        LOGGER.info("Creating RSA verification key!!");
+        LOGGER.info("Creating {} verification key!!", algorithm);
         Assert.isTrue(StringUtils.startsWith(config.publicKey(), PUB_KEY_HEADER), INVALID_PUBLIC_KEY_MSG);
         try {
             KeyFactory keyFactory = KeyFactory.getInstance(algorithm);
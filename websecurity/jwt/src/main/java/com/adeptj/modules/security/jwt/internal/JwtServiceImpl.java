@@ -20,26 +20,34 @@
 
 package com.adeptj.modules.security.jwt.internal;
 
+import com.adeptj.modules.commons.cache.Cache;
+import com.adeptj.modules.commons.cache.CacheService;
 import com.adeptj.modules.commons.utils.RandomUtil;
 import com.adeptj.modules.security.jwt.JwtClaims;
 import com.adeptj.modules.security.jwt.JwtService;
 import com.adeptj.modules.security.jwt.JwtUtil;
 import io.jsonwebtoken.ExpiredJwtException;
 import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Deserializer;
 import io.jsonwebtoken.io.Serializer;
 import io.jsonwebtoken.lang.Assert;
 import io.jsonwebtoken.security.SignatureException;
+import org.apache.commons.lang3.StringUtils;
 import org.jetbrains.annotations.NotNull;
 import org.osgi.service.component.annotations.Activate;
 import org.osgi.service.component.annotations.Component;
+import org.osgi.service.component.annotations.Deactivate;
+import org.osgi.service.component.annotations.Reference;
 import org.osgi.service.metatype.annotations.Designate;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 
+import java.io.IOException;
 import java.lang.invoke.MethodHandles;
+import java.nio.file.Paths;
 import java.security.PrivateKey;
 import java.security.PublicKey;
 import java.time.Duration;
@@ -51,11 +59,14 @@ import static io.jsonwebtoken.Claims.ID;
 import static io.jsonwebtoken.Claims.ISSUER;
 import static io.jsonwebtoken.Header.JWT_TYPE;
 import static io.jsonwebtoken.Header.TYPE;
+import static io.jsonwebtoken.JwsHeader.KEY_ID;
 import static java.time.temporal.ChronoUnit.MINUTES;
 import static org.osgi.service.component.annotations.ConfigurationPolicy.REQUIRE;
+import static org.osgi.service.component.annotations.ReferenceCardinality.OPTIONAL;
+import static org.osgi.service.component.annotations.ReferencePolicyOption.GREEDY;
 
 /**
- * Service for signing and parsing JWT with RSA private and public keys respectively.
+ * Service for signing and parsing JWT with RSA or EC private and public keys respectively.
  *
  * @author Rakesh.Kumar, AdeptJ
  */
@@ -73,7 +84,12 @@ public class JwtServiceImpl implements JwtService {
 
     private final Duration expirationDuration;
 
-    private final JwtKeyInfo keyInfo;
+    private final JwtKeyRing keyRing;
+
+    /**
+     * Watcher of the JWKS file, null if no JWKS file configured.
+     */
+    private final JwksFileWatcher jwksFileWatcher;
 
     private final ClaimsConsumer claimsConsumer;
 
@@ -81,11 +97,29 @@ public class JwtServiceImpl implements JwtService {
 
     private final Deserializer<Map<String, ?>> deserializer;
 
+    /**
+     * The parser is immutable and thread safe, so it is built once, the verification key is resolved by the
+     * {@link JwtKeyRing} for each JWT.
+     */
+    private final JwtParser jwtParser;
+
+    /**
+     * Cache of the verified JWT claims, null unless enabled via configuration.
+     */
+    private final JwtVerificationCache verificationCache;
+
     @Activate
-    public JwtServiceImpl(@NotNull JwtConfig config) {
+    public JwtServiceImpl(@NotNull JwtConfig config,
+                          @Reference(cardinality = OPTIONAL, policyOption = GREEDY) CacheService cacheService) {
         this.claimsConsumer = new ClaimsConsumer();
-        this.serializer = new JwtSerializer();
-        this.deserializer = new JwtDeserializer();
+        if (JwtConfig.CLAIMS_CODEC_JACKSON.equals(config.claimsCodec())) {
+            this.serializer = new JacksonJwtSerializer();
+            this.deserializer = new JacksonJwtDeserializer();
+        } else {
+            this.serializer = new JwtSerializer();
+            this.deserializer = new JwtDeserializer();
+        }
+        LOGGER.info("Selected JWT claims codec: [{}]", config.claimsCodec());
         this.logJwtVerificationExceptionTrace = config.logJwtVerificationExceptionTrace();
         this.defaultIssuer = config.defaultIssuer();
         this.expirationDuration = Duration.of(config.expirationTime(), MINUTES);
@@ -93,13 +127,22 @@ public class JwtServiceImpl implements JwtService {
         try {
             SignatureAlgorithm algorithm = SignatureAlgorithm.forName(config.signatureAlgorithm());
             LOGGER.info("Selected JWT SignatureAlgorithm: [{}]", algorithm.getJcaName());
-            PrivateKey signingKey = JwtKeys.createSigningKey(config, algorithm.getFamilyName());
-            PublicKey verificationKey = JwtKeys.createVerificationKey(config, algorithm.getFamilyName());
-            this.keyInfo = new JwtKeyInfo(algorithm, signingKey, verificationKey);
+            String keyAlgorithm = JwtKeys.getKeyAlgorithm(algorithm);
+            PrivateKey signingKey = JwtKeys.createSigningKey(config, keyAlgorithm);
+            PublicKey verificationKey = JwtKeys.createVerificationKey(config, keyAlgorithm);
+            String keyId = StringUtils.trimToNull(config.keyId());
+            this.keyRing = new JwtKeyRing(new JwtKeyInfo(keyId, algorithm, signingKey, verificationKey),
+                    this.expirationDuration);
+            this.jwtParser = Jwts.parserBuilder()
+                    .setSigningKeyResolver(this.keyRing)
+                    .deserializeJsonWith(this.deserializer)
+                    .build();
+            this.jwksFileWatcher = newJwksFileWatcher(config, this.keyRing);
         } catch (SignatureException | JwtKeyInitializationException | IllegalArgumentException ex) {
             LOGGER.error(ex.getMessage(), ex);
             throw ex;
         }
+        this.verificationCache = newVerificationCache(config, cacheService);
     }
 
     /**
@@ -110,15 +153,17 @@ public class JwtServiceImpl implements JwtService {
         Assert.hasText(subject, "Subject can't be blank!!");
         JwtUtil.assertClaims(claims);
         Instant now = Instant.now();
+        JwtKeyInfo signingKey = this.keyRing.getSigningKey();
         return Jwts.builder()
                 .setHeaderParam(TYPE, JWT_TYPE)
+                .setHeaderParam(KEY_ID, signingKey.getKeyId())
                 .setClaims(claims)
                 .setSubject(subject)
                 .setIssuedAt(Date.from(now))
                 .setExpiration(Date.from(now.plus(this.expirationDuration)))
                 .setId(claims.containsKey(ID) ? claims.get(ID).toString() : RandomUtil.uuidString())
                 .setIssuer(claims.containsKey(ISSUER) ? (String) claims.get(ISSUER) : this.defaultIssuer)
-                .signWith(this.keyInfo.getPrivateKey(), this.keyInfo.getSignatureAlgorithm())
+                .signWith(signingKey.getPrivateKey(), signingKey.getSignatureAlgorithm())
                 .serializeToJsonWith(this.serializer)
                 .compact();
     }
@@ -129,10 +174,12 @@ public class JwtServiceImpl implements JwtService {
     @Override
     public String createJwt(Map<String, Object> claims) {
         JwtUtil.assertClaims(claims, this.mandatoryClaims);
+        JwtKeyInfo signingKey = this.keyRing.getSigningKey();
         return Jwts.builder()
                 .setHeaderParam(TYPE, JWT_TYPE)
+                .setHeaderParam(KEY_ID, signingKey.getKeyId())
                 .setClaims(claims)
-                .signWith(this.keyInfo.getPrivateKey(), this.keyInfo.getSignatureAlgorithm())
+                .signWith(signingKey.getPrivateKey(), signingKey.getSignatureAlgorithm())
                 .serializeToJsonWith(this.serializer)
                 .compact();
     }
@@ -145,11 +192,13 @@ public class JwtServiceImpl implements JwtService {
         JwtClaims claims = null;
         try {
             Assert.hasText(jwt, "JWT can't be blank!!");
-            claims = Jwts.parserBuilder()
-                    .setSigningKey(this.keyInfo.getPublicKey())
-                    .deserializeJsonWith(this.deserializer)
-                    .build()
-                    .parse(jwt, this.claimsConsumer);
+            if (this.verificationCache != null && (claims = this.verificationCache.get(jwt)) != null) {
+                return claims;
+            }
+            claims = this.jwtParser.parse(jwt, this.claimsConsumer);
+            if (this.verificationCache != null) {
+                this.verificationCache.put(jwt, claims);
+            }
         } catch (ExpiredJwtException ex) {
             if (this.logJwtVerificationExceptionTrace) {
                 LOGGER.error(ex.getMessage(), ex);
@@ -163,4 +212,52 @@ public class JwtServiceImpl implements JwtService {
         }
         return claims;
     }
+
+    private static JwtVerificationCache newVerificationCache(@NotNull JwtConfig config, CacheService cacheService) {
+        if (!config.verificationCacheEnabled()) {
+            return null;
+        }
+        Cache<String, JwtVerificationCache.CachedClaims> cache = null;
+        String cacheName = config.verificationCacheName();
+        if (StringUtils.isNotBlank(cacheName) && cacheService != null) {
+            cache = cacheService.getCache(cacheName.trim());
+        }
+        if (cache == null) {
+            LOGGER.info("Using built-in JWT verification cache with max size: [{}]", config.verificationCacheMaxSize());
+        } else {
+            LOGGER.info("Using JWT verification cache: [{}]", cache.getName());
+        }
+        return new JwtVerificationCache(cache, config.verificationCacheMaxSize());
+    }
+
+    private static JwksFileWatcher newJwksFileWatcher(@NotNull JwtConfig config, JwtKeyRing keyRing) {
+        String jwksFile = StringUtils.trimToNull(config.jwksFile());
+        if (jwksFile == null) {
+            return null;
+        }
+        try {
+            JwksFileWatcher watcher = new JwksFileWatcher(Paths.get(jwksFile), keyRing);
+            watcher.reload();
+            watcher.start();
+            return watcher;
+        } catch (IOException ex) {
+            throw new JwtKeyInitializationException(ex.getMessage(), ex);
+        }
+    }
+
+    // <<------------------------------------------- OSGi INTERNAL ------------------------------------------->>
+
+    /**
+     * Stops watching the JWKS file and clears the verification cache as the cached claims were verified with
+     * the keys of this activation.
+     */
+    @Deactivate
+    protected void stop() {
+        if (this.jwksFileWatcher != null) {
+            this.jwksFileWatcher.stop();
+        }
+        if (this.verificationCache != null) {
+            this.verificationCache.clear();
+        }
+    }
 }
@@ -0,0 +1,235 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.security.jwt.internal;
+
+import com.adeptj.modules.commons.cache.Cache;
+import com.adeptj.modules.commons.utils.RandomUtil;
+import com.adeptj.modules.security.jwt.JwtClaims;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.Serializable;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static io.jsonwebtoken.Claims.EXPIRATION;
+import static java.nio.charset.StandardCharsets.US_ASCII;
+
+/**
+ * Cache of the verified {@link JwtClaims} keyed by the SHA-256 digest of the JWT, so that a JWT which is presented
+ * again and again skips the signature verification.
+ * <p>
+ * An entry never outlives the exp claim of its JWT, a JWT without exp claim is not cached at all.
+ * The entries are either kept in the given {@link Cache} or, when none is given, in a built-in access ordered map
+ * which evicts the least recently used entry once it holds maxSize entries.
+ * The given cache may be shared with other components, therefore the keys written to it carry a random per
+ * instance prefix and {@link #clear()} removes only those keys.
+ * <p>
+ * Callers always get their own copy of the claims, so changing them never affects the cached ones.
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+final class JwtVerificationCache {
+
+    private static final String DIGEST_ALGO = "SHA-256";
+
+    private final Cache<String, CachedClaims> cache;
+
+    private final Map<String, CachedClaims> entries;
+
+    private final String keyPrefix;
+
+    JwtVerificationCache(@Nullable Cache<String, CachedClaims> cache, int maxSize) {
+        this.cache = cache;
+        this.entries = (cache == null) ? new LruMap(maxSize) : null;
+        this.keyPrefix = (cache == null) ? "" : (RandomUtil.uuidString() + ":");
+    }
+
+    @Nullable JwtClaims get(String jwt) {
+        String key = this.keyPrefix + digest(jwt);
+        CachedClaims cachedClaims;
+        if (this.cache == null) {
+            synchronized (this.entries) {
+                cachedClaims = this.entries.get(key);
+            }
+        } else {
+            cachedClaims = this.cache.getIfPresent(key);
+        }
+        if (cachedClaims == null) {
+            return null;
+        }
+        if (cachedClaims.isExpired()) {
+            this.remove(key);
+            return null;
+        }
+        return new JwtClaims(copyOf(cachedClaims.claims));
+    }
+
+    void put(String jwt, @NotNull JwtClaims claims) {
+        long expiresAt = getExpirationTime(claims.getClaim(EXPIRATION));
+        if (claims.isExpired() || expiresAt <= System.currentTimeMillis()) {
+            return;
+        }
+        String key = this.keyPrefix + digest(jwt);
+        CachedClaims cachedClaims = new CachedClaims(copyOf(claims.asMap()), expiresAt);
+        if (this.cache != null) {
+            this.cache.put(key, cachedClaims);
+            return;
+        }
+        synchronized (this.entries) {
+            this.entries.put(key, cachedClaims);
+        }
+    }
+
+    /**
+     * Clears all the entries of this instance, must be called when the verification key changes.
+     */
+    void clear() {
+        if (this.cache == null) {
+            synchronized (this.entries) {
+                this.entries.clear();
+            }
+            return;
+        }
+        List<String> keys = this.cache.keys()
+                .stream()
+                .filter(key -> key.startsWith(this.keyPrefix))
+                .collect(Collectors.toList());
+        this.cache.remove(keys);
+    }
+
+    private void remove(String key) {
+        if (this.cache == null) {
+            synchronized (this.entries) {
+                this.entries.remove(key);
+            }
+        } else {
+            this.cache.remove(key);
+        }
+    }
+
+    private static String digest(@NotNull String jwt) {
+        try {
+            byte[] digest = MessageDigest.getInstance(DIGEST_ALGO).digest(jwt.getBytes(US_ASCII));
+            return Base64.getEncoder().withoutPadding().encodeToString(digest);
+        } catch (NoSuchAlgorithmException ex) {
+            // SHA-256 is mandatory for every Java platform.
+            throw new IllegalStateException(ex);
+        }
+    }
+
+    /**
+     * Deep copy of the claims, the nested maps and collections are copied as well as they are mutable too.
+     */
+    private static LinkedHashMap<String, Object> copyOf(@NotNull Map<?, ?> claims) {
+        LinkedHashMap<String, Object> copy = new LinkedHashMap<>();
+        claims.forEach((name, value) -> copy.put(String.valueOf(name), copyOf(value)));
+        return copy;
+    }
+
+    private static Object copyOf(Object value) {
+        if (value instanceof Map) {
+            return copyOf((Map<?, ?>) value);
+        }
+        if (value instanceof Collection) {
+            List<Object> copy = new ArrayList<>();
+            for (Object element : (Collection<?>) value) {
+                copy.add(copyOf(element));
+            }
+            return copy;
+        }
+        if (value instanceof Date) {
+            return new Date(((Date) value).getTime());
+        }
+        return value;
+    }
+
+    /**
+     * The exp claim is either a {@link Date} or a {@link Number} of seconds since epoch depending on the
+     * deserializer, returns 0 if the exp claim is absent.
+     */
+    private static long getExpirationTime(Object exp) {
+        if (exp instanceof Date) {
+            return ((Date) exp).getTime();
+        }
+        if (exp instanceof Number) {
+            return ((Number) exp).longValue() * 1000L;
+        }
+        return 0L;
+    }
+
+    /**
+     * Access ordered map dropping the least recently used entry when a put goes past maxSize, the callers
+     * synchronize on it.
+     *
+     * @author Rakesh.Kumar, AdeptJ
+     */
+    private static final class LruMap extends LinkedHashMap<String, CachedClaims> {
+
+        private static final long serialVersionUID = 6528364815216384235L;
+
+        private final int maxSize;
+
+        LruMap(int maxSize) {
+            super(16, 0.75f, true);
+            this.maxSize = maxSize;
+        }
+
+        @Override
+        protected boolean removeEldestEntry(Map.Entry<String, CachedClaims> eldest) {
+            return this.size() > this.maxSize;
+        }
+    }
+
+    /**
+     * A copy of the verified claims along with the exp claim in millis.
+     * <p>
+     * Serializable so that it can be kept in a cache having the off-heap tier, the claim values are the JSON
+     * types produced by the deserializers which are all serializable.
+     *
+     * @author Rakesh.Kumar, AdeptJ
+     */
+    static final class CachedClaims implements Serializable {
+
+        private static final long serialVersionUID = -3270429946468530561L;
+
+        private final LinkedHashMap<String, Object> claims;
+
+        private final long expiresAt;
+
+        CachedClaims(LinkedHashMap<String, Object> claims, long expiresAt) {
+            this.claims = claims;
+            this.expiresAt = expiresAt;
+        }
+
+        boolean isExpired() {
+            return this.expiresAt <= System.currentTimeMillis();
+        }
+    }
+}
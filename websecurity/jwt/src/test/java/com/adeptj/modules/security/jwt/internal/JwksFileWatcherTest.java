@@ -0,0 +1,76 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.security.jwt.internal;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * JwksFileWatcherTest
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class JwksFileWatcherTest {
+
+    @Test
+    public void testKeysRotatedOnJwksFileChange() throws Exception {
+        Path jwksFile = Files.createTempDirectory("jwks").resolve("jwks.json");
+        writeJwks(jwksFile, "k1");
+        JwtKeyRing keyRing = new JwtKeyRing(JwtKeyRingTest.newKey(null, true), Duration.ofMinutes(1));
+        JwksFileWatcher watcher = new JwksFileWatcher(jwksFile, keyRing);
+        try {
+            watcher.reload();
+            watcher.start();
+            assertEquals("k1", keyRing.getSigningKey().getKeyId());
+            writeJwks(jwksFile, "k2");
+            // The watch service may poll the file system, give it a generous deadline.
+            long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(30);
+            while (!"k2".equals(keyRing.getSigningKey().getKeyId()) && System.nanoTime() < deadline) {
+                Thread.sleep(50);
+            }
+            assertEquals("k2", keyRing.getSigningKey().getKeyId());
+            // A broken JWKS file is ignored, the key ring keeps the previous keys.
+            Files.write(jwksFile, "{".getBytes(UTF_8));
+            watcher.reload();
+            assertEquals("k2", keyRing.getSigningKey().getKeyId());
+        } finally {
+            watcher.stop();
+        }
+    }
+
+    private static void writeJwks(Path jwksFile, String kid) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair keyPair = generator.generateKeyPair();
+        String jwks = "{\"keys\":[" + JwksLoaderTest.ecJwk(kid, keyPair) + "]}";
+        Files.write(jwksFile, jwks.getBytes(UTF_8));
+    }
+}
@@ -0,0 +1,133 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.security.jwt.internal;
+
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigInteger;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.ECPrivateKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.interfaces.RSAPrivateCrtKey;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.ECGenParameterSpec;
+import java.util.Arrays;
+import java.util.Base64;
+import java.util.List;
+
+import static java.nio.charset.StandardCharsets.UTF_8;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * JwksLoaderTest
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class JwksLoaderTest {
+
+    @Test
+    public void testLoadRsaAndEcKeys() throws Exception {
+        KeyPairGenerator rsaGenerator = KeyPairGenerator.getInstance("RSA");
+        rsaGenerator.initialize(2048);
+        KeyPair rsaKeyPair = rsaGenerator.generateKeyPair();
+        RSAPublicKey rsaPublicKey = (RSAPublicKey) rsaKeyPair.getPublic();
+        RSAPrivateCrtKey rsaPrivateKey = (RSAPrivateCrtKey) rsaKeyPair.getPrivate();
+        KeyPairGenerator ecGenerator = KeyPairGenerator.getInstance("EC");
+        ecGenerator.initialize(new ECGenParameterSpec("secp384r1"));
+        KeyPair ecKeyPair = ecGenerator.generateKeyPair();
+        ECPublicKey ecPublicKey = (ECPublicKey) ecKeyPair.getPublic();
+        String jwks = "{\"keys\":["
+                + "{\"kty\":\"RSA\",\"kid\":\"rsa-1\",\"alg\":\"RS512\""
+                + ",\"n\":\"" + encode(rsaPublicKey.getModulus()) + "\""
+                + ",\"e\":\"" + encode(rsaPublicKey.getPublicExponent()) + "\""
+                + ",\"d\":\"" + encode(rsaPrivateKey.getPrivateExponent()) + "\""
+                + ",\"p\":\"" + encode(rsaPrivateKey.getPrimeP()) + "\""
+                + ",\"q\":\"" + encode(rsaPrivateKey.getPrimeQ()) + "\""
+                + ",\"dp\":\"" + encode(rsaPrivateKey.getPrimeExponentP()) + "\""
+                + ",\"dq\":\"" + encode(rsaPrivateKey.getPrimeExponentQ()) + "\""
+                + ",\"qi\":\"" + encode(rsaPrivateKey.getCrtCoefficient()) + "\"},"
+                + "{\"kty\":\"EC\",\"kid\":\"ec-1\",\"crv\":\"P-384\""
+                + ",\"x\":\"" + encode(ecPublicKey.getW().getAffineX()) + "\""
+                + ",\"y\":\"" + encode(ecPublicKey.getW().getAffineY()) + "\""
+                + ",\"d\":\"" + encode(((ECPrivateKey) ecKeyPair.getPrivate()).getS()) + "\"},"
+                + "{\"kty\":\"RSA\",\"kid\":\"rsa-2\""
+                + ",\"n\":\"" + encode(rsaPublicKey.getModulus()) + "\""
+                + ",\"e\":\"" + encode(rsaPublicKey.getPublicExponent()) + "\"}"
+                + "]}";
+        List<JwtKeyInfo> keys = JwksLoader.load(writeJwks(jwks));
+        assertEquals(3, keys.size());
+        JwtKeyInfo rsaKey = keys.get(0);
+        assertEquals("rsa-1", rsaKey.getKeyId());
+        assertEquals(SignatureAlgorithm.RS512, rsaKey.getSignatureAlgorithm());
+        assertEquals(rsaPublicKey, rsaKey.getPublicKey());
+        assertTrue(rsaKey.getPrivateKey() instanceof RSAPrivateCrtKey);
+        JwtKeyInfo ecKey = keys.get(1);
+        assertEquals(SignatureAlgorithm.ES384, ecKey.getSignatureAlgorithm());
+        assertEquals(ecPublicKey.getW(), ((ECPublicKey) ecKey.getPublicKey()).getW());
+        assertTrue(ecKey.canSign());
+        JwtKeyInfo verificationOnlyKey = keys.get(2);
+        assertEquals(SignatureAlgorithm.RS256, verificationOnlyKey.getSignatureAlgorithm());
+        assertFalse(verificationOnlyKey.canSign());
+    }
+
+    @Test
+    public void testInvalidJwksRejected() throws Exception {
+        assertThrows(JwtKeyInitializationException.class, () -> JwksLoader.load(writeJwks("{\"keys\":{}}")));
+        assertThrows(JwtKeyInitializationException.class,
+                () -> JwksLoader.load(writeJwks("{\"keys\":[{\"kty\":\"RSA\",\"n\":\"AQAB\",\"e\":\"AQAB\"}]}")));
+        assertThrows(JwtKeyInitializationException.class,
+                () -> JwksLoader.load(writeJwks("{\"keys\":[{\"kty\":\"oct\",\"kid\":\"k1\"}]}")));
+        assertThrows(JwtKeyInitializationException.class,
+                () -> JwksLoader.load(writeJwks("{\"keys\":[{\"kty\":\"EC\",\"kid\":\"k1\",\"crv\":\"P-192\"}]}")));
+    }
+
+    /**
+     * JWK of a P-256 key having the private key too.
+     */
+    static String ecJwk(String kid, KeyPair keyPair) {
+        ECPublicKey publicKey = (ECPublicKey) keyPair.getPublic();
+        return "{\"kty\":\"EC\",\"kid\":\"" + kid + "\",\"crv\":\"P-256\""
+                + ",\"x\":\"" + encode(publicKey.getW().getAffineX()) + "\""
+                + ",\"y\":\"" + encode(publicKey.getW().getAffineY()) + "\""
+                + ",\"d\":\"" + encode(((ECPrivateKey) keyPair.getPrivate()).getS()) + "\"}";
+    }
+
+    private static Path writeJwks(String jwks) throws Exception {
+        Path jwksFile = Files.createTempFile("jwks", ".json");
+        jwksFile.toFile().deleteOnExit();
+        return Files.write(jwksFile, jwks.getBytes(UTF_8));
+    }
+
+    static String encode(BigInteger value) {
+        byte[] bytes = value.toByteArray();
+        // Unsigned big endian as per RFC 7518, i.e. without the sign byte.
+        int offset = (bytes[0] == 0 && bytes.length > 1) ? 1 : 0;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(
+                Arrays.copyOfRange(bytes, offset, bytes.length));
+    }
+}
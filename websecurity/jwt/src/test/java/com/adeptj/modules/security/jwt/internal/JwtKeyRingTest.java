@@ -0,0 +1,129 @@
+/*
+###############################################################################
+#                                                                             #
+#    Copyright 2016, AdeptJ (http://www.adeptj.com)                           #
+#                                                                             #
+#    Licensed under the Apache License, Version 2.0 (the "License");          #
+#    you may not use this file except in compliance with the License.         #
+#    You may obtain a copy of the License at                                  #
+#                                                                             #
+#        http://www.apache.org/licenses/LICENSE-2.0                           #
+#                                                                             #
+#    Unless required by applicable law or agreed to in writing, software      #
+#    distributed under the License is distributed on an "AS IS" BASIS,        #
+#    WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied. #
+#    See the License for the specific language governing permissions and      #
+#    limitations under the License.                                           #
+#                                                                             #
+###############################################################################
+*/
+
+package com.adeptj.modules.security.jwt.internal;
+
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.SignatureException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.lang.reflect.Proxy;
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.spec.ECGenParameterSpec;
+import java.time.Duration;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * JwtKeyRingTest
+ *
+ * @author Rakesh.Kumar, AdeptJ
+ */
+public class JwtKeyRingTest {
+
+    private JwtKeyInfo defaultKey;
+
+    @BeforeEach
+    public void init() throws Exception {
+        this.defaultKey = newKey(null, true);
+    }
+
+    @Test
+    public void testDefaultKey() throws Exception {
+        JwtKeyRing keyRing = new JwtKeyRing(this.defaultKey, Duration.ofMinutes(1));
+        assertSame(this.defaultKey, keyRing.getSigningKey());
+        assertSame(this.defaultKey.getPublicKey(), keyRing.resolveSigningKey(header(null), ""));
+        assertThrows(SignatureException.class, () -> keyRing.resolveSigningKey(header("unknown"), ""));
+    }
+
+    @Test
+    public void testJwksKeysSwappedIn() throws Exception {
+        JwtKeyRing keyRing = new JwtKeyRing(this.defaultKey, Duration.ofMinutes(1));
+        JwtKeyInfo verificationOnly = newKey("k1", false);
+        JwtKeyInfo signing = newKey("k2", true);
+        keyRing.update(List.of(verificationOnly, signing));
+        // The first key having the private key signs.
+        assertSame(signing, keyRing.getSigningKey());
+        assertSame(verificationOnly.getPublicKey(), keyRing.resolveSigningKey(header("k1"), ""));
+        assertSame(signing.getPublicKey(), keyRing.resolveSigningKey(header("k2"), ""));
+        // No signing key in JWKS, the default key signs again.
+        keyRing.update(List.of(verificationOnly));
+        assertSame(this.defaultKey, keyRing.getSigningKey());
+    }
+
+    @Test
+    public void testRemovedKeyRetiredTillRetentionEnds() throws Exception {
+        JwtKeyRing keyRing = new JwtKeyRing(this.defaultKey, Duration.ofMillis(200));
+        JwtKeyInfo oldKey = newKey("k1", true);
+        JwtKeyInfo newKey = newKey("k2", true);
+        keyRing.update(List.of(oldKey));
+        keyRing.update(List.of(newKey));
+        assertSame(newKey, keyRing.getSigningKey());
+        // JWTs signed by the rotated out key are still verified till they can be valid.
+        assertSame(oldKey.getPublicKey(), keyRing.resolveSigningKey(header("k1"), ""));
+        Thread.sleep(300);
+        assertThrows(SignatureException.class, () -> keyRing.resolveSigningKey(header("k1"), ""));
+        assertSame(newKey.getPublicKey(), keyRing.resolveSigningKey(header("k2"), ""));
+    }
+
+    @Test
+    public void testRetiredKeyComingBack() throws Exception {
+        JwtKeyRing keyRing = new JwtKeyRing(this.defaultKey, Duration.ofMillis(200));
+        JwtKeyInfo key1 = newKey("k1", false);
+        keyRing.update(List.of(key1));
+        keyRing.update(List.of());
+        JwtKeyInfo key1Again = newKey("k1", false);
+        keyRing.update(List.of(key1Again));
+        Thread.sleep(300);
+        // Not retired anymore, so it stays after the retention of the earlier retirement.
+        assertSame(key1Again.getPublicKey(), keyRing.resolveSigningKey(header("k1"), ""));
+    }
+
+    @Test
+    public void testDefaultKeyWithKidNeverRetired() throws Exception {
+        JwtKeyInfo defaultKeyWithKid = newKey("default", true);
+        JwtKeyRing keyRing = new JwtKeyRing(defaultKeyWithKid, Duration.ofMillis(1));
+        keyRing.update(List.of(newKey("k1", true)));
+        Thread.sleep(10);
+        keyRing.update(List.of());
+        assertSame(defaultKeyWithKid.getPublicKey(), keyRing.resolveSigningKey(header("default"), ""));
+        assertEquals("default", keyRing.getSigningKey().getKeyId());
+    }
+
+    static JwtKeyInfo newKey(String kid, boolean canSign) throws Exception {
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("EC");
+        generator.initialize(new ECGenParameterSpec("secp256r1"));
+        KeyPair keyPair = generator.generateKeyPair();
+        return new JwtKeyInfo(kid, SignatureAlgorithm.ES256, canSign ? keyPair.getPrivate() : null,
+                keyPair.getPublic());
+    }
+
+    private static JwsHeader<?> header(String kid) {
+        return (JwsHeader<?>) Proxy.newProxyInstance(JwsHeader.class.getClassLoader(),
+                new Class<?>[]{JwsHeader.class},
+                (proxy, method, args) -> "getKeyId".equals(method.getName()) ? kid : null);
+    }
+}